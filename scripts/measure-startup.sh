@@ -0,0 +1,47 @@
+#!/usr/bin/env bash
+# Measures startup-to-first-request time and resident memory of the packaged application.
+#
+# Usage: scripts/measure-startup.sh <plain|aot-cds> [extra JVM options...]
+#   plain    runs target/<jar> as a regular fat jar (mvn package)
+#   aot-cds  runs the extracted jar in target/cds with the AOT code and CDS archive (mvn -Paot-cds package)
+#
+# Datasource settings can be passed as extra JVM options, e.g. -Dspring.datasource.url=...
+# FIRST_REQUEST_URL overrides the endpoint that is polled until it answers 200.
+set -euo pipefail
+
+MODE=${1:?usage: $0 <plain|aot-cds> [extra JVM options...]}
+shift
+URL=${FIRST_REQUEST_URL:-http://localhost:8080/customer-management/api/customers?size=1}
+TARGET=$(cd "$(dirname "$0")/../target" && pwd)
+JAR=customer-management-0.0.1-SNAPSHOT.jar
+
+case "$MODE" in
+  plain)
+    cd "$TARGET"
+    JVM_OPTS=()
+    ;;
+  aot-cds)
+    cd "$TARGET/cds"
+    JVM_OPTS=(-XX:SharedArchiveFile=application.jsa -Dspring.aot.enabled=true)
+    ;;
+  *)
+    echo "unknown mode: $MODE" >&2
+    exit 1
+    ;;
+esac
+
+START=$(date +%s%N)
+java "${JVM_OPTS[@]}" "$@" -jar "$JAR" > "startup-$MODE.log" 2>&1 &
+PID=$!
+trap 'kill $PID 2>/dev/null || true' EXIT
+
+until curl -sf -o /dev/null "$URL"; do
+  if ! kill -0 $PID 2>/dev/null; then
+    echo "application exited before answering, see $(pwd)/startup-$MODE.log" >&2
+    exit 1
+  fi
+  sleep 0.05
+done
+END=$(date +%s%N)
+
+echo "mode=$MODE first_request_ms=$(( (END - START) / 1000000 )) rss_kb=$(awk '/VmRSS/ {print $2}' /proc/$PID/status)"
@@ -2,8 +2,10 @@ package com.customer.customermanagement;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration;
 
-@SpringBootApplication
+// The reactive reads build their own R2DBC pools per shard, see ReactiveApiConfig
+@SpringBootApplication(exclude = R2dbcAutoConfiguration.class)
 public class CustomerManagementApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,85 @@
+package com.customer.customermanagement.config;
+
+import com.customer.customermanagement.service.impl.JdbcCacheInvalidationTransport;
+import org.springframework.aot.AotDetector;
+import org.springframework.beans.factory.ListableBeanFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Run from the AOT processed jar of the aot-cds profile, the conditions on the properties below were evaluated
+ * when the jar was built and changing them no longer switches beans on or off. Startup fails when the properties
+ * of this run would choose other beans than the build did, instead of silently running with the build's choice.
+ * AotConditionsVerifierTest fails for a property condition in the application that has no check here.
+ */
+@Component
+public class AotConditionsVerifier implements SmartInitializingSingleton {
+
+    private final Environment environment;
+    private final ListableBeanFactory beanFactory;
+
+    public AotConditionsVerifier(Environment environment, ListableBeanFactory beanFactory) {
+        this.environment = environment;
+        this.beanFactory = beanFactory;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (!AotDetector.useGeneratedArtifacts()) {
+            return;
+        }
+        List<String> mismatches = mismatches(environment, beanFactory);
+        if (!mismatches.isEmpty()) {
+            throw new IllegalStateException("Properties that were fixed when the AOT jar was built are set differently: "
+                    + String.join(", ", mismatches) + ". Rebuild it with mvn -Paot-cds package -Daot.profiles=<the "
+                    + "profiles holding these properties>");
+        }
+    }
+
+    /**
+     * Returns the properties whose conditions the environment decides differently from the beans the factory holds
+     */
+    public static List<String> mismatches(Environment environment, ListableBeanFactory beanFactory) {
+        List<String> mismatches = new ArrayList<>();
+        boolean sharded = !environment.getProperty("customer.sharding.shard-urls", "").isBlank();
+        boolean profiled = environment.getProperty("customer.sql-profiler.enabled", "false").equalsIgnoreCase("true");
+        check(mismatches, "customer.sharding.shard-urls", sharded, hasBean(beanFactory, ShardingConfig.class));
+        check(mismatches, "customer.datasource.replica-urls",
+                !sharded && isSet(environment, "customer.datasource.replica-urls"),
+                hasBean(beanFactory, DataSourceRoutingConfig.class));
+        check(mismatches, "customer.datasource.read-your-writes-millis",
+                !sharded && isSet(environment, "customer.datasource.replica-urls")
+                        && isSet(environment, "customer.datasource.read-your-writes-millis"),
+                beanFactory.containsBeanDefinition("readYourWritesFilter"));
+        check(mismatches, "customer.reactive.enabled",
+                environment.getProperty("customer.reactive.enabled", "false").equalsIgnoreCase("true"),
+                hasBean(beanFactory, ReactiveApiConfig.class));
+        check(mismatches, "customer.cache.transport",
+                environment.getProperty("customer.cache.transport", "none").equalsIgnoreCase("jdbc"),
+                hasBean(beanFactory, JdbcCacheInvalidationTransport.class));
+        check(mismatches, "customer.sql-profiler.enabled", profiled, hasBean(beanFactory, SqlProfilerConfig.class));
+        check(mismatches, "customer.sql-profiler.request-budget",
+                profiled && isSet(environment, "customer.sql-profiler.request-budget"),
+                beanFactory.containsBeanDefinition("queryBudgetFilter"));
+        return mismatches;
+    }
+
+    private static void check(List<String> mismatches, String property, boolean expected, boolean present) {
+        if (expected != present) {
+            mismatches.add(property + (present ? " (built with it, now without)" : " (built without it, now with)"));
+        }
+    }
+
+    // Same test as @ConditionalOnProperty without havingValue
+    private static boolean isSet(Environment environment, String property) {
+        return environment.containsProperty(property) && !"false".equalsIgnoreCase(environment.getProperty(property));
+    }
+
+    private static boolean hasBean(ListableBeanFactory beanFactory, Class<?> type) {
+        return beanFactory.getBeanNamesForType(type, true, false).length > 0;
+    }
+}
@@ -1,22 +1,48 @@
 package com.customer.customermanagement.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 import java.util.concurrent.Executor;
 
+/**
+ * One bounded pool per kind of work, so that a long import never holds up the shard fan-out of a request and
+ * a task waiting on tasks of another pool cannot deadlock its own. Every pool starts threads up to its size
+ * before it queues, and rejects work once the queue is full too.
+ */
 @Configuration
+@EnableAsync
 public class AsyncConfig {
 
+    // @Async bulk uploads, duplicate scans and NIC filter rebuilds
     @Bean(name = "taskExecutor")
     public Executor taskExecutor() {
+        return executor("BulkProcess-", 10, 100);
+    }
+
+    // ShardRouter.onEveryShard, whose callers wait for the result
+    @Bean(name = "shardExecutor")
+    public Executor shardExecutor(@Value("${customer.sharding.fan-out-threads:16}") int threads) {
+        return executor("shard-", threads, threads * 4);
+    }
+
+    // Part workers of exports
+    @Bean(name = "exportExecutor")
+    public Executor exportExecutor(@Value("${customer.export.threads:8}") int threads) {
+        return executor("export-", threads, threads * 2);
+    }
+
+    private static ThreadPoolTaskExecutor executor(String threadNamePrefix, int threads, int queueCapacity) {
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
-        executor.setCorePoolSize(4);
-        executor.setMaxPoolSize(10);
-        executor.setQueueCapacity(100);
-        executor.setThreadNamePrefix("BulkProcess-");
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setAllowCoreThreadTimeOut(true);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix(threadNamePrefix);
         executor.initialize();
         return executor;
     }
-}
\ No newline at end of file
+}
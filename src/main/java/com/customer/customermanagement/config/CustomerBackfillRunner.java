@@ -0,0 +1,113 @@
+package com.customer.customermanagement.config;
+
+import com.customer.customermanagement.dto.CachedEntity;
+import com.customer.customermanagement.repository.CustomerRepository;
+import com.customer.customermanagement.service.CacheInvalidationBus;
+import com.customer.customermanagement.service.CustomerSummaryService;
+import com.customer.customermanagement.util.MobileNumberNormalizer;
+import com.customer.customermanagement.util.UtcClock;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * One-off data migrations for databases written by older versions, run on every shard when the application is
+ * started with --backfill-customers and harmless to run again. Customers created before the timestamp columns
+ * existed get both set to the time of the backfill, which brings them into the changes feed once. Mobile numbers
+ * stored before they were normalized on write are rewritten into the form of MobileNumberNormalizer, so the
+ * backfill and the write path cannot disagree. Numbers it rejects keep their value, and numbers of one customer
+ * that become equal collapse into one.
+ * Changed customers get a new version and enter the changes feed, their summary rows are refreshed and cached
+ * copies are invalidated on every instance.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CustomerBackfillRunner implements ApplicationRunner {
+
+    static final String BACKFILL_OPTION = "backfill-customers";
+
+    private static final String BACKFILL_TIMESTAMPS =
+            "UPDATE customers SET created_at = ?, updated_at = ? WHERE updated_at IS NULL";
+    private static final String SELECT_MOBILE_NUMBERS = "SELECT customer_id, mobile_number FROM customer_mobile_numbers";
+    private static final String DELETE_MOBILE_NUMBER =
+            "DELETE FROM customer_mobile_numbers WHERE customer_id = ? AND mobile_number = ?";
+    private static final String INSERT_MOBILE_NUMBER =
+            "INSERT INTO customer_mobile_numbers (customer_id, mobile_number) SELECT ?, ? FROM DUAL WHERE NOT EXISTS "
+                    + "(SELECT 1 FROM customer_mobile_numbers WHERE customer_id = ? AND mobile_number = ?)";
+    private static final int CHUNK_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final CustomerRepository customerRepository;
+    private final CustomerSummaryService customerSummaryService;
+    private final CacheInvalidationBus cacheInvalidationBus;
+    private final PlatformTransactionManager transactionManager;
+    private final ShardRouter shardRouter;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!args.containsOption(BACKFILL_OPTION)) {
+            return;
+        }
+        shardRouter.forEachShard(shard -> {
+            int timestamped = backfillTimestamps();
+            log.info("Set the timestamps of {} customers on shard {}", timestamped, shard);
+            int customers = backfillMobileNumbers();
+            log.info("Normalized the mobile numbers of {} customers on shard {}", customers, shard);
+        });
+    }
+
+    private int backfillTimestamps() {
+        LocalDateTime now = UtcClock.now();
+        int updated = jdbcTemplate.update(BACKFILL_TIMESTAMPS, now, now);
+        if (updated > 0) {
+            cacheInvalidationBus.publish(CachedEntity.CUSTOMER, null);
+        }
+        return updated;
+    }
+
+    // Returns the number of customers whose numbers changed
+    private int backfillMobileNumbers() {
+        // Stored number to its canonical form, by customer, for the numbers that are not canonical yet
+        Map<Long, Map<String, String>> changes = new TreeMap<>();
+        jdbcTemplate.query(SELECT_MOBILE_NUMBERS, (RowCallbackHandler) rs -> {
+            String mobileNumber = rs.getString(2);
+            String normalized = MobileNumberNormalizer.normalize(mobileNumber);
+            if (normalized != null && !normalized.equals(mobileNumber)) {
+                changes.computeIfAbsent(rs.getLong(1), id -> new HashMap<>()).put(mobileNumber, normalized);
+            }
+        });
+
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        List<Long> customerIds = new ArrayList<>(changes.keySet());
+        for (int from = 0; from < customerIds.size(); from += CHUNK_SIZE) {
+            List<Long> chunk = customerIds.subList(from, Math.min(from + CHUNK_SIZE, customerIds.size()));
+            transactionTemplate.executeWithoutResult(status -> {
+                for (Long customerId : chunk) {
+                    changes.get(customerId).forEach((mobileNumber, normalized) -> {
+                        jdbcTemplate.update(DELETE_MOBILE_NUMBER, customerId, mobileNumber);
+                        jdbcTemplate.update(INSERT_MOBILE_NUMBER, customerId, normalized, customerId, normalized);
+                    });
+                }
+                LocalDateTime updatedAt = UtcClock.now();
+                customerRepository.incrementVersions(chunk, updatedAt);
+                customerSummaryService.refreshByIds(chunk);
+                chunk.forEach(customerId -> cacheInvalidationBus.publish(CachedEntity.CUSTOMER, customerId));
+            });
+        }
+        return customerIds.size();
+    }
+}
@@ -0,0 +1,44 @@
+package com.customer.customermanagement.config;
+
+import com.customer.customermanagement.repository.CustomerRepository;
+import com.customer.customermanagement.repository.CustomerSummaryRepository;
+import com.customer.customermanagement.service.CustomerSummaryService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+/**
+ * Rebuilds the customer_summary read table of every shard whose row count differs from customers, such as
+ * a database that held customers before the table existed, or of every shard when the application is started
+ * with --rebuild-customer-summary. Runners finish before the application reports itself ready for traffic,
+ * so listing, search and statistics never serve a summary table that is still being filled.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CustomerSummaryRebuildRunner implements ApplicationRunner {
+
+    static final String REBUILD_OPTION = "rebuild-customer-summary";
+
+    private final CustomerSummaryService customerSummaryService;
+    private final CustomerRepository customerRepository;
+    private final CustomerSummaryRepository customerSummaryRepository;
+    private final ShardRouter shardRouter;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        boolean forced = args.containsOption(REBUILD_OPTION);
+        shardRouter.forEachShard(shard -> {
+            long customers = customerRepository.count();
+            long summaries = customerSummaryRepository.count();
+            if (!forced && customers == summaries) {
+                return;
+            }
+            log.info("Rebuilding customer summary of shard {}: {} customers, {} summary rows", shard, customers, summaries);
+            long rebuilt = customerSummaryService.rebuild();
+            log.info("Customer summary rebuild of shard {} finished with {} rows", shard, rebuilt);
+        });
+    }
+}
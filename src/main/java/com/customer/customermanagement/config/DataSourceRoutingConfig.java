@@ -0,0 +1,88 @@
+package com.customer.customermanagement.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Read/write splitting, active when customer.datasource.replica-urls is set: read-only transactions use a healthy
+ * replica, everything else the primary. The primary pool is configured by spring.datasource.*, every replica gets
+ * its own pool with the primary's credentials unless replica-username and replica-password are given. With
+ * read-your-writes-millis above 0 a client's reads stay on the primary for that long after it wrote. Without
+ * replicas the auto-configured single datasource is used as before. Sharding takes precedence, see ShardingConfig.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "customer.datasource.replica-urls")
+@ConditionalOnExpression("'${customer.sharding.shard-urls:}'.isBlank()")
+public class DataSourceRoutingConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(
+            HikariDataSource primaryDataSource,
+            DataSourceProperties properties,
+            @Value("${customer.datasource.replica-urls}") List<String> replicaUrls,
+            @Value("${customer.datasource.replica-username:${spring.datasource.username:}}") String username,
+            @Value("${customer.datasource.replica-password:${spring.datasource.password:}}") String password,
+            @Value("${customer.datasource.replica-pool-size:10}") int poolSize,
+            @Value("${customer.datasource.replica-connection-timeout-millis:2000}") long connectionTimeoutMillis,
+            @Value("${customer.datasource.health-check-millis:5000}") long healthCheckMillis) {
+        List<HikariDataSource> replicas = new ArrayList<>();
+        for (String url : replicaUrls) {
+            if (url.isBlank()) {
+                continue;
+            }
+            HikariDataSource replica = new HikariDataSource();
+            replica.setPoolName("replica-" + (replicas.size() + 1));
+            replica.setJdbcUrl(url.trim());
+            replica.setUsername(username);
+            replica.setPassword(password);
+            if (properties.getDriverClassName() != null) {
+                replica.setDriverClassName(properties.getDriverClassName());
+            }
+            replica.setMaximumPoolSize(poolSize);
+            replica.setReadOnly(true);
+            // A short wait so a dead replica falls back to the primary quickly; it may also be down at startup
+            replica.setConnectionTimeout(connectionTimeoutMillis);
+            replica.setInitializationFailTimeout(-1);
+            replicas.add(replica);
+        }
+        log.info("Routing read-only transactions to {} replicas", replicas.size());
+        return new ReplicaRoutingDataSource(primaryDataSource, replicas, healthCheckMillis);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "customer.datasource.read-your-writes-millis")
+    public FilterRegistrationBean<ReadYourWritesFilter> readYourWritesFilter(
+            @Value("${customer.datasource.read-your-writes-millis}") long windowMillis) {
+        FilterRegistrationBean<ReadYourWritesFilter> registration =
+                new FilterRegistrationBean<>(new ReadYourWritesFilter(windowMillis));
+        registration.setEnabled(windowMillis > 0);
+        return registration;
+    }
+}
@@ -0,0 +1,156 @@
+package com.customer.customermanagement.config;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Hands out connections whose statements report to a SqlProfiler: each execute is timed and counted
+ * against the current QueryBudget, update counts and rows read from result sets are added up.
+ * Everything else goes to the driver objects unchanged.
+ */
+public class ProfilingDataSource extends DelegatingDataSource {
+
+    private final SqlProfiler profiler;
+
+    public ProfilingDataSource(DataSource target, SqlProfiler profiler) {
+        super(target);
+        this.profiler = profiler;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return proxy(Connection.class, new ConnectionHandler(super.getConnection()));
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return proxy(Connection.class, new ConnectionHandler(super.getConnection(username, password)));
+    }
+
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return type.cast(Proxy.newProxyInstance(ProfilingDataSource.class.getClassLoader(), new Class<?>[]{type}, handler));
+    }
+
+    // Equality of a proxy is its identity, the target would not recognise the proxy as equal to itself
+    private static Object invoke(Object proxy, Object target, Method method, Object[] args) throws Throwable {
+        if (method.getName().equals("equals") && method.getParameterCount() == 1) {
+            return proxy == args[0];
+        }
+        if (method.getName().equals("hashCode") && method.getParameterCount() == 0) {
+            return System.identityHashCode(proxy);
+        }
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private final class ConnectionHandler implements InvocationHandler {
+
+        private final Connection connection;
+
+        ConnectionHandler(Connection connection) {
+            this.connection = connection;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = ProfilingDataSource.invoke(proxy, connection, method, args);
+            return switch (method.getName()) {
+                case "createStatement" -> proxy(Statement.class, new StatementHandler((Statement) result, null));
+                case "prepareStatement" ->
+                        proxy(PreparedStatement.class, new StatementHandler((Statement) result, (String) args[0]));
+                case "prepareCall" ->
+                        proxy(CallableStatement.class, new StatementHandler((Statement) result, (String) args[0]));
+                default -> result;
+            };
+        }
+    }
+
+    private final class StatementHandler implements InvocationHandler {
+
+        private final Statement statement;
+        private final String preparedSql;
+        private SqlProfiler.StatementStats lastStats;
+
+        StatementHandler(Statement statement, String preparedSql) {
+            this.statement = statement;
+            this.preparedSql = preparedSql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.equals("getResultSet")) {
+                Object resultSet = ProfilingDataSource.invoke(proxy, statement, method, args);
+                return resultSet != null && lastStats != null ? countRows((ResultSet) resultSet, lastStats) : resultSet;
+            }
+            if (!name.startsWith("execute")) {
+                return ProfilingDataSource.invoke(proxy, statement, method, args);
+            }
+
+            String sql = args != null && args.length > 0 && args[0] instanceof String text ? text : preparedSql;
+            SqlProfiler.StatementStats stats = profiler.beforeExecute(sql);
+            lastStats = stats;
+            long start = System.nanoTime();
+            Object result = null;
+            try {
+                result = ProfilingDataSource.invoke(proxy, statement, method, args);
+            } finally {
+                profiler.afterExecute(stats, System.nanoTime() - start, updatedRows(result));
+            }
+            return result instanceof ResultSet resultSet ? countRows(resultSet, stats) : result;
+        }
+
+        private long updatedRows(Object result) {
+            if (result instanceof Integer count) {
+                return Math.max(0, count);
+            }
+            if (result instanceof Long count) {
+                return Math.max(0, count);
+            }
+            long rows = 0;
+            if (result instanceof int[] counts) {
+                for (int count : counts) {
+                    rows += Math.max(0, count);
+                }
+            } else if (result instanceof long[] counts) {
+                for (long count : counts) {
+                    rows += Math.max(0, count);
+                }
+            }
+            return rows;
+        }
+    }
+
+    private static ResultSet countRows(ResultSet resultSet, SqlProfiler.StatementStats stats) {
+        return proxy(ResultSet.class, new InvocationHandler() {
+            private long rows;
+            private boolean reported;
+
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                Object result = ProfilingDataSource.invoke(proxy, resultSet, method, args);
+                if (method.getName().equals("next") && Boolean.TRUE.equals(result)) {
+                    rows++;
+                } else if (method.getName().equals("close") && !reported) {
+                    reported = true;
+                    stats.addRows(rows);
+                }
+                return result;
+            }
+        });
+    }
+}
@@ -0,0 +1,89 @@
+package com.customer.customermanagement.config;
+
+import com.customer.customermanagement.exception.QueryBudgetExceededException;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Upper bound on the statements one unit of work may run, typically a request. Statements are counted by
+ * ProfilingDataSource on the thread the budget is open on and on shard threads working for it. Going over
+ * is logged once, or fails the statement that went over when failWhenExceeded is set, which is how tests
+ * catch N+1 regressions:
+ * <pre>
+ * try (QueryBudget budget = QueryBudget.open("list customers", 5, true)) { ... }
+ * </pre>
+ */
+@Slf4j
+public final class QueryBudget implements AutoCloseable {
+
+    private static final ThreadLocal<QueryBudget> CURRENT = new ThreadLocal<>();
+
+    private final String label;
+    private final int limit;
+    private final boolean failWhenExceeded;
+    private final QueryBudget previous;
+    private final AtomicInteger queryCount = new AtomicInteger();
+    private final AtomicBoolean reported = new AtomicBoolean();
+
+    private QueryBudget(String label, int limit, boolean failWhenExceeded, QueryBudget previous) {
+        this.label = label;
+        this.limit = limit;
+        this.failWhenExceeded = failWhenExceeded;
+        this.previous = previous;
+    }
+
+    public static QueryBudget open(String label, int limit, boolean failWhenExceeded) {
+        QueryBudget budget = new QueryBudget(label, limit, failWhenExceeded, CURRENT.get());
+        CURRENT.set(budget);
+        return budget;
+    }
+
+    public static QueryBudget current() {
+        return CURRENT.get();
+    }
+
+    public int getQueryCount() {
+        return queryCount.get();
+    }
+
+    public boolean isExceeded() {
+        return queryCount.get() > limit;
+    }
+
+    @Override
+    public void close() {
+        if (CURRENT.get() == this) {
+            if (previous != null) {
+                CURRENT.set(previous);
+            } else {
+                CURRENT.remove();
+            }
+        }
+    }
+
+    // Makes a budget opened on another thread the current one while a shard task runs
+    static void attach(QueryBudget budget) {
+        if (budget != null) {
+            CURRENT.set(budget);
+        } else {
+            CURRENT.remove();
+        }
+    }
+
+    void recordQuery(String fingerprint) {
+        int count = queryCount.incrementAndGet();
+        if (count <= limit) {
+            return;
+        }
+        String message = label + " ran " + count + " statements, over its budget of " + limit
+                + "; the last one was: " + fingerprint;
+        if (failWhenExceeded) {
+            throw new QueryBudgetExceededException(message);
+        }
+        if (reported.compareAndSet(false, true)) {
+            log.warn(message);
+        }
+    }
+}
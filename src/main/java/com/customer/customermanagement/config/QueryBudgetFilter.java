@@ -0,0 +1,41 @@
+package com.customer.customermanagement.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Set;
+
+/**
+ * Opens a QueryBudget for every request except the exempt paths, bulk endpoints whose statement
+ * count grows with their input by design.
+ */
+public class QueryBudgetFilter extends OncePerRequestFilter {
+
+    private final int limit;
+    private final boolean failWhenExceeded;
+    private final Set<String> exemptPaths;
+
+    public QueryBudgetFilter(int limit, boolean failWhenExceeded, Set<String> exemptPaths) {
+        this.limit = limit;
+        this.failWhenExceeded = failWhenExceeded;
+        this.exemptPaths = exemptPaths;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return exemptPaths.contains(request.getRequestURI().substring(request.getContextPath().length()));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        try (QueryBudget ignored = QueryBudget.open(request.getMethod() + " " + request.getRequestURI(), limit,
+                failWhenExceeded)) {
+            chain.doFilter(request, response);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.customer.customermanagement.config;
+
+import com.customer.customermanagement.controller.ReactiveCustomerHandler;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.web.reactive.function.server.HandlerStrategies;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reactive read API, only with customer.reactive.enabled=true, on a Netty server of its own at customer.reactive.port
+ * next to Tomcat, under the same context path. It reads the databases of the JPA side through R2DBC pools, one per
+ * shard; the R2DBC urls are derived from the JDBC urls unless customer.reactive.r2dbc-urls lists them in shard order.
+ * Replicas are not used.
+ */
+@Configuration
+@ConditionalOnProperty(name = "customer.reactive.enabled", havingValue = "true")
+public class ReactiveApiConfig {
+
+    @Bean
+    public ReactiveShardClients reactiveShardClients(
+            DataSourceProperties properties,
+            @Value("${customer.sharding.shard-urls:}") List<String> shardUrls,
+            @Value("${customer.reactive.r2dbc-urls:}") List<String> r2dbcUrls,
+            @Value("${customer.reactive.pool-size:10}") int poolSize,
+            @Value("${customer.reactive.acquire-timeout-millis:2000}") long acquireTimeoutMillis) {
+        List<String> urls = r2dbcUrls.stream().filter(url -> !url.isBlank()).map(String::trim).toList();
+        if (urls.isEmpty()) {
+            List<String> derived = new ArrayList<>();
+            derived.add(ReactiveShardClients.toR2dbcUrl(properties.determineUrl()));
+            shardUrls.stream()
+                    .filter(url -> !url.isBlank())
+                    .forEach(url -> derived.add(ReactiveShardClients.toR2dbcUrl(url)));
+            urls = derived;
+        }
+        return new ReactiveShardClients(urls, properties.determineUsername(), properties.determinePassword(),
+                poolSize, Duration.ofMillis(acquireTimeoutMillis));
+    }
+
+    @Bean
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    public ReactiveServer reactiveServer(ReactiveCustomerHandler reactiveCustomerHandler,
+                                         ObjectMapper objectMapper,
+                                         @Value("${server.servlet.context-path:}") String contextPath,
+                                         @Value("${customer.reactive.port:8081}") int port) {
+        // Spring's ObjectMapper, so dates and the field selection filter serialize like the servlet API
+        HandlerStrategies strategies = HandlerStrategies.builder()
+                .codecs(codecs -> {
+                    codecs.defaultCodecs().jackson2JsonEncoder(new Jackson2JsonEncoder(objectMapper));
+                    codecs.defaultCodecs().jackson2JsonDecoder(new Jackson2JsonDecoder(objectMapper));
+                })
+                .build();
+        return new ReactiveServer(RouterFunctions.toHttpHandler(reactiveCustomerHandler.routes(), strategies),
+                contextPath, port);
+    }
+}
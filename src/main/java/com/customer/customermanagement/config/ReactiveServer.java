@@ -0,0 +1,65 @@
+package com.customer.customermanagement.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.http.server.reactive.ContextPathCompositeHandler;
+import org.springframework.http.server.reactive.HttpHandler;
+import org.springframework.http.server.reactive.ReactorHttpHandlerAdapter;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Netty server of the reactive API. Spring Boot runs one embedded web server per application, Tomcat here,
+ * so this one is started and stopped with the context instead. Port 0 picks a free port.
+ */
+@Slf4j
+public class ReactiveServer implements SmartLifecycle {
+
+    private static final Duration SHUTDOWN_TIMEOUT = Duration.ofSeconds(10);
+
+    private final HttpHandler httpHandler;
+    private final int port;
+    private volatile DisposableServer server;
+
+    public ReactiveServer(HttpHandler httpHandler, String contextPath, int port) {
+        this.httpHandler = contextPath == null || contextPath.isEmpty() || contextPath.equals("/")
+                ? httpHandler
+                : new ContextPathCompositeHandler(Map.of(contextPath, httpHandler));
+        this.port = port;
+    }
+
+    @Override
+    public void start() {
+        server = HttpServer.create()
+                .port(port)
+                .handle(new ReactorHttpHandlerAdapter(httpHandler))
+                .bindNow();
+        log.info("Reactive read API listening on port {}", server.port());
+    }
+
+    @Override
+    public void stop() {
+        DisposableServer running = server;
+        if (running != null) {
+            running.disposeNow(SHUTDOWN_TIMEOUT);
+            server = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return server != null;
+    }
+
+    /** The bound port, also when configured as 0 */
+    public int getPort() {
+        DisposableServer running = server;
+        if (running == null) {
+            throw new IllegalStateException("The reactive server is not running");
+        }
+        return running.port();
+    }
+}
@@ -0,0 +1,79 @@
+package com.customer.customermanagement.config;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One R2DBC connection pool per shard, in the shard order of ShardRouter, for the reactive reads.
+ * Pools open their connections on first use.
+ */
+public class ReactiveShardClients implements DisposableBean {
+
+    private final List<ConnectionPool> pools = new ArrayList<>();
+    private final List<DatabaseClient> clients = new ArrayList<>();
+
+    public ReactiveShardClients(List<String> r2dbcUrls, String username, String password,
+                                int poolSize, Duration acquireTimeout) {
+        for (String url : r2dbcUrls) {
+            ConnectionFactoryOptions.Builder options = ConnectionFactoryOptions.parse(url).mutate();
+            if (username != null) {
+                options.option(ConnectionFactoryOptions.USER, username);
+            }
+            if (password != null) {
+                options.option(ConnectionFactoryOptions.PASSWORD, password);
+            }
+            ConnectionPool pool = new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(options.build()))
+                    .name("reactive-shard-" + pools.size())
+                    .initialSize(0)
+                    .maxSize(poolSize)
+                    .maxAcquireTime(acquireTimeout)
+                    .build());
+            pools.add(pool);
+            clients.add(DatabaseClient.create(pool));
+        }
+    }
+
+    public DatabaseClient client(int shard) {
+        return clients.get(shard);
+    }
+
+    public int getShardCount() {
+        return clients.size();
+    }
+
+    @Override
+    public void destroy() {
+        pools.forEach(ConnectionPool::dispose);
+    }
+
+    /**
+     * The R2DBC url of a MariaDB, MySQL or H2 JDBC url. Driver parameters are dropped, the R2DBC drivers
+     * name theirs differently; H2 settings such as MODE are passed on as options.
+     */
+    public static String toR2dbcUrl(String jdbcUrl) {
+        String url = jdbcUrl.trim();
+        if (url.startsWith("jdbc:mariadb:") || url.startsWith("jdbc:mysql:")) {
+            String address = url.substring(url.indexOf(':', "jdbc:".length()) + 1);
+            int query = address.indexOf('?');
+            // The MariaDB driver speaks to MySQL servers too
+            return "r2dbc:mariadb:" + (query < 0 ? address : address.substring(0, query));
+        }
+        if (url.startsWith("jdbc:h2:mem:")) {
+            String database = url.substring("jdbc:h2:mem:".length());
+            int settings = database.indexOf(';');
+            return settings < 0
+                    ? "r2dbc:h2:mem:///" + database
+                    : "r2dbc:h2:mem:///" + database.substring(0, settings) + "?options=" + database.substring(settings + 1);
+        }
+        throw new IllegalArgumentException("No R2DBC url is known for " + jdbcUrl
+                + ", set customer.reactive.r2dbc-urls or customer.reactive.enabled=false");
+    }
+}
@@ -0,0 +1,47 @@
+package com.customer.customermanagement.config;
+
+/**
+ * Per thread routing state of the request being served. A request is pinned to the primary while
+ * its client is inside the read-your-writes window, and becomes pinned once it writes itself.
+ */
+public final class ReadRoutingContext {
+
+    private static final ThreadLocal<ReadRoutingContext> CURRENT = new ThreadLocal<>();
+
+    private final Runnable onFirstWrite;
+    private boolean primaryPinned;
+    private boolean written;
+
+    private ReadRoutingContext(boolean primaryPinned, Runnable onFirstWrite) {
+        this.primaryPinned = primaryPinned;
+        this.onFirstWrite = onFirstWrite;
+    }
+
+    public static void begin(boolean primaryPinned, Runnable onFirstWrite) {
+        CURRENT.set(new ReadRoutingContext(primaryPinned, onFirstWrite));
+    }
+
+    public static void clear() {
+        CURRENT.remove();
+    }
+
+    public static boolean isPrimaryPinned() {
+        ReadRoutingContext context = CURRENT.get();
+        return context != null && context.primaryPinned;
+    }
+
+    // Called when a read-write transaction takes a primary connection
+    static void recordWrite() {
+        ReadRoutingContext context = CURRENT.get();
+        if (context == null) {
+            return;
+        }
+        context.primaryPinned = true;
+        if (!context.written) {
+            context.written = true;
+            if (context.onFirstWrite != null) {
+                context.onFirstWrite.run();
+            }
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.customer.customermanagement.config;
+
+/**
+ * Shard the current thread works on. Connections are taken from that shard's pool when a transaction or
+ * statement first needs one, so the shard has to be chosen before the transaction starts. Unset means shard 0.
+ */
+public final class ShardContext {
+
+    private static final ThreadLocal<Integer> CURRENT = new ThreadLocal<>();
+
+    private ShardContext() {
+    }
+
+    public static Integer current() {
+        return CURRENT.get();
+    }
+
+    static void set(Integer shard) {
+        if (shard == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(shard);
+        }
+    }
+}
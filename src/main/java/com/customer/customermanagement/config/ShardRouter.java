@@ -0,0 +1,133 @@
+package com.customer.customermanagement.config;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.IntConsumer;
+import java.util.function.IntFunction;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.zip.CRC32;
+
+/**
+ * Places customers on shards. A customer lives on the shard its NIC hashes to, and its id carries that
+ * shard in the bits above SHARD_ID_BITS because every shard hands out ids from its own range. Shard 0 is
+ * spring.datasource, customer.sharding.shard-urls adds the others; without them there is one shard and
+ * every call runs inline.
+ */
+@Component
+public class ShardRouter {
+
+    public static final int SHARD_ID_BITS = 40;
+
+    private final int shardCount;
+    private final Executor shardExecutor;
+
+    public ShardRouter(@Value("${customer.sharding.shard-urls:}") List<String> shardUrls,
+                       @Qualifier("shardExecutor") Executor shardExecutor) {
+        this.shardCount = 1 + (int) shardUrls.stream().filter(url -> !url.isBlank()).count();
+        this.shardExecutor = shardExecutor;
+    }
+
+    public int getShardCount() {
+        return shardCount;
+    }
+
+    public boolean isSharded() {
+        return shardCount > 1;
+    }
+
+    public int shardOfNic(String nicNumber) {
+        if (shardCount == 1) {
+            return 0;
+        }
+        // Case folded like the unique index compares, so two spellings of one NIC meet on the same shard
+        CRC32 crc = new CRC32();
+        crc.update(nicNumber.trim().toUpperCase(Locale.ROOT).getBytes(StandardCharsets.UTF_8));
+        return (int) (crc.getValue() % shardCount);
+    }
+
+    public int shardOfId(long customerId) {
+        int shard = (int) (customerId >>> SHARD_ID_BITS);
+        if (shard >= shardCount) {
+            throw new IllegalArgumentException("Customer id " + customerId + " does not belong to any shard");
+        }
+        return shard;
+    }
+
+    public static long firstId(int shard) {
+        return ((long) shard << SHARD_ID_BITS) + 1;
+    }
+
+    /**
+     * Rows an import pass on the given shard owns. Rows without a NIC go to shard 0, which reports them.
+     */
+    public Predicate<String> ownsNic(int shard) {
+        return nicNumber -> nicNumber == null ? shard == 0 : shardOfNic(nicNumber) == shard;
+    }
+
+    public <T> T onShard(int shard, Supplier<T> action) {
+        Integer previous = ShardContext.current();
+        ShardContext.set(shard);
+        try {
+            return action.get();
+        } finally {
+            ShardContext.set(previous);
+        }
+    }
+
+    public void forEachShard(IntConsumer action) {
+        for (int shard = 0; shard < shardCount; shard++) {
+            int current = shard;
+            onShard(shard, () -> {
+                action.accept(current);
+                return null;
+            });
+        }
+    }
+
+    /**
+     * Runs the action on every shard in parallel and returns the results in shard order.
+     * The caller waits, so it should not hold a transaction of its own, and the action must not fan out again.
+     * Statements of the shard tasks count for the caller's profiled operation and query budget.
+     * When the shard executor is full, the shard tasks not yet started are cancelled and the
+     * RejectedExecutionException is thrown.
+     */
+    public <T> List<T> onEveryShard(IntFunction<T> action) {
+        if (shardCount == 1) {
+            return List.of(onShard(0, () -> action.apply(0)));
+        }
+        List<CompletableFuture<T>> futures = new ArrayList<>(shardCount);
+        for (int shard = 0; shard < shardCount; shard++) {
+            int current = shard;
+            try {
+                futures.add(CompletableFuture.supplyAsync(
+                        SqlProfiler.withCallerContext(() -> onShard(current, () -> action.apply(current))),
+                        shardExecutor));
+            } catch (RejectedExecutionException e) {
+                // A cancelled task still in the queue is skipped when its turn comes
+                futures.forEach(future -> future.cancel(false));
+                throw e;
+            }
+        }
+        List<T> results = new ArrayList<>(shardCount);
+        try {
+            futures.forEach(future -> results.add(future.join()));
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+        return results;
+    }
+}
@@ -0,0 +1,125 @@
+package com.customer.customermanagement.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sharding by NIC, active when customer.sharding.shard-urls lists shards beyond the primary. Every shard
+ * is a database with the full schema and its own pool. Shards other than the first get the mapped schema
+ * at startup when they have none, and their customer ids start at the shard's id range.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnExpression("!'${customer.sharding.shard-urls:}'.isBlank()")
+public class ShardingConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    public ShardRoutingDataSource shardRoutingDataSource(
+            HikariDataSource primaryDataSource,
+            DataSourceProperties properties,
+            @Value("${customer.sharding.shard-urls}") List<String> shardUrls,
+            @Value("${customer.sharding.pool-size:10}") int poolSize,
+            @Value("${customer.datasource.replica-urls:}") String replicaUrls) {
+        if (!replicaUrls.isBlank()) {
+            log.warn("Read replicas are not used together with sharding, customer.datasource.replica-urls is ignored");
+        }
+        Map<Object, Object> shards = new HashMap<>();
+        shards.put(0, primaryDataSource);
+        for (String url : shardUrls) {
+            if (url.isBlank()) {
+                continue;
+            }
+            int shard = shards.size();
+            HikariDataSource dataSource = properties.initializeDataSourceBuilder()
+                    .type(HikariDataSource.class)
+                    .url(url.trim())
+                    .build();
+            dataSource.setPoolName("shard-" + shard);
+            dataSource.setMaximumPoolSize(poolSize);
+            shards.put(shard, dataSource);
+        }
+        log.info("Customers are sharded over {} databases", shards.size());
+
+        ShardRoutingDataSource routing = new ShardRoutingDataSource();
+        routing.setTargetDataSources(shards);
+        routing.setDefaultTargetDataSource(primaryDataSource);
+        routing.setLenientFallback(false);
+        routing.afterPropertiesSet();
+        return routing;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ShardRoutingDataSource shardRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(shardRoutingDataSource);
+    }
+
+    @Bean
+    public SmartInitializingSingleton shardSchemaInitializer(ShardRouter shardRouter,
+                                                             DataSource dataSource,
+                                                             EntityManagerFactory entityManagerFactory) {
+        return () -> {
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+            for (int shard = 1; shard < shardRouter.getShardCount(); shard++) {
+                int current = shard;
+                shardRouter.onShard(shard, () -> {
+                    prepareShard(current, jdbcTemplate, entityManagerFactory);
+                    return null;
+                });
+            }
+        };
+    }
+
+    private static void prepareShard(int shard, JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        Integer present = jdbcTemplate.execute((ConnectionCallback<Integer>) connection -> {
+            try (Statement statement = connection.createStatement()) {
+                statement.executeQuery("SELECT 1 FROM customers WHERE 1 = 0").close();
+                return 1;
+            } catch (SQLException e) {
+                return 0;
+            }
+        });
+        if (present == null || present == 0) {
+            log.info("Creating the customer schema on shard {}", shard);
+            entityManagerFactory.unwrap(SessionFactory.class).getSchemaManager().exportMappedObjects(true);
+        }
+
+        long firstId = ShardRouter.firstId(shard);
+        Long maxId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM customers", Long.class);
+        if (maxId == null || maxId < firstId) {
+            String product = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                    connection.getMetaData().getDatabaseProductName());
+            boolean mysqlFamily = product != null && (product.contains("MariaDB") || product.contains("MySQL"));
+            jdbcTemplate.execute(mysqlFamily
+                    ? "ALTER TABLE customers AUTO_INCREMENT = " + firstId
+                    : "ALTER TABLE customers ALTER COLUMN id RESTART WITH " + firstId);
+            log.info("Customer ids on shard {} start at {}", shard, firstId);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.customer.customermanagement.config;
+
+import com.customer.customermanagement.dto.SqlStatementProfileDTO;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+import java.util.List;
+
+/**
+ * /actuator/sqlprofile lists the profiled statements, most expensive first; DELETE starts over.
+ */
+@Endpoint(id = "sqlprofile")
+public class SqlProfileEndpoint {
+
+    private final SqlProfiler sqlProfiler;
+
+    public SqlProfileEndpoint(SqlProfiler sqlProfiler) {
+        this.sqlProfiler = sqlProfiler;
+    }
+
+    @ReadOperation
+    public List<SqlStatementProfileDTO> statements() {
+        return sqlProfiler.snapshot();
+    }
+
+    @DeleteOperation
+    public void reset() {
+        sqlProfiler.reset();
+    }
+}
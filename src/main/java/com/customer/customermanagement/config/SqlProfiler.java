@@ -0,0 +1,185 @@
+package com.customer.customermanagement.config;
+
+import com.customer.customermanagement.dto.SqlStatementProfileDTO;
+import com.customer.customermanagement.util.SqlFingerprint;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Aggregates the statements seen by ProfilingDataSource per fingerprint: executions, latency histogram,
+ * rows and the CustomerService method that ran them. Latency covers execution only, not fetching the rows.
+ * At most maxStatements fingerprints are tracked, later shapes are counted under one overflow entry so
+ * queries with unbounded shapes cannot grow the map without limit.
+ */
+public class SqlProfiler {
+
+    static final String OVERFLOW_FINGERPRINT = "(other statements)";
+    static final String NO_CALLER = "other";
+
+    private static final long[] BUCKET_BOUNDS_MILLIS = {1, 5, 10, 50, 100, 500, 1000};
+    private static final ThreadLocal<String> OPERATION = new ThreadLocal<>();
+
+    private final ConcurrentMap<String, StatementStats> statements = new ConcurrentHashMap<>();
+    // Fingerprinting is a few regex passes, most SQL strings repeat verbatim
+    private final ConcurrentMap<String, String> fingerprints = new ConcurrentHashMap<>();
+    private final int maxStatements;
+
+    public SqlProfiler(int maxStatements) {
+        this.maxStatements = maxStatements;
+    }
+
+    /**
+     * Runs the action attributed to the given operation, unless an outer operation is already running
+     */
+    public static <T> T callingAs(String operation, Supplier<T> action) {
+        if (OPERATION.get() != null) {
+            return action.get();
+        }
+        OPERATION.set(operation);
+        try {
+            return action.get();
+        } finally {
+            OPERATION.remove();
+        }
+    }
+
+    /**
+     * Wraps a task handed to another thread so its statements count for the caller's operation and budget
+     */
+    public static <T> Supplier<T> withCallerContext(Supplier<T> task) {
+        String operation = OPERATION.get();
+        QueryBudget budget = QueryBudget.current();
+        return () -> {
+            String previousOperation = OPERATION.get();
+            QueryBudget previousBudget = QueryBudget.current();
+            OPERATION.set(operation);
+            QueryBudget.attach(budget);
+            try {
+                return task.get();
+            } finally {
+                OPERATION.set(previousOperation);
+                QueryBudget.attach(previousBudget);
+            }
+        };
+    }
+
+    /**
+     * Called before a statement runs; counts it against the current budget, which may refuse it
+     */
+    StatementStats beforeExecute(String sql) {
+        String fingerprint = fingerprint(sql);
+        QueryBudget budget = QueryBudget.current();
+        if (budget != null) {
+            budget.recordQuery(fingerprint);
+        }
+        StatementStats stats = statements.get(fingerprint);
+        if (stats == null) {
+            String key = statements.size() < maxStatements ? fingerprint : OVERFLOW_FINGERPRINT;
+            stats = statements.computeIfAbsent(key, StatementStats::new);
+        }
+        return stats;
+    }
+
+    void afterExecute(StatementStats stats, long nanos, long rows) {
+        stats.record(nanos, rows, OPERATION.get());
+    }
+
+    /**
+     * Tracked statements, the most expensive in total first
+     */
+    public List<SqlStatementProfileDTO> snapshot() {
+        List<SqlStatementProfileDTO> profiles = new ArrayList<>(statements.size());
+        statements.values().forEach(stats -> profiles.add(stats.toDTO()));
+        profiles.sort(Comparator.comparingDouble(SqlStatementProfileDTO::getTotalMillis).reversed());
+        return profiles;
+    }
+
+    public void reset() {
+        statements.clear();
+    }
+
+    private String fingerprint(String sql) {
+        String fingerprint = fingerprints.get(sql);
+        if (fingerprint == null) {
+            fingerprint = SqlFingerprint.of(sql);
+            if (fingerprints.size() < maxStatements * 4) {
+                fingerprints.put(sql, fingerprint);
+            }
+        }
+        return fingerprint;
+    }
+
+    static final class StatementStats {
+
+        private final String fingerprint;
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+        private final LongAdder rows = new LongAdder();
+        private final LongAdder[] buckets = new LongAdder[BUCKET_BOUNDS_MILLIS.length + 1];
+        private final ConcurrentMap<String, LongAdder> callers = new ConcurrentHashMap<>();
+
+        StatementStats(String fingerprint) {
+            this.fingerprint = fingerprint;
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] = new LongAdder();
+            }
+        }
+
+        void record(long nanos, long rowCount, String operation) {
+            count.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulateAndGet(nanos, Math::max);
+            rows.add(rowCount);
+            buckets[bucketOf(nanos)].increment();
+            callers.computeIfAbsent(operation != null ? operation : NO_CALLER, key -> new LongAdder()).increment();
+        }
+
+        // Rows of a query are only known once its result set is read
+        void addRows(long rowCount) {
+            rows.add(rowCount);
+        }
+
+        SqlStatementProfileDTO toDTO() {
+            long executions = count.sum();
+            long total = totalNanos.sum();
+            Map<String, Long> histogram = new LinkedHashMap<>();
+            for (int i = 0; i < BUCKET_BOUNDS_MILLIS.length; i++) {
+                histogram.put("le_" + BUCKET_BOUNDS_MILLIS[i] + "ms", buckets[i].sum());
+            }
+            histogram.put("gt_" + BUCKET_BOUNDS_MILLIS[BUCKET_BOUNDS_MILLIS.length - 1] + "ms",
+                    buckets[BUCKET_BOUNDS_MILLIS.length].sum());
+            Map<String, Long> callerCounts = new TreeMap<>();
+            callers.forEach((caller, calls) -> callerCounts.put(caller, calls.sum()));
+            return SqlStatementProfileDTO.builder()
+                    .fingerprint(fingerprint)
+                    .count(executions)
+                    .totalMillis(toMillis(total))
+                    .meanMillis(executions == 0 ? 0 : toMillis(total) / executions)
+                    .maxMillis(toMillis(maxNanos.get()))
+                    .rows(rows.sum())
+                    .latencyHistogram(histogram)
+                    .callers(callerCounts)
+                    .build();
+        }
+
+        private static int bucketOf(long nanos) {
+            for (int i = 0; i < BUCKET_BOUNDS_MILLIS.length; i++) {
+                if (nanos <= TimeUnit.MILLISECONDS.toNanos(BUCKET_BOUNDS_MILLIS[i])) {
+                    return i;
+                }
+            }
+            return BUCKET_BOUNDS_MILLIS.length;
+        }
+
+        private static double toMillis(long nanos) {
+            return nanos / 1_000_000.0;
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.customer.customermanagement.config;
+
+import com.customer.customermanagement.service.CustomerService;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.aop.framework.AbstractAdvisingBeanPostProcessor;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.StaticMethodMatcherPointcut;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.ClassUtils;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Method;
+import java.util.HashSet;
+import java.util.List;
+
+/**
+ * Statement profiling for development and tests, off unless customer.sql-profiler.enabled=true. The datasource
+ * the application uses is wrapped in a ProfilingDataSource, CustomerService methods name the operation their
+ * statements are attributed to, and every request gets a QueryBudget of customer.sql-profiler.request-budget
+ * statements. The reflective proxies around every connection, statement and result set cost about 1-3 µs per
+ * statement reading 20 rows, measured against in-memory H2 where the query itself takes 2-4 µs; small beside a
+ * round trip to MariaDB, but paid on every statement, so production leaves it off.
+ */
+@Configuration
+@ConditionalOnProperty(name = "customer.sql-profiler.enabled", havingValue = "true")
+public class SqlProfilerConfig {
+
+    // The auto-configured datasource and the @Primary one of the routing configurations share this name
+    private static final String DATA_SOURCE_BEAN = "dataSource";
+    private static final String BUDGET_MODE_FAIL = "fail";
+
+    @Bean
+    public SqlProfiler sqlProfiler(@Value("${customer.sql-profiler.max-statements:500}") int maxStatements) {
+        return new SqlProfiler(maxStatements);
+    }
+
+    @Bean
+    public SqlProfileEndpoint sqlProfileEndpoint(SqlProfiler sqlProfiler) {
+        return new SqlProfileEndpoint(sqlProfiler);
+    }
+
+    @Bean
+    public static BeanPostProcessor profilingDataSourcePostProcessor(ObjectProvider<SqlProfiler> sqlProfiler) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (DATA_SOURCE_BEAN.equals(beanName) && bean instanceof DataSource dataSource
+                        && !(bean instanceof ProfilingDataSource)) {
+                    return new ProfilingDataSource(dataSource, sqlProfiler.getObject());
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public static AbstractAdvisingBeanPostProcessor customerServiceOperationPostProcessor() {
+        return new CustomerServiceOperationPostProcessor();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "customer.sql-profiler.request-budget")
+    public FilterRegistrationBean<QueryBudgetFilter> queryBudgetFilter(
+            @Value("${customer.sql-profiler.request-budget}") int requestBudget,
+            @Value("${customer.sql-profiler.budget-mode:log}") String budgetMode,
+            @Value("${customer.sql-profiler.budget-exempt-paths:}") List<String> exemptPaths) {
+        FilterRegistrationBean<QueryBudgetFilter> registration = new FilterRegistrationBean<>(new QueryBudgetFilter(
+                requestBudget, BUDGET_MODE_FAIL.equalsIgnoreCase(budgetMode), new HashSet<>(exemptPaths)));
+        registration.setEnabled(requestBudget > 0);
+        return registration;
+    }
+
+    /**
+     * Attributes statements to the outermost CustomerService method running on the thread
+     */
+    static class CustomerServiceOperationPostProcessor extends AbstractAdvisingBeanPostProcessor {
+
+        CustomerServiceOperationPostProcessor() {
+            StaticMethodMatcherPointcut pointcut = new StaticMethodMatcherPointcut() {
+                @Override
+                public boolean matches(Method method, Class<?> targetClass) {
+                    return CustomerService.class.isAssignableFrom(targetClass)
+                            && ClassUtils.hasMethod(CustomerService.class, method.getName(), method.getParameterTypes());
+                }
+            };
+            MethodInterceptor interceptor = invocation -> {
+                String operation = CustomerService.class.getSimpleName() + "." + invocation.getMethod().getName();
+                return SqlProfiler.callingAs(operation, () -> {
+                    try {
+                        return invocation.proceed();
+                    } catch (RuntimeException | Error e) {
+                        throw e;
+                    } catch (Throwable e) {
+                        throw new IllegalStateException(e);
+                    }
+                });
+            };
+            this.advisor = new DefaultPointcutAdvisor(pointcut, interceptor);
+            this.beforeExistingAdvisors = true;
+            setProxyTargetClass(true);
+        }
+    }
+}
@@ -1,18 +1,44 @@
 package com.customer.customermanagement.controller;
 
+import com.customer.customermanagement.dto.BulkDeleteRequestDTO;
+import com.customer.customermanagement.dto.BulkDeleteResultDTO;
+import com.customer.customermanagement.dto.BulkJobDTO;
+import com.customer.customermanagement.dto.BulkProcessingResultDTO;
+import com.customer.customermanagement.dto.CustomerChangesDTO;
 import com.customer.customermanagement.dto.CustomerDTO;
+import com.customer.customermanagement.dto.CustomerStatsDTO;
+import com.customer.customermanagement.dto.CustomerSummaryDTO;
+import com.customer.customermanagement.dto.DuplicateCandidateDTO;
+import com.customer.customermanagement.dto.DuplicateScanDTO;
+import com.customer.customermanagement.dto.ExportFormat;
+import com.customer.customermanagement.exception.PreconditionFailedException;
+import com.customer.customermanagement.service.BulkJobService;
+import com.customer.customermanagement.service.BulkUploadStatusService;
+import com.customer.customermanagement.service.CustomerChangeService;
+import com.customer.customermanagement.service.CustomerExportService;
 import com.customer.customermanagement.service.CustomerService;
+import com.customer.customermanagement.service.CustomerStatsService;
+import com.customer.customermanagement.service.DuplicateDetectionService;
+import com.customer.customermanagement.util.FieldSelection;
+import com.customer.customermanagement.util.UploadCopy;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJacksonValue;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 
+import java.io.IOException;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
 
@@ -23,37 +49,118 @@ import java.util.concurrent.CompletableFuture;
 public class CustomerController {
 
     private final CustomerService customerService;
+    private final CustomerExportService customerExportService;
+    private final CustomerChangeService customerChangeService;
+    private final DuplicateDetectionService duplicateDetectionService;
+    private final CustomerStatsService customerStatsService;
+    private final BulkJobService bulkJobService;
+    private final BulkUploadStatusService bulkUploadStatusService;
 
     @PostMapping
     public ResponseEntity<CustomerDTO> createCustomer(@Valid @RequestBody CustomerDTO customerDTO) {
         log.info("Creating new customer with NIC: {}", customerDTO.getNicNumber());
         CustomerDTO createdCustomer = customerService.createCustomer(customerDTO);
-        return new ResponseEntity<>(createdCustomer, HttpStatus.CREATED);
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .eTag(String.valueOf(createdCustomer.getVersion()))
+                .body(createdCustomer);
     }
 
     @PutMapping("/{id}")
     public ResponseEntity<CustomerDTO> updateCustomer(
             @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @Valid @RequestBody CustomerDTO customerDTO) {
         log.info("Updating customer with ID: {}", id);
-        CustomerDTO updatedCustomer = customerService.updateCustomer(id, customerDTO);
-        return ResponseEntity.ok(updatedCustomer);
+        // If-Match wins over a version in the body, a wildcard means any version
+        Long expectedVersion = ifMatch != null ? parseETag(ifMatch) : customerDTO.getVersion();
+        CustomerDTO updatedCustomer = customerService.updateCustomer(id, customerDTO, expectedVersion);
+        return ResponseEntity.ok()
+                .eTag(String.valueOf(updatedCustomer.getVersion()))
+                .body(updatedCustomer);
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<CustomerDTO> getCustomer(@PathVariable Long id) {
+    public ResponseEntity<MappingJacksonValue> getCustomer(@PathVariable Long id,
+                                                           @RequestParam(required = false) String fields,
+                                                           @RequestParam(required = false) String include) {
         log.info("Fetching customer with ID: {}", id);
-        CustomerDTO customer = customerService.getCustomerById(id);
-        return ResponseEntity.ok(customer);
+        FieldSelection selection = FieldSelection.parse(fields, include);
+        CustomerDTO customer = customerService.getCustomerById(id, selection.getAssociations());
+        return ResponseEntity.ok()
+                .eTag(String.valueOf(customer.getVersion()))
+                .body(selection.forDetail(customer));
     }
 
     @GetMapping
-    public ResponseEntity<Page<CustomerDTO>> getAllCustomers(Pageable pageable) {
+    public ResponseEntity<MappingJacksonValue> getAllCustomers(@RequestParam(required = false) String fields,
+                                                               @RequestParam(required = false) String include,
+                                                               Pageable pageable) {
         log.info("Fetching customers page: {}", pageable.getPageNumber());
-        Page<CustomerDTO> customers = customerService.getAllCustomers(pageable);
+        FieldSelection selection = FieldSelection.parse(fields, include);
+        Page<CustomerSummaryDTO> customers = customerService.getAllCustomers(pageable);
+        return ResponseEntity.ok(selection.forSummary(customers));
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<Page<CustomerSummaryDTO>> searchCustomers(@RequestParam String query, Pageable pageable) {
+        log.info("Searching customers by name or NIC prefix: {}", query);
+        Page<CustomerSummaryDTO> customers = customerService.searchCustomers(query, pageable);
+        return ResponseEntity.ok(customers);
+    }
+
+    @GetMapping("/by-mobile/{mobileNumber}")
+    public ResponseEntity<List<CustomerSummaryDTO>> getCustomersByMobileNumber(@PathVariable String mobileNumber) {
+        log.info("Looking up customers by mobile number: {}", mobileNumber);
+        List<CustomerSummaryDTO> customers = customerService.getCustomersByMobileNumber(mobileNumber);
         return ResponseEntity.ok(customers);
     }
 
+    @GetMapping("/changes")
+    public ResponseEntity<CustomerChangesDTO> getChanges(@RequestParam(required = false) String since,
+                                                         @RequestParam(defaultValue = "1000") int limit) {
+        log.info("Fetching customer changes since: {}", since);
+        CustomerChangesDTO changes = customerChangeService.getChanges(since, limit);
+        return ResponseEntity.ok(changes);
+    }
+
+    @PostMapping("/duplicates/scan")
+    public ResponseEntity<DuplicateScanDTO> startDuplicateScan() {
+        log.info("Starting duplicate customer scan");
+        return ResponseEntity.accepted().body(duplicateDetectionService.startScan());
+    }
+
+    @GetMapping("/duplicates/scan")
+    public ResponseEntity<DuplicateScanDTO> getDuplicateScan() {
+        return ResponseEntity.ok(duplicateDetectionService.getLastScan());
+    }
+
+    @GetMapping("/duplicates")
+    public ResponseEntity<Page<DuplicateCandidateDTO>> getDuplicateCandidates(
+            @RequestParam(defaultValue = "0") double minScore, Pageable pageable) {
+        log.info("Fetching duplicate candidates page: {}", pageable.getPageNumber());
+        return ResponseEntity.ok(duplicateDetectionService.getCandidates(minScore, pageable));
+    }
+
+    @GetMapping("/stats")
+    public ResponseEntity<CustomerStatsDTO> getStats() {
+        return ResponseEntity.ok(customerStatsService.getStats());
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportCustomers(@RequestParam(defaultValue = "xlsx") String format) {
+        ExportFormat exportFormat = ExportFormat.fromName(format);
+        log.info("Exporting customers as {}", exportFormat);
+        // Written after the handler returns, on the async request thread
+        StreamingResponseBody body = outputStream -> customerExportService.exportCustomers(exportFormat, outputStream);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/zip"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("customers-" + exportFormat.getExtension() + ".zip")
+                        .build()
+                        .toString())
+                .body(body);
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteCustomer(@PathVariable Long id) {
         log.info("Deleting customer with ID: {}", id);
@@ -61,8 +168,16 @@ public class CustomerController {
         return ResponseEntity.noContent().build();
     }
 
+    @PostMapping("/bulk-delete")
+    public ResponseEntity<BulkDeleteResultDTO> bulkDeleteCustomers(@Valid @RequestBody BulkDeleteRequestDTO request) {
+        log.info("Bulk deleting customers. Ids: {}, filtered: {}",
+                request.getIds() != null ? request.getIds().size() : 0, request.hasFilter());
+        BulkDeleteResultDTO result = customerService.deleteCustomers(request);
+        return ResponseEntity.ok(result);
+    }
+
     @PostMapping("/bulk-upload")
-    public ResponseEntity<String> uploadBulkCustomers(@RequestParam("file") MultipartFile file) {
+    public ResponseEntity<?> uploadBulkCustomers(@RequestParam("file") MultipartFile file) throws IOException {
         log.info("Received bulk customer upload request. File size: {}", file.getSize());
 
         if (file.isEmpty()) {
@@ -73,10 +188,64 @@ public class CustomerController {
             return ResponseEntity.badRequest().body("Please upload an Excel file (XLS or XLSX)");
         }
 
-        // Start async processing
-        CompletableFuture<List<String>> future = customerService.processBulkCustomerCreation(file);
+        // Any node may run the partitions of a job, its status is at the returned location
+        if (bulkJobService.isEnabled()) {
+            BulkJobDTO job = bulkJobService.submit(file);
+            return ResponseEntity.accepted()
+                    .location(ServletUriComponentsBuilder.fromCurrentContextPath()
+                            .path("/api/customers/bulk-jobs/{id}")
+                            .buildAndExpand(job.getId())
+                            .toUri())
+                    .body(job);
+        }
+
+        // Processed by this instance, which alone knows the status at the returned location. The import outlives
+        // the request, so it reads a copy of the upload
+        UploadCopy copy = UploadCopy.of(file);
+        CompletableFuture<BulkProcessingResultDTO> future;
+        try {
+            future = customerService.processBulkCustomerCreation(copy);
+        } catch (RuntimeException e) {
+            copy.delete();
+            throw e;
+        }
+        future.whenComplete((result, error) -> {
+            if (!copy.delete()) {
+                log.warn("Could not delete the copy of bulk upload {}", file.getOriginalFilename());
+            }
+        });
+        BulkJobDTO upload = bulkUploadStatusService.track(file.getOriginalFilename(), future);
+        return ResponseEntity.accepted()
+                .location(ServletUriComponentsBuilder.fromCurrentContextPath()
+                        .path("/api/customers/bulk-uploads/{id}")
+                        .buildAndExpand(upload.getId())
+                        .toUri())
+                .body(upload);
+    }
 
-        return ResponseEntity.accepted().body(
-                "File uploaded successfully. Processing started. Check logs for progress.");
+    @GetMapping("/bulk-jobs/{id}")
+    public ResponseEntity<BulkJobDTO> getBulkJob(@PathVariable String id) {
+        return ResponseEntity.ok(bulkJobService.getJob(id));
+    }
+
+    @GetMapping("/bulk-uploads/{id}")
+    public ResponseEntity<BulkJobDTO> getBulkUpload(@PathVariable String id) {
+        return ResponseEntity.ok(bulkUploadStatusService.getUpload(id));
+    }
+
+    private static Long parseETag(String ifMatch) {
+        String tag = ifMatch.trim();
+        if ("*".equals(tag)) {
+            return null;
+        }
+        if (tag.startsWith("W/")) {
+            tag = tag.substring(2);
+        }
+        tag = tag.replace("\"", "");
+        try {
+            return Long.parseLong(tag);
+        } catch (NumberFormatException e) {
+            throw new PreconditionFailedException("If-Match does not name a customer version: " + ifMatch);
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,101 @@
+package com.customer.customermanagement.controller;
+
+import com.customer.customermanagement.dto.CustomerSummaryDTO;
+import com.customer.customermanagement.exception.ErrorResponse;
+import com.customer.customermanagement.exception.ResourceNotFoundException;
+import com.customer.customermanagement.service.ReactiveCustomerService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+/**
+ * Reactive counterparts of the customer reads of CustomerController, at the same paths on the reactive
+ * server. Listing and search stream every match as NDJSON in id order; after and limit resume and bound them.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "customer.reactive.enabled", havingValue = "true")
+public class ReactiveCustomerHandler {
+
+    private final ReactiveCustomerService reactiveCustomerService;
+
+    public RouterFunction<ServerResponse> routes() {
+        return RouterFunctions.route()
+                .GET("/api/customers/search", this::searchCustomers)
+                .GET("/api/customers/{id}", this::getCustomer)
+                .GET("/api/customers", this::streamCustomers)
+                // Deferred so that parameter errors thrown while building a response are mapped as well
+                .filter((request, next) -> Mono.defer(() -> next.handle(request))
+                        .onErrorResume(e -> errorResponse(request, e)))
+                .build();
+    }
+
+    public Mono<ServerResponse> getCustomer(ServerRequest request) {
+        Long id = Long.valueOf(request.pathVariable("id"));
+        return reactiveCustomerService.getCustomerById(id)
+                .flatMap(customer -> ServerResponse.ok()
+                        .eTag(String.valueOf(customer.getVersion()))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .bodyValue(customer));
+    }
+
+    public Mono<ServerResponse> streamCustomers(ServerRequest request) {
+        long afterId = longParam(request, "after", 0);
+        long limit = limitParam(request);
+        return ServerResponse.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(reactiveCustomerService.streamCustomers(afterId, limit), CustomerSummaryDTO.class);
+    }
+
+    public Mono<ServerResponse> searchCustomers(ServerRequest request) {
+        String query = request.queryParam("query")
+                .filter(value -> !value.isBlank())
+                .orElseThrow(() -> new IllegalArgumentException("Parameter query is required"));
+        long afterId = longParam(request, "after", 0);
+        long limit = limitParam(request);
+        return ServerResponse.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(reactiveCustomerService.searchCustomers(query, afterId, limit), CustomerSummaryDTO.class);
+    }
+
+    private static long limitParam(ServerRequest request) {
+        long limit = longParam(request, "limit", Long.MAX_VALUE);
+        if (limit < 1) {
+            throw new IllegalArgumentException("Parameter limit must be at least 1");
+        }
+        return limit;
+    }
+
+    private static long longParam(ServerRequest request, String name, long defaultValue) {
+        return request.queryParam(name).map(Long::valueOf).orElse(defaultValue);
+    }
+
+    // Statuses and messages as GlobalExceptionHandler answers them
+    private static Mono<ServerResponse> errorResponse(ServerRequest request, Throwable e) {
+        if (e instanceof ResourceNotFoundException) {
+            return error(HttpStatus.NOT_FOUND, e.getMessage());
+        }
+        if (e instanceof IllegalArgumentException) {
+            return error(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+        log.error("Reactive read failed: {} {}", request.method(), request.path(), e);
+        return error(HttpStatus.INTERNAL_SERVER_ERROR, "An unexpected error occurred: " + e.getMessage());
+    }
+
+    private static Mono<ServerResponse> error(HttpStatus status, String message) {
+        return ServerResponse.status(status)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new ErrorResponse(status.value(), message, LocalDateTime.now()));
+    }
+}
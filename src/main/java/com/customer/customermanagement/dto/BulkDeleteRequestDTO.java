@@ -0,0 +1,38 @@
+package com.customer.customermanagement.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.validation.constraints.AssertTrue;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.Set;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkDeleteRequestDTO {
+
+    private Set<Long> ids;
+
+    // Filter criteria, combined with AND
+    private String namePrefix;
+    private String nicPrefix;
+    private LocalDate bornBefore;
+
+    @JsonIgnore
+    @AssertTrue(message = "Either ids or at least one filter criterion is required")
+    public boolean isSelective() {
+        return (ids != null && !ids.isEmpty()) || hasFilter();
+    }
+
+    @JsonIgnore
+    public boolean hasFilter() {
+        return (namePrefix != null && !namePrefix.isBlank())
+                || (nicPrefix != null && !nicPrefix.isBlank())
+                || bornBefore != null;
+    }
+}
@@ -0,0 +1,41 @@
+package com.customer.customermanagement.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkJobDTO {
+
+    private String id;
+
+    private String fileName;
+
+    private BulkJobStatus status;
+
+    // Node that received the upload
+    private String createdBy;
+
+    // UTC
+    private LocalDateTime createdAt;
+
+    private LocalDateTime finishedAt;
+
+    private int partitionCount;
+
+    private int partitionsCompleted;
+
+    private int partitionsFailed;
+
+    // Merged results of the completed partitions
+    private BulkProcessingResultDTO result;
+
+    private List<BulkJobPartitionDTO> partitions;
+}
@@ -0,0 +1,36 @@
+package com.customer.customermanagement.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkJobPartitionDTO {
+
+    private int shard;
+
+    private BulkJobPhase phase;
+
+    // Sheet row numbers, both included
+    private int firstRow;
+
+    private int lastRow;
+
+    private BulkJobPartitionStatus status;
+
+    private int attempts;
+
+    // Node that holds or last held the lease
+    private String node;
+
+    // UTC
+    private LocalDateTime finishedAt;
+
+    private String error;
+}
@@ -0,0 +1,8 @@
+package com.customer.customermanagement.dto;
+
+public enum BulkJobPartitionStatus {
+    PENDING,
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
@@ -0,0 +1,8 @@
+package com.customer.customermanagement.dto;
+
+public enum BulkJobPhase {
+    // Rows of the customer sheet
+    CUSTOMERS,
+    // Rows of the addresses, mobile numbers and relationships sheets, after the customers of their shard
+    RELATED
+}
@@ -0,0 +1,9 @@
+package com.customer.customermanagement.dto;
+
+public enum BulkJobStatus {
+    RUNNING,
+    // Every partition completed
+    COMPLETED,
+    // At least one partition failed for good, the others completed
+    FAILED
+}
@@ -14,5 +14,8 @@ public class BulkProcessingResultDTO {
     private int totalProcessed;
     private int successCount;
     private int failureCount;
-    private List<String> errors;
+    private int addressesImported;
+    private int mobileNumbersImported;
+    private int relationshipsImported;
+    private List<BulkRowErrorDTO> errors;
 }
\ No newline at end of file
@@ -0,0 +1,16 @@
+package com.customer.customermanagement.dto;
+
+public enum BulkRowErrorCode {
+    NAME_MISSING,
+    NIC_MISSING,
+    DATE_OF_BIRTH_INVALID,
+    NIC_ALREADY_EXISTS,
+    NIC_DUPLICATED_IN_FILE,
+    MOBILE_NUMBER_INVALID,
+    NIC_NOT_FOUND,
+    CITY_MISSING,
+    COUNTRY_MISSING,
+    RELATIONSHIP_TO_SELF,
+    FAMILY_MEMBER_ON_OTHER_SHARD,
+    FILE_UNREADABLE
+}
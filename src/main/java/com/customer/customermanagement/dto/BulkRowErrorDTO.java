@@ -0,0 +1,17 @@
+package com.customer.customermanagement.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkRowErrorDTO {
+    private String sheet;
+    private int rowNumber;
+    private String column;
+    private BulkRowErrorCode code;
+}
@@ -0,0 +1,9 @@
+package com.customer.customermanagement.dto;
+
+/**
+ * Kinds of data held in in-process caches, the unit a cache invalidation names together with an id
+ */
+public enum CachedEntity {
+    CUSTOMER,
+    CITY
+}
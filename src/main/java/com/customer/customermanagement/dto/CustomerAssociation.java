@@ -0,0 +1,46 @@
+package com.customer.customermanagement.dto;
+
+import java.util.Locale;
+
+/**
+ * Associations a customer read can include. Each maps to the property that carries it on
+ * {@link CustomerDTO} and on {@link CustomerSummaryDTO}.
+ */
+public enum CustomerAssociation {
+
+    ADDRESSES("addresses", "addresses", "primaryAddress"),
+    FAMILY("family", "familyMemberIds", "familyMemberCount"),
+    MOBILES("mobiles", "mobileNumbers", "mobileNumbers");
+
+    private final String parameterName;
+    private final String detailProperty;
+    private final String summaryProperty;
+
+    CustomerAssociation(String parameterName, String detailProperty, String summaryProperty) {
+        this.parameterName = parameterName;
+        this.detailProperty = detailProperty;
+        this.summaryProperty = summaryProperty;
+    }
+
+    public String getParameterName() {
+        return parameterName;
+    }
+
+    public String getDetailProperty() {
+        return detailProperty;
+    }
+
+    public String getSummaryProperty() {
+        return summaryProperty;
+    }
+
+    public static CustomerAssociation fromParameter(String name) {
+        String normalized = name.trim().toLowerCase(Locale.ROOT);
+        for (CustomerAssociation association : values()) {
+            if (association.parameterName.equals(normalized)) {
+                return association;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported include: " + name + ", expected addresses, family or mobiles");
+    }
+}
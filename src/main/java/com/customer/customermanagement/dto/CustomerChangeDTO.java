@@ -0,0 +1,27 @@
+package com.customer.customermanagement.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CustomerChangeDTO {
+
+    private Long customerId;
+
+    private CustomerChangeType type;
+
+    // UTC
+    private LocalDateTime changedAt;
+
+    private String nicNumber;
+
+    // Current state for UPSERT, null for DELETE
+    private CustomerSummaryDTO customer;
+}
@@ -0,0 +1,6 @@
+package com.customer.customermanagement.dto;
+
+public enum CustomerChangeType {
+    UPSERT,
+    DELETE
+}
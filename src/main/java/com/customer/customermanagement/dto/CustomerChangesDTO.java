@@ -0,0 +1,22 @@
+package com.customer.customermanagement.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CustomerChangesDTO {
+
+    private List<CustomerChangeDTO> changes;
+
+    // Pass as since on the next call
+    private String nextToken;
+
+    private boolean hasMore;
+}
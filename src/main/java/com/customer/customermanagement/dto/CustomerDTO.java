@@ -1,5 +1,7 @@
 package com.customer.customermanagement.dto;
 
+import com.customer.customermanagement.util.FieldSelection;
+import com.fasterxml.jackson.annotation.JsonFilter;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Past;
@@ -10,6 +12,7 @@ import lombok.NoArgsConstructor;
 
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Set;
 
@@ -17,10 +20,13 @@ import java.util.Set;
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
+@JsonFilter(FieldSelection.FILTER_ID)
 public class CustomerDTO {
 
     private Long id;
 
+    private Long version;
+
     @NotBlank(message = "Name is mandatory")
     private String name;
 
@@ -36,4 +42,8 @@ public class CustomerDTO {
     private Set<Long> familyMemberIds;
 
     private List<AddressDTO> addresses;
+
+    private LocalDateTime createdAt;
+
+    private LocalDateTime updatedAt;
 }
@@ -0,0 +1,40 @@
+package com.customer.customermanagement.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CustomerStatsDTO {
+
+    private long totalCustomers;
+
+    // By the primary address
+    private Map<String, Long> customersByCountry;
+
+    // Country name to city name to count
+    private Map<String, Map<String, Long>> customersByCity;
+
+    private long customersWithoutAddress;
+
+    private Map<String, Long> customersByAgeBand;
+
+    private long customersWithMobileNumbers;
+
+    // Share of all customers, between 0 and 1
+    private double mobileNumberCoverage;
+
+    private long customersWithFamily;
+
+    private double familyCoverage;
+
+    // UTC, null until the first reconciliation scan has finished and the counts cover every customer
+    private LocalDateTime reconciledAt;
+}
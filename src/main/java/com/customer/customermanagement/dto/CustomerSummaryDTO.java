@@ -0,0 +1,27 @@
+package com.customer.customermanagement.dto;
+
+import com.customer.customermanagement.util.FieldSelection;
+import com.fasterxml.jackson.annotation.JsonFilter;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.Set;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonFilter(FieldSelection.FILTER_ID)
+public class CustomerSummaryDTO {
+
+    private Long id;
+    private String name;
+    private LocalDate dateOfBirth;
+    private String nicNumber;
+    private Set<String> mobileNumbers;
+    private AddressDTO primaryAddress;
+    private int familyMemberCount;
+}
@@ -0,0 +1,34 @@
+package com.customer.customermanagement.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DuplicateCandidateDTO {
+
+    private Long id;
+
+    private double score;
+
+    private Set<DuplicateReason> reasons;
+
+    // UTC
+    private LocalDateTime detectedAt;
+
+    private Long customerId;
+
+    private Long otherCustomerId;
+
+    // Current state of both customers, null for one deleted since the scan
+    private CustomerSummaryDTO customer;
+
+    private CustomerSummaryDTO otherCustomer;
+}
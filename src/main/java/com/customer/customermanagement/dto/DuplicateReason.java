@@ -0,0 +1,9 @@
+package com.customer.customermanagement.dto;
+
+public enum DuplicateReason {
+    // NICs at most one typo apart, or the old and new format of the same NIC
+    NIC,
+    NAME,
+    DATE_OF_BIRTH,
+    MOBILE
+}
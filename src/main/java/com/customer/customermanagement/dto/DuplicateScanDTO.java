@@ -0,0 +1,35 @@
+package com.customer.customermanagement.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DuplicateScanDTO {
+
+    private DuplicateScanStatus status;
+
+    // UTC
+    private LocalDateTime startedAt;
+
+    private LocalDateTime finishedAt;
+
+    private long customersScanned;
+
+    private long blocks;
+
+    private long comparisons;
+
+    // Blocks over customer.duplicates.max-block-size, their customers were not compared
+    private long skippedBlocks;
+
+    private long candidatesFound;
+
+    private String error;
+}
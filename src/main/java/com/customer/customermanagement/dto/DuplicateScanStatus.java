@@ -0,0 +1,7 @@
+package com.customer.customermanagement.dto;
+
+public enum DuplicateScanStatus {
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
@@ -0,0 +1,25 @@
+package com.customer.customermanagement.dto;
+
+import java.util.Locale;
+
+public enum ExportFormat {
+    XLSX("xlsx"),
+    CSV("csv");
+
+    private final String extension;
+
+    ExportFormat(String extension) {
+        this.extension = extension;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    /**
+     * Case insensitive lookup, unknown names raise IllegalArgumentException
+     */
+    public static ExportFormat fromName(String name) {
+        return valueOf(name.trim().toUpperCase(Locale.ROOT));
+    }
+}
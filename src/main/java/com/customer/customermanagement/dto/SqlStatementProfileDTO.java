@@ -0,0 +1,33 @@
+package com.customer.customermanagement.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SqlStatementProfileDTO {
+
+    private String fingerprint;
+
+    private long count;
+
+    private double totalMillis;
+
+    private double meanMillis;
+
+    private double maxMillis;
+
+    private long rows;
+
+    // Executions per latency bucket, keyed by the bucket's upper bound such as "le_5ms", the last is "gt_1000ms"
+    private Map<String, Long> latencyHistogram;
+
+    // Executions per CustomerService method, "other" for statements run outside of one
+    private Map<String, Long> callers;
+}
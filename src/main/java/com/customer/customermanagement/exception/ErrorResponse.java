@@ -9,7 +9,7 @@ import java.time.LocalDateTime;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-class ErrorResponse {
+public class ErrorResponse {
     private int status;
     private String message;
     private LocalDateTime timestamp;
@@ -0,0 +1,8 @@
+package com.customer.customermanagement.exception;
+
+public class PreconditionFailedException extends RuntimeException {
+
+    public PreconditionFailedException(String message) {
+        super(message);
+    }
+}
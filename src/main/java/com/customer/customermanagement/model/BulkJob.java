@@ -0,0 +1,48 @@
+package com.customer.customermanagement.model;
+
+import com.customer.customermanagement.dto.BulkJobStatus;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A bulk upload split into partitions that any node may run. Jobs and their files live on shard 0,
+ * partitions on the shard whose customers they import.
+ */
+@Data
+@Entity
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "bulk_jobs", indexes = {
+        @Index(name = "idx_bulk_jobs_status", columnList = "status")
+})
+public class BulkJob {
+
+    @Id
+    @Column(length = 36)
+    private String id;
+
+    @Column(name = "file_name")
+    private String fileName;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private BulkJobStatus status;
+
+    @Column(name = "created_by", nullable = false)
+    private String createdBy;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+
+    @Column(name = "partition_count", nullable = false)
+    private int partitionCount;
+}
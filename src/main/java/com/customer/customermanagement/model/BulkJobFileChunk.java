@@ -0,0 +1,46 @@
+package com.customer.customermanagement.model;
+
+import com.customer.customermanagement.dto.BulkJobPhase;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * The rows of one bulk job partition as a workbook of their own, in pieces small enough for one statement.
+ * Deleted when the job finishes.
+ */
+@Data
+@Entity
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "bulk_job_files", indexes = {
+        @Index(name = "idx_bulk_job_files_partition_chunk", columnList = "job_id, phase, first_row, chunk_index")
+})
+public class BulkJobFileChunk {
+
+    public static final int MAX_CHUNK_BYTES = 1024 * 1024;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "job_id", nullable = false, length = 36)
+    private String jobId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private BulkJobPhase phase;
+
+    @Column(name = "first_row", nullable = false)
+    private int firstRow;
+
+    @Column(name = "chunk_index", nullable = false)
+    private int chunkIndex;
+
+    @Lob
+    @Column(nullable = false, length = MAX_CHUNK_BYTES)
+    private byte[] data;
+}
@@ -0,0 +1,90 @@
+package com.customer.customermanagement.model;
+
+import com.customer.customermanagement.dto.BulkJobPartitionStatus;
+import com.customer.customermanagement.dto.BulkJobPhase;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A row range of a bulk job. A node owns a running partition while its lease has not expired; the
+ * lease token changes with every claim, so a node whose lease was taken over cannot complete it.
+ */
+@Data
+@Entity
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "bulk_job_partitions", indexes = {
+        @Index(name = "idx_bulk_job_partitions_status", columnList = "status, id"),
+        @Index(name = "idx_bulk_job_partitions_job", columnList = "job_id, phase, status")
+})
+public class BulkJobPartition {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "job_id", nullable = false, length = 36)
+    private String jobId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private BulkJobPhase phase;
+
+    @Column(name = "first_row", nullable = false)
+    private int firstRow;
+
+    @Column(name = "last_row", nullable = false)
+    private int lastRow;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private BulkJobPartitionStatus status;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    @Column(name = "lease_owner")
+    private String leaseOwner;
+
+    @Column(name = "lease_token", length = 36)
+    private String leaseToken;
+
+    // UTC, compared with the clock of the claiming node
+    @Column(name = "lease_expires_at")
+    private LocalDateTime leaseExpiresAt;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+
+    @Column(name = "total_processed", nullable = false)
+    private int totalProcessed;
+
+    @Column(name = "success_count", nullable = false)
+    private int successCount;
+
+    @Column(name = "failure_count", nullable = false)
+    private int failureCount;
+
+    @Column(name = "addresses_imported", nullable = false)
+    private int addressesImported;
+
+    @Column(name = "mobile_numbers_imported", nullable = false)
+    private int mobileNumbersImported;
+
+    @Column(name = "relationships_imported", nullable = false)
+    private int relationshipsImported;
+
+    // Row errors of the partition as a JSON array
+    @Lob
+    @Column(name = "row_errors", length = 16 * 1024 * 1024)
+    private String rowErrors;
+
+    @Column(length = 1024)
+    private String error;
+}
@@ -0,0 +1,43 @@
+package com.customer.customermanagement.model;
+
+import com.customer.customermanagement.dto.CachedEntity;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Cache invalidation sent by one instance for the others to poll, kept for a few minutes
+ */
+@Data
+@Entity
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "cache_invalidations", indexes = {
+        @Index(name = "idx_cache_invalidations_created_at", columnList = "created_at")
+})
+public class CacheInvalidationRecord {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Random per process, so an instance skips its own invalidations
+    @Column(nullable = false)
+    private Long origin;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "entity_type", nullable = false, length = 16)
+    private CachedEntity entityType;
+
+    // Null for every entry of the entity
+    @Column(name = "entity_id")
+    private Long entityId;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
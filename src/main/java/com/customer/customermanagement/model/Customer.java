@@ -1,5 +1,6 @@
 package com.customer.customermanagement.model;
 
+import com.customer.customermanagement.util.UtcClock;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -7,6 +8,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
@@ -17,13 +19,18 @@ import java.util.Set;
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
-@Table(name = "customers")
+@Table(name = "customers", indexes = @Index(name = "idx_customers_updated_at", columnList = "updated_at, id"))
 public class Customer {
 
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    // Bumped on every change, including the mobile number and family member collections
+    @Version
+    @Column(nullable = false)
+    private long version;
+
     @Column(nullable = false)
     private String name;
 
@@ -33,8 +40,17 @@ public class Customer {
     @Column(name = "nic_number", nullable = false, unique = true)
     private String nicNumber;
 
+    // UTC. The JDBC and bulk update paths set updated_at themselves, the changes feed reads it
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    // Stored in the canonical form of MobileNumberNormalizer, indexed for reverse lookups
     @ElementCollection
-    @CollectionTable(name = "customer_mobile_numbers", joinColumns = @JoinColumn(name = "customer_id"))
+    @CollectionTable(name = "customer_mobile_numbers", joinColumns = @JoinColumn(name = "customer_id"),
+            indexes = @Index(name = "idx_customer_mobile_numbers_number", columnList = "mobile_number"))
     @Column(name = "mobile_number")
     private Set<String> mobileNumbers = new HashSet<>();
 
@@ -46,6 +62,18 @@ public class Customer {
     )
     private Set<Customer> familyMembers = new HashSet<>();
 
+    @OrderBy("id")
     @OneToMany(mappedBy = "customer", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<Address> addresses = new ArrayList<>();
+
+    @PrePersist
+    void onCreate() {
+        createdAt = UtcClock.now();
+        updatedAt = createdAt;
+    }
+
+    @PreUpdate
+    void onUpdate() {
+        updatedAt = UtcClock.now();
+    }
 }
@@ -0,0 +1,50 @@
+package com.customer.customermanagement.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Validated upload rows waiting to be merged into customers, written in bulk by the staging import engine.
+ * Rows of one chunk share an import id and are deleted once the chunk is merged.
+ */
+@Data
+@Entity
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "customer_staging", indexes = {
+        @Index(name = "idx_customer_staging_import_nic", columnList = "import_id, nic_number")
+})
+public class CustomerStagingRow {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "import_id", nullable = false, length = 36)
+    private String importId;
+
+    @Column(name = "source_row", nullable = false)
+    private int sourceRow;
+
+    @Column(nullable = false)
+    private String name;
+
+    @Column(name = "date_of_birth", nullable = false)
+    private LocalDate dateOfBirth;
+
+    @Column(name = "nic_number", nullable = false)
+    private String nicNumber;
+
+    // Comma separated and already normalized
+    @Column(name = "mobile_numbers", length = 1024)
+    private String mobileNumbers;
+
+    @Column(nullable = false)
+    private boolean rejected;
+}
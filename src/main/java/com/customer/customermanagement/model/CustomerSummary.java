@@ -0,0 +1,57 @@
+package com.customer.customermanagement.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Flattened read model of a customer, one row per customer, kept in step with the write paths
+ * so that listing and search never join the normalized tables.
+ */
+@Data
+@Entity
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "customer_summary", indexes = {
+        @Index(name = "idx_customer_summary_name", columnList = "name"),
+        @Index(name = "idx_customer_summary_nic", columnList = "nic_number")
+})
+public class CustomerSummary {
+
+    @Id
+    @Column(name = "customer_id")
+    private Long customerId;
+
+    @Column(nullable = false)
+    private String name;
+
+    @Column(name = "date_of_birth", nullable = false)
+    private LocalDate dateOfBirth;
+
+    @Column(name = "nic_number", nullable = false)
+    private String nicNumber;
+
+    // Comma separated, mobile numbers never contain a comma
+    @Column(name = "mobile_numbers", length = 1024)
+    private String mobileNumbers;
+
+    @Column(name = "address_line1")
+    private String addressLine1;
+
+    @Column(name = "address_line2")
+    private String addressLine2;
+
+    @Column(name = "city_name")
+    private String cityName;
+
+    @Column(name = "country_name")
+    private String countryName;
+
+    @Column(name = "family_member_count", nullable = false)
+    private int familyMemberCount;
+}
@@ -0,0 +1,36 @@
+package com.customer.customermanagement.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Marker left behind by a deleted customer, so the changes feed can report deletes.
+ */
+@Data
+@Entity
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "customer_tombstones", indexes = {
+        @Index(name = "idx_customer_tombstones_deleted_at", columnList = "deleted_at, customer_id")
+})
+public class CustomerTombstone {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "customer_id", nullable = false)
+    private Long customerId;
+
+    @Column(name = "nic_number", nullable = false)
+    private String nicNumber;
+
+    @Column(name = "deleted_at", nullable = false)
+    private LocalDateTime deletedAt;
+}
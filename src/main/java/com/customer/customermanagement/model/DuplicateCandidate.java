@@ -0,0 +1,45 @@
+package com.customer.customermanagement.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A pair of customers the last duplicate scan found to be probably the same person. The table holds
+ * the results of one scan and lives on shard 0, the two customers may be on any shard.
+ */
+@Data
+@Entity
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "duplicate_candidates", indexes = {
+        @Index(name = "idx_duplicate_candidates_score", columnList = "score, id")
+})
+public class DuplicateCandidate {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // The lower of the two ids
+    @Column(name = "customer_id", nullable = false)
+    private Long customerId;
+
+    @Column(name = "other_customer_id", nullable = false)
+    private Long otherCustomerId;
+
+    @Column(nullable = false)
+    private double score;
+
+    // DuplicateReason names, comma separated
+    @Column(nullable = false, length = 64)
+    private String reasons;
+
+    @Column(name = "detected_at", nullable = false)
+    private LocalDateTime detectedAt;
+}
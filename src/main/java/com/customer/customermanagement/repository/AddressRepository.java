@@ -2,8 +2,14 @@ package com.customer.customermanagement.repository;
 
 import com.customer.customermanagement.model.Address;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
 public interface AddressRepository extends JpaRepository<Address, Long> {
+
+    @Query("SELECT a FROM Address a LEFT JOIN FETCH a.city ci LEFT JOIN FETCH ci.country WHERE a.customer.id = :customerId ORDER BY a.id")
+    List<Address> findByCustomerIdWithCity(Long customerId);
 }
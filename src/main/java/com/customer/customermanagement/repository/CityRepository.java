@@ -3,12 +3,18 @@ package com.customer.customermanagement.repository;
 
 import com.customer.customermanagement.model.City;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 @Repository
 public interface CityRepository extends JpaRepository<City, Long> {
 
     Optional<City> findByNameAndCountryId(String name, Long countryId);
+
+    @Query("SELECT c FROM City c WHERE c.country.id IN :countryIds AND c.name IN :names")
+    List<City> findByCountryIdInAndNameIn(Collection<Long> countryIds, Collection<String> names);
 }
 
@@ -5,11 +5,15 @@ import com.customer.customermanagement.model.Country;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface CountryRepository extends JpaRepository<Country, Long> {
 
     Optional<Country> findByName(String name);
+
+    List<Country> findByNameIn(Collection<String> names);
 }
 
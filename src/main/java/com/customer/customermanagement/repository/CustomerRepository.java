@@ -1,10 +1,16 @@
 package com.customer.customermanagement.repository;
 
 import com.customer.customermanagement.model.Customer;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -16,4 +22,78 @@ public interface CustomerRepository extends JpaRepository<Customer, Long> {
 
     @Query("SELECT c FROM Customer c LEFT JOIN FETCH c.addresses a LEFT JOIN FETCH a.city LEFT JOIN FETCH a.city.country WHERE c.id = :id")
     Optional<Customer> findByIdWithDetails(Long id);
+
+    @Query("SELECT c.id AS id, c.version AS version, c.name AS name, c.dateOfBirth AS dateOfBirth,"
+            + " c.nicNumber AS nicNumber, c.createdAt AS createdAt, c.updatedAt AS updatedAt"
+            + " FROM Customer c WHERE c.id = :id")
+    Optional<CustomerScalarView> findScalarById(Long id);
+
+    @Query("SELECT f.id FROM Customer c JOIN c.familyMembers f WHERE c.id = :id")
+    List<Long> findFamilyMemberIdsById(Long id);
+
+    @Modifying
+    @Query("UPDATE Customer c SET c.version = c.version + 1, c.updatedAt = :updatedAt WHERE c.id = :id AND c.version = :version")
+    int incrementVersion(Long id, long version, LocalDateTime updatedAt);
+
+    @Query("SELECT c.id FROM Customer c WHERE c.id > :afterId ORDER BY c.id")
+    List<Long> findIdsAfter(Long afterId, Pageable pageable);
+
+    @Query("SELECT DISTINCT c FROM Customer c LEFT JOIN FETCH c.addresses a LEFT JOIN FETCH a.city ci LEFT JOIN FETCH ci.country WHERE c.id IN :ids")
+    List<Customer> findAllWithAddressesByIdIn(Collection<Long> ids);
+
+    @Query("SELECT c.id, m FROM Customer c JOIN c.mobileNumbers m WHERE c.id IN :ids")
+    List<Object[]> findMobileNumbersByIdIn(Collection<Long> ids);
+
+    @Query("SELECT c.id, COUNT(f) FROM Customer c JOIN c.familyMembers f WHERE c.id IN :ids GROUP BY c.id")
+    List<Object[]> countFamilyMembersByIdIn(Collection<Long> ids);
+
+    // Prefixes come escaped with '!', so that a % or _ in them is matched literally
+    @Query("SELECT c.id FROM Customer c WHERE c.id > :afterId"
+            + " AND (:namePrefix IS NULL OR c.name LIKE CONCAT(:namePrefix, '%') ESCAPE '!')"
+            + " AND (:nicPrefix IS NULL OR c.nicNumber LIKE CONCAT(:nicPrefix, '%') ESCAPE '!')"
+            + " AND (:bornBefore IS NULL OR c.dateOfBirth < :bornBefore)"
+            + " ORDER BY c.id")
+    List<Long> findIdsMatching(Long afterId, String namePrefix, String nicPrefix, LocalDate bornBefore,
+                               Pageable pageable);
+
+    @Query("SELECT c.id, c.nicNumber FROM Customer c WHERE c.nicNumber IN :nicNumbers")
+    List<Object[]> findIdsByNicNumberIn(Collection<String> nicNumbers);
+
+    @Query(value = "SELECT customer_id, family_member_id FROM family_relationships WHERE customer_id IN (:ids)",
+            nativeQuery = true)
+    List<Object[]> findFamilyRelationshipsByIdIn(Collection<Long> ids);
+
+    @Modifying
+    @Query("UPDATE Customer c SET c.version = c.version + 1, c.updatedAt = :updatedAt WHERE c.id IN :ids")
+    int incrementVersions(Collection<Long> ids, LocalDateTime updatedAt);
+
+    @Modifying
+    @Query("UPDATE Customer c SET c.updatedAt = :updatedAt WHERE c.id IN :ids")
+    int touch(Collection<Long> ids, LocalDateTime updatedAt);
+
+    @Query("SELECT c.nicNumber FROM Customer c WHERE c.id IN :ids")
+    List<String> findNicNumbersByIdIn(Collection<Long> ids);
+
+    @Query(value = "SELECT DISTINCT customer_id FROM family_relationships"
+            + " WHERE family_member_id IN (:ids) AND customer_id NOT IN (:ids)", nativeQuery = true)
+    List<Long> findIdsRelatedTo(Collection<Long> ids);
+
+    // Set based deletes, children first, nothing is loaded into the persistence context
+
+    @Modifying
+    @Query(value = "DELETE FROM family_relationships WHERE customer_id IN (:ids) OR family_member_id IN (:ids)",
+            nativeQuery = true)
+    int deleteFamilyRelationshipsByIdIn(Collection<Long> ids);
+
+    @Modifying
+    @Query(value = "DELETE FROM customer_mobile_numbers WHERE customer_id IN (:ids)", nativeQuery = true)
+    int deleteMobileNumbersByIdIn(Collection<Long> ids);
+
+    @Modifying
+    @Query("DELETE FROM Address a WHERE a.customer.id IN :ids")
+    int deleteAddressesByIdIn(Collection<Long> ids);
+
+    @Modifying
+    @Query("DELETE FROM Customer c WHERE c.id IN :ids")
+    int deleteByIdIn(Collection<Long> ids);
 }
@@ -0,0 +1,24 @@
+package com.customer.customermanagement.repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Scalar columns of a customer, read without touching any association.
+ */
+public interface CustomerScalarView {
+
+    Long getId();
+
+    Long getVersion();
+
+    String getName();
+
+    LocalDate getDateOfBirth();
+
+    String getNicNumber();
+
+    LocalDateTime getCreatedAt();
+
+    LocalDateTime getUpdatedAt();
+}
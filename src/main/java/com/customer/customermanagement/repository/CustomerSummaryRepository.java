@@ -0,0 +1,41 @@
+package com.customer.customermanagement.repository;
+
+import com.customer.customermanagement.model.CustomerSummary;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface CustomerSummaryRepository extends JpaRepository<CustomerSummary, Long> {
+
+    Page<CustomerSummary> findByNameStartingWithOrNicNumberStartingWith(String name, String nicNumber, Pageable pageable);
+
+    @Query("SELECT s FROM CustomerSummary s WHERE s.customerId IN"
+            + " (SELECT c.id FROM Customer c JOIN c.mobileNumbers m WHERE m = :mobileNumber)")
+    List<CustomerSummary> findByMobileNumber(String mobileNumber);
+
+    @Modifying
+    @Query("DELETE FROM CustomerSummary s WHERE NOT EXISTS (SELECT c.id FROM Customer c WHERE c.id = s.customerId)")
+    int deleteOrphans();
+
+    @Modifying
+    @Query("DELETE FROM CustomerSummary s WHERE s.customerId IN :ids")
+    int deleteByCustomerIdIn(Collection<Long> ids);
+
+    // Customer id then the columns customer statistics count
+    @Query("SELECT s.customerId, s.countryName, s.cityName, s.dateOfBirth, s.mobileNumbers, s.familyMemberCount"
+            + " FROM CustomerSummary s WHERE s.customerId IN :ids")
+    List<Object[]> findStatsColumnsByCustomerIdIn(Collection<Long> ids);
+
+    @Modifying
+    @Query(value = "UPDATE customer_summary SET family_member_count ="
+            + " (SELECT COUNT(*) FROM family_relationships f WHERE f.customer_id = customer_summary.customer_id)"
+            + " WHERE customer_id IN (:ids)", nativeQuery = true)
+    int recountFamilyMembers(Collection<Long> ids);
+}
@@ -0,0 +1,19 @@
+package com.customer.customermanagement.repository;
+
+import com.customer.customermanagement.model.CustomerTombstone;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+@Repository
+public interface CustomerTombstoneRepository extends JpaRepository<CustomerTombstone, Long> {
+
+    @Modifying
+    @Query(value = "INSERT INTO customer_tombstones (customer_id, nic_number, deleted_at)"
+            + " SELECT id, nic_number, :deletedAt FROM customers WHERE id IN (:ids)", nativeQuery = true)
+    int insertForCustomers(Collection<Long> ids, LocalDateTime deletedAt);
+}
@@ -0,0 +1,13 @@
+package com.customer.customermanagement.repository;
+
+import com.customer.customermanagement.model.DuplicateCandidate;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface DuplicateCandidateRepository extends JpaRepository<DuplicateCandidate, Long> {
+
+    Page<DuplicateCandidate> findByScoreGreaterThanEqual(double minScore, Pageable pageable);
+}
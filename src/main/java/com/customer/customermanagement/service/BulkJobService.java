@@ -0,0 +1,15 @@
+package com.customer.customermanagement.service;
+
+import com.customer.customermanagement.dto.BulkJobDTO;
+import org.springframework.web.multipart.MultipartFile;
+
+public interface BulkJobService {
+
+    boolean isEnabled();
+
+    BulkJobDTO submit(MultipartFile file);
+
+    BulkJobDTO getJob(String id);
+
+    boolean runNextPartition();
+}
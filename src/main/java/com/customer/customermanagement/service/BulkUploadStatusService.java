@@ -0,0 +1,16 @@
+package com.customer.customermanagement.service;
+
+import com.customer.customermanagement.dto.BulkJobDTO;
+import com.customer.customermanagement.dto.BulkProcessingResultDTO;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Status of bulk uploads processed in this instance while bulk jobs are disabled, in the shape of a bulk job
+ */
+public interface BulkUploadStatusService {
+
+    BulkJobDTO track(String fileName, CompletableFuture<BulkProcessingResultDTO> processing);
+
+    BulkJobDTO getUpload(String id);
+}
@@ -0,0 +1,16 @@
+package com.customer.customermanagement.service;
+
+import com.customer.customermanagement.dto.CachedEntity;
+
+import java.util.function.Consumer;
+
+public interface CacheInvalidationBus {
+
+    /**
+     * Invalidates the entry on this instance once the current transaction commits, and on the other
+     * instances shortly after. A null id stands for every entry of the entity.
+     */
+    void publish(CachedEntity entity, Long id);
+
+    void subscribe(CachedEntity entity, Consumer<Long> listener);
+}
@@ -0,0 +1,26 @@
+package com.customer.customermanagement.service;
+
+import com.customer.customermanagement.dto.CachedEntity;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Carries cache invalidations between instances, chosen by customer.cache.transport. The bus calls it from
+ * one thread only.
+ */
+public interface CacheInvalidationTransport {
+
+    /**
+     * @param id null for every entry of the entity
+     */
+    record Invalidation(CachedEntity entity, Long id) {
+    }
+
+    void send(Collection<Invalidation> invalidations);
+
+    /**
+     * Invalidations the other instances sent since the last call; one may come more than once
+     */
+    List<Invalidation> receive();
+}
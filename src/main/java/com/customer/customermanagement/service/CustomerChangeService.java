@@ -0,0 +1,8 @@
+package com.customer.customermanagement.service;
+
+import com.customer.customermanagement.dto.CustomerChangesDTO;
+
+public interface CustomerChangeService {
+
+    CustomerChangesDTO getChanges(String since, int limit);
+}
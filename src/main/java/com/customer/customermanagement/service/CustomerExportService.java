@@ -0,0 +1,11 @@
+package com.customer.customermanagement.service;
+
+import com.customer.customermanagement.dto.ExportFormat;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+public interface CustomerExportService {
+
+    void exportCustomers(ExportFormat format, OutputStream outputStream) throws IOException;
+}
@@ -1,12 +1,18 @@
 package com.customer.customermanagement.service;
 
 
+import com.customer.customermanagement.dto.BulkDeleteRequestDTO;
+import com.customer.customermanagement.dto.BulkDeleteResultDTO;
+import com.customer.customermanagement.dto.BulkProcessingResultDTO;
+import com.customer.customermanagement.dto.CustomerAssociation;
 import com.customer.customermanagement.dto.CustomerDTO;
+import com.customer.customermanagement.dto.CustomerSummaryDTO;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 
 public interface CustomerService {
@@ -15,11 +21,25 @@ public interface CustomerService {
 
     CustomerDTO updateCustomer(Long id, CustomerDTO customerDTO);
 
+    CustomerDTO updateCustomer(Long id, CustomerDTO customerDTO, Long expectedVersion);
+
     CustomerDTO getCustomerById(Long id);
 
-    Page<CustomerDTO> getAllCustomers(Pageable pageable);
+    /**
+     * Reads a customer with only the requested associations. Properties of associations that were
+     * not requested are left null.
+     */
+    CustomerDTO getCustomerById(Long id, Set<CustomerAssociation> include);
+
+    Page<CustomerSummaryDTO> getAllCustomers(Pageable pageable);
+
+    Page<CustomerSummaryDTO> searchCustomers(String query, Pageable pageable);
+
+    List<CustomerSummaryDTO> getCustomersByMobileNumber(String mobileNumber);
 
     void deleteCustomer(Long id);
 
-    CompletableFuture<List<String>> processBulkCustomerCreation(MultipartFile file);
+    BulkDeleteResultDTO deleteCustomers(BulkDeleteRequestDTO request);
+
+    CompletableFuture<BulkProcessingResultDTO> processBulkCustomerCreation(MultipartFile file);
 }
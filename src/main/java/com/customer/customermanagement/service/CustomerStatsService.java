@@ -0,0 +1,13 @@
+package com.customer.customermanagement.service;
+
+import com.customer.customermanagement.dto.CustomerStatsDTO;
+import com.customer.customermanagement.util.CustomerStatsCounters;
+
+public interface CustomerStatsService {
+
+    CustomerStatsDTO getStats();
+
+    void record(CustomerStatsCounters.Delta delta);
+
+    void reconcile();
+}
@@ -0,0 +1,33 @@
+package com.customer.customermanagement.service;
+
+import com.customer.customermanagement.dto.CustomerSummaryDTO;
+import com.customer.customermanagement.model.Customer;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+public interface CustomerSummaryService {
+
+    void refresh(Customer customer);
+
+    void refreshAll(Collection<Customer> customers);
+
+    void refreshByIds(Collection<Long> customerIds);
+
+    void removeAll(Collection<Long> customerIds);
+
+    void recountFamilyMembers(Collection<Long> customerIds);
+
+    Page<CustomerSummaryDTO> findAll(Pageable pageable);
+
+    Page<CustomerSummaryDTO> search(String query, Pageable pageable);
+
+    List<CustomerSummaryDTO> findByMobileNumber(String normalizedMobileNumber);
+
+    Map<Long, CustomerSummaryDTO> findByIds(Collection<Long> customerIds);
+
+    long rebuild();
+}
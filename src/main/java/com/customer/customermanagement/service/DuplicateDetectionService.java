@@ -0,0 +1,15 @@
+package com.customer.customermanagement.service;
+
+import com.customer.customermanagement.dto.DuplicateCandidateDTO;
+import com.customer.customermanagement.dto.DuplicateScanDTO;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+public interface DuplicateDetectionService {
+
+    DuplicateScanDTO startScan();
+
+    DuplicateScanDTO getLastScan();
+
+    Page<DuplicateCandidateDTO> getCandidates(double minScore, Pageable pageable);
+}
@@ -0,0 +1,12 @@
+package com.customer.customermanagement.service;
+
+public interface NicMembershipService {
+
+    boolean exists(String nicNumber);
+
+    void registerNic(String nicNumber);
+
+    void unregisterNic(String nicNumber);
+
+    void rebuild();
+}
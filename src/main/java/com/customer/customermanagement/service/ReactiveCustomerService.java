@@ -0,0 +1,19 @@
+package com.customer.customermanagement.service;
+
+import com.customer.customermanagement.dto.CustomerDTO;
+import com.customer.customermanagement.dto.CustomerSummaryDTO;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking reads of the same data CustomerService reads. Listings are streams in id order
+ * that query the next rows only once the subscriber asked for them.
+ */
+public interface ReactiveCustomerService {
+
+    Mono<CustomerDTO> getCustomerById(Long id);
+
+    Flux<CustomerSummaryDTO> streamCustomers(long afterId, long limit);
+
+    Flux<CustomerSummaryDTO> searchCustomers(String query, long afterId, long limit);
+}
@@ -0,0 +1,660 @@
+package com.customer.customermanagement.service.impl;
+
+import com.customer.customermanagement.config.ShardRouter;
+import com.customer.customermanagement.dto.BulkJobDTO;
+import com.customer.customermanagement.dto.BulkJobPartitionDTO;
+import com.customer.customermanagement.dto.BulkJobPartitionStatus;
+import com.customer.customermanagement.dto.BulkJobPhase;
+import com.customer.customermanagement.dto.BulkJobStatus;
+import com.customer.customermanagement.dto.BulkProcessingResultDTO;
+import com.customer.customermanagement.dto.BulkRowErrorDTO;
+import com.customer.customermanagement.exception.ResourceNotFoundException;
+import com.customer.customermanagement.model.BulkJobFileChunk;
+import com.customer.customermanagement.service.BulkJobService;
+import com.customer.customermanagement.util.UtcClock;
+import com.customer.customermanagement.util.WorkbookSlice;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.ss.usermodel.WorkbookFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+/**
+ * Runs bulk uploads as jobs shared by every node. The node receiving an upload splits it into row-range
+ * partitions and stores the rows of each on shard 0 as a workbook of their own, so a partition parses only its
+ * rows; each node polls for partitions and claims them with a lease that
+ * a heartbeat keeps extending. A partition whose node died is claimed again once its lease expires, up to
+ * max-attempts claims. A partition is imported and marked completed in one transaction on its shard, fenced
+ * by the lease token, so a partition is never imported twice. Related sheet partitions of a shard wait for
+ * its customer partitions. Lease times come from the clock of each node, which must agree to well within
+ * lease-millis; node-id defaults to host-pid. Job status is at /api/customers/bulk-jobs/{id}.
+ * Off unless customer.bulk-jobs.enabled is set: submitting parses the whole upload in memory on the request thread
+ * and holds the bytes of every partition until they are stored, a heap many times the size of the file, which only
+ * pays off for uploads too large for one node to import alone. Without jobs an upload is imported by the node that
+ * received it, with its status at /api/customers/bulk-uploads/{id} on that node.
+ */
+@Slf4j
+@Service
+public class BulkJobServiceImpl implements BulkJobService, DisposableBean {
+
+    private static final String INSERT_JOB = "INSERT INTO bulk_jobs (id, file_name, status, created_by, created_at, "
+            + "partition_count) VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_FILE_CHUNK = "INSERT INTO bulk_job_files (job_id, phase, first_row, chunk_index, data) "
+            + "VALUES (?, ?, ?, ?, ?)";
+    private static final String INSERT_PARTITION = "INSERT INTO bulk_job_partitions (job_id, phase, first_row, last_row, "
+            + "status, attempts, total_processed, success_count, failure_count, addresses_imported, "
+            + "mobile_numbers_imported, relationships_imported) VALUES (?, ?, ?, ?, 'PENDING', 0, 0, 0, 0, 0, 0, 0)";
+    private static final String SELECT_JOB = "SELECT file_name, status, created_by, created_at, finished_at, partition_count "
+            + "FROM bulk_jobs WHERE id = ?";
+    private static final String SELECT_JOB_STATUS = "SELECT status FROM bulk_jobs WHERE id = ?";
+    private static final String SELECT_RUNNING_JOBS = "SELECT id FROM bulk_jobs WHERE status = 'RUNNING'";
+    private static final String SELECT_EXPIRED_JOBS = "SELECT id FROM bulk_jobs WHERE finished_at < ?";
+    private static final String SELECT_FILE_CHUNKS = "SELECT data FROM bulk_job_files "
+            + "WHERE job_id = ? AND phase = ? AND first_row = ? ORDER BY chunk_index";
+    private static final String SELECT_PARTITIONS = "SELECT phase, first_row, last_row, status, attempts, lease_owner, "
+            + "finished_at, error, total_processed, success_count, failure_count, addresses_imported, "
+            + "mobile_numbers_imported, relationships_imported, row_errors FROM bulk_job_partitions WHERE job_id = ?";
+    private static final String COUNT_PARTITIONS_BY_STATUS =
+            "SELECT status, COUNT(*) FROM bulk_job_partitions WHERE job_id = ? GROUP BY status";
+    // Related sheet partitions only once no customer partition of the job on this shard is left to run, and one
+    // at a time: they get-or-create the same countries and cities, so concurrent ones only wait on each other's locks
+    private static final String SELECT_CLAIMABLE = "SELECT p.id, p.attempts FROM bulk_job_partitions p "
+            + "WHERE (p.status = 'PENDING' OR (p.status = 'RUNNING' AND p.lease_expires_at < ?)) "
+            + "AND (p.phase = 'CUSTOMERS' OR NOT EXISTS (SELECT 1 FROM bulk_job_partitions c WHERE c.job_id = p.job_id "
+            + "AND (c.phase = 'CUSTOMERS' AND c.status IN ('PENDING', 'RUNNING') "
+            + "OR c.id <> p.id AND c.status = 'RUNNING' AND c.lease_expires_at >= ?))) ORDER BY p.id LIMIT 10";
+    private static final String CLAIM = "UPDATE bulk_job_partitions SET status = 'RUNNING', lease_owner = ?, "
+            + "lease_token = ?, lease_expires_at = ?, attempts = attempts + 1 "
+            + "WHERE id = ? AND (status = 'PENDING' OR (status = 'RUNNING' AND lease_expires_at < ?))";
+    private static final String SELECT_CLAIMED = "SELECT job_id, phase, first_row, last_row, attempts "
+            + "FROM bulk_job_partitions WHERE id = ?";
+    private static final String ABANDON = "UPDATE bulk_job_partitions SET status = 'FAILED', lease_token = NULL, "
+            + "finished_at = ?, error = ? WHERE id = ? AND status = 'RUNNING' AND lease_expires_at < ?";
+    private static final String HEARTBEAT = "UPDATE bulk_job_partitions SET lease_expires_at = ? WHERE id = ? AND lease_token = ?";
+    private static final String COMPLETE = "UPDATE bulk_job_partitions SET status = 'COMPLETED', lease_token = NULL, "
+            + "finished_at = ?, total_processed = ?, success_count = ?, failure_count = ?, addresses_imported = ?, "
+            + "mobile_numbers_imported = ?, relationships_imported = ?, row_errors = ? WHERE id = ? AND lease_token = ?";
+    private static final String RELEASE = "UPDATE bulk_job_partitions SET status = ?, lease_token = NULL, "
+            + "lease_expires_at = NULL, finished_at = ?, error = ? WHERE id = ? AND lease_token = ?";
+    // Hands back a claim that never ran, without counting it as an attempt
+    private static final String UNCLAIM = "UPDATE bulk_job_partitions SET status = 'PENDING', lease_token = NULL, "
+            + "lease_expires_at = NULL, attempts = attempts - 1 WHERE id = ? AND lease_token = ?";
+    private static final String FINISH_JOB = "UPDATE bulk_jobs SET status = ?, finished_at = ? WHERE id = ? AND status = 'RUNNING'";
+    private static final String DELETE_FILE = "DELETE FROM bulk_job_files WHERE job_id = ?";
+    private static final String DELETE_PARTITIONS = "DELETE FROM bulk_job_partitions WHERE job_id = ?";
+    private static final String DELETE_JOB = "DELETE FROM bulk_jobs WHERE id = ?";
+
+    private static final List<String> RELATED_SHEETS = List.of(CustomerGraphImporter.ADDRESSES_SHEET,
+            CustomerGraphImporter.MOBILES_SHEET, CustomerGraphImporter.RELATIONSHIPS_SHEET);
+    private static final TypeReference<List<BulkRowErrorDTO>> ROW_ERRORS = new TypeReference<>() {
+    };
+    private static final int MAX_ERROR_LENGTH = 1024;
+
+    private final CustomerServiceImpl customerService;
+    private final JdbcTemplate jdbcTemplate;
+    private final ShardRouter shardRouter;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final String nodeId;
+    private final int partitionRows;
+    private final long pollMillis;
+    private final long leaseMillis;
+    private final int maxAttempts;
+    private final long retentionDays;
+
+    private final Semaphore slots;
+    private final ScheduledExecutorService scheduler;
+    // Runs the claimed partitions, at most one per slot
+    private final ExecutorService partitionExecutor;
+    private final AtomicInteger nextShard = new AtomicInteger();
+    // Partitions this node runs, by lease token
+    private final Map<String, Claim> claims = new ConcurrentHashMap<>();
+
+    private record Claim(int shard, long partitionId, String token, String jobId, BulkJobPhase phase,
+                         int firstRow, int lastRow, int attempt) {
+    }
+
+    // The rows of the partitions starting at firstRow, one per shard, as a workbook
+    private record Slice(BulkJobPhase phase, int firstRow, byte[] data) {
+    }
+
+    public BulkJobServiceImpl(CustomerServiceImpl customerService,
+                              JdbcTemplate jdbcTemplate,
+                              ShardRouter shardRouter,
+                              PlatformTransactionManager transactionManager,
+                              ObjectMapper objectMapper,
+                              @Value("${customer.bulk-jobs.enabled:false}") boolean enabled,
+                              @Value("${customer.bulk-jobs.node-id:}") String nodeId,
+                              @Value("${customer.bulk-jobs.partition-rows:50000}") int partitionRows,
+                              @Value("${customer.bulk-jobs.max-concurrent-partitions:2}") int maxConcurrentPartitions,
+                              @Value("${customer.bulk-jobs.poll-millis:1000}") long pollMillis,
+                              @Value("${customer.bulk-jobs.lease-millis:60000}") long leaseMillis,
+                              @Value("${customer.bulk-jobs.max-attempts:3}") int maxAttempts,
+                              @Value("${customer.bulk-jobs.retention-days:7}") long retentionDays) {
+        this.customerService = customerService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.shardRouter = shardRouter;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.nodeId = nodeId.isBlank() ? defaultNodeId() : nodeId;
+        this.partitionRows = partitionRows;
+        this.pollMillis = pollMillis;
+        this.leaseMillis = leaseMillis;
+        this.maxAttempts = maxAttempts;
+        this.retentionDays = retentionDays;
+        this.slots = new Semaphore(maxConcurrentPartitions);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "bulk-jobs");
+            thread.setDaemon(true);
+            return thread;
+        });
+        AtomicInteger partitionThreads = new AtomicInteger();
+        this.partitionExecutor = Executors.newFixedThreadPool(maxConcurrentPartitions, runnable -> {
+            Thread thread = new Thread(runnable, "bulk-job-partition-" + partitionThreads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Stores the workbook and its partitions and returns the job, which runs on whichever nodes claim
+     * its partitions. Partitions of the other shards are written first, so a job found on shard 0 is complete.
+     * Runs on the caller's thread until every partition is stored.
+     */
+    @Override
+    public BulkJobDTO submit(MultipartFile file) {
+        List<int[]> customerRanges;
+        List<int[]> relatedRanges;
+        List<Slice> slices = new ArrayList<>();
+        try (InputStream is = file.getInputStream(); Workbook workbook = WorkbookFactory.create(is)) {
+            Sheet customers = workbook.getSheetAt(0);
+            customerRanges = split(customers);
+            relatedRanges = new ArrayList<>();
+            RELATED_SHEETS.stream()
+                    .map(workbook::getSheet)
+                    .filter(Objects::nonNull)
+                    .map(this::split)
+                    .max(Comparator.comparingInt(List::size))
+                    .ifPresent(relatedRanges::addAll);
+            for (int[] range : customerRanges) {
+                slices.add(slice(workbook, BulkJobPhase.CUSTOMERS, List.of(customers.getSheetName()), range));
+            }
+            for (int[] range : relatedRanges) {
+                slices.add(slice(workbook, BulkJobPhase.RELATED, RELATED_SHEETS, range));
+            }
+        } catch (IOException e) {
+            throw new IllegalArgumentException("The uploaded workbook could not be read");
+        }
+
+        String jobId = UUID.randomUUID().toString();
+        int shardCount = shardRouter.getShardCount();
+        int partitionCount = (customerRanges.size() + relatedRanges.size()) * shardCount;
+        try {
+            for (int shard = shardCount - 1; shard >= 0; shard--) {
+                int current = shard;
+                shardRouter.onShard(shard, () -> transactionTemplate.execute(status -> {
+                    insertPartitions(jobId, BulkJobPhase.CUSTOMERS, customerRanges);
+                    insertPartitions(jobId, BulkJobPhase.RELATED, relatedRanges);
+                    if (current == 0) {
+                        slices.forEach(slice -> storeSlice(jobId, slice));
+                        jdbcTemplate.update(INSERT_JOB, jobId, file.getOriginalFilename(), BulkJobStatus.RUNNING.name(),
+                                nodeId, UtcClock.now(), partitionCount);
+                    }
+                    return null;
+                }));
+            }
+        } catch (RuntimeException e) {
+            shardRouter.forEachShard(shard -> jdbcTemplate.update(DELETE_PARTITIONS, jobId));
+            throw e;
+        }
+
+        log.info("Submitted bulk job {} for {} with {} partitions", jobId, file.getOriginalFilename(), partitionCount);
+        return getJob(jobId);
+    }
+
+    @Override
+    public BulkJobDTO getJob(String id) {
+        BulkJobDTO job = shardRouter.onShard(0, () -> jdbcTemplate.query(SELECT_JOB, rs -> rs.next()
+                ? BulkJobDTO.builder()
+                .id(id)
+                .fileName(rs.getString(1))
+                .status(BulkJobStatus.valueOf(rs.getString(2)))
+                .createdBy(rs.getString(3))
+                .createdAt(rs.getObject(4, LocalDateTime.class))
+                .finishedAt(rs.getObject(5, LocalDateTime.class))
+                .partitionCount(rs.getInt(6))
+                .build()
+                : null, id));
+        if (job == null) {
+            throw new ResourceNotFoundException("Bulk job not found with id: " + id);
+        }
+
+        List<BulkJobPartitionDTO> partitions = new ArrayList<>();
+        List<BulkProcessingResultDTO> results = new ArrayList<>();
+        shardRouter.onEveryShard(shard -> {
+            List<BulkJobPartitionDTO> shardPartitions = new ArrayList<>();
+            List<BulkProcessingResultDTO> shardResults = new ArrayList<>();
+            jdbcTemplate.query(SELECT_PARTITIONS, (RowCallbackHandler) rs -> {
+                BulkJobPartitionStatus status = BulkJobPartitionStatus.valueOf(rs.getString(4));
+                shardPartitions.add(BulkJobPartitionDTO.builder()
+                        .shard(shard)
+                        .phase(BulkJobPhase.valueOf(rs.getString(1)))
+                        .firstRow(rs.getInt(2))
+                        .lastRow(rs.getInt(3))
+                        .status(status)
+                        .attempts(rs.getInt(5))
+                        .node(rs.getString(6))
+                        .finishedAt(rs.getObject(7, LocalDateTime.class))
+                        .error(rs.getString(8))
+                        .build());
+                if (status == BulkJobPartitionStatus.COMPLETED) {
+                    shardResults.add(BulkProcessingResultDTO.builder()
+                            .totalProcessed(rs.getInt(9))
+                            .successCount(rs.getInt(10))
+                            .failureCount(rs.getInt(11))
+                            .addressesImported(rs.getInt(12))
+                            .mobileNumbersImported(rs.getInt(13))
+                            .relationshipsImported(rs.getInt(14))
+                            .errors(readErrors(rs.getString(15)))
+                            .build());
+                }
+            }, id);
+            synchronized (partitions) {
+                partitions.addAll(shardPartitions);
+                results.addAll(shardResults);
+            }
+            return shard;
+        });
+
+        partitions.sort(Comparator.comparing(BulkJobPartitionDTO::getPhase)
+                .thenComparingInt(BulkJobPartitionDTO::getFirstRow)
+                .thenComparingInt(BulkJobPartitionDTO::getShard));
+        job.setPartitions(partitions);
+        job.setPartitionsCompleted(results.size());
+        job.setPartitionsFailed((int) partitions.stream()
+                .filter(partition -> partition.getStatus() == BulkJobPartitionStatus.FAILED)
+                .count());
+        job.setResult(ShardedCustomerService.mergeResults(results));
+        return job;
+    }
+
+    /**
+     * Claims the next partition any shard has ready and runs it on the calling thread.
+     * Returns false when there was nothing to claim.
+     */
+    @Override
+    public boolean runNextPartition() {
+        Claim claim = claim();
+        if (claim == null) {
+            return false;
+        }
+        run(claim);
+        return true;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startPolling() {
+        if (enabled && pollMillis > 0) {
+            log.info("Bulk job node {} polling every {} ms", nodeId, pollMillis);
+            scheduler.scheduleWithFixedDelay(this::poll, pollMillis, pollMillis, TimeUnit.MILLISECONDS);
+            long heartbeatMillis = Math.max(1, leaseMillis / 3);
+            scheduler.scheduleWithFixedDelay(this::heartbeat, heartbeatMillis, heartbeatMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        scheduler.shutdownNow();
+        partitionExecutor.shutdownNow();
+    }
+
+    // Fills the free slots of this node with claimed partitions, then settles jobs that have finished
+    private void poll() {
+        try {
+            while (slots.tryAcquire()) {
+                Claim claim = claim();
+                if (claim == null) {
+                    slots.release();
+                    break;
+                }
+                try {
+                    partitionExecutor.execute(() -> {
+                        try {
+                            run(claim);
+                        } finally {
+                            slots.release();
+                        }
+                    });
+                } catch (RejectedExecutionException e) {
+                    unclaim(claim);
+                    slots.release();
+                    break;
+                }
+            }
+            finishJobs();
+        } catch (RuntimeException e) {
+            // Thrown out of a scheduled task it would cancel every later poll
+            log.error("Bulk job poll failed", e);
+        }
+    }
+
+    private void heartbeat() {
+        try {
+            LocalDateTime expiresAt = UtcClock.now().plus(Duration.ofMillis(leaseMillis));
+            claims.values().forEach(claim -> {
+                int extended = shardRouter.onShard(claim.shard(),
+                        () -> jdbcTemplate.update(HEARTBEAT, expiresAt, claim.partitionId(), claim.token()));
+                if (extended == 0) {
+                    log.warn("Lease on partition {} of bulk job {} was taken over, its work will be rolled back",
+                            claim.partitionId(), claim.jobId());
+                }
+            });
+        } catch (RuntimeException e) {
+            log.error("Bulk job heartbeat failed", e);
+        }
+    }
+
+    // Shards are tried from a rotating start, so one busy shard does not starve the others
+    private Claim claim() {
+        int shardCount = shardRouter.getShardCount();
+        int start = Math.floorMod(nextShard.getAndIncrement(), shardCount);
+        for (int i = 0; i < shardCount; i++) {
+            int shard = (start + i) % shardCount;
+            Claim claim = shardRouter.onShard(shard, () -> claimOnShard(shard));
+            if (claim != null) {
+                return claim;
+            }
+        }
+        return null;
+    }
+
+    private Claim claimOnShard(int shard) {
+        LocalDateTime now = UtcClock.now();
+        List<long[]> candidates = jdbcTemplate.query(SELECT_CLAIMABLE,
+                (rs, rowNum) -> new long[]{rs.getLong(1), rs.getInt(2)}, now, now);
+        for (long[] candidate : candidates) {
+            long partitionId = candidate[0];
+            if (candidate[1] >= maxAttempts) {
+                // Only a running partition gets here with its attempts used up: its last node died too
+                if (jdbcTemplate.update(ABANDON, now, "Lease expired on all " + maxAttempts + " attempts",
+                        partitionId, now) > 0) {
+                    log.error("Gave up bulk job partition {} on shard {} after {} attempts", partitionId, shard, maxAttempts);
+                }
+                continue;
+            }
+            String token = UUID.randomUUID().toString();
+            LocalDateTime expiresAt = now.plus(Duration.ofMillis(leaseMillis));
+            if (jdbcTemplate.update(CLAIM, nodeId, token, expiresAt, partitionId, now) == 0) {
+                continue; // Another node was first
+            }
+            return jdbcTemplate.queryForObject(SELECT_CLAIMED, (rs, rowNum) -> new Claim(shard, partitionId, token,
+                    rs.getString(1), BulkJobPhase.valueOf(rs.getString(2)), rs.getInt(3), rs.getInt(4), rs.getInt(5)),
+                    partitionId);
+        }
+        return null;
+    }
+
+    private void run(Claim claim) {
+        if (jobStatus(claim.jobId()) == null) {
+            // Partitions of other shards are written before the job, whose transaction may not have committed yet
+            unclaim(claim);
+            return;
+        }
+        claims.put(claim.token(), claim);
+        long startNanos = System.nanoTime();
+        Path file = null;
+        try {
+            file = download(claim);
+            Predicate<String> ownsNic = shardRouter.ownsNic(claim.shard());
+            BulkProcessingResultDTO result;
+            try (Workbook workbook = WorkbookFactory.create(file.toFile(), null, true)) {
+                result = shardRouter.onShard(claim.shard(), () -> runPartition(claim, workbook, ownsNic));
+            }
+            log.info("Completed {} partition rows {}-{} of bulk job {} on shard {} in {} ms: {} customers, {} failed, "
+                            + "{} addresses, {} mobile numbers, {} relationships", claim.phase(), claim.firstRow(),
+                    claim.lastRow(), claim.jobId(), claim.shard(), (System.nanoTime() - startNanos) / 1_000_000,
+                    result.getSuccessCount(), result.getFailureCount(), result.getAddressesImported(),
+                    result.getMobileNumbersImported(), result.getRelationshipsImported());
+        } catch (IOException | RuntimeException e) {
+            release(claim, e);
+        } finally {
+            claims.remove(claim.token());
+            if (file != null) {
+                deleteQuietly(file);
+            }
+        }
+        finishJob(claim.jobId());
+    }
+
+    // A customer partition whose insert waited on a NIC another partition then committed fails the unique index.
+    // It is rolled back and run again at once, looking up the NICs of each batch so that only their rows are rejected
+    private BulkProcessingResultDTO runPartition(Claim claim, Workbook workbook, Predicate<String> ownsNic) {
+        for (int attempt = 1; ; attempt++) {
+            boolean lookUpNics = attempt > 1;
+            try {
+                return transactionTemplate.execute(status -> {
+                    BulkProcessingResultDTO imported = claim.phase() == BulkJobPhase.CUSTOMERS
+                            ? customerService.importCustomerRows(workbook, claim.firstRow(), claim.lastRow(), ownsNic,
+                                    lookUpNics)
+                            : customerService.importRelatedRows(workbook, claim.firstRow(), claim.lastRow(), ownsNic);
+                    int completed = jdbcTemplate.update(COMPLETE, UtcClock.now(), imported.getTotalProcessed(),
+                            imported.getSuccessCount(), imported.getFailureCount(), imported.getAddressesImported(),
+                            imported.getMobileNumbersImported(), imported.getRelationshipsImported(),
+                            writeErrors(imported.getErrors()), claim.partitionId(), claim.token());
+                    if (completed == 0) {
+                        throw new IllegalStateException("Lost the lease on partition " + claim.partitionId());
+                    }
+                    return imported;
+                });
+            } catch (DataIntegrityViolationException e) {
+                if (lookUpNics || claim.phase() != BulkJobPhase.CUSTOMERS) {
+                    throw e;
+                }
+                log.warn("Partition {} of bulk job {} hit a NIC saved concurrently, running it again with every NIC "
+                        + "looked up", claim.partitionId(), claim.jobId());
+            }
+        }
+    }
+
+    // The partition is retried by any node until its attempts are used up
+    private void release(Claim claim, Exception cause) {
+        boolean retry = claim.attempt() < maxAttempts;
+        log.error("{} partition rows {}-{} of bulk job {} on shard {} failed on attempt {}{}", claim.phase(),
+                claim.firstRow(), claim.lastRow(), claim.jobId(), claim.shard(), claim.attempt(),
+                retry ? ", it will be retried" : "", cause);
+        String error = String.valueOf(cause.getMessage());
+        try {
+            shardRouter.onShard(claim.shard(), () -> jdbcTemplate.update(RELEASE,
+                    (retry ? BulkJobPartitionStatus.PENDING : BulkJobPartitionStatus.FAILED).name(),
+                    retry ? null : UtcClock.now(), error.substring(0, Math.min(error.length(), MAX_ERROR_LENGTH)),
+                    claim.partitionId(), claim.token()));
+        } catch (RuntimeException e) {
+            log.error("Could not release partition {}, it is claimed again when its lease expires", claim.partitionId(), e);
+        }
+    }
+
+    private void unclaim(Claim claim) {
+        shardRouter.onShard(claim.shard(), () -> jdbcTemplate.update(UNCLAIM, claim.partitionId(), claim.token()));
+    }
+
+    private void finishJobs() {
+        shardRouter.onShard(0, () -> jdbcTemplate.queryForList(SELECT_RUNNING_JOBS, String.class))
+                .forEach(this::finishJob);
+
+        LocalDateTime expiredBefore = UtcClock.now().minusDays(retentionDays);
+        shardRouter.onShard(0, () -> jdbcTemplate.queryForList(SELECT_EXPIRED_JOBS, String.class, expiredBefore))
+                .forEach(jobId -> {
+                    shardRouter.forEachShard(shard -> jdbcTemplate.update(DELETE_PARTITIONS, jobId));
+                    shardRouter.onShard(0, () -> jdbcTemplate.update(DELETE_JOB, jobId));
+                });
+    }
+
+    // Whichever node sees the last partition finish settles the job and drops its file
+    private void finishJob(String jobId) {
+        Map<String, Long> counts = new HashMap<>();
+        shardRouter.forEachShard(shard -> jdbcTemplate.query(COUNT_PARTITIONS_BY_STATUS,
+                (RowCallbackHandler) rs -> counts.merge(rs.getString(1), rs.getLong(2), Long::sum), jobId));
+        if (counts.containsKey(BulkJobPartitionStatus.PENDING.name())
+                || counts.containsKey(BulkJobPartitionStatus.RUNNING.name())) {
+            return;
+        }
+        BulkJobStatus status = counts.containsKey(BulkJobPartitionStatus.FAILED.name())
+                ? BulkJobStatus.FAILED : BulkJobStatus.COMPLETED;
+        boolean finished = shardRouter.onShard(0, () -> transactionTemplate.execute(tx -> {
+            if (jdbcTemplate.update(FINISH_JOB, status.name(), UtcClock.now(), jobId) == 0) {
+                return false;
+            }
+            jdbcTemplate.update(DELETE_FILE, jobId);
+            return true;
+        }));
+        if (finished) {
+            log.info("Bulk job {} finished {}", jobId, status);
+        }
+    }
+
+    private BulkJobStatus jobStatus(String jobId) {
+        String status = shardRouter.onShard(0, () -> jdbcTemplate.query(SELECT_JOB_STATUS,
+                rs -> rs.next() ? rs.getString(1) : null, jobId));
+        return status == null ? null : BulkJobStatus.valueOf(status);
+    }
+
+    private static Slice slice(Workbook workbook, BulkJobPhase phase, List<String> sheetNames, int[] range)
+            throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        WorkbookSlice.write(workbook, sheetNames, range[0], range[1], out);
+        return new Slice(phase, range[0], out.toByteArray());
+    }
+
+    private void storeSlice(String jobId, Slice slice) {
+        byte[] data = slice.data();
+        int chunkIndex = 0;
+        for (int offset = 0; offset < data.length; offset += BulkJobFileChunk.MAX_CHUNK_BYTES) {
+            jdbcTemplate.update(INSERT_FILE_CHUNK, jobId, slice.phase().name(), slice.firstRow(), chunkIndex++,
+                    Arrays.copyOfRange(data, offset, Math.min(data.length, offset + BulkJobFileChunk.MAX_CHUNK_BYTES)));
+        }
+    }
+
+    private Path download(Claim claim) {
+        try {
+            Path file = Files.createTempFile("bulk-job-" + claim.jobId() + "-", ".xlsx");
+            try (OutputStream out = Files.newOutputStream(file)) {
+                shardRouter.onShard(0, () -> {
+                    jdbcTemplate.query(SELECT_FILE_CHUNKS, (RowCallbackHandler) rs -> {
+                        try {
+                            out.write(rs.getBytes(1));
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    }, claim.jobId(), claim.phase().name(), claim.firstRow());
+                    return null;
+                });
+            } catch (IOException | RuntimeException e) {
+                deleteQuietly(file);
+                throw e;
+            }
+            return file;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not copy the rows of bulk job " + claim.jobId(), e);
+        }
+    }
+
+    private void insertPartitions(String jobId, BulkJobPhase phase, List<int[]> ranges) {
+        jdbcTemplate.batchUpdate(INSERT_PARTITION, ranges, ranges.size(), (ps, range) -> {
+            ps.setString(1, jobId);
+            ps.setString(2, phase.name());
+            ps.setInt(3, range[0]);
+            ps.setInt(4, range[1]);
+        });
+    }
+
+    // Row ranges of partition-rows rows each; the header row falls in the first and is skipped by the import
+    private List<int[]> split(Sheet sheet) {
+        List<int[]> ranges = new ArrayList<>();
+        if (sheet.getPhysicalNumberOfRows() < 2) {
+            return ranges;
+        }
+        for (int first = sheet.getFirstRowNum(); first <= sheet.getLastRowNum(); first += partitionRows) {
+            ranges.add(new int[]{first, Math.min(first + partitionRows - 1, sheet.getLastRowNum())});
+        }
+        return ranges;
+    }
+
+    private String writeErrors(List<BulkRowErrorDTO> errors) {
+        try {
+            return objectMapper.writeValueAsString(errors);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize row errors", e);
+        }
+    }
+
+    private List<BulkRowErrorDTO> readErrors(String errors) {
+        if (errors == null) {
+            return new ArrayList<>();
+        }
+        try {
+            return objectMapper.readValue(errors, ROW_ERRORS);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not read row errors", e);
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete bulk job file {}", file);
+        }
+    }
+
+    private static String defaultNodeId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            host = "localhost";
+        }
+        return host + "-" + ProcessHandle.current().pid();
+    }
+}
@@ -0,0 +1,75 @@
+package com.customer.customermanagement.service.impl;
+
+import com.customer.customermanagement.dto.BulkJobDTO;
+import com.customer.customermanagement.dto.BulkJobStatus;
+import com.customer.customermanagement.dto.BulkProcessingResultDTO;
+import com.customer.customermanagement.exception.ResourceNotFoundException;
+import com.customer.customermanagement.service.BulkUploadStatusService;
+import com.customer.customermanagement.util.UtcClock;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps uploads in memory until retention-minutes after they finished, so their status is only known to the
+ * instance that received them. Finished uploads past retention are dropped whenever a new one is tracked.
+ */
+@Slf4j
+@Service
+public class BulkUploadStatusServiceImpl implements BulkUploadStatusService {
+
+    private final long retentionMinutes;
+    private final Map<String, BulkJobDTO> uploads = new ConcurrentHashMap<>();
+
+    public BulkUploadStatusServiceImpl(@Value("${customer.bulk-uploads.retention-minutes:60}") long retentionMinutes) {
+        this.retentionMinutes = retentionMinutes;
+    }
+
+    @Override
+    public BulkJobDTO track(String fileName, CompletableFuture<BulkProcessingResultDTO> processing) {
+        LocalDateTime expiredBefore = UtcClock.now().minusMinutes(retentionMinutes);
+        uploads.values().removeIf(upload ->
+                upload.getFinishedAt() != null && upload.getFinishedAt().isBefore(expiredBefore));
+
+        String id = UUID.randomUUID().toString();
+        uploads.put(id, BulkJobDTO.builder()
+                .id(id)
+                .fileName(fileName)
+                .status(BulkJobStatus.RUNNING)
+                .createdAt(UtcClock.now())
+                .build());
+        processing.whenComplete((result, error) -> {
+            if (error != null) {
+                log.error("Bulk upload {} of {} failed", id, fileName, error);
+            } else {
+                log.info("Bulk upload {} finished. Total: {}, Success: {}, Failed: {}", id,
+                        result.getTotalProcessed(), result.getSuccessCount(), result.getFailureCount());
+            }
+            // Replaced rather than updated, so a status being serialized never changes underneath
+            uploads.computeIfPresent(id, (key, upload) -> BulkJobDTO.builder()
+                    .id(id)
+                    .fileName(fileName)
+                    .status(error != null ? BulkJobStatus.FAILED : BulkJobStatus.COMPLETED)
+                    .createdAt(upload.getCreatedAt())
+                    .finishedAt(UtcClock.now())
+                    .result(result)
+                    .build());
+        });
+        return uploads.get(id);
+    }
+
+    @Override
+    public BulkJobDTO getUpload(String id) {
+        BulkJobDTO upload = uploads.get(id);
+        if (upload == null) {
+            throw new ResourceNotFoundException("Bulk upload not found with id: " + id);
+        }
+        return upload;
+    }
+}
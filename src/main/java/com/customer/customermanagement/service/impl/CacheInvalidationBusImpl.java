@@ -0,0 +1,183 @@
+package com.customer.customermanagement.service.impl;
+
+import com.customer.customermanagement.dto.CachedEntity;
+import com.customer.customermanagement.service.CacheInvalidationBus;
+import com.customer.customermanagement.service.CacheInvalidationTransport;
+import com.customer.customermanagement.service.CacheInvalidationTransport.Invalidation;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Invalidations of one transaction are collected in a set and applied to this instance's caches once it commits,
+ * then wait with those of other transactions for the next tick, which sends them to the other instances in one
+ * batch and applies what they sent. Repeats coalesce in the set, and more than max-batch ids of one entity become
+ * a single invalidation of the whole entity. With replicas, a cache can reload a row from a replica that has not
+ * caught up yet, so every invalidation is applied a second time replica-lag-millis later.
+ */
+@Slf4j
+@Service
+public class CacheInvalidationBusImpl implements CacheInvalidationBus, DisposableBean {
+
+    private final CacheInvalidationTransport transport;
+    private final long pollMillis;
+    private final int maxBatch;
+    private final long replicaLagMillis;
+    private final ScheduledExecutorService scheduler;
+
+    private final Map<CachedEntity, List<Consumer<Long>>> listeners = new ConcurrentHashMap<>();
+    private final Set<Invalidation> pending = ConcurrentHashMap.newKeySet();
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong received = new AtomicLong();
+    private boolean transportFailing;
+
+    public CacheInvalidationBusImpl(CacheInvalidationTransport transport,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${customer.cache.poll-millis:100}") long pollMillis,
+                                    @Value("${customer.cache.max-batch:1000}") int maxBatch,
+                                    @Value("${customer.cache.replica-lag-millis:0}") long replicaLagMillis) {
+        this.transport = transport;
+        this.pollMillis = pollMillis;
+        this.maxBatch = maxBatch;
+        this.replicaLagMillis = replicaLagMillis;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "cache-invalidation");
+            thread.setDaemon(true);
+            return thread;
+        });
+        FunctionCounter.builder("customer.cache.invalidations", sent, AtomicLong::get)
+                .description("Cache invalidations sent to other instances")
+                .tag("direction", "sent")
+                .register(meterRegistry);
+        FunctionCounter.builder("customer.cache.invalidations", received, AtomicLong::get)
+                .description("Cache invalidations received from other instances")
+                .tag("direction", "received")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void publish(CachedEntity entity, Long id) {
+        Invalidation invalidation = new Invalidation(entity, id);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            dispatch(Set.of(invalidation));
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        Set<Invalidation> inTransaction = (Set<Invalidation>) TransactionSynchronizationManager.getResource(this);
+        if (inTransaction == null) {
+            Set<Invalidation> collected = new LinkedHashSet<>();
+            TransactionSynchronizationManager.bindResource(this, collected);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(CacheInvalidationBusImpl.this);
+                    if (status == STATUS_COMMITTED) {
+                        dispatch(collected);
+                    }
+                }
+            });
+            inTransaction = collected;
+        }
+        inTransaction.add(invalidation);
+    }
+
+    @Override
+    public void subscribe(CachedEntity entity, Consumer<Long> listener) {
+        listeners.computeIfAbsent(entity, key -> new CopyOnWriteArrayList<>()).add(listener);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        scheduler.scheduleWithFixedDelay(this::exchange, 0, pollMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void destroy() {
+        scheduler.shutdownNow();
+    }
+
+    private void dispatch(Collection<Invalidation> invalidations) {
+        apply(invalidations);
+        pending.addAll(invalidations);
+    }
+
+    // Runs on the scheduler thread only; a failure keeps the batch for the next tick
+    private void exchange() {
+        List<Invalidation> batch = new ArrayList<>(pending);
+        try {
+            if (!batch.isEmpty()) {
+                Collection<Invalidation> coalesced = coalesce(batch);
+                transport.send(coalesced);
+                pending.removeAll(batch);
+                sent.addAndGet(coalesced.size());
+            }
+            List<Invalidation> incoming = transport.receive();
+            if (!incoming.isEmpty()) {
+                received.addAndGet(incoming.size());
+                apply(coalesce(incoming));
+            }
+            if (transportFailing) {
+                transportFailing = false;
+                log.info("Cache invalidation transport recovered");
+            }
+        } catch (RuntimeException e) {
+            if (!transportFailing) {
+                transportFailing = true;
+                log.error("Cache invalidation transport failed, other instances may serve stale entries until it recovers", e);
+            }
+        }
+    }
+
+    private Collection<Invalidation> coalesce(Collection<Invalidation> invalidations) {
+        Map<CachedEntity, Set<Invalidation>> byEntity = new EnumMap<>(CachedEntity.class);
+        for (Invalidation invalidation : invalidations) {
+            byEntity.computeIfAbsent(invalidation.entity(), entity -> new LinkedHashSet<>()).add(invalidation);
+        }
+        List<Invalidation> coalesced = new ArrayList<>();
+        byEntity.forEach((entity, entityInvalidations) -> {
+            Invalidation all = new Invalidation(entity, null);
+            if (entityInvalidations.size() > maxBatch || entityInvalidations.contains(all)) {
+                coalesced.add(all);
+            } else {
+                coalesced.addAll(entityInvalidations);
+            }
+        });
+        return coalesced;
+    }
+
+    private void apply(Collection<Invalidation> invalidations) {
+        notifyListeners(invalidations);
+        if (replicaLagMillis > 0 && !scheduler.isShutdown()) {
+            List<Invalidation> again = List.copyOf(invalidations);
+            scheduler.schedule(() -> notifyListeners(again), replicaLagMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void notifyListeners(Collection<Invalidation> invalidations) {
+        for (Invalidation invalidation : invalidations) {
+            for (Consumer<Long> listener : listeners.getOrDefault(invalidation.entity(), List.of())) {
+                try {
+                    listener.accept(invalidation.id());
+                } catch (RuntimeException e) {
+                    log.error("Cache invalidation listener failed for {}", invalidation, e);
+                }
+            }
+        }
+    }
+}
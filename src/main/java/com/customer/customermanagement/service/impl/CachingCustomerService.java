@@ -0,0 +1,187 @@
+package com.customer.customermanagement.service.impl;
+
+import com.customer.customermanagement.config.ReadRoutingContext;
+import com.customer.customermanagement.dto.BulkDeleteRequestDTO;
+import com.customer.customermanagement.dto.BulkDeleteResultDTO;
+import com.customer.customermanagement.dto.BulkProcessingResultDTO;
+import com.customer.customermanagement.dto.CachedEntity;
+import com.customer.customermanagement.dto.CustomerAssociation;
+import com.customer.customermanagement.dto.CustomerDTO;
+import com.customer.customermanagement.dto.CustomerSummaryDTO;
+import com.customer.customermanagement.service.CacheInvalidationBus;
+import com.customer.customermanagement.service.CustomerService;
+import com.customer.customermanagement.util.InvalidatingCache;
+import com.customer.customermanagement.util.SingleFlight;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * Read front of ShardedCustomerService. Concurrent identical reads by id, listings and searches are coalesced
+ * into one load whose result every caller shares, and full reads by id are cached for at most
+ * customer.cache.ttl-seconds until a write on any instance invalidates them, so callers must not modify what they
+ * get back. Coalescing is switched with
+ * customer.read-coalescing.enabled, caching with customer.cache.enabled; writes pass straight through.
+ */
+@Service
+@Primary
+public class CachingCustomerService implements CustomerService {
+
+    private final CustomerService delegate;
+    private final boolean coalescingEnabled;
+    private final boolean cachingEnabled;
+
+    private final SingleFlight<DetailKey, CustomerDTO> detailReads;
+    private final SingleFlight<PageKey, Page<CustomerSummaryDTO>> listReads;
+    private final SingleFlight<PageKey, Page<CustomerSummaryDTO>> searchReads;
+    private final InvalidatingCache<Long, CustomerDTO> customers;
+
+    // ShardedCustomerService, proxied behind the interface for its @Async import
+    public CachingCustomerService(@Qualifier("shardedCustomerService") CustomerService delegate,
+                                  MeterRegistry meterRegistry,
+                                  CacheInvalidationBus cacheInvalidationBus,
+                                  @Value("${customer.read-coalescing.enabled:true}") boolean coalescingEnabled,
+                                  @Value("${customer.read-coalescing.max-wait-millis:2000}") long maxWaitMillis,
+                                  @Value("${customer.cache.enabled:true}") boolean cachingEnabled,
+                                  @Value("${customer.cache.customer-max-entries:100000}") int maxCachedCustomers,
+                                  @Value("${customer.cache.ttl-seconds:300}") long cacheTtlSeconds) {
+        this.delegate = delegate;
+        this.coalescingEnabled = coalescingEnabled;
+        this.cachingEnabled = cachingEnabled;
+        this.detailReads = registerMetrics(new SingleFlight<>(maxWaitMillis), "get", meterRegistry);
+        this.listReads = registerMetrics(new SingleFlight<>(maxWaitMillis), "list", meterRegistry);
+        this.searchReads = registerMetrics(new SingleFlight<>(maxWaitMillis), "search", meterRegistry);
+        this.customers = new InvalidatingCache<>(maxCachedCustomers, cacheTtlSeconds * 1000);
+        // Reads by id running since before the write are forgotten first, so a cache fill after the invalidation
+        // cannot join one of them and keep what it read until the TTL
+        cacheInvalidationBus.subscribe(CachedEntity.CUSTOMER, id -> {
+            if (id == null) {
+                detailReads.forget(key -> true);
+                customers.invalidateAll();
+            } else {
+                detailReads.forget(key -> key.id().equals(id));
+                customers.invalidate(id);
+            }
+        });
+        FunctionCounter.builder("customer.cache.hits", customers, InvalidatingCache::getHits)
+                .description("Cache lookups answered from memory")
+                .tag("cache", "customer")
+                .register(meterRegistry);
+        FunctionCounter.builder("customer.cache.misses", customers, InvalidatingCache::getMisses)
+                .description("Cache lookups that went to the database")
+                .tag("cache", "customer")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public CustomerDTO createCustomer(CustomerDTO customerDTO) {
+        return delegate.createCustomer(customerDTO);
+    }
+
+    @Override
+    public CustomerDTO updateCustomer(Long id, CustomerDTO customerDTO) {
+        return delegate.updateCustomer(id, customerDTO);
+    }
+
+    @Override
+    public CustomerDTO updateCustomer(Long id, CustomerDTO customerDTO, Long expectedVersion) {
+        return delegate.updateCustomer(id, customerDTO, expectedVersion);
+    }
+
+    @Override
+    public CustomerDTO getCustomerById(Long id) {
+        return getCustomerById(id, EnumSet.allOf(CustomerAssociation.class));
+    }
+
+    @Override
+    public CustomerDTO getCustomerById(Long id, Set<CustomerAssociation> include) {
+        Supplier<CustomerDTO> load = () -> coalesce(detailReads,
+                new DetailKey(id, Set.copyOf(include), ReadRoutingContext.isPrimaryPinned()),
+                () -> delegate.getCustomerById(id, include));
+        // Partial reads are cheap already; a client inside its read-your-writes window may be ahead of the invalidations
+        if (!cachingEnabled || !include.containsAll(EnumSet.allOf(CustomerAssociation.class))
+                || ReadRoutingContext.isPrimaryPinned() || TransactionSynchronizationManager.isActualTransactionActive()) {
+            return load.get();
+        }
+        return customers.get(id, load);
+    }
+
+    @Override
+    public Page<CustomerSummaryDTO> getAllCustomers(Pageable pageable) {
+        return coalesce(listReads, new PageKey(null, pageable, ReadRoutingContext.isPrimaryPinned()),
+                () -> delegate.getAllCustomers(pageable));
+    }
+
+    @Override
+    public Page<CustomerSummaryDTO> searchCustomers(String query, Pageable pageable) {
+        return coalesce(searchReads, new PageKey(query, pageable, ReadRoutingContext.isPrimaryPinned()),
+                () -> delegate.searchCustomers(query, pageable));
+    }
+
+    @Override
+    public List<CustomerSummaryDTO> getCustomersByMobileNumber(String mobileNumber) {
+        return delegate.getCustomersByMobileNumber(mobileNumber);
+    }
+
+    @Override
+    public void deleteCustomer(Long id) {
+        delegate.deleteCustomer(id);
+    }
+
+    @Override
+    public BulkDeleteResultDTO deleteCustomers(BulkDeleteRequestDTO request) {
+        return delegate.deleteCustomers(request);
+    }
+
+    @Override
+    public CompletableFuture<BulkProcessingResultDTO> processBulkCustomerCreation(MultipartFile file) {
+        return delegate.processBulkCustomerCreation(file);
+    }
+
+    /**
+     * Callers inside a transaction load on their own, they may see their own uncommitted writes.
+     * Requests pinned to the primary only share loads with each other, a replica read could be stale for them.
+     */
+    private <K, V> V coalesce(SingleFlight<K, V> flights, K key, Supplier<V> loader) {
+        if (!coalescingEnabled || TransactionSynchronizationManager.isActualTransactionActive()) {
+            return loader.get();
+        }
+        return flights.load(key, loader);
+    }
+
+    private static <K, V> SingleFlight<K, V> registerMetrics(SingleFlight<K, V> flights, String operation,
+                                                              MeterRegistry meterRegistry) {
+        FunctionCounter.builder("customer.reads.loads", flights, SingleFlight::getLoads)
+                .description("Customer reads that ran a query")
+                .tag("operation", operation)
+                .register(meterRegistry);
+        FunctionCounter.builder("customer.reads.coalesced", flights, SingleFlight::getCoalesced)
+                .description("Customer reads answered by a concurrent identical read")
+                .tag("operation", operation)
+                .register(meterRegistry);
+        FunctionCounter.builder("customer.reads.coalesce.timeouts", flights, SingleFlight::getTimeouts)
+                .description("Customer reads that stopped waiting for a concurrent read and queried themselves")
+                .tag("operation", operation)
+                .register(meterRegistry);
+        return flights;
+    }
+
+    private record DetailKey(Long id, Set<CustomerAssociation> include, boolean primaryPinned) {
+    }
+
+    private record PageKey(String query, Pageable pageable, boolean primaryPinned) {
+    }
+}
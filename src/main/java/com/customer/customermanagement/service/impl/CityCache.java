@@ -0,0 +1,91 @@
+package com.customer.customermanagement.service.impl;
+
+import com.customer.customermanagement.config.ShardContext;
+import com.customer.customermanagement.dto.CachedEntity;
+import com.customer.customermanagement.model.City;
+import com.customer.customermanagement.model.Country;
+import com.customer.customermanagement.service.CacheInvalidationBus;
+import com.customer.customermanagement.util.InvalidatingCache;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * Cities with their country by name, in front of the get-or-create of addresses saved one customer at a time.
+ * Entries are detached copies keyed by shard too, every shard numbers its cities on its own, and a city is
+ * only cached once the transaction that found or created it commits. Invalidating any city clears them all,
+ * entries are looked up by name and an id names none of them.
+ */
+@Component
+public class CityCache {
+
+    private record Key(int shard, String countryName, String cityName) {
+    }
+
+    private final boolean enabled;
+    private final InvalidatingCache<Key, City> cities;
+
+    public CityCache(CacheInvalidationBus cacheInvalidationBus,
+                     MeterRegistry meterRegistry,
+                     @Value("${customer.cache.enabled:true}") boolean enabled,
+                     @Value("${customer.cache.city-max-entries:10000}") int maxEntries,
+                     @Value("${customer.cache.ttl-seconds:300}") long ttlSeconds) {
+        this.enabled = enabled;
+        this.cities = new InvalidatingCache<>(maxEntries, ttlSeconds * 1000);
+        cacheInvalidationBus.subscribe(CachedEntity.CITY, id -> cities.invalidateAll());
+        FunctionCounter.builder("customer.cache.hits", cities, InvalidatingCache::getHits)
+                .description("Cache lookups answered from memory")
+                .tag("cache", "city")
+                .register(meterRegistry);
+        FunctionCounter.builder("customer.cache.misses", cities, InvalidatingCache::getMisses)
+                .description("Cache lookups that went to the database")
+                .tag("cache", "city")
+                .register(meterRegistry);
+    }
+
+    /**
+     * The loader runs in the caller's transaction and returns a managed city, a cached one is a detached copy
+     */
+    public City get(String cityName, String countryName, Supplier<City> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        Key key = new Key(Objects.requireNonNullElse(ShardContext.current(), 0), countryName, cityName);
+        City cached = cities.getIfPresent(key);
+        if (cached != null) {
+            return copy(cached);
+        }
+
+        City city = loader.get();
+        City loaded = copy(city);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cities.put(key, loaded);
+                }
+            });
+        } else {
+            cities.put(key, loaded);
+        }
+        return city;
+    }
+
+    private static City copy(City city) {
+        Country country = city.getCountry();
+        return City.builder()
+                .id(city.getId())
+                .name(city.getName())
+                .country(Country.builder()
+                        .id(country.getId())
+                        .name(country.getName())
+                        .build())
+                .build();
+    }
+}
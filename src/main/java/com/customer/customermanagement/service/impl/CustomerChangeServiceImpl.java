@@ -0,0 +1,171 @@
+package com.customer.customermanagement.service.impl;
+
+import com.customer.customermanagement.config.ShardRouter;
+import com.customer.customermanagement.dto.CustomerChangeDTO;
+import com.customer.customermanagement.dto.CustomerChangeType;
+import com.customer.customermanagement.dto.CustomerChangesDTO;
+import com.customer.customermanagement.dto.CustomerSummaryDTO;
+import com.customer.customermanagement.service.CustomerChangeService;
+import com.customer.customermanagement.service.CustomerSummaryService;
+import com.customer.customermanagement.util.UtcClock;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Changes feed over customers.updated_at and customer_tombstones.deleted_at, read with a keyset on
+ * (timestamp, customer id) so every page is an index range scan. The token is that keyset position.
+ * Changes younger than the settle window are held back: a transaction that stamped its rows earlier
+ * but commits later would otherwise land behind a token a client already moved past. The window has
+ * to cover the longest write transaction. With shards every shard is read and the pages are merged.
+ */
+@Slf4j
+@Service
+public class CustomerChangeServiceImpl implements CustomerChangeService {
+
+    private static final String UPSERTS_QUERY =
+            "SELECT id, updated_at FROM customers "
+                    + "WHERE updated_at >= ? AND (updated_at > ? OR id > ?) AND updated_at <= ? "
+                    + "ORDER BY updated_at, id LIMIT ?";
+    private static final String DELETES_QUERY =
+            "SELECT customer_id, deleted_at, nic_number FROM customer_tombstones "
+                    + "WHERE deleted_at >= ? AND (deleted_at > ? OR customer_id > ?) AND deleted_at <= ? "
+                    + "ORDER BY deleted_at, customer_id LIMIT ?";
+    private static final int MAX_LIMIT = 10_000;
+    private static final LocalDateTime BEGINNING = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final CustomerSummaryService customerSummaryService;
+    private final ShardRouter shardRouter;
+    private final PlatformTransactionManager transactionManager;
+    private final long settleMillis;
+
+    public CustomerChangeServiceImpl(JdbcTemplate jdbcTemplate,
+                                     CustomerSummaryService customerSummaryService,
+                                     ShardRouter shardRouter,
+                                     PlatformTransactionManager transactionManager,
+                                     @Value("${customer.changes.settle-millis:5000}") long settleMillis) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.customerSummaryService = customerSummaryService;
+        this.shardRouter = shardRouter;
+        this.transactionManager = transactionManager;
+        this.settleMillis = settleMillis;
+    }
+
+    @Override
+    public CustomerChangesDTO getChanges(String since, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_LIMIT));
+        LocalDateTime from = BEGINNING;
+        long fromId = 0;
+        if (since != null && !since.isBlank()) {
+            long[] position = parseToken(since);
+            from = fromEpochMicros(position[0]);
+            fromId = position[1];
+        }
+        LocalDateTime until = UtcClock.now().minusNanos(settleMillis * 1_000_000);
+
+        // Each shard reads both sides up to the page size in one snapshot, the merge keeps the first
+        // pageSize of all of them in keyset order
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        LocalDateTime fromTime = from;
+        long fromCustomerId = fromId;
+        List<List<CustomerChangeDTO>> sides = new ArrayList<>();
+        shardRouter.onEveryShard(shard -> readOnly.execute(status -> List.of(
+                readUpserts(fromTime, fromCustomerId, until, pageSize),
+                readDeletes(fromTime, fromCustomerId, until, pageSize)))).forEach(sides::addAll);
+
+        List<CustomerChangeDTO> all = new ArrayList<>();
+        boolean hasMore = false;
+        for (List<CustomerChangeDTO> side : sides) {
+            all.addAll(side);
+            hasMore |= side.size() == pageSize;
+        }
+        all.sort(CustomerChangeServiceImpl::compare);
+        List<CustomerChangeDTO> changes = new ArrayList<>(all.subList(0, Math.min(pageSize, all.size())));
+        hasMore |= all.size() > changes.size();
+
+        String nextToken = changes.isEmpty() ? since : toToken(changes.get(changes.size() - 1));
+
+        // Current state of the changed customers. One deleted after the page was read is dropped here,
+        // its tombstone follows in a later page
+        Map<Integer, List<Long>> upsertIdsByShard = changes.stream()
+                .filter(change -> change.getType() == CustomerChangeType.UPSERT)
+                .map(CustomerChangeDTO::getCustomerId)
+                .collect(Collectors.groupingBy(shardRouter::shardOfId));
+        Map<Long, CustomerSummaryDTO> summaries = new HashMap<>();
+        upsertIdsByShard.forEach((shard, ids) ->
+                summaries.putAll(shardRouter.onShard(shard, () -> customerSummaryService.findByIds(ids))));
+        changes.removeIf(change -> change.getType() == CustomerChangeType.UPSERT
+                && !summaries.containsKey(change.getCustomerId()));
+        changes.forEach(change -> {
+            CustomerSummaryDTO summary = summaries.get(change.getCustomerId());
+            if (summary != null) {
+                change.setCustomer(summary);
+                change.setNicNumber(summary.getNicNumber());
+            }
+        });
+
+        return CustomerChangesDTO.builder()
+                .changes(changes)
+                .nextToken(nextToken)
+                .hasMore(hasMore)
+                .build();
+    }
+
+    private List<CustomerChangeDTO> readUpserts(LocalDateTime from, long fromId, LocalDateTime until, int pageSize) {
+        return jdbcTemplate.query(UPSERTS_QUERY, (rs, rowNum) -> CustomerChangeDTO.builder()
+                .customerId(rs.getLong(1))
+                .type(CustomerChangeType.UPSERT)
+                .changedAt(rs.getObject(2, LocalDateTime.class))
+                .build(), from, from, fromId, until, pageSize);
+    }
+
+    private List<CustomerChangeDTO> readDeletes(LocalDateTime from, long fromId, LocalDateTime until, int pageSize) {
+        return jdbcTemplate.query(DELETES_QUERY, (rs, rowNum) -> CustomerChangeDTO.builder()
+                .customerId(rs.getLong(1))
+                .type(CustomerChangeType.DELETE)
+                .changedAt(rs.getObject(2, LocalDateTime.class))
+                .nicNumber(rs.getString(3))
+                .build(), from, from, fromId, until, pageSize);
+    }
+
+    private static int compare(CustomerChangeDTO left, CustomerChangeDTO right) {
+        int byTime = left.getChangedAt().compareTo(right.getChangedAt());
+        return byTime != 0 ? byTime : Long.compare(left.getCustomerId(), right.getCustomerId());
+    }
+
+    private static String toToken(CustomerChangeDTO change) {
+        LocalDateTime changedAt = change.getChangedAt();
+        long epochMicros = changedAt.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + changedAt.getNano() / 1_000;
+        return epochMicros + "-" + change.getCustomerId();
+    }
+
+    private static long[] parseToken(String token) {
+        int separator = token.indexOf('-', 1);
+        try {
+            if (separator < 0) {
+                throw new NumberFormatException();
+            }
+            return new long[]{Long.parseLong(token.substring(0, separator)), Long.parseLong(token.substring(separator + 1))};
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid changes token: " + token);
+        }
+    }
+
+    private static LocalDateTime fromEpochMicros(long epochMicros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(epochMicros, 1_000_000),
+                (int) Math.floorMod(epochMicros, 1_000_000) * 1_000, ZoneOffset.UTC);
+    }
+}
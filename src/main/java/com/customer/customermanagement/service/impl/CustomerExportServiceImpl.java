@@ -0,0 +1,334 @@
+package com.customer.customermanagement.service.impl;
+
+import com.customer.customermanagement.config.ShardRouter;
+import com.customer.customermanagement.dto.ExportFormat;
+import com.customer.customermanagement.service.CustomerExportService;
+import com.customer.customermanagement.util.ExcelProcessor;
+import com.customer.customermanagement.util.IdRangePartitioner;
+import com.customer.customermanagement.util.IdRangePartitioner.IdRange;
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.poi.ss.SpreadsheetVersion;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Exports the customer base as a zip of parts, one per id range of customer_summary on each shard.
+ * Workers read and serialize partitions concurrently into temporary files while the calling thread
+ * streams finished parts into the zip in id order, so the download starts with the first part.
+ * Parallelism is capped by the CPU count and by half of the connection pool, leaving the rest to requests.
+ */
+@Slf4j
+@Service
+public class CustomerExportServiceImpl implements CustomerExportService {
+
+    private static final String RANGE_QUERY =
+            "SELECT MIN(customer_id), MAX(customer_id), COUNT(*) FROM customer_summary";
+    private static final String PARTITION_QUERY =
+            "SELECT name, date_of_birth, nic_number, mobile_numbers FROM customer_summary "
+                    + "WHERE customer_id BETWEEN ? AND ? ORDER BY customer_id";
+    private static final int STREAM_FETCH_SIZE = 1000;
+    private static final int SXSSF_WINDOW_SIZE = 100;
+    // Widths in 1/256 of a character, autosizing a streamed sheet would keep every row in memory
+    private static final int[] COLUMN_WIDTHS = {30 * 256, 14 * 256, 16 * 256, 40 * 256};
+    private static final int MAX_ROWS_PER_SHEET = SpreadsheetVersion.EXCEL2007.getMaxRows() - 1;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DataSource dataSource;
+    private final ShardRouter shardRouter;
+    private final Executor exportExecutor;
+    private final int maxParallelism;
+    private final int partitionRows;
+
+    public CustomerExportServiceImpl(JdbcTemplate jdbcTemplate,
+                                     DataSource dataSource,
+                                     ShardRouter shardRouter,
+                                     @Qualifier("exportExecutor") Executor exportExecutor,
+                                     @Value("${customer.export.max-parallelism:0}") int maxParallelism,
+                                     @Value("${customer.export.partition-rows:100000}") int partitionRows) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.dataSource = dataSource;
+        this.shardRouter = shardRouter;
+        this.exportExecutor = exportExecutor;
+        this.maxParallelism = maxParallelism;
+        this.partitionRows = partitionRows;
+    }
+
+    @Override
+    public void exportCustomers(ExportFormat format, OutputStream outputStream) throws IOException {
+        long startNanos = System.nanoTime();
+        int parallelism = parallelism();
+        long rowCount = 0;
+        // Parts run shard by shard, shard id ranges are ordered like the shards so the zip stays in id order
+        List<ShardRange> ranges = new ArrayList<>();
+        for (int shard = 0; shard < shardRouter.getShardCount(); shard++) {
+            long[] bounds = shardRouter.onShard(shard, () -> jdbcTemplate.queryForObject(RANGE_QUERY,
+                    (rs, rowNum) -> new long[]{rs.getLong(1), rs.getLong(2), rs.getLong(3)}));
+            long shardRows = bounds[2];
+            // An empty table still yields one part holding the header, other shards only export rows
+            if (shardRows == 0 && shard > 0) {
+                continue;
+            }
+            rowCount += shardRows;
+            int partitionCount = (int) Math.max(Math.min(parallelism, shardRows), (shardRows + partitionRows - 1) / partitionRows);
+            for (IdRange range : IdRangePartitioner.split(bounds[0], bounds[1], partitionCount)) {
+                ranges.add(new ShardRange(shard, range));
+            }
+        }
+        List<CompletableFuture<Path>> parts = ranges.stream()
+                .map(range -> new CompletableFuture<Path>())
+                .toList();
+
+        AtomicInteger nextPart = new AtomicInteger();
+        AtomicBoolean cancelled = new AtomicBoolean();
+        int workers = Math.min(parallelism, ranges.size());
+        log.info("Exporting {} customers as {} in {} parts with {} workers", rowCount, format, ranges.size(), workers);
+        try {
+            // A rejected worker fails the export, the finally block stops the workers already started
+            for (int i = 0; i < workers; i++) {
+                exportExecutor.execute(() -> {
+                    int index;
+                    while (!cancelled.get() && (index = nextPart.getAndIncrement()) < ranges.size()) {
+                        writePart(format, ranges.get(index), parts.get(index));
+                    }
+                });
+            }
+
+            // Parts are already compressed spreadsheets or plain text that deflates well
+            ZipOutputStream zip = new ZipOutputStream(outputStream);
+            zip.setLevel(format == ExportFormat.XLSX ? Deflater.NO_COMPRESSION : Deflater.BEST_SPEED);
+            for (int i = 0; i < parts.size(); i++) {
+                Path part = awaitPart(parts.get(i));
+                try {
+                    zip.putNextEntry(new ZipEntry(String.format("customers-part-%04d.%s", i + 1, format.getExtension())));
+                    Files.copy(part, zip);
+                    zip.closeEntry();
+                } finally {
+                    Files.deleteIfExists(part);
+                }
+            }
+            zip.finish();
+        } finally {
+            cancelled.set(true);
+            parts.forEach(CustomerExportServiceImpl::discard);
+        }
+
+        log.info("Exported {} customers in {} ms", rowCount, (System.nanoTime() - startNanos) / 1_000_000);
+    }
+
+    private void writePart(ExportFormat format, ShardRange part, CompletableFuture<Path> result) {
+        IdRange range = part.range();
+        Path file = null;
+        try {
+            file = Files.createTempFile("customer-export-", "." + format.getExtension());
+            try (PartWriter writer = format == ExportFormat.XLSX ? new XlsxPartWriter(file) : new CsvPartWriter(file)) {
+                shardRouter.onShard(part.shard(), () -> {
+                    jdbcTemplate.query(connection -> {
+                        PreparedStatement statement = connection.prepareStatement(PARTITION_QUERY,
+                                ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                        statement.setFetchSize(STREAM_FETCH_SIZE);
+                        statement.setLong(1, range.fromId());
+                        statement.setLong(2, range.toId());
+                        return statement;
+                    }, (RowCallbackHandler) rs -> writer.write(rs));
+                    return null;
+                });
+            }
+            // The export may have given up while this part was written
+            if (!result.complete(file)) {
+                Files.deleteIfExists(file);
+            }
+        } catch (Exception e) {
+            log.error("Export of customers {} to {} failed", range.fromId(), range.toId(), e);
+            deleteQuietly(file);
+            result.completeExceptionally(e);
+        }
+    }
+
+    private int parallelism() {
+        int cpus = Runtime.getRuntime().availableProcessors();
+        int requested = maxParallelism > 0 ? maxParallelism : cpus;
+        return Math.max(1, Math.min(requested, poolSize() / 2));
+    }
+
+    private int poolSize() {
+        try {
+            if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                return dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize();
+            }
+        } catch (SQLException e) {
+            log.debug("Could not read the connection pool size", e);
+        }
+        return Runtime.getRuntime().availableProcessors() * 2;
+    }
+
+    private static Path awaitPart(CompletableFuture<Path> part) throws IOException {
+        try {
+            return part.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Export interrupted");
+        } catch (ExecutionException e) {
+            throw new IOException("Export of a customer partition failed", e.getCause());
+        }
+    }
+
+    // Parts that were written but never streamed, because an earlier one failed or the client went away
+    private static void discard(CompletableFuture<Path> part) {
+        if (!part.cancel(false) && !part.isCompletedExceptionally()) {
+            deleteQuietly(part.join());
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete export part {}", file);
+        }
+    }
+
+    private record ShardRange(int shard, IdRange range) {
+    }
+
+    private interface PartWriter extends Closeable {
+
+        void write(ResultSet rs) throws SQLException;
+    }
+
+    private static final class XlsxPartWriter implements PartWriter {
+
+        private final Path file;
+        private final SXSSFWorkbook workbook = new SXSSFWorkbook(SXSSF_WINDOW_SIZE);
+        private Sheet sheet;
+        private int rowNum;
+
+        XlsxPartWriter(Path file) {
+            this.file = file;
+            workbook.setCompressTempFiles(true);
+            nextSheet();
+        }
+
+        @Override
+        public void write(ResultSet rs) throws SQLException {
+            // Id ranges are split by width, a dense range can outgrow one sheet
+            if (rowNum > MAX_ROWS_PER_SHEET) {
+                nextSheet();
+            }
+            Row row = sheet.createRow(rowNum++);
+            row.createCell(0).setCellValue(rs.getString(1));
+            Date dateOfBirth = rs.getDate(2);
+            row.createCell(1).setCellValue(dateOfBirth != null ? dateOfBirth.toLocalDate().toString() : "");
+            row.createCell(2).setCellValue(rs.getString(3));
+            String mobileNumbers = rs.getString(4);
+            row.createCell(3).setCellValue(mobileNumbers != null ? mobileNumbers : "");
+        }
+
+        @Override
+        public void close() throws IOException {
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file))) {
+                workbook.write(out);
+            } finally {
+                workbook.dispose();
+                workbook.close();
+            }
+        }
+
+        private void nextSheet() {
+            int number = workbook.getNumberOfSheets() + 1;
+            sheet = workbook.createSheet(number == 1 ? "Customers" : "Customers " + number);
+            Row header = sheet.createRow(0);
+            for (int i = 0; i < ExcelProcessor.CUSTOMER_HEADERS.size(); i++) {
+                header.createCell(i).setCellValue(ExcelProcessor.CUSTOMER_HEADERS.get(i));
+                sheet.setColumnWidth(i, COLUMN_WIDTHS[i]);
+            }
+            rowNum = 1;
+        }
+    }
+
+    private static final class CsvPartWriter implements PartWriter {
+
+        private final BufferedWriter writer;
+
+        CsvPartWriter(Path file) throws IOException {
+            this.writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+            writer.write(String.join(",", ExcelProcessor.CUSTOMER_HEADERS));
+            writer.write("\r\n");
+        }
+
+        @Override
+        public void write(ResultSet rs) throws SQLException {
+            try {
+                writeField(rs.getString(1));
+                writer.write(',');
+                Date dateOfBirth = rs.getDate(2);
+                writer.write(dateOfBirth != null ? dateOfBirth.toLocalDate().toString() : "");
+                writer.write(',');
+                writeField(rs.getString(3));
+                writer.write(',');
+                writeField(rs.getString(4));
+                writer.write("\r\n");
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            writer.close();
+        }
+
+        // RFC 4180 quoting, only for values that need it. A value a spreadsheet would run as a formula is quoted and
+        // gets an apostrophe in front, so it opens as text; the bulk upload drops the apostrophe again
+        private void writeField(String value) throws IOException {
+            if (value == null) {
+                return;
+            }
+            boolean formula = !value.isEmpty() && ExcelProcessor.FORMULA_PREFIXES.indexOf(value.charAt(0)) >= 0;
+            boolean quote = formula;
+            for (int i = 0; i < value.length() && !quote; i++) {
+                char c = value.charAt(i);
+                quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+            }
+            if (!quote) {
+                writer.write(value);
+                return;
+            }
+            writer.write('"');
+            if (formula) {
+                writer.write('\'');
+            }
+            writer.write(value.replace("\"", "\"\""));
+            writer.write('"');
+        }
+    }
+}
@@ -0,0 +1,387 @@
+package com.customer.customermanagement.service.impl;
+
+import com.customer.customermanagement.dto.BulkRowErrorCode;
+import com.customer.customermanagement.dto.BulkRowErrorDTO;
+import com.customer.customermanagement.model.City;
+import com.customer.customermanagement.model.Country;
+import com.customer.customermanagement.repository.CityRepository;
+import com.customer.customermanagement.repository.CountryRepository;
+import com.customer.customermanagement.repository.CustomerRepository;
+import com.customer.customermanagement.service.CustomerSummaryService;
+import com.customer.customermanagement.util.ExcelCellDecoder;
+import com.customer.customermanagement.util.MobileNumberNormalizer;
+import com.customer.customermanagement.util.UtcClock;
+import jakarta.persistence.EntityManager;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * Imports the optional Addresses, Mobiles and Relationships sheets of a bulk upload workbook.
+ * Rows reference customers by NIC. Each chunk of rows resolves its NICs with one query, cities and
+ * countries are resolved once per distinct name for the whole file, and rows are written with
+ * JDBC batch inserts instead of one entity merge per customer.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CustomerGraphImporter {
+
+    static final String ADDRESSES_SHEET = "Addresses";
+    static final String MOBILES_SHEET = "Mobiles";
+    static final String RELATIONSHIPS_SHEET = "Relationships";
+
+    private static final int CHUNK_SIZE = 1000;
+    private static final String COLUMN_NIC_NUMBER = "nicNumber";
+    private static final String COLUMN_CITY = "city";
+    private static final String COLUMN_COUNTRY = "country";
+    private static final String COLUMN_MOBILE_NUMBER = "mobileNumber";
+    private static final String COLUMN_FAMILY_MEMBER_NIC_NUMBER = "familyMemberNicNumber";
+
+    private static final String INSERT_ADDRESS =
+            "INSERT INTO addresses (address_line1, address_line2, city_id, customer_id) VALUES (?, ?, ?, ?)";
+    private static final String INSERT_MOBILE_NUMBER =
+            "INSERT INTO customer_mobile_numbers (customer_id, mobile_number) VALUES (?, ?)";
+    private static final String INSERT_RELATIONSHIP =
+            "INSERT INTO family_relationships (customer_id, family_member_id) VALUES (?, ?)";
+
+    private final CustomerRepository customerRepository;
+    private final CountryRepository countryRepository;
+    private final CityRepository cityRepository;
+    private final CustomerSummaryService customerSummaryService;
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManager entityManager;
+
+    @Getter
+    public static class ImportCounts {
+        private int addresses;
+        private int mobileNumbers;
+        private int relationships;
+    }
+
+    private record AddressRow(String nicNumber, String addressLine1, String addressLine2, String city, String country) {
+    }
+
+    private record LinkRow(int rowNumber, String nicNumber, String value) {
+    }
+
+    public ImportCounts importRelatedSheets(Workbook workbook, ExcelCellDecoder cellDecoder, List<BulkRowErrorDTO> errors) {
+        return importRelatedSheets(workbook, cellDecoder, errors, nicNumber -> true);
+    }
+
+    /**
+     * Imports only the rows whose customer NIC the predicate accepts, the rows of one shard.
+     * A relationship to a family member owned elsewhere is reported as FAMILY_MEMBER_ON_OTHER_SHARD.
+     */
+    public ImportCounts importRelatedSheets(Workbook workbook, ExcelCellDecoder cellDecoder, List<BulkRowErrorDTO> errors,
+                                            Predicate<String> ownsNic) {
+        return importRelatedSheets(workbook, cellDecoder, errors, ownsNic, 0, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Imports rows firstRow to lastRow of every related sheet whose customer NIC the predicate accepts,
+     * one partition of a bulk job
+     */
+    public ImportCounts importRelatedSheets(Workbook workbook, ExcelCellDecoder cellDecoder, List<BulkRowErrorDTO> errors,
+                                            Predicate<String> ownsNic, int firstRow, int lastRow) {
+        ImportCounts counts = new ImportCounts();
+        Predicate<Row> ownsRow = row -> row.getRowNum() >= firstRow && row.getRowNum() <= lastRow
+                && ownsNic.test(cellDecoder.readNic(row.getCell(0)));
+
+        // Customers of the first sheet have to be in the database before their NICs are resolved
+        entityManager.flush();
+        entityManager.clear();
+
+        Sheet addresses = workbook.getSheet(ADDRESSES_SHEET);
+        if (addresses != null) {
+            Map<String, Long> countryIds = new HashMap<>();
+            Map<String, Long> cityIds = new HashMap<>();
+            forEachChunk(addresses, ownsRow, chunk ->
+                    counts.addresses += importAddresses(chunk, cellDecoder, errors, countryIds, cityIds));
+        }
+
+        Sheet mobiles = workbook.getSheet(MOBILES_SHEET);
+        if (mobiles != null) {
+            forEachChunk(mobiles, ownsRow, chunk -> counts.mobileNumbers += importMobileNumbers(chunk, cellDecoder, errors));
+        }
+
+        Sheet relationships = workbook.getSheet(RELATIONSHIPS_SHEET);
+        if (relationships != null) {
+            forEachChunk(relationships, ownsRow, chunk ->
+                    counts.relationships += importRelationships(chunk, cellDecoder, errors, ownsNic));
+        }
+
+        log.info("Imported {} addresses, {} mobile numbers and {} relationships",
+                counts.addresses, counts.mobileNumbers, counts.relationships);
+        return counts;
+    }
+
+    private int importAddresses(List<Row> chunk, ExcelCellDecoder cellDecoder, List<BulkRowErrorDTO> errors,
+                                Map<String, Long> countryIds, Map<String, Long> cityIds) {
+        Map<Integer, AddressRow> rows = new LinkedHashMap<>();
+        for (Row row : chunk) {
+            String sheetName = row.getSheet().getSheetName();
+            int errorCount = errors.size();
+            String nicNumber = cellDecoder.readNic(row.getCell(0));
+            String city = cellDecoder.readText(row.getCell(3));
+            String country = cellDecoder.readText(row.getCell(4));
+
+            if (nicNumber == null) {
+                errors.add(new BulkRowErrorDTO(sheetName, row.getRowNum(), COLUMN_NIC_NUMBER, BulkRowErrorCode.NIC_MISSING));
+            }
+            if (city == null) {
+                errors.add(new BulkRowErrorDTO(sheetName, row.getRowNum(), COLUMN_CITY, BulkRowErrorCode.CITY_MISSING));
+            }
+            if (country == null) {
+                errors.add(new BulkRowErrorDTO(sheetName, row.getRowNum(), COLUMN_COUNTRY, BulkRowErrorCode.COUNTRY_MISSING));
+            }
+            if (errors.size() == errorCount) {
+                rows.put(row.getRowNum(), new AddressRow(nicNumber,
+                        cellDecoder.readText(row.getCell(1)), cellDecoder.readText(row.getCell(2)), city, country));
+            }
+        }
+
+        Map<String, Long> customerIds = resolveCustomerIds(rows.values().stream()
+                .map(AddressRow::nicNumber)
+                .collect(Collectors.toSet()));
+        resolveCities(rows.values(), countryIds, cityIds);
+
+        List<Object[]> inserts = new ArrayList<>(rows.size());
+        Set<Long> touched = new HashSet<>();
+        String sheetName = chunk.get(0).getSheet().getSheetName();
+        rows.forEach((rowNumber, row) -> {
+            Long customerId = customerIds.get(row.nicNumber());
+            if (customerId == null) {
+                errors.add(new BulkRowErrorDTO(sheetName, rowNumber, COLUMN_NIC_NUMBER, BulkRowErrorCode.NIC_NOT_FOUND));
+                return;
+            }
+            Long cityId = cityIds.get(cityKey(countryIds.get(key(row.country())), row.city()));
+            inserts.add(new Object[]{row.addressLine1(), row.addressLine2(), cityId, customerId});
+            touched.add(customerId);
+        });
+
+        jdbcTemplate.batchUpdate(INSERT_ADDRESS, inserts);
+        afterChunk(touched);
+        return inserts.size();
+    }
+
+    private int importMobileNumbers(List<Row> chunk, ExcelCellDecoder cellDecoder, List<BulkRowErrorDTO> errors) {
+        List<LinkRow> rows = readLinkRows(chunk, cellDecoder, errors, COLUMN_MOBILE_NUMBER, BulkRowErrorCode.MOBILE_NUMBER_INVALID,
+                MobileNumberNormalizer::normalize);
+        Map<String, Long> customerIds = resolveCustomerIds(rows.stream()
+                .map(LinkRow::nicNumber)
+                .collect(Collectors.toSet()));
+
+        // Pairs already stored, or repeated in the file, would violate the primary key
+        Set<String> existing = new HashSet<>();
+        if (!customerIds.isEmpty()) {
+            customerRepository.findMobileNumbersByIdIn(customerIds.values()).forEach(row ->
+                    existing.add(pairKey(row[0], row[1])));
+        }
+
+        List<Object[]> inserts = new ArrayList<>(rows.size());
+        Set<Long> touched = new HashSet<>();
+        String sheetName = chunk.get(0).getSheet().getSheetName();
+        for (LinkRow row : rows) {
+            Long customerId = customerIds.get(row.nicNumber());
+            if (customerId == null) {
+                errors.add(new BulkRowErrorDTO(sheetName, row.rowNumber(), COLUMN_NIC_NUMBER, BulkRowErrorCode.NIC_NOT_FOUND));
+            } else if (existing.add(pairKey(customerId, row.value()))) {
+                inserts.add(new Object[]{customerId, row.value()});
+                touched.add(customerId);
+            }
+        }
+
+        jdbcTemplate.batchUpdate(INSERT_MOBILE_NUMBER, inserts);
+        afterChunk(touched);
+        return inserts.size();
+    }
+
+    private int importRelationships(List<Row> chunk, ExcelCellDecoder cellDecoder, List<BulkRowErrorDTO> errors,
+                                    Predicate<String> ownsNic) {
+        List<LinkRow> rows = readLinkRows(chunk, cellDecoder, errors, COLUMN_FAMILY_MEMBER_NIC_NUMBER, BulkRowErrorCode.NIC_MISSING,
+                value -> value);
+        Set<String> nicNumbers = new HashSet<>();
+        rows.forEach(row -> {
+            nicNumbers.add(row.nicNumber());
+            nicNumbers.add(row.value());
+        });
+        Map<String, Long> customerIds = resolveCustomerIds(nicNumbers);
+
+        Set<String> existing = new HashSet<>();
+        if (!customerIds.isEmpty()) {
+            customerRepository.findFamilyRelationshipsByIdIn(customerIds.values()).forEach(row ->
+                    existing.add(pairKey(((Number) row[0]).longValue(), ((Number) row[1]).longValue())));
+        }
+
+        List<Object[]> inserts = new ArrayList<>(rows.size());
+        Set<Long> touched = new HashSet<>();
+        String sheetName = chunk.get(0).getSheet().getSheetName();
+        for (LinkRow row : rows) {
+            Long customerId = customerIds.get(row.nicNumber());
+            Long familyMemberId = customerIds.get(row.value());
+            if (customerId == null) {
+                errors.add(new BulkRowErrorDTO(sheetName, row.rowNumber(), COLUMN_NIC_NUMBER, BulkRowErrorCode.NIC_NOT_FOUND));
+            } else if (familyMemberId == null && !ownsNic.test(row.value())) {
+                errors.add(new BulkRowErrorDTO(sheetName, row.rowNumber(), COLUMN_FAMILY_MEMBER_NIC_NUMBER, BulkRowErrorCode.FAMILY_MEMBER_ON_OTHER_SHARD));
+            } else if (familyMemberId == null) {
+                errors.add(new BulkRowErrorDTO(sheetName, row.rowNumber(), COLUMN_FAMILY_MEMBER_NIC_NUMBER, BulkRowErrorCode.NIC_NOT_FOUND));
+            } else if (customerId.equals(familyMemberId)) {
+                errors.add(new BulkRowErrorDTO(sheetName, row.rowNumber(), COLUMN_FAMILY_MEMBER_NIC_NUMBER, BulkRowErrorCode.RELATIONSHIP_TO_SELF));
+            } else if (existing.add(pairKey(customerId, familyMemberId))) {
+                inserts.add(new Object[]{customerId, familyMemberId});
+                touched.add(customerId);
+            }
+        }
+
+        jdbcTemplate.batchUpdate(INSERT_RELATIONSHIP, inserts);
+        afterChunk(touched);
+        return inserts.size();
+    }
+
+    // Reads two column sheets of (NIC, value), the value is converted and rejected when the conversion yields null
+    private List<LinkRow> readLinkRows(List<Row> chunk, ExcelCellDecoder cellDecoder, List<BulkRowErrorDTO> errors,
+                                       String valueColumn, BulkRowErrorCode invalidValueCode,
+                                       Function<String, String> converter) {
+        List<LinkRow> rows = new ArrayList<>(chunk.size());
+        for (Row row : chunk) {
+            String sheetName = row.getSheet().getSheetName();
+            String nicNumber = cellDecoder.readNic(row.getCell(0));
+            String rawValue = cellDecoder.readIdentifier(row.getCell(1));
+            String value = rawValue != null ? converter.apply(rawValue) : null;
+
+            if (nicNumber == null) {
+                errors.add(new BulkRowErrorDTO(sheetName, row.getRowNum(), COLUMN_NIC_NUMBER, BulkRowErrorCode.NIC_MISSING));
+            } else if (value == null) {
+                errors.add(new BulkRowErrorDTO(sheetName, row.getRowNum(), valueColumn, invalidValueCode));
+            } else {
+                rows.add(new LinkRow(row.getRowNum(), nicNumber, value));
+            }
+        }
+        return rows;
+    }
+
+    private Map<String, Long> resolveCustomerIds(Set<String> nicNumbers) {
+        Map<String, Long> customerIds = new HashMap<>();
+        if (!nicNumbers.isEmpty()) {
+            customerRepository.findIdsByNicNumberIn(nicNumbers).forEach(row ->
+                    customerIds.put((String) row[1], (Long) row[0]));
+        }
+        return customerIds;
+    }
+
+    /**
+     * Fills the file wide caches with the ids of every country and city the rows name,
+     * looking the unknown ones up with one query each and creating whatever is still missing.
+     * Keys are lower case because the unique indexes compare names case insensitively.
+     */
+    private void resolveCities(Collection<AddressRow> rows, Map<String, Long> countryIds, Map<String, Long> cityIds) {
+        Map<String, String> missingCountries = new HashMap<>();
+        rows.forEach(row -> {
+            if (!countryIds.containsKey(key(row.country()))) {
+                missingCountries.putIfAbsent(key(row.country()), row.country());
+            }
+        });
+        if (!missingCountries.isEmpty()) {
+            countryRepository.findByNameIn(missingCountries.values()).forEach(country -> {
+                countryIds.put(key(country.getName()), country.getId());
+                missingCountries.remove(key(country.getName()));
+            });
+            List<Country> newCountries = missingCountries.values().stream()
+                    .map(name -> {
+                        Country country = new Country();
+                        country.setName(name);
+                        return country;
+                    })
+                    .collect(Collectors.toList());
+            countryRepository.saveAll(newCountries)
+                    .forEach(country -> countryIds.put(key(country.getName()), country.getId()));
+        }
+
+        Map<String, AddressRow> missingCities = new HashMap<>();
+        rows.forEach(row -> {
+            String cityKey = cityKey(countryIds.get(key(row.country())), row.city());
+            if (!cityIds.containsKey(cityKey)) {
+                missingCities.putIfAbsent(cityKey, row);
+            }
+        });
+        if (!missingCities.isEmpty()) {
+            Set<Long> countryIdsToSearch = missingCities.values().stream()
+                    .map(row -> countryIds.get(key(row.country())))
+                    .collect(Collectors.toSet());
+            Set<String> cityNames = missingCities.values().stream()
+                    .map(AddressRow::city)
+                    .collect(Collectors.toSet());
+            cityRepository.findByCountryIdInAndNameIn(countryIdsToSearch, cityNames).forEach(city -> {
+                String cityKey = cityKey(city.getCountry().getId(), city.getName());
+                cityIds.put(cityKey, city.getId());
+                missingCities.remove(cityKey);
+            });
+            List<City> newCities = missingCities.values().stream()
+                    .map(row -> {
+                        City city = new City();
+                        city.setName(row.city());
+                        city.setCountry(entityManager.getReference(Country.class, countryIds.get(key(row.country()))));
+                        return city;
+                    })
+                    .collect(Collectors.toList());
+            cityRepository.saveAll(newCities)
+                    .forEach(city -> cityIds.put(cityKey(city.getCountry().getId(), city.getName()), city.getId()));
+        }
+    }
+
+    // Rows written with JDBC bypass the entities, so versions and summaries are brought up to date here
+    private void afterChunk(Set<Long> touchedCustomerIds) {
+        if (!touchedCustomerIds.isEmpty()) {
+            customerRepository.incrementVersions(touchedCustomerIds, UtcClock.now());
+            customerSummaryService.refreshByIds(touchedCustomerIds);
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private static void forEachChunk(Sheet sheet, Predicate<Row> filter, Consumer<List<Row>> handler) {
+        List<Row> chunk = new ArrayList<>(CHUNK_SIZE);
+        Iterator<Row> rowIterator = sheet.rowIterator();
+        if (rowIterator.hasNext()) {
+            rowIterator.next(); // Skip header row
+        }
+        while (rowIterator.hasNext()) {
+            Row row = rowIterator.next();
+            if (!filter.test(row)) {
+                continue;
+            }
+            chunk.add(row);
+            if (chunk.size() >= CHUNK_SIZE) {
+                handler.accept(chunk);
+                chunk = new ArrayList<>(CHUNK_SIZE);
+            }
+        }
+        if (!chunk.isEmpty()) {
+            handler.accept(chunk);
+        }
+    }
+
+    private static String key(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+
+    private static String cityKey(Long countryId, String cityName) {
+        return countryId + "/" + key(cityName);
+    }
+
+    private static String pairKey(Object first, Object second) {
+        return first + "/" + second;
+    }
+}
@@ -0,0 +1,98 @@
+package com.customer.customermanagement.service.impl;
+
+import com.customer.customermanagement.dto.AddressDTO;
+import com.customer.customermanagement.dto.CustomerDTO;
+import com.customer.customermanagement.dto.CustomerSummaryDTO;
+import com.customer.customermanagement.model.Address;
+import com.customer.customermanagement.model.Customer;
+import com.customer.customermanagement.model.CustomerSummary;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.stream.Collectors;
+
+/**
+ * Entity to DTO mapping shared by the JPA services and the reactive reads, which fill the same entities
+ * from their rows so that both APIs answer with identical documents.
+ */
+final class CustomerMapper {
+
+    // Mobile numbers never contain a comma
+    static final String MOBILE_SEPARATOR = ",";
+
+    private CustomerMapper() {
+    }
+
+    static CustomerDTO toDTO(Customer customer) {
+        CustomerDTO dto = new CustomerDTO();
+        dto.setId(customer.getId());
+        dto.setVersion(customer.getVersion());
+        dto.setName(customer.getName());
+        dto.setDateOfBirth(customer.getDateOfBirth());
+        dto.setNicNumber(customer.getNicNumber());
+        // Copied so the DTO can be serialized after the transaction closed the session
+        dto.setMobileNumbers(customer.getMobileNumbers() != null ? new HashSet<>(customer.getMobileNumbers()) : null);
+        dto.setCreatedAt(customer.getCreatedAt());
+        dto.setUpdatedAt(customer.getUpdatedAt());
+
+        // Map family members to IDs
+        if (customer.getFamilyMembers() != null && !customer.getFamilyMembers().isEmpty()) {
+            dto.setFamilyMemberIds(customer.getFamilyMembers().stream()
+                    .map(Customer::getId)
+                    .collect(Collectors.toSet()));
+        }
+
+        // Map addresses
+        if (customer.getAddresses() != null && !customer.getAddresses().isEmpty()) {
+            dto.setAddresses(customer.getAddresses().stream()
+                    .map(CustomerMapper::toDTO)
+                    .collect(Collectors.toList()));
+        }
+
+        return dto;
+    }
+
+    static AddressDTO toDTO(Address address) {
+        AddressDTO dto = new AddressDTO();
+        dto.setId(address.getId());
+        dto.setAddressLine1(address.getAddressLine1());
+        dto.setAddressLine2(address.getAddressLine2());
+
+        if (address.getCity() != null) {
+            dto.setCityId(address.getCity().getId());
+            dto.setCityName(address.getCity().getName());
+
+            if (address.getCity().getCountry() != null) {
+                dto.setCountryId(address.getCity().getCountry().getId());
+                dto.setCountryName(address.getCity().getCountry().getName());
+            }
+        }
+
+        return dto;
+    }
+
+    static CustomerSummaryDTO toDTO(CustomerSummary summary) {
+        CustomerSummaryDTO dto = new CustomerSummaryDTO();
+        dto.setId(summary.getCustomerId());
+        dto.setName(summary.getName());
+        dto.setDateOfBirth(summary.getDateOfBirth());
+        dto.setNicNumber(summary.getNicNumber());
+        dto.setFamilyMemberCount(summary.getFamilyMemberCount());
+
+        if (summary.getMobileNumbers() != null) {
+            dto.setMobileNumbers(new LinkedHashSet<>(Arrays.asList(summary.getMobileNumbers().split(MOBILE_SEPARATOR))));
+        }
+
+        if (summary.getAddressLine1() != null || summary.getCityName() != null) {
+            AddressDTO address = new AddressDTO();
+            address.setAddressLine1(summary.getAddressLine1());
+            address.setAddressLine2(summary.getAddressLine2());
+            address.setCityName(summary.getCityName());
+            address.setCountryName(summary.getCountryName());
+            dto.setPrimaryAddress(address);
+        }
+
+        return dto;
+    }
+}
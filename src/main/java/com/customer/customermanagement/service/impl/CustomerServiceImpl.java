@@ -1,9 +1,17 @@
 package com.customer.customermanagement.service.impl;
 
 
-import com.customer.customermanagement.dto.AddressDTO;
+import com.customer.customermanagement.dto.BulkDeleteRequestDTO;
+import com.customer.customermanagement.dto.BulkDeleteResultDTO;
+import com.customer.customermanagement.dto.BulkProcessingResultDTO;
+import com.customer.customermanagement.dto.BulkRowErrorCode;
+import com.customer.customermanagement.dto.BulkRowErrorDTO;
+import com.customer.customermanagement.dto.CachedEntity;
+import com.customer.customermanagement.dto.CustomerAssociation;
 import com.customer.customermanagement.dto.CustomerDTO;
+import com.customer.customermanagement.dto.CustomerSummaryDTO;
 import com.customer.customermanagement.exception.DuplicateResourceException;
+import com.customer.customermanagement.exception.PreconditionFailedException;
 import com.customer.customermanagement.exception.ResourceNotFoundException;
 import com.customer.customermanagement.model.Address;
 import com.customer.customermanagement.model.City;
@@ -13,26 +21,41 @@ import com.customer.customermanagement.repository.AddressRepository;
 import com.customer.customermanagement.repository.CityRepository;
 import com.customer.customermanagement.repository.CountryRepository;
 import com.customer.customermanagement.repository.CustomerRepository;
+import com.customer.customermanagement.repository.CustomerScalarView;
+import com.customer.customermanagement.repository.CustomerTombstoneRepository;
+import com.customer.customermanagement.service.CacheInvalidationBus;
 import com.customer.customermanagement.service.CustomerService;
+import com.customer.customermanagement.service.CustomerSummaryService;
+import com.customer.customermanagement.service.NicMembershipService;
+import com.customer.customermanagement.util.ExcelCellDecoder;
+import com.customer.customermanagement.util.MobileNumberNormalizer;
+import com.customer.customermanagement.util.UtcClock;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.poi.ss.usermodel.*;
 import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.scheduling.annotation.Async;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
+import java.time.LocalDateTime;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -44,36 +67,117 @@ public class CustomerServiceImpl implements CustomerService {
     private final CityRepository cityRepository;
     private final CountryRepository countryRepository;
     private final AddressRepository addressRepository;
+    private final CustomerSummaryService customerSummaryService;
+    private final PlatformTransactionManager transactionManager;
+    private final NicMembershipService nicMembershipService;
+    private final CustomerGraphImporter customerGraphImporter;
+    private final CustomerStagingImporter customerStagingImporter;
+    private final CustomerTombstoneRepository customerTombstoneRepository;
+    private final CacheInvalidationBus cacheInvalidationBus;
+    private final CityCache cityCache;
 
     private static final int BATCH_SIZE = 1000;
-    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    private static final int MAX_UPDATE_ATTEMPTS = 3;
+    private static final int MAX_IMPORT_ATTEMPTS = 2;
+    private static final long UPDATE_RETRY_BACKOFF_MS = 25;
+    private static final int DELETE_CHUNK_SIZE = 500;
+    private static final String COLUMN_NAME = "name";
+    private static final String COLUMN_DATE_OF_BIRTH = "dateOfBirth";
+    private static final String COLUMN_NIC_NUMBER = "nicNumber";
+    private static final String COLUMN_MOBILE_NUMBERS = "mobileNumbers";
+    private static final String MOBILE_NUMBER_CELL_SEPARATOR = ",";
 
     @Override
     @Transactional
     public CustomerDTO createCustomer(CustomerDTO customerDTO) {
         // Check if customer with same NIC already exists
-        if (customerRepository.existsByNicNumber(customerDTO.getNicNumber())) {
+        if (nicMembershipService.exists(customerDTO.getNicNumber())) {
             throw new DuplicateResourceException("Customer with NIC " + customerDTO.getNicNumber() + " already exists");
         }
 
         Customer customer = mapToEntity(customerDTO);
-        Customer savedCustomer = customerRepository.save(customer);
+        // The filter only knows the NICs this instance has seen, the unique index decides for the others
+        Customer savedCustomer;
+        try {
+            savedCustomer = customerRepository.save(customer);
+            customerRepository.flush();
+        } catch (DataIntegrityViolationException e) {
+            throw duplicateNic(customerDTO.getNicNumber(), e);
+        }
+        customerSummaryService.refresh(savedCustomer);
+        nicMembershipService.registerNic(savedCustomer.getNicNumber());
 
-        return mapToDTO(savedCustomer);
+        return CustomerMapper.toDTO(savedCustomer);
     }
 
     @Override
-    @Transactional
     public CustomerDTO updateCustomer(Long id, CustomerDTO customerDTO) {
+        return updateCustomer(id, customerDTO, customerDTO.getVersion());
+    }
+
+    /**
+     * Updates a customer without holding row locks across the request. With an expected version the update is
+     * conditional and a stale version fails with PreconditionFailedException, never retried. Without one, a
+     * concurrent commit detected at flush is retried a few times on fresh state, but only while that commit left
+     * every field this request sets as the first attempt read it; a retry then only adds this request's fields to
+     * the other writer's changes. Otherwise the update fails with OptimisticLockingFailureException rather than
+     * overwrite a change its client has not seen.
+     */
+    @Override
+    public CustomerDTO updateCustomer(Long id, CustomerDTO customerDTO, Long expectedVersion) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        Map<String, Object> requested = requestedFields(customerDTO);
+        Map<String, Object> firstRead = new HashMap<>();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status ->
+                        applyUpdate(id, customerDTO, expectedVersion, requested, firstRead));
+            } catch (ObjectOptimisticLockingFailureException e) {
+                if (expectedVersion != null) {
+                    throw new PreconditionFailedException("Customer " + id + " was modified by another request");
+                }
+                if (attempt >= MAX_UPDATE_ATTEMPTS) {
+                    throw e;
+                }
+                log.warn("Concurrent update of customer {}, retrying (attempt {})", id, attempt);
+                backOff(attempt);
+            }
+        }
+    }
+
+    private CustomerDTO applyUpdate(Long id, CustomerDTO customerDTO, Long expectedVersion,
+                                   Map<String, Object> requested, Map<String, Object> firstRead) {
         Customer customer = customerRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Customer not found with id: " + id));
 
+        if (expectedVersion != null && customer.getVersion() != expectedVersion) {
+            throw new PreconditionFailedException("Customer " + id + " is at version " + customer.getVersion()
+                    + ", not the expected version " + expectedVersion);
+        }
+
+        Map<String, Object> current = currentFields(customer, requested.keySet());
+        if (firstRead.isEmpty()) {
+            firstRead.putAll(current);
+        } else {
+            List<String> overwritten = requested.keySet().stream()
+                    .filter(field -> !Objects.equals(current.get(field), firstRead.get(field))
+                            && !Objects.equals(current.get(field), requested.get(field)))
+                    .toList();
+            if (!overwritten.isEmpty()) {
+                // Not an ObjectOptimisticLockingFailureException, which would be retried
+                throw new OptimisticLockingFailureException("Customer " + id + " was modified concurrently in "
+                        + String.join(", ", overwritten));
+            }
+        }
+
         // Check if updated NIC conflicts with another customer
         if (!customer.getNicNumber().equals(customerDTO.getNicNumber()) &&
-                customerRepository.existsByNicNumber(customerDTO.getNicNumber())) {
+                nicMembershipService.exists(customerDTO.getNicNumber())) {
             throw new DuplicateResourceException("Customer with NIC " + customerDTO.getNicNumber() + " already exists");
         }
 
+        String previousNicNumber = customer.getNicNumber();
+
         // Update customer fields
         customer.setName(customerDTO.getName());
         customer.setDateOfBirth(customerDTO.getDateOfBirth());
@@ -82,7 +186,7 @@ public class CustomerServiceImpl implements CustomerService {
         // Update mobile numbers
         if (customerDTO.getMobileNumbers() != null) {
             customer.getMobileNumbers().clear();
-            customer.getMobileNumbers().addAll(customerDTO.getMobileNumbers());
+            customer.getMobileNumbers().addAll(normalizeMobileNumbers(customerDTO.getMobileNumbers()));
         }
 
         // Update family members
@@ -112,8 +216,89 @@ public class CustomerServiceImpl implements CustomerService {
             });
         }
 
+        // Flush here so a concurrent modification surfaces inside the retry loop, not at commit
+        long versionBefore = customer.getVersion();
         Customer updatedCustomer = customerRepository.save(customer);
-        return mapToDTO(updatedCustomer);
+        try {
+            customerRepository.flush();
+        } catch (DataIntegrityViolationException e) {
+            throw duplicateNic(customerDTO.getNicNumber(), e);
+        }
+
+        // Address rows are owned by Address, so replacing only them leaves the customer version untouched.
+        // The managed entity keeps its loaded version, only the returned DTO carries the bumped one.
+        boolean bumpVersion = customerDTO.getAddresses() != null && updatedCustomer.getVersion() == versionBefore;
+        LocalDateTime bumpedAt = UtcClock.now();
+        if (bumpVersion && customerRepository.incrementVersion(id, versionBefore, bumpedAt) == 0) {
+            throw new ObjectOptimisticLockingFailureException(Customer.class, id);
+        }
+
+        customerSummaryService.refresh(updatedCustomer);
+        cacheInvalidationBus.publish(CachedEntity.CUSTOMER, id);
+        if (!previousNicNumber.equals(updatedCustomer.getNicNumber())) {
+            nicMembershipService.registerNic(updatedCustomer.getNicNumber());
+            nicMembershipService.unregisterNic(previousNicNumber);
+        }
+        CustomerDTO updatedDTO = CustomerMapper.toDTO(updatedCustomer);
+        if (bumpVersion) {
+            updatedDTO.setVersion(versionBefore + 1);
+            updatedDTO.setUpdatedAt(bumpedAt);
+        }
+        return updatedDTO;
+    }
+
+    // The fields an update sets, as they compare across reads; sections absent from the DTO are left alone
+    private Map<String, Object> requestedFields(CustomerDTO customerDTO) {
+        Map<String, Object> fields = new LinkedHashMap<>();
+        fields.put("name", customerDTO.getName());
+        fields.put("dateOfBirth", customerDTO.getDateOfBirth());
+        fields.put("nicNumber", customerDTO.getNicNumber());
+        if (customerDTO.getMobileNumbers() != null) {
+            fields.put("mobileNumbers", normalizeMobileNumbers(customerDTO.getMobileNumbers()));
+        }
+        if (customerDTO.getFamilyMemberIds() != null) {
+            fields.put("familyMemberIds", new HashSet<>(customerDTO.getFamilyMemberIds()));
+        }
+        if (customerDTO.getAddresses() != null) {
+            fields.put("addresses", customerDTO.getAddresses().stream()
+                    .map(address -> Arrays.asList(address.getAddressLine1(), address.getAddressLine2(),
+                            address.getCityName(), address.getCountryName()))
+                    .toList());
+        }
+        return fields;
+    }
+
+    private static Map<String, Object> currentFields(Customer customer, Set<String> names) {
+        Map<String, Object> fields = new HashMap<>();
+        fields.put("name", customer.getName());
+        fields.put("dateOfBirth", customer.getDateOfBirth());
+        fields.put("nicNumber", customer.getNicNumber());
+        if (names.contains("mobileNumbers")) {
+            fields.put("mobileNumbers", new HashSet<>(customer.getMobileNumbers()));
+        }
+        if (names.contains("familyMemberIds")) {
+            fields.put("familyMemberIds", customer.getFamilyMembers().stream()
+                    .map(Customer::getId)
+                    .collect(Collectors.toSet()));
+        }
+        if (names.contains("addresses")) {
+            fields.put("addresses", customer.getAddresses().stream()
+                    .map(address -> Arrays.asList(address.getAddressLine1(), address.getAddressLine2(),
+                            address.getCity() != null ? address.getCity().getName() : null,
+                            address.getCity() != null && address.getCity().getCountry() != null
+                                    ? address.getCity().getCountry().getName() : null))
+                    .toList());
+        }
+        return fields;
+    }
+
+    private void backOff(int attempt) {
+        try {
+            Thread.sleep(UPDATE_RETRY_BACKOFF_MS * attempt);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while retrying customer update", e);
+        }
     }
 
     @Override
@@ -122,126 +307,415 @@ public class CustomerServiceImpl implements CustomerService {
         Customer customer = customerRepository.findByIdWithDetails(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Customer not found with id: " + id));
 
-        return mapToDTO(customer);
+        return CustomerMapper.toDTO(customer);
     }
 
     @Override
     @Transactional(readOnly = true)
-    public Page<CustomerDTO> getAllCustomers(Pageable pageable) {
-        return customerRepository.findAll(pageable)
-                .map(this::mapToDTO);
+    public CustomerDTO getCustomerById(Long id, Set<CustomerAssociation> include) {
+        if (include.containsAll(EnumSet.allOf(CustomerAssociation.class))) {
+            return getCustomerById(id);
+        }
+
+        // One projection query for the scalar columns, one more per requested association
+        CustomerScalarView customer = customerRepository.findScalarById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Customer not found with id: " + id));
+        CustomerDTO dto = new CustomerDTO();
+        dto.setId(customer.getId());
+        dto.setVersion(customer.getVersion());
+        dto.setName(customer.getName());
+        dto.setDateOfBirth(customer.getDateOfBirth());
+        dto.setNicNumber(customer.getNicNumber());
+        dto.setCreatedAt(customer.getCreatedAt());
+        dto.setUpdatedAt(customer.getUpdatedAt());
+
+        if (include.contains(CustomerAssociation.MOBILES)) {
+            dto.setMobileNumbers(customerRepository.findMobileNumbersByIdIn(List.of(id)).stream()
+                    .map(row -> (String) row[1])
+                    .collect(Collectors.toSet()));
+        }
+        if (include.contains(CustomerAssociation.FAMILY)) {
+            List<Long> familyMemberIds = customerRepository.findFamilyMemberIdsById(id);
+            if (!familyMemberIds.isEmpty()) {
+                dto.setFamilyMemberIds(new HashSet<>(familyMemberIds));
+            }
+        }
+        if (include.contains(CustomerAssociation.ADDRESSES)) {
+            List<Address> addresses = addressRepository.findByCustomerIdWithCity(id);
+            if (!addresses.isEmpty()) {
+                dto.setAddresses(addresses.stream()
+                        .map(CustomerMapper::toDTO)
+                        .collect(Collectors.toList()));
+            }
+        }
+        return dto;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<CustomerSummaryDTO> getAllCustomers(Pageable pageable) {
+        // Served from the flattened customer_summary table, one row per customer
+        return customerSummaryService.findAll(pageable);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<CustomerSummaryDTO> searchCustomers(String query, Pageable pageable) {
+        return customerSummaryService.search(query, pageable);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<CustomerSummaryDTO> getCustomersByMobileNumber(String mobileNumber) {
+        String normalized = MobileNumberNormalizer.normalize(mobileNumber);
+        if (normalized == null) {
+            throw new IllegalArgumentException("Invalid mobile number: " + mobileNumber);
+        }
+
+        List<CustomerSummaryDTO> customers = customerSummaryService.findByMobileNumber(normalized);
+        if (customers.isEmpty()) {
+            throw new ResourceNotFoundException("No customer found with mobile number: " + mobileNumber);
+        }
+        return customers;
     }
 
     @Override
     @Transactional
     public void deleteCustomer(Long id) {
-        Customer customer = customerRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Customer not found with id: " + id));
+        if (!customerRepository.existsById(id)) {
+            throw new ResourceNotFoundException("Customer not found with id: " + id);
+        }
 
-        // Remove this customer from family relationships
-        customer.getFamilyMembers().forEach(familyMember -> {
-            familyMember.getFamilyMembers().remove(customer);
-        });
+        deleteChunk(Collections.singletonList(id));
+    }
+
+    /**
+     * Deletes the given ids and every customer matching the filter, in chunks of DELETE_CHUNK_SIZE
+     * with one transaction per chunk, so a large purge never holds one long transaction.
+     */
+    @Override
+    public BulkDeleteResultDTO deleteCustomers(BulkDeleteRequestDTO request) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        int deleted = 0;
+
+        if (request.getIds() != null && !request.getIds().isEmpty()) {
+            List<Long> ids = new ArrayList<>(request.getIds());
+            for (int from = 0; from < ids.size(); from += DELETE_CHUNK_SIZE) {
+                List<Long> chunk = ids.subList(from, Math.min(from + DELETE_CHUNK_SIZE, ids.size()));
+                deleted += transactionTemplate.execute(status -> deleteChunk(chunk));
+            }
+        }
+
+        if (request.hasFilter()) {
+            String namePrefix = escapeLike(blankToNull(request.getNamePrefix()));
+            String nicPrefix = escapeLike(blankToNull(request.getNicPrefix()));
+            Long afterId = 0L;
+            List<Long> chunk;
+            while (!(chunk = customerRepository.findIdsMatching(afterId, namePrefix, nicPrefix,
+                    request.getBornBefore(), PageRequest.of(0, DELETE_CHUNK_SIZE))).isEmpty()) {
+                List<Long> ids = chunk;
+                deleted += transactionTemplate.execute(status -> deleteChunk(ids));
+                afterId = chunk.get(chunk.size() - 1);
+            }
+        }
+
+        log.info("Bulk delete removed {} customers", deleted);
+        return new BulkDeleteResultDTO(deleted);
+    }
+
+    // Relationships are removed in both directions, then mobiles, addresses and the customers themselves
+    private int deleteChunk(List<Long> ids) {
+        List<Long> relatedIds = customerRepository.findIdsRelatedTo(ids);
+        List<String> nicNumbers = customerRepository.findNicNumbersByIdIn(ids);
+        LocalDateTime deletedAt = UtcClock.now();
+
+        // Tombstones feed the changes API, customers that lose a family member show up there as updated
+        customerTombstoneRepository.insertForCustomers(ids, deletedAt);
+        if (!relatedIds.isEmpty()) {
+            customerRepository.touch(relatedIds, deletedAt);
+        }
+        customerRepository.deleteFamilyRelationshipsByIdIn(ids);
+        customerRepository.deleteMobileNumbersByIdIn(ids);
+        customerRepository.deleteAddressesByIdIn(ids);
+        int deleted = customerRepository.deleteByIdIn(ids);
+
+        // Customers that listed a deleted customer as family lost a relationship
+        customerSummaryService.removeAll(ids);
+        customerSummaryService.recountFamilyMembers(relatedIds);
+        nicNumbers.forEach(nicMembershipService::unregisterNic);
+        ids.forEach(id -> cacheInvalidationBus.publish(CachedEntity.CUSTOMER, id));
+        relatedIds.forEach(id -> cacheInvalidationBus.publish(CachedEntity.CUSTOMER, id));
+        return deleted;
+    }
 
-        customerRepository.delete(customer);
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+
+    // The escape character of findIdsMatching; a prefix of % alone would otherwise match every customer
+    private static String escapeLike(String value) {
+        return value == null ? null : value.replace("!", "!!").replace("%", "!%").replace("_", "!_");
     }
 
     @Override
     @Async
-    @Transactional
-    public CompletableFuture<List<String>> processBulkCustomerCreation(MultipartFile file) {
-        log.info("Starting bulk customer creation process");
-        List<String> errors = new ArrayList<>();
-        int totalProcessed = 0;
-        int successCount = 0;
+    public CompletableFuture<BulkProcessingResultDTO> processBulkCustomerCreation(MultipartFile file) {
+        return processBulkCustomerCreation(file, nicNumber -> true);
+    }
+
+    /**
+     * Imports the rows of the workbook whose NIC the predicate accepts and skips the others without
+     * counting them. A sharded import runs this once per shard. The import is one transaction; when a
+     * NIC written concurrently fails the unique index it is rolled back and run once more, looking up
+     * the NICs of each batch before saving it.
+     */
+    public CompletableFuture<BulkProcessingResultDTO> processBulkCustomerCreation(MultipartFile file,
+                                                                                 Predicate<String> ownsNic) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        for (int attempt = 1; ; attempt++) {
+            boolean lookUpNics = attempt > 1;
+            try {
+                return CompletableFuture.completedFuture(transactionTemplate.execute(status ->
+                        importWorkbook(file, ownsNic, lookUpNics)));
+            } catch (DataIntegrityViolationException e) {
+                if (!isUniqueViolation(e) || attempt >= MAX_IMPORT_ATTEMPTS) {
+                    throw e;
+                }
+                log.warn("Bulk upload hit a NIC saved concurrently, importing it again with every NIC looked up");
+            }
+        }
+    }
+
+    private BulkProcessingResultDTO importWorkbook(MultipartFile file, Predicate<String> ownsNic, boolean lookUpNics) {
+        boolean staged = customerStagingImporter.isEnabled();
+        log.info("Starting bulk customer creation process, {} engine", staged ? "staging" : "jpa");
+        long startNanos = System.nanoTime();
+        BulkProcessingResultDTO result = BulkProcessingResultDTO.builder()
+                .errors(new ArrayList<>())
+                .build();
 
         try (InputStream is = file.getInputStream()) {
             Workbook workbook = WorkbookFactory.create(is);
-            Sheet sheet = workbook.getSheetAt(0);
+            ExcelCellDecoder cellDecoder = new ExcelCellDecoder(workbook);
+            importCustomerSheet(workbook.getSheetAt(0), cellDecoder, 0, Integer.MAX_VALUE, ownsNic, lookUpNics, result);
 
-            List<Customer> batchCustomers = new ArrayList<>(BATCH_SIZE);
+            // Addresses, mobile numbers and relationships may reference the customers saved above
+            addRelatedCounts(result, customerGraphImporter.importRelatedSheets(
+                    workbook, cellDecoder, result.getErrors(), ownsNic));
 
-            // Skip header row
-            Iterator<Row> rowIterator = sheet.rowIterator();
-            if (rowIterator.hasNext()) {
-                rowIterator.next(); // Skip header row
-            }
+            workbook.close();
+        } catch (IOException e) {
+            log.error("Error processing file: {}", e.getMessage());
+            result.getErrors().add(new BulkRowErrorDTO(null, 0, null, BulkRowErrorCode.FILE_UNREADABLE));
+        }
 
-            while (rowIterator.hasNext()) {
-                Row row = rowIterator.next();
-                totalProcessed++;
-
-                try {
-                    Customer customer = extractCustomerFromRow(row);
-
-                    if (customer != null) {
-                        batchCustomers.add(customer);
-                        successCount++;
-
-                        // Process in batches for better memory management
-                        if (batchCustomers.size() >= BATCH_SIZE) {
-                            customerRepository.saveAll(batchCustomers);
-                            log.info("Processed batch of {} customers", batchCustomers.size());
-                            batchCustomers.clear();
-                        }
-                    }
-                } catch (Exception e) {
-                    String errorMsg = "Error processing row " + row.getRowNum() + ": " + e.getMessage();
-                    log.error(errorMsg);
-                    errors.add(errorMsg);
-                }
+        long elapsedMillis = Math.max(1, (System.nanoTime() - startNanos) / 1_000_000);
+        log.info("Completed bulk processing. Total: {}, Success: {}, Failed: {} in {} ms ({} rows/s, {} engine)",
+                result.getTotalProcessed(), result.getSuccessCount(), result.getFailureCount(), elapsedMillis,
+                result.getTotalProcessed() * 1000L / elapsedMillis, staged ? "staging" : "jpa");
+
+        return result;
+    }
+
+    /**
+     * Imports rows firstRow to lastRow of the customer sheet whose NIC the predicate accepts, one partition
+     * of a bulk job. A NIC repeated in another partition is reported as NIC_ALREADY_EXISTS. With lookUpNics
+     * the NICs of each batch are looked up before saving it, for the retry of a partition that failed the
+     * unique index on a NIC another partition saved concurrently.
+     */
+    @Transactional
+    public BulkProcessingResultDTO importCustomerRows(Workbook workbook, int firstRow, int lastRow,
+                                                     Predicate<String> ownsNic, boolean lookUpNics) {
+        BulkProcessingResultDTO result = BulkProcessingResultDTO.builder()
+                .errors(new ArrayList<>())
+                .build();
+        importCustomerSheet(workbook.getSheetAt(0), new ExcelCellDecoder(workbook), firstRow, lastRow, ownsNic,
+                lookUpNics, result);
+        return result;
+    }
+
+    /**
+     * Imports rows firstRow to lastRow of the addresses, mobile numbers and relationships sheets, once
+     * the customers they name are saved
+     */
+    @Transactional
+    public BulkProcessingResultDTO importRelatedRows(Workbook workbook, int firstRow, int lastRow,
+                                                    Predicate<String> ownsNic) {
+        BulkProcessingResultDTO result = BulkProcessingResultDTO.builder()
+                .errors(new ArrayList<>())
+                .build();
+        addRelatedCounts(result, customerGraphImporter.importRelatedSheets(
+                workbook, new ExcelCellDecoder(workbook), result.getErrors(), ownsNic, firstRow, lastRow));
+        return result;
+    }
+
+    private void importCustomerSheet(Sheet sheet, ExcelCellDecoder cellDecoder, int firstRow, int lastRow,
+                                     Predicate<String> ownsNic, boolean lookUpNics, BulkProcessingResultDTO result) {
+        boolean staged = customerStagingImporter.isEnabled();
+        List<BulkRowErrorDTO> errors = result.getErrors();
+        int totalProcessed = 0;
+        int successCount = 0;
+        int failureCount = 0;
+
+        int batchSize = staged ? customerStagingImporter.getChunkSize() : BATCH_SIZE;
+        List<Customer> batchCustomers = new ArrayList<>(batchSize);
+        List<Integer> batchRowNumbers = new ArrayList<>(batchSize);
+        Set<String> nicNumbersInFile = new HashSet<>();
 
-                // Log progress periodically
-                if (totalProcessed % 10000 == 0) {
-                    log.info("Processed {} customer records so far", totalProcessed);
+        // Skip header row
+        Iterator<Row> rowIterator = sheet.rowIterator();
+        if (rowIterator.hasNext()) {
+            rowIterator.next(); // Skip header row
+        }
+
+        while (rowIterator.hasNext()) {
+            Row row = rowIterator.next();
+            if (row.getRowNum() < firstRow) {
+                continue;
+            }
+            if (row.getRowNum() > lastRow) {
+                break;
+            }
+            if (!ownsNic.test(cellDecoder.readNic(row.getCell(2)))) {
+                continue;
+            }
+            totalProcessed++;
+
+            // Invalid rows are recorded in errors and come back as null, nothing is thrown.
+            // The staging engine checks existing NICs for the whole chunk in the merge instead of per row
+            Customer customer = extractCustomerFromRow(row, cellDecoder, nicNumbersInFile, errors, !staged);
+
+            if (customer != null) {
+                batchCustomers.add(customer);
+                batchRowNumbers.add(row.getRowNum());
+                successCount++;
+
+                // Process in batches for better memory management
+                if (batchCustomers.size() >= batchSize) {
+                    int rejected = saveBatch(batchCustomers, batchRowNumbers, sheet.getSheetName(), errors, lookUpNics);
+                    successCount -= rejected;
+                    failureCount += rejected;
+                    log.info("Processed batch of {} customers", batchCustomers.size());
+                    batchCustomers.clear();
+                    batchRowNumbers.clear();
                 }
+            } else {
+                failureCount++;
             }
 
-            // Save any remaining records in the last batch
-            if (!batchCustomers.isEmpty()) {
-                customerRepository.saveAll(batchCustomers);
-                log.info("Processed final batch of {} customers", batchCustomers.size());
+            // Log progress periodically
+            if (totalProcessed % 10000 == 0) {
+                log.info("Processed {} customer records so far", totalProcessed);
             }
+        }
 
-            workbook.close();
-        } catch (IOException e) {
-            String errorMsg = "Error processing file: " + e.getMessage();
-            log.error(errorMsg);
-            errors.add(errorMsg);
+        // Save any remaining records in the last batch
+        if (!batchCustomers.isEmpty()) {
+            int rejected = saveBatch(batchCustomers, batchRowNumbers, sheet.getSheetName(), errors, lookUpNics);
+            successCount -= rejected;
+            failureCount += rejected;
+            log.info("Processed final batch of {} customers", batchCustomers.size());
+        }
+
+        result.setTotalProcessed(result.getTotalProcessed() + totalProcessed);
+        result.setSuccessCount(result.getSuccessCount() + successCount);
+        result.setFailureCount(result.getFailureCount() + failureCount);
+    }
+
+    private void addRelatedCounts(BulkProcessingResultDTO result, CustomerGraphImporter.ImportCounts counts) {
+        result.setAddressesImported(result.getAddressesImported() + counts.getAddresses());
+        result.setMobileNumbersImported(result.getMobileNumbersImported() + counts.getMobileNumbers());
+        result.setRelationshipsImported(result.getRelationshipsImported() + counts.getRelationships());
+        // Related rows may name any existing customer, one invalidation of them all beats listing each
+        if (counts.getAddresses() + counts.getMobileNumbers() + counts.getRelationships() > 0) {
+            cacheInvalidationBus.publish(CachedEntity.CUSTOMER, null);
+        }
+    }
+
+    // Returns the number of rows the lookup rejected
+    private int saveBatch(List<Customer> batchCustomers, List<Integer> rowNumbers, String sheetName,
+                          List<BulkRowErrorDTO> errors, boolean lookUpNics) {
+        if (customerStagingImporter.isEnabled()) {
+            return customerStagingImporter.importChunk(batchCustomers, rowNumbers, sheetName, errors);
         }
 
-        log.info("Completed bulk processing. Total: {}, Success: {}, Failed: {}",
-                totalProcessed, successCount, errors.size());
+        // Rows whose NIC the filter may know were checked against the database while reading them, a NIC only
+        // another instance or a concurrent partition has written fails the unique index and with it the import.
+        // Its retry looks up the NICs of every batch at once, so they reject their row only. Compared case
+        // insensitively like the unique index
+        List<Customer> newCustomers = batchCustomers;
+        if (lookUpNics) {
+            Set<String> existingNicNumbers = customerRepository.findIdsByNicNumberIn(
+                            batchCustomers.stream().map(Customer::getNicNumber).toList()).stream()
+                    .map(row -> ((String) row[1]).toUpperCase(Locale.ROOT))
+                    .collect(Collectors.toSet());
+            newCustomers = new ArrayList<>(batchCustomers.size());
+            for (int i = 0; i < batchCustomers.size(); i++) {
+                Customer customer = batchCustomers.get(i);
+                if (existingNicNumbers.contains(customer.getNicNumber().toUpperCase(Locale.ROOT))) {
+                    errors.add(new BulkRowErrorDTO(sheetName, rowNumbers.get(i), COLUMN_NIC_NUMBER, BulkRowErrorCode.NIC_ALREADY_EXISTS));
+                } else {
+                    newCustomers.add(customer);
+                }
+            }
+        }
 
-        return CompletableFuture.completedFuture(errors);
+        List<Customer> savedCustomers = customerRepository.saveAll(newCustomers);
+        customerSummaryService.refreshAll(savedCustomers);
+        savedCustomers.forEach(customer -> nicMembershipService.registerNic(customer.getNicNumber()));
+        return batchCustomers.size() - newCustomers.size();
     }
 
-    private Customer extractCustomerFromRow(Row row) {
-        // Get cell values
-        String name = getCellStringValue(row.getCell(0));
-        String dobString = getCellStringValue(row.getCell(1));
-        String nicNumber = getCellStringValue(row.getCell(2));
+    private Customer extractCustomerFromRow(Row row, ExcelCellDecoder cellDecoder,
+                                            Set<String> nicNumbersInFile, List<BulkRowErrorDTO> errors,
+                                            boolean checkExistingNic) {
+        String sheetName = row.getSheet().getSheetName();
+        int rowNumber = row.getRowNum();
+        int errorCount = errors.size();
+
+        // Decode cells into typed values, blank cells come back as null
+        String name = cellDecoder.readText(row.getCell(0));
+        String nicNumber = cellDecoder.readNic(row.getCell(2));
+        LocalDate dateOfBirth = cellDecoder.readDate(row.getCell(1));
+        String mobileNumbersCell = cellDecoder.readIdentifier(row.getCell(3));
+
+        // Validate every field so one pass reports all problems of the row
+        if (name == null) {
+            errors.add(new BulkRowErrorDTO(sheetName, rowNumber, COLUMN_NAME, BulkRowErrorCode.NAME_MISSING));
+        }
 
-        // Validate mandatory fields
-        if (name == null || name.trim().isEmpty()) {
-            throw new IllegalArgumentException("Name is mandatory");
+        if (dateOfBirth == null) {
+            errors.add(new BulkRowErrorDTO(sheetName, rowNumber, COLUMN_DATE_OF_BIRTH, BulkRowErrorCode.DATE_OF_BIRTH_INVALID));
         }
 
-        if (nicNumber == null || nicNumber.trim().isEmpty()) {
-            throw new IllegalArgumentException("NIC number is mandatory");
+        // Optional column, comma separated like the export writes it
+        Set<String> mobileNumbers = new HashSet<>();
+        if (mobileNumbersCell != null) {
+            for (String mobileNumber : mobileNumbersCell.split(MOBILE_NUMBER_CELL_SEPARATOR)) {
+                String normalized = MobileNumberNormalizer.normalize(mobileNumber);
+                if (normalized == null) {
+                    errors.add(new BulkRowErrorDTO(sheetName, rowNumber, COLUMN_MOBILE_NUMBERS, BulkRowErrorCode.MOBILE_NUMBER_INVALID));
+                    break;
+                }
+                mobileNumbers.add(normalized);
+            }
         }
 
-        // Check if customer with same NIC already exists
-        if (customerRepository.existsByNicNumber(nicNumber)) {
-            throw new DuplicateResourceException("Customer with NIC " + nicNumber + " already exists");
+        // Compared case insensitively like the unique index. A row rejected for another field does not claim its
+        // NIC, a later valid row with the same one is imported
+        boolean valid = errors.size() == errorCount;
+        if (nicNumber == null) {
+            errors.add(new BulkRowErrorDTO(sheetName, rowNumber, COLUMN_NIC_NUMBER, BulkRowErrorCode.NIC_MISSING));
+        } else if (valid ? !nicNumbersInFile.add(nicNumber.toUpperCase(Locale.ROOT))
+                : nicNumbersInFile.contains(nicNumber.toUpperCase(Locale.ROOT))) {
+            errors.add(new BulkRowErrorDTO(sheetName, rowNumber, COLUMN_NIC_NUMBER, BulkRowErrorCode.NIC_DUPLICATED_IN_FILE));
+        } else if (checkExistingNic && valid && nicMembershipService.exists(nicNumber)) {
+            // Only rows that are otherwise valid pay for the database lookup
+            errors.add(new BulkRowErrorDTO(sheetName, rowNumber, COLUMN_NIC_NUMBER, BulkRowErrorCode.NIC_ALREADY_EXISTS));
         }
 
-        // Parse date of birth
-        LocalDate dateOfBirth;
-        try {
-            dateOfBirth = LocalDate.parse(dobString, DATE_FORMATTER);
-        } catch (DateTimeParseException e) {
-            throw new IllegalArgumentException("Invalid date format for date of birth. Use YYYY-MM-DD format");
+        if (errors.size() > errorCount) {
+            return null;
         }
 
         // Create customer entity
@@ -249,25 +723,21 @@ public class CustomerServiceImpl implements CustomerService {
                 .name(name)
                 .dateOfBirth(dateOfBirth)
                 .nicNumber(nicNumber)
+                .mobileNumbers(mobileNumbers)
                 .build();
     }
 
-    private String getCellStringValue(Cell cell) {
-        if (cell == null) {
-            return null;
+    // A customer row has no other unique column than the NIC, any unique violation is a duplicate NIC
+    private static RuntimeException duplicateNic(String nicNumber, DataIntegrityViolationException e) {
+        if (isUniqueViolation(e)) {
+            return new DuplicateResourceException("Customer with NIC " + nicNumber + " already exists");
         }
+        return e;
+    }
 
-        switch (cell.getCellType()) {
-            case STRING:
-                return cell.getStringCellValue();
-            case NUMERIC:
-                if (DateUtil.isCellDateFormatted(cell)) {
-                    return DATE_FORMATTER.format(cell.getLocalDateTimeCellValue().toLocalDate());
-                }
-                return String.valueOf((int) cell.getNumericCellValue());
-            default:
-                return null;
-        }
+    private static boolean isUniqueViolation(DataIntegrityViolationException e) {
+        return e.getCause() instanceof ConstraintViolationException violation
+                && violation.getKind() == ConstraintViolationException.ConstraintKind.UNIQUE;
     }
 
     private Customer mapToEntity(CustomerDTO dto) {
@@ -277,7 +747,7 @@ public class CustomerServiceImpl implements CustomerService {
         customer.setNicNumber(dto.getNicNumber());
 
         if (dto.getMobileNumbers() != null) {
-            customer.setMobileNumbers(new HashSet<>(dto.getMobileNumbers()));
+            customer.setMobileNumbers(normalizeMobileNumbers(dto.getMobileNumbers()));
         }
 
         // Add family members if provided
@@ -312,70 +782,40 @@ public class CustomerServiceImpl implements CustomerService {
         return customer;
     }
 
-    private City getOrCreateCity(String cityName, String countryName) {
-        if (cityName == null || countryName == null) {
-            throw new IllegalArgumentException("City and country names must be provided");
-        }
-
-        // Find or create country
-        Country country = countryRepository.findByName(countryName)
-                .orElseGet(() -> {
-                    Country newCountry = new Country();
-                    newCountry.setName(countryName);
-                    return countryRepository.save(newCountry);
-                });
-
-        // Find or create city
-        return cityRepository.findByNameAndCountryId(cityName, country.getId())
-                .orElseGet(() -> {
-                    City newCity = new City();
-                    newCity.setName(cityName);
-                    newCity.setCountry(country);
-                    return cityRepository.save(newCity);
-                });
-    }
-
-    private CustomerDTO mapToDTO(Customer customer) {
-        CustomerDTO dto = new CustomerDTO();
-        dto.setId(customer.getId());
-        dto.setName(customer.getName());
-        dto.setDateOfBirth(customer.getDateOfBirth());
-        dto.setNicNumber(customer.getNicNumber());
-        dto.setMobileNumbers(customer.getMobileNumbers());
-
-        // Map family members to IDs
-        if (customer.getFamilyMembers() != null && !customer.getFamilyMembers().isEmpty()) {
-            dto.setFamilyMemberIds(customer.getFamilyMembers().stream()
-                    .map(Customer::getId)
-                    .collect(Collectors.toSet()));
-        }
-
-        // Map addresses
-        if (customer.getAddresses() != null && !customer.getAddresses().isEmpty()) {
-            dto.setAddresses(customer.getAddresses().stream()
-                    .map(this::mapAddressToDTO)
-                    .collect(Collectors.toList()));
+    private Set<String> normalizeMobileNumbers(Set<String> mobileNumbers) {
+        Set<String> normalized = new HashSet<>();
+        for (String mobileNumber : mobileNumbers) {
+            String canonical = MobileNumberNormalizer.normalize(mobileNumber);
+            if (canonical == null) {
+                throw new IllegalArgumentException("Invalid mobile number: " + mobileNumber);
+            }
+            normalized.add(canonical);
         }
-
-        return dto;
+        return normalized;
     }
 
-    private AddressDTO mapAddressToDTO(Address address) {
-        AddressDTO dto = new AddressDTO();
-        dto.setId(address.getId());
-        dto.setAddressLine1(address.getAddressLine1());
-        dto.setAddressLine2(address.getAddressLine2());
-
-        if (address.getCity() != null) {
-            dto.setCityId(address.getCity().getId());
-            dto.setCityName(address.getCity().getName());
-
-            if (address.getCity().getCountry() != null) {
-                dto.setCountryId(address.getCity().getCountry().getId());
-                dto.setCountryName(address.getCity().getCountry().getName());
-            }
+    private City getOrCreateCity(String cityName, String countryName) {
+        if (cityName == null || countryName == null) {
+            throw new IllegalArgumentException("City and country names must be provided");
         }
 
-        return dto;
+        return cityCache.get(cityName, countryName, () -> {
+            // Find or create country
+            Country country = countryRepository.findByName(countryName)
+                    .orElseGet(() -> {
+                        Country newCountry = new Country();
+                        newCountry.setName(countryName);
+                        return countryRepository.save(newCountry);
+                    });
+
+            // Find or create city
+            return cityRepository.findByNameAndCountryId(cityName, country.getId())
+                    .orElseGet(() -> {
+                        City newCity = new City();
+                        newCity.setName(cityName);
+                        newCity.setCountry(country);
+                        return cityRepository.save(newCity);
+                    });
+        });
     }
 }
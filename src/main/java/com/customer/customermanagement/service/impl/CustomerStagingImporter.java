@@ -0,0 +1,249 @@
+package com.customer.customermanagement.service.impl;
+
+import com.customer.customermanagement.dto.BulkRowErrorCode;
+import com.customer.customermanagement.dto.BulkRowErrorDTO;
+import com.customer.customermanagement.model.Customer;
+import com.customer.customermanagement.service.CustomerStatsService;
+import com.customer.customermanagement.service.NicMembershipService;
+import com.customer.customermanagement.util.CustomerStatsCounters;
+import com.customer.customermanagement.util.UtcClock;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Fast path for very large uploads. Validated rows are bulk loaded into customer_staging, with
+ * LOAD DATA LOCAL INFILE on MariaDB and MySQL or JDBC batch inserts elsewhere, then checked against
+ * existing NICs and merged into customers with one set-based statement per chunk.
+ * Selected with customer.bulk-import.engine=staging; the default engine saves entities through JPA.
+ */
+@Slf4j
+@Component
+public class CustomerStagingImporter {
+
+    public static final String ENGINE_STAGING = "staging";
+
+    private static final String LOAD_DATA =
+            "LOAD DATA LOCAL INFILE '%s' INTO TABLE customer_staging CHARACTER SET utf8mb4 "
+                    + "FIELDS TERMINATED BY '\\t' ESCAPED BY '\\\\' LINES TERMINATED BY '\\n' "
+                    + "(import_id, source_row, name, date_of_birth, nic_number, mobile_numbers, rejected)";
+    private static final String INSERT_STAGING_ROW =
+            "INSERT INTO customer_staging (import_id, source_row, name, date_of_birth, nic_number, mobile_numbers, rejected) "
+                    + "VALUES (?, ?, ?, ?, ?, ?, FALSE)";
+    private static final String MARK_EXISTING_NICS =
+            "UPDATE customer_staging SET rejected = TRUE WHERE import_id = ? "
+                    + "AND EXISTS (SELECT 1 FROM customers c WHERE c.nic_number = customer_staging.nic_number)";
+    private static final String SELECT_REJECTED_ROWS =
+            "SELECT source_row FROM customer_staging WHERE import_id = ? AND rejected = TRUE ORDER BY source_row";
+    private static final String MERGE_CUSTOMERS =
+            "INSERT INTO customers (version, name, date_of_birth, nic_number, created_at, updated_at) "
+                    + "SELECT 0, s.name, s.date_of_birth, s.nic_number, ?, ? FROM customer_staging s "
+                    + "WHERE s.import_id = ? AND s.rejected = FALSE";
+    private static final String SELECT_MERGED_CUSTOMERS =
+            "SELECT c.id, c.nic_number, s.mobile_numbers, s.date_of_birth FROM customer_staging s "
+                    + "JOIN customers c ON c.nic_number = s.nic_number WHERE s.import_id = ? AND s.rejected = FALSE";
+    private static final String INSERT_MOBILE_NUMBER =
+            "INSERT INTO customer_mobile_numbers (customer_id, mobile_number) VALUES (?, ?)";
+    // Merged customers are new and have no addresses or family yet, so their summary rows come straight from staging
+    private static final String INSERT_SUMMARIES =
+            "INSERT INTO customer_summary (customer_id, name, date_of_birth, nic_number, mobile_numbers, family_member_count) "
+                    + "SELECT c.id, s.name, s.date_of_birth, s.nic_number, s.mobile_numbers, 0 FROM customer_staging s "
+                    + "JOIN customers c ON c.nic_number = s.nic_number WHERE s.import_id = ? AND s.rejected = FALSE";
+    private static final String DELETE_STAGED_ROWS = "DELETE FROM customer_staging WHERE import_id = ?";
+
+    private static final String COLUMN_NIC_NUMBER = "nicNumber";
+    private static final String MOBILE_NUMBER_SEPARATOR = ",";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NicMembershipService nicMembershipService;
+    private final CustomerStatsService customerStatsService;
+    private final boolean enabled;
+    private final int chunkSize;
+    private final boolean loadDataEnabled;
+
+    // Resolved on first use, cleared for good when the server or driver refuses LOAD DATA LOCAL
+    private volatile Boolean loadDataSupported;
+
+    public CustomerStagingImporter(JdbcTemplate jdbcTemplate,
+                                   NicMembershipService nicMembershipService,
+                                   CustomerStatsService customerStatsService,
+                                   @Value("${customer.bulk-import.engine:jpa}") String engine,
+                                   @Value("${customer.bulk-import.staging-chunk-size:10000}") int chunkSize,
+                                   @Value("${customer.bulk-import.load-data:true}") boolean loadDataEnabled) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.nicMembershipService = nicMembershipService;
+        this.customerStatsService = customerStatsService;
+        this.enabled = ENGINE_STAGING.equalsIgnoreCase(engine);
+        this.chunkSize = chunkSize;
+        this.loadDataEnabled = loadDataEnabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    /**
+     * Stages and merges one chunk of validated customers. Rows whose NIC is already stored are
+     * reported as NIC_ALREADY_EXISTS and left out of the merge.
+     *
+     * @param rowNumbers sheet row number of each customer, in the same order
+     * @return the number of rejected rows
+     */
+    public int importChunk(List<Customer> customers, List<Integer> rowNumbers, String sheetName,
+                           List<BulkRowErrorDTO> errors) {
+        String importId = UUID.randomUUID().toString();
+        stage(importId, customers, rowNumbers);
+
+        jdbcTemplate.update(MARK_EXISTING_NICS, importId);
+        List<Integer> rejectedRows = jdbcTemplate.queryForList(SELECT_REJECTED_ROWS, Integer.class, importId);
+        rejectedRows.forEach(rowNumber -> errors.add(
+                new BulkRowErrorDTO(sheetName, rowNumber, COLUMN_NIC_NUMBER, BulkRowErrorCode.NIC_ALREADY_EXISTS)));
+
+        LocalDateTime mergedAt = UtcClock.now();
+        int merged = jdbcTemplate.update(MERGE_CUSTOMERS, mergedAt, mergedAt, importId);
+
+        List<String> nicNumbers = new ArrayList<>(merged);
+        List<Object[]> mobileNumbers = new ArrayList<>();
+        CustomerStatsCounters.Delta statsDelta = new CustomerStatsCounters.Delta();
+        jdbcTemplate.query(SELECT_MERGED_CUSTOMERS, rs -> {
+            long customerId = rs.getLong(1);
+            nicNumbers.add(rs.getString(2));
+            String joined = rs.getString(3);
+            statsDelta.change(null, new CustomerStatsCounters.Contribution(null, null,
+                    rs.getObject(4, LocalDate.class), joined != null, false));
+            if (joined != null) {
+                for (String mobileNumber : joined.split(MOBILE_NUMBER_SEPARATOR)) {
+                    mobileNumbers.add(new Object[]{customerId, mobileNumber});
+                }
+            }
+        }, importId);
+        jdbcTemplate.batchUpdate(INSERT_MOBILE_NUMBER, mobileNumbers);
+        jdbcTemplate.update(INSERT_SUMMARIES, importId);
+        jdbcTemplate.update(DELETE_STAGED_ROWS, importId);
+
+        nicNumbers.forEach(nicMembershipService::registerNic);
+        customerStatsService.record(statsDelta);
+        log.info("Merged {} staged customers, rejected {}", merged, rejectedRows.size());
+        return rejectedRows.size();
+    }
+
+    private void stage(String importId, List<Customer> customers, List<Integer> rowNumbers) {
+        if (isLoadDataSupported()) {
+            try {
+                loadData(importId, customers, rowNumbers);
+                return;
+            } catch (DataAccessException e) {
+                // Typically local_infile disabled on the server or allowLocalInfile off in the driver
+                log.warn("LOAD DATA LOCAL INFILE unavailable, staging with batch inserts: {}", e.getMessage());
+                loadDataSupported = false;
+            }
+        }
+        List<Object[]> rows = new ArrayList<>(customers.size());
+        for (int i = 0; i < customers.size(); i++) {
+            Customer customer = customers.get(i);
+            rows.add(new Object[]{importId, rowNumbers.get(i), customer.getName(), customer.getDateOfBirth(),
+                    customer.getNicNumber(), joinMobileNumbers(customer)});
+        }
+        jdbcTemplate.batchUpdate(INSERT_STAGING_ROW, rows);
+    }
+
+    private void loadData(String importId, List<Customer> customers, List<Integer> rowNumbers) {
+        Path file = null;
+        try {
+            file = Files.createTempFile("customer-staging-", ".tsv");
+            try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+                for (int i = 0; i < customers.size(); i++) {
+                    Customer customer = customers.get(i);
+                    writer.write(importId);
+                    writer.write('\t');
+                    writer.write(Integer.toString(rowNumbers.get(i)));
+                    writer.write('\t');
+                    writeField(writer, customer.getName());
+                    writer.write('\t');
+                    writer.write(customer.getDateOfBirth().toString());
+                    writer.write('\t');
+                    writeField(writer, customer.getNicNumber());
+                    writer.write('\t');
+                    writeField(writer, joinMobileNumbers(customer));
+                    writer.write("\t0\n");
+                }
+            }
+            String path = file.toAbsolutePath().toString().replace("\\", "\\\\").replace("'", "\\'");
+            jdbcTemplate.execute(String.format(LOAD_DATA, path));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write staging file", e);
+        } finally {
+            if (file != null) {
+                try {
+                    Files.deleteIfExists(file);
+                } catch (IOException e) {
+                    log.warn("Could not delete staging file {}", file);
+                }
+            }
+        }
+    }
+
+    private boolean isLoadDataSupported() {
+        if (loadDataSupported == null) {
+            String product = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                    connection.getMetaData().getDatabaseProductName());
+            loadDataSupported = loadDataEnabled && product != null
+                    && (product.contains("MariaDB") || product.contains("MySQL"));
+            log.info("Staging import uses {}", loadDataSupported ? "LOAD DATA LOCAL INFILE" : "batch inserts");
+        }
+        return loadDataSupported;
+    }
+
+    // Sorted like the summary table stores them, so the staged value can be copied over as is
+    private static String joinMobileNumbers(Customer customer) {
+        Set<String> mobileNumbers = customer.getMobileNumbers();
+        if (mobileNumbers == null || mobileNumbers.isEmpty()) {
+            return null;
+        }
+        return String.join(MOBILE_NUMBER_SEPARATOR, new TreeSet<>(mobileNumbers));
+    }
+
+    // Escapes the characters LOAD DATA treats specially, \N stands for NULL
+    private static void writeField(BufferedWriter writer, String value) throws IOException {
+        if (value == null) {
+            writer.write("\\N");
+            return;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\':
+                    writer.write("\\\\");
+                    break;
+                case '\t':
+                    writer.write("\\t");
+                    break;
+                case '\n':
+                    writer.write("\\n");
+                    break;
+                case '\r':
+                    writer.write("\\r");
+                    break;
+                default:
+                    writer.write(c);
+            }
+        }
+    }
+}
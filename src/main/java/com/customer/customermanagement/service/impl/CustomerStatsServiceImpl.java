@@ -0,0 +1,185 @@
+package com.customer.customermanagement.service.impl;
+
+import com.customer.customermanagement.config.ShardRouter;
+import com.customer.customermanagement.dto.CustomerStatsDTO;
+import com.customer.customermanagement.service.CustomerStatsService;
+import com.customer.customermanagement.util.CustomerStatsCounters;
+import com.customer.customermanagement.util.UtcClock;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serves customer statistics from in-memory counters instead of GROUP BYs over the customer tables.
+ * The summary write paths report what each customer contributed before and after a change, applied once
+ * the transaction commits. A reconciliation scan of customer_summary on every shard, at startup and then
+ * every reconcile-minutes, replaces the counters to correct drift from writes that bypass the summary service.
+ */
+@Slf4j
+@Service
+public class CustomerStatsServiceImpl implements CustomerStatsService, DisposableBean {
+
+    private static final String CONTRIBUTIONS_QUERY = "SELECT country_name, city_name, date_of_birth, "
+            + "mobile_numbers IS NOT NULL, family_member_count > 0 FROM customer_summary";
+    private static final int STREAM_FETCH_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ShardRouter shardRouter;
+    private final long reconcileMinutes;
+    private final ScheduledExecutorService reconciler;
+
+    // Replaced as a whole by each reconciliation, the lock keeps a delta from landing in the old counters only
+    private final Object lock = new Object();
+    private CustomerStatsCounters counters = new CustomerStatsCounters();
+    private List<CustomerStatsCounters.Delta> committedDuringScan;
+    private volatile LocalDateTime reconciledAt;
+
+    public CustomerStatsServiceImpl(JdbcTemplate jdbcTemplate,
+                                    ShardRouter shardRouter,
+                                    @Value("${customer.stats.reconcile-minutes:60}") long reconcileMinutes) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.shardRouter = shardRouter;
+        this.reconcileMinutes = reconcileMinutes;
+        this.reconciler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "customer-stats");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public CustomerStatsDTO getStats() {
+        CustomerStatsCounters current;
+        synchronized (lock) {
+            current = counters;
+        }
+        long total = current.getTotal();
+        return CustomerStatsDTO.builder()
+                .totalCustomers(total)
+                .customersByCountry(current.countByCountry())
+                .customersByCity(current.countByCity())
+                .customersWithoutAddress(current.getWithoutAddress())
+                .customersByAgeBand(current.countByAgeBand(UtcClock.now().toLocalDate()))
+                .customersWithMobileNumbers(current.getWithMobileNumbers())
+                .mobileNumberCoverage(share(current.getWithMobileNumbers(), total))
+                .customersWithFamily(current.getWithFamily())
+                .familyCoverage(share(current.getWithFamily(), total))
+                .reconciledAt(reconciledAt)
+                .build();
+    }
+
+    /**
+     * Applied once the transaction commits, a rolled back change never reaches the counters
+     */
+    @Override
+    public void record(CustomerStatsCounters.Delta delta) {
+        if (delta.isEmpty()) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    applyNow(delta);
+                }
+            });
+        } else {
+            applyNow(delta);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconcileOnStartup() {
+        if (reconcileMinutes > 0) {
+            reconciler.scheduleWithFixedDelay(this::reconcileQuietly, 0, reconcileMinutes, TimeUnit.MINUTES);
+        } else {
+            reconciler.execute(this::reconcileQuietly);
+        }
+    }
+
+    /**
+     * Counts every summary row into fresh counters and swaps them in. Each shard is read by one statement,
+     * a consistent snapshot, and the shards are read in parallel; changes committed meanwhile are replayed
+     * onto the fresh counters. A change committing just as the scan starts may be counted twice until the next one.
+     */
+    @Override
+    public synchronized void reconcile() {
+        long startNanos = System.nanoTime();
+        CustomerStatsCounters next = new CustomerStatsCounters();
+        synchronized (lock) {
+            committedDuringScan = new ArrayList<>();
+        }
+        try {
+            shardRouter.onEveryShard(shard -> {
+                jdbcTemplate.query(connection -> {
+                    PreparedStatement statement = connection.prepareStatement(CONTRIBUTIONS_QUERY,
+                            ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                    statement.setFetchSize(STREAM_FETCH_SIZE);
+                    return statement;
+                }, (RowCallbackHandler) rs -> next.add(new CustomerStatsCounters.Contribution(rs.getString(1),
+                        rs.getString(2), rs.getObject(3, LocalDate.class), rs.getBoolean(4), rs.getBoolean(5))));
+                return shard;
+            });
+        } catch (RuntimeException e) {
+            synchronized (lock) {
+                committedDuringScan = null;
+            }
+            throw e;
+        }
+
+        long drift;
+        synchronized (lock) {
+            committedDuringScan.forEach(next::apply);
+            committedDuringScan = null;
+            drift = next.getTotal() - counters.getTotal();
+            counters = next;
+        }
+        reconciledAt = UtcClock.now();
+        log.info("Reconciled customer statistics for {} customers in {} ms, total was off by {}",
+                next.getTotal(), (System.nanoTime() - startNanos) / 1_000_000, drift);
+    }
+
+    @Override
+    public void destroy() {
+        reconciler.shutdownNow();
+    }
+
+    private void reconcileQuietly() {
+        try {
+            reconcile();
+        } catch (RuntimeException e) {
+            // Thrown out of a scheduled task it would cancel every later run
+            log.error("Customer statistics reconciliation failed, keeping the current counts", e);
+        }
+    }
+
+    private void applyNow(CustomerStatsCounters.Delta delta) {
+        synchronized (lock) {
+            counters.apply(delta);
+            if (committedDuringScan != null) {
+                committedDuringScan.add(delta);
+            }
+        }
+    }
+
+    private static double share(long count, long total) {
+        return total == 0 ? 0 : (double) count / total;
+    }
+}
@@ -0,0 +1,245 @@
+package com.customer.customermanagement.service.impl;
+
+import com.customer.customermanagement.dto.CustomerSummaryDTO;
+import com.customer.customermanagement.model.Address;
+import com.customer.customermanagement.model.Customer;
+import com.customer.customermanagement.model.CustomerSummary;
+import com.customer.customermanagement.repository.CustomerRepository;
+import com.customer.customermanagement.repository.CustomerSummaryRepository;
+import com.customer.customermanagement.service.CustomerStatsService;
+import com.customer.customermanagement.service.CustomerSummaryService;
+import com.customer.customermanagement.util.CustomerStatsCounters;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CustomerSummaryServiceImpl implements CustomerSummaryService {
+
+    private final CustomerSummaryRepository customerSummaryRepository;
+    private final CustomerRepository customerRepository;
+    private final EntityManager entityManager;
+    private final PlatformTransactionManager transactionManager;
+    private final CustomerStatsService customerStatsService;
+
+    private static final int REBUILD_BATCH_SIZE = 1000;
+    private static final String DTO_ID_PROPERTY = "id";
+    private static final String ENTITY_ID_PROPERTY = "customerId";
+
+    @Override
+    @Transactional
+    public void refresh(Customer customer) {
+        refreshAll(Collections.singletonList(customer));
+    }
+
+    @Override
+    @Transactional
+    public void refreshAll(Collection<Customer> customers) {
+        if (customers.isEmpty()) {
+            return;
+        }
+
+        Map<Long, CustomerSummary> existing = findExisting(customers.stream()
+                .map(Customer::getId)
+                .collect(Collectors.toList()));
+
+        CustomerStatsCounters.Delta delta = new CustomerStatsCounters.Delta();
+        customers.forEach(customer -> apply(existing.get(customer.getId()), customer,
+                customer.getMobileNumbers(),
+                customer.getFamilyMembers() != null ? customer.getFamilyMembers().size() : 0, delta));
+        customerStatsService.record(delta);
+    }
+
+    /**
+     * Refreshes from the database rather than from entities, for callers that wrote rows with plain JDBC
+     */
+    @Override
+    @Transactional
+    public void refreshByIds(Collection<Long> customerIds) {
+        if (!customerIds.isEmpty()) {
+            rebuildBatch(new ArrayList<>(customerIds));
+        }
+    }
+
+    @Override
+    @Transactional
+    public void removeAll(Collection<Long> customerIds) {
+        if (customerIds.isEmpty()) {
+            return;
+        }
+        CustomerStatsCounters.Delta delta = new CustomerStatsCounters.Delta();
+        findContributions(customerIds).values().forEach(contribution -> delta.change(contribution, null));
+        customerSummaryRepository.deleteByCustomerIdIn(customerIds);
+        customerStatsService.record(delta);
+    }
+
+    @Override
+    @Transactional
+    public void recountFamilyMembers(Collection<Long> customerIds) {
+        if (customerIds.isEmpty()) {
+            return;
+        }
+        Map<Long, CustomerStatsCounters.Contribution> before = findContributions(customerIds);
+        customerSummaryRepository.recountFamilyMembers(customerIds);
+
+        CustomerStatsCounters.Delta delta = new CustomerStatsCounters.Delta();
+        findContributions(customerIds).forEach((customerId, after) -> delta.change(before.get(customerId), after));
+        customerStatsService.record(delta);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<CustomerSummaryDTO> findAll(Pageable pageable) {
+        return customerSummaryRepository.findAll(toSummaryPageable(pageable))
+                .map(CustomerMapper::toDTO);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<CustomerSummaryDTO> search(String query, Pageable pageable) {
+        String prefix = query.trim();
+        return customerSummaryRepository.findByNameStartingWithOrNicNumberStartingWith(prefix, prefix,
+                        toSummaryPageable(pageable))
+                .map(CustomerMapper::toDTO);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<CustomerSummaryDTO> findByMobileNumber(String normalizedMobileNumber) {
+        return customerSummaryRepository.findByMobileNumber(normalizedMobileNumber).stream()
+                .map(CustomerMapper::toDTO)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Map<Long, CustomerSummaryDTO> findByIds(Collection<Long> customerIds) {
+        if (customerIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        return customerSummaryRepository.findAllById(customerIds).stream()
+                .collect(Collectors.toMap(CustomerSummary::getCustomerId, CustomerMapper::toDTO));
+    }
+
+    /**
+     * Repopulates the whole table by walking customers in id order, one transaction per batch,
+     * and finally drops summaries whose customer no longer exists.
+     */
+    @Override
+    public long rebuild() {
+        log.info("Starting customer summary rebuild");
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        long rebuilt = 0;
+        Long afterId = 0L;
+
+        List<Long> ids;
+        while (!(ids = customerRepository.findIdsAfter(afterId, PageRequest.of(0, REBUILD_BATCH_SIZE))).isEmpty()) {
+            List<Long> batchIds = ids;
+            transactionTemplate.executeWithoutResult(status -> rebuildBatch(batchIds));
+
+            rebuilt += ids.size();
+            afterId = ids.get(ids.size() - 1);
+            log.info("Rebuilt {} customer summaries so far", rebuilt);
+        }
+
+        Integer removed = transactionTemplate.execute(status -> customerSummaryRepository.deleteOrphans());
+        log.info("Completed customer summary rebuild. Rebuilt: {}, Removed: {}", rebuilt, removed);
+        return rebuilt;
+    }
+
+    private void rebuildBatch(List<Long> ids) {
+        Map<Long, Set<String>> mobileNumbers = new HashMap<>();
+        customerRepository.findMobileNumbersByIdIn(ids).forEach(row ->
+                mobileNumbers.computeIfAbsent((Long) row[0], id -> new HashSet<>()).add((String) row[1]));
+
+        Map<Long, Long> familyCounts = customerRepository.countFamilyMembersByIdIn(ids).stream()
+                .collect(Collectors.toMap(row -> (Long) row[0], row -> (Long) row[1]));
+
+        Map<Long, CustomerSummary> existing = findExisting(ids);
+        CustomerStatsCounters.Delta delta = new CustomerStatsCounters.Delta();
+        customerRepository.findAllWithAddressesByIdIn(ids).forEach(customer ->
+                apply(existing.get(customer.getId()), customer,
+                        mobileNumbers.get(customer.getId()),
+                        familyCounts.getOrDefault(customer.getId(), 0L).intValue(), delta));
+        customerStatsService.record(delta);
+    }
+
+    // Clients sort by the properties of CustomerSummaryDTO, whose id is the customerId of the entity
+    private static Pageable toSummaryPageable(Pageable pageable) {
+        if (pageable.getSort().getOrderFor(DTO_ID_PROPERTY) == null) {
+            return pageable;
+        }
+        Sort sort = Sort.by(pageable.getSort().stream()
+                .map(order -> DTO_ID_PROPERTY.equals(order.getProperty()) ? order.withProperty(ENTITY_ID_PROPERTY) : order)
+                .toList());
+        return pageable.isPaged() ? PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), sort)
+                : Pageable.unpaged(sort);
+    }
+
+    private Map<Long, CustomerSummary> findExisting(List<Long> ids) {
+        return customerSummaryRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(CustomerSummary::getCustomerId, Function.identity()));
+    }
+
+    // Customer id to what the summary row contributes to customer statistics
+    private Map<Long, CustomerStatsCounters.Contribution> findContributions(Collection<Long> ids) {
+        Map<Long, CustomerStatsCounters.Contribution> contributions = new HashMap<>();
+        customerSummaryRepository.findStatsColumnsByCustomerIdIn(ids).forEach(row ->
+                contributions.put((Long) row[0], new CustomerStatsCounters.Contribution((String) row[1],
+                        (String) row[2], (LocalDate) row[3], row[4] != null, (Integer) row[5] > 0)));
+        return contributions;
+    }
+
+    // Updates a managed summary in place, or persists a new one without the select a merge would issue
+    private void apply(CustomerSummary summary, Customer customer, Set<String> mobileNumbers, int familyMemberCount,
+                       CustomerStatsCounters.Delta delta) {
+        boolean isNew = summary == null;
+        CustomerStatsCounters.Contribution before = isNew ? null : contribution(summary);
+        if (isNew) {
+            summary = new CustomerSummary();
+            summary.setCustomerId(customer.getId());
+        }
+
+        summary.setName(customer.getName());
+        summary.setDateOfBirth(customer.getDateOfBirth());
+        summary.setNicNumber(customer.getNicNumber());
+        summary.setMobileNumbers(mobileNumbers == null || mobileNumbers.isEmpty() ? null
+                : mobileNumbers.stream().sorted().collect(Collectors.joining(CustomerMapper.MOBILE_SEPARATOR)));
+        summary.setFamilyMemberCount(familyMemberCount);
+
+        Address primaryAddress = customer.getAddresses() == null || customer.getAddresses().isEmpty()
+                ? null : customer.getAddresses().get(0);
+        summary.setAddressLine1(primaryAddress != null ? primaryAddress.getAddressLine1() : null);
+        summary.setAddressLine2(primaryAddress != null ? primaryAddress.getAddressLine2() : null);
+        summary.setCityName(primaryAddress != null && primaryAddress.getCity() != null
+                ? primaryAddress.getCity().getName() : null);
+        summary.setCountryName(primaryAddress != null && primaryAddress.getCity() != null
+                && primaryAddress.getCity().getCountry() != null
+                ? primaryAddress.getCity().getCountry().getName() : null);
+
+        if (isNew) {
+            entityManager.persist(summary);
+        }
+        delta.change(before, contribution(summary));
+    }
+
+    private static CustomerStatsCounters.Contribution contribution(CustomerSummary summary) {
+        return new CustomerStatsCounters.Contribution(summary.getCountryName(), summary.getCityName(),
+                summary.getDateOfBirth(), summary.getMobileNumbers() != null, summary.getFamilyMemberCount() > 0);
+    }
+}
@@ -0,0 +1,229 @@
+package com.customer.customermanagement.service.impl;
+
+import com.customer.customermanagement.config.ShardRouter;
+import com.customer.customermanagement.dto.CustomerSummaryDTO;
+import com.customer.customermanagement.dto.DuplicateCandidateDTO;
+import com.customer.customermanagement.dto.DuplicateReason;
+import com.customer.customermanagement.dto.DuplicateScanDTO;
+import com.customer.customermanagement.dto.DuplicateScanStatus;
+import com.customer.customermanagement.exception.ResourceNotFoundException;
+import com.customer.customermanagement.model.DuplicateCandidate;
+import com.customer.customermanagement.repository.DuplicateCandidateRepository;
+import com.customer.customermanagement.service.CustomerSummaryService;
+import com.customer.customermanagement.service.DuplicateDetectionService;
+import com.customer.customermanagement.util.DuplicateMatcher;
+import com.customer.customermanagement.util.UtcClock;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Duplicate detection as a background job. One streaming pass over customer_summary of every shard
+ * fills a DuplicateMatcher, which compares customers within blocking key blocks on a fork/join pool;
+ * the pairs scoring at least min-score replace the previous results in duplicate_candidates on shard 0.
+ * Customers on different shards are compared too, a NIC typo usually moves a customer to another shard.
+ * One scan runs at a time per node.
+ */
+@Slf4j
+@Service
+public class DuplicateDetectionServiceImpl implements DuplicateDetectionService {
+
+    private static final String CUSTOMERS_QUERY =
+            "SELECT customer_id, name, date_of_birth, nic_number, mobile_numbers FROM customer_summary";
+    private static final String DELETE_CANDIDATES = "DELETE FROM duplicate_candidates";
+    private static final String INSERT_CANDIDATE =
+            "INSERT INTO duplicate_candidates (customer_id, other_customer_id, score, reasons, detected_at) VALUES (?, ?, ?, ?, ?)";
+    private static final int STREAM_FETCH_SIZE = 1000;
+    private static final int INSERT_BATCH_SIZE = 1000;
+    private static final int MAX_PAGE_SIZE = 1000;
+    private static final Sort REVIEW_ORDER = Sort.by(Sort.Order.desc("score"), Sort.Order.asc("id"));
+    private static final String REASON_SEPARATOR = ",";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DuplicateCandidateRepository duplicateCandidateRepository;
+    private final CustomerSummaryService customerSummaryService;
+    private final ShardRouter shardRouter;
+    private final PlatformTransactionManager transactionManager;
+    private final Executor taskExecutor;
+    private final double minScore;
+    private final int maxBlockSize;
+    private final int maxKeysPerPass;
+    private final int parallelism;
+    private final AtomicReference<DuplicateScanDTO> lastScan = new AtomicReference<>();
+
+    public DuplicateDetectionServiceImpl(JdbcTemplate jdbcTemplate,
+                                         DuplicateCandidateRepository duplicateCandidateRepository,
+                                         CustomerSummaryService customerSummaryService,
+                                         ShardRouter shardRouter,
+                                         PlatformTransactionManager transactionManager,
+                                         @Qualifier("taskExecutor") Executor taskExecutor,
+                                         @Value("${customer.duplicates.min-score:0.8}") double minScore,
+                                         @Value("${customer.duplicates.max-block-size:1000}") int maxBlockSize,
+                                         @Value("${customer.duplicates.max-keys-per-pass:20000000}") int maxKeysPerPass,
+                                         @Value("${customer.duplicates.parallelism:0}") int parallelism) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.duplicateCandidateRepository = duplicateCandidateRepository;
+        this.customerSummaryService = customerSummaryService;
+        this.shardRouter = shardRouter;
+        this.transactionManager = transactionManager;
+        this.taskExecutor = taskExecutor;
+        this.minScore = minScore;
+        this.maxBlockSize = maxBlockSize;
+        this.maxKeysPerPass = maxKeysPerPass;
+        this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * Starts a scan unless one is running already, and returns the running one either way
+     */
+    @Override
+    public DuplicateScanDTO startScan() {
+        DuplicateScanDTO scan = DuplicateScanDTO.builder()
+                .status(DuplicateScanStatus.RUNNING)
+                .startedAt(UtcClock.now())
+                .build();
+        DuplicateScanDTO previous = lastScan.getAndUpdate(current ->
+                current != null && current.getStatus() == DuplicateScanStatus.RUNNING ? current : scan);
+        if (previous != null && previous.getStatus() == DuplicateScanStatus.RUNNING) {
+            return previous;
+        }
+        try {
+            taskExecutor.execute(() -> lastScan.set(scan(scan.getStartedAt())));
+        } catch (RuntimeException e) {
+            lastScan.compareAndSet(scan, previous);
+            throw e;
+        }
+        return scan;
+    }
+
+    @Override
+    public DuplicateScanDTO getLastScan() {
+        DuplicateScanDTO scan = lastScan.get();
+        if (scan == null) {
+            throw new ResourceNotFoundException("No duplicate scan has run since the application started");
+        }
+        return scan;
+    }
+
+    @Override
+    public Page<DuplicateCandidateDTO> getCandidates(double minScore, Pageable pageable) {
+        Pageable ordered = PageRequest.of(pageable.getPageNumber(), Math.min(pageable.getPageSize(), MAX_PAGE_SIZE), REVIEW_ORDER);
+        Page<DuplicateCandidate> page = shardRouter.onShard(0,
+                () -> duplicateCandidateRepository.findByScoreGreaterThanEqual(minScore, ordered));
+
+        // Current state of both customers of every pair, read shard by shard
+        Map<Integer, List<Long>> idsByShard = page.getContent().stream()
+                .flatMap(candidate -> Stream.of(candidate.getCustomerId(), candidate.getOtherCustomerId()))
+                .distinct()
+                .collect(Collectors.groupingBy(shardRouter::shardOfId));
+        Map<Long, CustomerSummaryDTO> summaries = new HashMap<>();
+        idsByShard.forEach((shard, ids) ->
+                summaries.putAll(shardRouter.onShard(shard, () -> customerSummaryService.findByIds(ids))));
+
+        return page.map(candidate -> DuplicateCandidateDTO.builder()
+                .id(candidate.getId())
+                .score(candidate.getScore())
+                .reasons(parseReasons(candidate.getReasons()))
+                .detectedAt(candidate.getDetectedAt())
+                .customerId(candidate.getCustomerId())
+                .otherCustomerId(candidate.getOtherCustomerId())
+                .customer(summaries.get(candidate.getCustomerId()))
+                .otherCustomer(summaries.get(candidate.getOtherCustomerId()))
+                .build());
+    }
+
+    private DuplicateScanDTO scan(LocalDateTime startedAt) {
+        long startNanos = System.nanoTime();
+        DuplicateMatcher matcher = new DuplicateMatcher(minScore, maxBlockSize, maxKeysPerPass);
+        try {
+            shardRouter.forEachShard(shard -> jdbcTemplate.query(connection -> {
+                PreparedStatement statement = connection.prepareStatement(CUSTOMERS_QUERY,
+                        ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                statement.setFetchSize(STREAM_FETCH_SIZE);
+                return statement;
+            }, (RowCallbackHandler) rs -> matcher.add(rs.getLong(1), rs.getString(2),
+                    rs.getObject(3, LocalDate.class), rs.getString(4), rs.getString(5))));
+            long readMillis = (System.nanoTime() - startNanos) / 1_000_000;
+
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            DuplicateMatcher.Result result;
+            try {
+                result = matcher.findDuplicates(pool);
+            } finally {
+                pool.shutdown();
+            }
+            saveCandidates(result.candidates());
+
+            log.info("Duplicate scan of {} customers found {} candidates in {} ms ({} ms reading): {} blocks, {} skipped, {} comparisons",
+                    matcher.size(), result.candidates().size(), (System.nanoTime() - startNanos) / 1_000_000,
+                    readMillis, result.blocks(), result.skippedBlocks(), result.comparisons());
+            return DuplicateScanDTO.builder()
+                    .status(DuplicateScanStatus.COMPLETED)
+                    .startedAt(startedAt)
+                    .finishedAt(UtcClock.now())
+                    .customersScanned(matcher.size())
+                    .blocks(result.blocks())
+                    .comparisons(result.comparisons())
+                    .skippedBlocks(result.skippedBlocks())
+                    .candidatesFound(result.candidates().size())
+                    .build();
+        } catch (RuntimeException | OutOfMemoryError e) {
+            // Too many customers for the heap fails the scan, it must not stay RUNNING and block the next one
+            log.error("Duplicate scan failed after {} customers", matcher.size(), e);
+            return DuplicateScanDTO.builder()
+                    .status(DuplicateScanStatus.FAILED)
+                    .startedAt(startedAt)
+                    .finishedAt(UtcClock.now())
+                    .customersScanned(matcher.size())
+                    .error(e.getMessage())
+                    .build();
+        }
+    }
+
+    // Replaces the previous results in one transaction, so a review never sees half of a scan
+    private void saveCandidates(List<DuplicateMatcher.Candidate> candidates) {
+        LocalDateTime detectedAt = UtcClock.now();
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        shardRouter.onShard(0, () -> transactionTemplate.execute(status -> {
+            jdbcTemplate.update(DELETE_CANDIDATES);
+            jdbcTemplate.batchUpdate(INSERT_CANDIDATE, candidates, INSERT_BATCH_SIZE, (ps, candidate) -> {
+                ps.setLong(1, candidate.customerId());
+                ps.setLong(2, candidate.otherCustomerId());
+                ps.setDouble(3, candidate.score());
+                ps.setString(4, candidate.reasons().stream().map(Enum::name).collect(Collectors.joining(REASON_SEPARATOR)));
+                ps.setObject(5, detectedAt);
+            });
+            return null;
+        }));
+    }
+
+    private static Set<DuplicateReason> parseReasons(String reasons) {
+        Set<DuplicateReason> parsed = EnumSet.noneOf(DuplicateReason.class);
+        if (reasons != null && !reasons.isEmpty()) {
+            for (String reason : reasons.split(REASON_SEPARATOR)) {
+                parsed.add(DuplicateReason.valueOf(reason));
+            }
+        }
+        return parsed;
+    }
+}
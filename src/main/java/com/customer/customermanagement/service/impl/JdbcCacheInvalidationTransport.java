@@ -0,0 +1,124 @@
+package com.customer.customermanagement.service.impl;
+
+import com.customer.customermanagement.dto.CachedEntity;
+import com.customer.customermanagement.service.CacheInvalidationTransport;
+import com.customer.customermanagement.util.UtcClock;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sends invalidations as rows of cache_invalidations on shard 0 and reads the rows added since the last poll,
+ * so instances need nothing but the database they already share. Ids are read in order, but a lower id may
+ * commit after a higher one; an id skipped that way is looked for again until gap-timeout-millis has passed.
+ * Needed as soon as more than one instance runs; customer.cache.poll-millis is then the longest time another
+ * instance may serve an entry a write has made stale.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "customer.cache.transport", havingValue = "jdbc")
+public class JdbcCacheInvalidationTransport implements CacheInvalidationTransport {
+
+    private static final int MAX_ROWS_PER_POLL = 10000;
+    private static final String INSERT = "INSERT INTO cache_invalidations (origin, entity_type, entity_id, created_at) "
+            + "VALUES (?, ?, ?, ?)";
+    private static final String SELECT_LAST_ID = "SELECT COALESCE(MAX(id), 0) FROM cache_invalidations";
+    private static final String SELECT_AFTER = "SELECT id, origin, entity_type, entity_id FROM cache_invalidations "
+            + "WHERE id > ? ORDER BY id LIMIT " + MAX_ROWS_PER_POLL;
+    private static final String PURGE = "DELETE FROM cache_invalidations WHERE created_at < ?";
+    // A wider jump is taken as the sequence moving on, not as that many transactions in flight
+    private static final int MAX_TRACKED_GAP = 1000;
+    private static final long PURGE_INTERVAL_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final long gapTimeoutNanos;
+    private final long retentionMinutes;
+    private final long origin = UUID.randomUUID().getMostSignificantBits();
+
+    private long lastId = -1;
+    // Skipped id to when it was first missed
+    private final Map<Long, Long> gaps = new HashMap<>();
+    private long nextPurgeNanos = System.nanoTime();
+
+    public JdbcCacheInvalidationTransport(JdbcTemplate jdbcTemplate,
+                                          @Value("${customer.cache.gap-timeout-millis:10000}") long gapTimeoutMillis,
+                                          @Value("${customer.cache.retention-minutes:10}") long retentionMinutes) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.gapTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(gapTimeoutMillis);
+        this.retentionMinutes = retentionMinutes;
+    }
+
+    @Override
+    public void send(Collection<Invalidation> invalidations) {
+        List<Invalidation> batch = new ArrayList<>(invalidations);
+        LocalDateTime createdAt = UtcClock.now();
+        jdbcTemplate.batchUpdate(INSERT, batch, batch.size(), (statement, invalidation) -> {
+            statement.setLong(1, origin);
+            statement.setString(2, invalidation.entity().name());
+            if (invalidation.id() == null) {
+                statement.setNull(3, Types.BIGINT);
+            } else {
+                statement.setLong(3, invalidation.id());
+            }
+            statement.setObject(4, createdAt);
+        });
+    }
+
+    @Override
+    public List<Invalidation> receive() {
+        long now = System.nanoTime();
+        if (lastId < 0) {
+            // Caches start empty, nothing sent before this instance started concerns them
+            lastId = jdbcTemplate.queryForObject(SELECT_LAST_ID, Long.class);
+        }
+        purgeIfDue(now);
+
+        long from = gaps.isEmpty() ? lastId : gaps.keySet().stream().mapToLong(Long::longValue).min().getAsLong() - 1;
+        List<Invalidation> received = new ArrayList<>();
+        jdbcTemplate.query(SELECT_AFTER, rs -> {
+            long id = rs.getLong(1);
+            if (id <= lastId && gaps.remove(id) == null) {
+                return;
+            }
+            if (id > lastId) {
+                if (id - lastId <= MAX_TRACKED_GAP) {
+                    for (long skipped = lastId + 1; skipped < id; skipped++) {
+                        gaps.put(skipped, now);
+                    }
+                }
+                lastId = id;
+            }
+            if (rs.getLong(2) != origin) {
+                long entityId = rs.getLong(4);
+                received.add(new Invalidation(CachedEntity.valueOf(rs.getString(3)), rs.wasNull() ? null : entityId));
+            }
+        }, from);
+
+        // Ids burnt by rolled back inserts never show up
+        gaps.values().removeIf(missedAt -> now - missedAt > gapTimeoutNanos);
+        return received;
+    }
+
+    private void purgeIfDue(long now) {
+        if (now - nextPurgeNanos < 0) {
+            return;
+        }
+        nextPurgeNanos = now + PURGE_INTERVAL_NANOS;
+        int purged = jdbcTemplate.update(PURGE, UtcClock.now().minusMinutes(retentionMinutes));
+        if (purged > 0) {
+            log.debug("Purged {} cache invalidations older than {} minutes", purged, retentionMinutes);
+        }
+    }
+}
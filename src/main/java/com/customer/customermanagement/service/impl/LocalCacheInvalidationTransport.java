@@ -0,0 +1,25 @@
+package com.customer.customermanagement.service.impl;
+
+import com.customer.customermanagement.service.CacheInvalidationTransport;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * The default, for a single instance: invalidations only apply to the caches of the instance that made them
+ */
+@Service
+@ConditionalOnProperty(name = "customer.cache.transport", havingValue = "none", matchIfMissing = true)
+public class LocalCacheInvalidationTransport implements CacheInvalidationTransport {
+
+    @Override
+    public void send(Collection<Invalidation> invalidations) {
+    }
+
+    @Override
+    public List<Invalidation> receive() {
+        return List.of();
+    }
+}
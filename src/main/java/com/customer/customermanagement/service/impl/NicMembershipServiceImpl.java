@@ -0,0 +1,215 @@
+package com.customer.customermanagement.service.impl;
+
+import com.customer.customermanagement.config.ShardRouter;
+import com.customer.customermanagement.repository.CustomerRepository;
+import com.customer.customermanagement.service.NicMembershipService;
+import com.customer.customermanagement.util.CountingBloomFilter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Answers "does a customer with this NIC exist" with a counting Bloom filter in front of the database.
+ * Only possible hits reach existsByNicNumber; the unique constraint on nic_number stays the source of truth.
+ * Until the startup rebuild finishes every check goes to the database.
+ * The filter only learns the NICs written through this instance, so a miss is advisory: writers still
+ * translate a unique violation into a duplicate NIC.
+ */
+@Slf4j
+@Service
+public class NicMembershipServiceImpl implements NicMembershipService {
+
+    private static final String NIC_QUERY = "SELECT nic_number FROM customers";
+    private static final int STREAM_FETCH_SIZE = 1000;
+    private static final long MIN_EXPECTED_NICS = 100_000;
+
+    private final CustomerRepository customerRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final ShardRouter shardRouter;
+    private final Executor taskExecutor;
+    private final boolean enabled;
+    private final long memoryBytes;
+
+    // Swapped as one, so an add reading it during a rebuild reaches the filter that replaces the current one
+    private final AtomicReference<Filters> filters = new AtomicReference<>(new Filters(null, null));
+    private final AtomicLong registeredNics = new AtomicLong();
+
+    private final Counter queriesSaved;
+    private final Counter falsePositives;
+    private final Counter confirmedHits;
+
+    public NicMembershipServiceImpl(CustomerRepository customerRepository,
+                                    JdbcTemplate jdbcTemplate,
+                                    ShardRouter shardRouter,
+                                    @Qualifier("taskExecutor") Executor taskExecutor,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${customer.nic-filter.enabled:true}") boolean enabled,
+                                    @Value("${customer.nic-filter.memory-bytes:8388608}") long memoryBytes) {
+        this.customerRepository = customerRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.shardRouter = shardRouter;
+        this.taskExecutor = taskExecutor;
+        this.enabled = enabled;
+        this.memoryBytes = memoryBytes;
+
+        this.queriesSaved = Counter.builder("customer.nic.filter.queries.saved")
+                .description("NIC checks answered by the filter without a database query")
+                .register(meterRegistry);
+        this.falsePositives = Counter.builder("customer.nic.filter.false.positives")
+                .description("NIC checks the filter passed to the database that did not exist")
+                .register(meterRegistry);
+        this.confirmedHits = Counter.builder("customer.nic.filter.confirmed.hits")
+                .description("NIC checks the filter passed to the database that did exist")
+                .register(meterRegistry);
+        Gauge.builder("customer.nic.filter.false.positive.rate", this, NicMembershipServiceImpl::observedFalsePositiveRate)
+                .description("Share of absent NICs the filter failed to rule out")
+                .register(meterRegistry);
+        Gauge.builder("customer.nic.filter.expected.false.positive.rate", this, NicMembershipServiceImpl::expectedFalsePositiveRate)
+                .description("Theoretical false positive rate for the current number of NICs")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public boolean exists(String nicNumber) {
+        CountingBloomFilter current = filters.get().current();
+        if (current != null && !current.mightContain(nicNumber)) {
+            queriesSaved.increment();
+            return false;
+        }
+
+        boolean exists = customerRepository.existsByNicNumber(nicNumber);
+        if (current != null) {
+            (exists ? confirmedHits : falsePositives).increment();
+        }
+        return exists;
+    }
+
+    /**
+     * Applied once the insert is committed, so a rebuild running at the same time either
+     * streams the row or receives the add, and never misses it
+     */
+    @Override
+    public void registerNic(String nicNumber) {
+        afterCommit(() -> addNow(nicNumber));
+    }
+
+    /**
+     * Removals wait for the commit, removing a NIC whose delete is rolled back would cause false negatives
+     */
+    @Override
+    public void unregisterNic(String nicNumber) {
+        afterCommit(() -> removeNow(nicNumber));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        if (enabled) {
+            taskExecutor.execute(this::rebuild);
+        }
+    }
+
+    /**
+     * Builds a fresh filter by streaming the nic_number column and swaps it in when complete.
+     * NICs committed meanwhile go to both filters; removals skip the new one, which at worst keeps a false positive.
+     */
+    @Override
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+
+        AtomicLong counted = new AtomicLong();
+        shardRouter.forEachShard(shard -> counted.addAndGet(customerRepository.count()));
+        long nicCount = counted.get();
+        long expected = Math.max(MIN_EXPECTED_NICS, nicCount + nicCount / 2);
+        CountingBloomFilter next = new CountingBloomFilter(memoryBytes, expected);
+        filters.updateAndGet(snapshot -> new Filters(snapshot.current(), next));
+        log.info("Rebuilding NIC filter for {} customers with {} counters and {} hashes",
+                nicCount, next.getCounterCount(), next.getHashCount());
+
+        AtomicLong loaded = new AtomicLong();
+        try {
+            // One filter covers every shard, NICs are unique across shards because each hashes to one
+            shardRouter.forEachShard(shard -> jdbcTemplate.query(connection -> {
+                PreparedStatement statement = connection.prepareStatement(NIC_QUERY,
+                        ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                statement.setFetchSize(STREAM_FETCH_SIZE);
+                return statement;
+            }, (RowCallbackHandler) rs -> {
+                next.add(rs.getString(1));
+                loaded.incrementAndGet();
+            }));
+        } catch (RuntimeException e) {
+            filters.updateAndGet(snapshot -> new Filters(snapshot.current(), null));
+            log.error("NIC filter rebuild failed, existence checks keep using the database", e);
+            return;
+        }
+
+        registeredNics.set(loaded.get());
+        filters.set(new Filters(next, null));
+        log.info("NIC filter ready with {} NICs, expected false positive rate {}",
+                loaded.get(), next.expectedFalsePositiveRate(loaded.get()));
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private void addNow(String nicNumber) {
+        Filters snapshot = filters.get();
+        if (snapshot.current() != null) {
+            snapshot.current().add(nicNumber);
+            registeredNics.incrementAndGet();
+        }
+        if (snapshot.building() != null) {
+            snapshot.building().add(nicNumber);
+        }
+    }
+
+    private void removeNow(String nicNumber) {
+        CountingBloomFilter current = filters.get().current();
+        if (current != null) {
+            current.remove(nicNumber);
+            registeredNics.decrementAndGet();
+        }
+    }
+
+    private double observedFalsePositiveRate() {
+        double negatives = queriesSaved.count() + falsePositives.count();
+        return negatives == 0 ? 0 : falsePositives.count() / negatives;
+    }
+
+    private double expectedFalsePositiveRate() {
+        CountingBloomFilter current = filters.get().current();
+        return current == null ? Double.NaN : current.expectedFalsePositiveRate(registeredNics.get());
+    }
+
+    // The filter answering checks, and the one a running rebuild fills to replace it
+    private record Filters(CountingBloomFilter current, CountingBloomFilter building) {
+    }
+}
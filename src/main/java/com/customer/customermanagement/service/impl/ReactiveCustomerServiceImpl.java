@@ -0,0 +1,182 @@
+package com.customer.customermanagement.service.impl;
+
+import com.customer.customermanagement.config.ReactiveShardClients;
+import com.customer.customermanagement.config.ShardRouter;
+import com.customer.customermanagement.dto.CustomerDTO;
+import com.customer.customermanagement.dto.CustomerSummaryDTO;
+import com.customer.customermanagement.exception.ResourceNotFoundException;
+import com.customer.customermanagement.model.Address;
+import com.customer.customermanagement.model.City;
+import com.customer.customermanagement.model.Country;
+import com.customer.customermanagement.model.Customer;
+import com.customer.customermanagement.model.CustomerSummary;
+import com.customer.customermanagement.service.ReactiveCustomerService;
+import io.r2dbc.spi.Readable;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Reads over R2DBC with the queries the JPA side runs, mapped by the same CustomerMapper. Listings page
+ * through customer_summary by id, page-size rows per query, and only query the next page once the
+ * subscriber has taken the previous one. Shards hand out ascending id ranges, so shard after shard is id order.
+ */
+@Service
+@ConditionalOnProperty(name = "customer.reactive.enabled", havingValue = "true")
+public class ReactiveCustomerServiceImpl implements ReactiveCustomerService {
+
+    private static final String SELECT_CUSTOMER = "SELECT id, version, name, date_of_birth, nic_number,"
+            + " created_at, updated_at FROM customers WHERE id = :id";
+    private static final String SELECT_MOBILE_NUMBERS =
+            "SELECT mobile_number FROM customer_mobile_numbers WHERE customer_id = :id";
+    private static final String SELECT_FAMILY_MEMBER_IDS =
+            "SELECT family_member_id FROM family_relationships WHERE customer_id = :id";
+    private static final String SELECT_ADDRESSES = "SELECT a.id, a.address_line1, a.address_line2,"
+            + " ci.id AS city_id, ci.name AS city_name, co.id AS country_id, co.name AS country_name"
+            + " FROM addresses a LEFT JOIN cities ci ON ci.id = a.city_id LEFT JOIN countries co ON co.id = ci.country_id"
+            + " WHERE a.customer_id = :id ORDER BY a.id";
+    private static final String SELECT_SUMMARIES = "SELECT customer_id, name, date_of_birth, nic_number, mobile_numbers,"
+            + " address_line1, address_line2, city_name, country_name, family_member_count"
+            + " FROM customer_summary WHERE customer_id > :after";
+    private static final String MATCHING_PREFIX = " AND (name LIKE :name OR nic_number LIKE :nic)";
+    private static final String NEXT_PAGE = " ORDER BY customer_id LIMIT :limit";
+
+    private final ReactiveShardClients shardClients;
+    private final ShardRouter shardRouter;
+    private final int pageSize;
+
+    public ReactiveCustomerServiceImpl(ReactiveShardClients shardClients,
+                                       ShardRouter shardRouter,
+                                       @Value("${customer.reactive.page-size:500}") int pageSize) {
+        this.shardClients = shardClients;
+        this.shardRouter = shardRouter;
+        this.pageSize = pageSize;
+    }
+
+    @Override
+    public Mono<CustomerDTO> getCustomerById(Long id) {
+        return Mono.fromCallable(() -> shardClients.client(shardRouter.shardOfId(id)))
+                .flatMap(client -> client.sql(SELECT_CUSTOMER)
+                        .bind("id", id)
+                        .map(ReactiveCustomerServiceImpl::customer)
+                        .one()
+                        // The customer row decides a 404, the collections are read side by side
+                        .flatMap(customer -> Mono.zip(
+                                        client.sql(SELECT_MOBILE_NUMBERS)
+                                                .bind("id", id)
+                                                .map(row -> row.get("mobile_number", String.class))
+                                                .all()
+                                                .collect(Collectors.toSet()),
+                                        client.sql(SELECT_FAMILY_MEMBER_IDS)
+                                                .bind("id", id)
+                                                .map(row -> Customer.builder().id(row.get("family_member_id", Long.class)).build())
+                                                .all()
+                                                .collect(Collectors.toSet()),
+                                        client.sql(SELECT_ADDRESSES)
+                                                .bind("id", id)
+                                                .map(ReactiveCustomerServiceImpl::address)
+                                                .all()
+                                                .collectList())
+                                .map(details -> {
+                                    customer.setMobileNumbers(details.getT1());
+                                    customer.setFamilyMembers(details.getT2());
+                                    customer.setAddresses(details.getT3());
+                                    return CustomerMapper.toDTO(customer);
+                                })))
+                .switchIfEmpty(Mono.error(() -> new ResourceNotFoundException("Customer not found with id: " + id)));
+    }
+
+    @Override
+    public Flux<CustomerSummaryDTO> streamCustomers(long afterId, long limit) {
+        return summaries(null, afterId, limit);
+    }
+
+    @Override
+    public Flux<CustomerSummaryDTO> searchCustomers(String query, long afterId, long limit) {
+        // Prefix match like the JPA search, with the LIKE wildcards of the query taken literally
+        String prefix = query.trim().replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+        return summaries(prefix, afterId, limit);
+    }
+
+    private Flux<CustomerSummaryDTO> summaries(String prefix, long afterId, long limit) {
+        int size = (int) Math.min(pageSize, limit);
+        return Flux.concat(IntStream.range(0, shardClients.getShardCount())
+                        .mapToObj(shard -> Flux.defer(() -> shardSummaries(shardClients.client(shard), prefix, afterId, size)))
+                        .toList())
+                .take(limit)
+                .map(CustomerMapper::toDTO);
+    }
+
+    private Flux<CustomerSummary> shardSummaries(DatabaseClient client, String prefix, long afterId, int size) {
+        return page(client, prefix, afterId, size)
+                .expand(rows -> rows.size() < size
+                        ? Mono.empty()
+                        : page(client, prefix, rows.get(rows.size() - 1).getCustomerId(), size))
+                .concatMapIterable(rows -> rows, 1);
+    }
+
+    private Mono<List<CustomerSummary>> page(DatabaseClient client, String prefix, long afterId, int size) {
+        DatabaseClient.GenericExecuteSpec select = client.sql(SELECT_SUMMARIES + (prefix != null ? MATCHING_PREFIX : "") + NEXT_PAGE)
+                .bind("after", afterId)
+                .bind("limit", size);
+        if (prefix != null) {
+            select = select.bind("name", prefix).bind("nic", prefix);
+        }
+        return select.map(ReactiveCustomerServiceImpl::summary).all().collectList();
+    }
+
+    private static Customer customer(Readable row) {
+        Customer customer = new Customer();
+        customer.setId(row.get("id", Long.class));
+        customer.setVersion(row.get("version", Long.class));
+        customer.setName(row.get("name", String.class));
+        customer.setDateOfBirth(row.get("date_of_birth", LocalDate.class));
+        customer.setNicNumber(row.get("nic_number", String.class));
+        customer.setCreatedAt(row.get("created_at", LocalDateTime.class));
+        customer.setUpdatedAt(row.get("updated_at", LocalDateTime.class));
+        return customer;
+    }
+
+    private static Address address(Readable row) {
+        Address address = new Address();
+        address.setId(row.get("id", Long.class));
+        address.setAddressLine1(row.get("address_line1", String.class));
+        address.setAddressLine2(row.get("address_line2", String.class));
+        Long cityId = row.get("city_id", Long.class);
+        if (cityId != null) {
+            Long countryId = row.get("country_id", Long.class);
+            address.setCity(City.builder()
+                    .id(cityId)
+                    .name(row.get("city_name", String.class))
+                    .country(countryId != null
+                            ? Country.builder().id(countryId).name(row.get("country_name", String.class)).build()
+                            : null)
+                    .build());
+        }
+        return address;
+    }
+
+    private static CustomerSummary summary(Readable row) {
+        return CustomerSummary.builder()
+                .customerId(row.get("customer_id", Long.class))
+                .name(row.get("name", String.class))
+                .dateOfBirth(row.get("date_of_birth", LocalDate.class))
+                .nicNumber(row.get("nic_number", String.class))
+                .mobileNumbers(row.get("mobile_numbers", String.class))
+                .addressLine1(row.get("address_line1", String.class))
+                .addressLine2(row.get("address_line2", String.class))
+                .cityName(row.get("city_name", String.class))
+                .countryName(row.get("country_name", String.class))
+                .familyMemberCount(row.get("family_member_count", Integer.class))
+                .build();
+    }
+}
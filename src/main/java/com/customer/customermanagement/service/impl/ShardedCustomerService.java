@@ -0,0 +1,245 @@
+package com.customer.customermanagement.service.impl;
+
+import com.customer.customermanagement.config.ShardRouter;
+import com.customer.customermanagement.dto.BulkDeleteRequestDTO;
+import com.customer.customermanagement.dto.BulkDeleteResultDTO;
+import com.customer.customermanagement.dto.BulkProcessingResultDTO;
+import com.customer.customermanagement.dto.BulkRowErrorDTO;
+import com.customer.customermanagement.dto.CustomerAssociation;
+import com.customer.customermanagement.dto.CustomerDTO;
+import com.customer.customermanagement.dto.CustomerSummaryDTO;
+import com.customer.customermanagement.exception.ResourceNotFoundException;
+import com.customer.customermanagement.service.CustomerService;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * Shard aware front of CustomerServiceImpl. Calls for one customer run on the shard its NIC or id names;
+ * listing, search and mobile lookups ask every shard in parallel and merge. The shard is chosen before the
+ * delegate opens its transaction, because a transaction stays on the connection it started with.
+ * Family members must live on the same shard as the customer, other links are rejected.
+ * With a single shard every call goes straight to the delegate. CachingCustomerService coalesces and caches
+ * the reads in front of it.
+ */
+@Service
+public class ShardedCustomerService implements CustomerService {
+
+    private static final Comparator<Comparable<Object>> NULLS_FIRST = Comparator.nullsFirst(Comparator.naturalOrder());
+
+    private final CustomerServiceImpl delegate;
+    private final ShardRouter shardRouter;
+
+    public ShardedCustomerService(CustomerServiceImpl delegate, ShardRouter shardRouter) {
+        this.delegate = delegate;
+        this.shardRouter = shardRouter;
+    }
+
+    @Override
+    public CustomerDTO createCustomer(CustomerDTO customerDTO) {
+        int shard = shardRouter.shardOfNic(customerDTO.getNicNumber());
+        checkFamilyOnShard(shard, customerDTO);
+        return shardRouter.onShard(shard, () -> delegate.createCustomer(customerDTO));
+    }
+
+    @Override
+    public CustomerDTO updateCustomer(Long id, CustomerDTO customerDTO) {
+        return updateCustomer(id, customerDTO, customerDTO.getVersion());
+    }
+
+    @Override
+    public CustomerDTO updateCustomer(Long id, CustomerDTO customerDTO, Long expectedVersion) {
+        int shard = shardRouter.shardOfId(id);
+        if (customerDTO.getNicNumber() != null && shardRouter.shardOfNic(customerDTO.getNicNumber()) != shard) {
+            throw new IllegalArgumentException("NIC " + customerDTO.getNicNumber()
+                    + " belongs to another shard, a customer cannot change to it");
+        }
+        checkFamilyOnShard(shard, customerDTO);
+        return shardRouter.onShard(shard, () -> delegate.updateCustomer(id, customerDTO, expectedVersion));
+    }
+
+    @Override
+    public CustomerDTO getCustomerById(Long id) {
+        return getCustomerById(id, EnumSet.allOf(CustomerAssociation.class));
+    }
+
+    @Override
+    public CustomerDTO getCustomerById(Long id, Set<CustomerAssociation> include) {
+        return shardRouter.onShard(shardRouter.shardOfId(id), () -> delegate.getCustomerById(id, include));
+    }
+
+    @Override
+    public Page<CustomerSummaryDTO> getAllCustomers(Pageable pageable) {
+        if (!shardRouter.isSharded()) {
+            return delegate.getAllCustomers(pageable);
+        }
+        return scatterPage(pageable, shardPageable -> delegate.getAllCustomers(shardPageable));
+    }
+
+    @Override
+    public Page<CustomerSummaryDTO> searchCustomers(String query, Pageable pageable) {
+        if (!shardRouter.isSharded()) {
+            return delegate.searchCustomers(query, pageable);
+        }
+        return scatterPage(pageable, shardPageable -> delegate.searchCustomers(query, shardPageable));
+    }
+
+    @Override
+    public List<CustomerSummaryDTO> getCustomersByMobileNumber(String mobileNumber) {
+        if (!shardRouter.isSharded()) {
+            return delegate.getCustomersByMobileNumber(mobileNumber);
+        }
+        List<CustomerSummaryDTO> customers = new ArrayList<>();
+        shardRouter.onEveryShard(shard -> {
+            try {
+                return delegate.getCustomersByMobileNumber(mobileNumber);
+            } catch (ResourceNotFoundException e) {
+                return List.<CustomerSummaryDTO>of();
+            }
+        }).forEach(customers::addAll);
+        if (customers.isEmpty()) {
+            throw new ResourceNotFoundException("No customer found with mobile number: " + mobileNumber);
+        }
+        return customers;
+    }
+
+    @Override
+    public void deleteCustomer(Long id) {
+        shardRouter.onShard(shardRouter.shardOfId(id), () -> {
+            delegate.deleteCustomer(id);
+            return null;
+        });
+    }
+
+    @Override
+    public BulkDeleteResultDTO deleteCustomers(BulkDeleteRequestDTO request) {
+        if (!shardRouter.isSharded()) {
+            return delegate.deleteCustomers(request);
+        }
+        List<Set<Long>> idsByShard = new ArrayList<>();
+        for (int shard = 0; shard < shardRouter.getShardCount(); shard++) {
+            idsByShard.add(new HashSet<>());
+        }
+        if (request.getIds() != null) {
+            request.getIds().forEach(id -> idsByShard.get(shardRouter.shardOfId(id)).add(id));
+        }
+        int deleted = shardRouter.onEveryShard(shard -> {
+            BulkDeleteRequestDTO shardRequest = BulkDeleteRequestDTO.builder()
+                    .ids(idsByShard.get(shard))
+                    .namePrefix(request.getNamePrefix())
+                    .nicPrefix(request.getNicPrefix())
+                    .bornBefore(request.getBornBefore())
+                    .build();
+            return shardRequest.isSelective() ? delegate.deleteCustomers(shardRequest).getDeletedCount() : 0;
+        }).stream().mapToInt(Integer::intValue).sum();
+        return new BulkDeleteResultDTO(deleted);
+    }
+
+    /**
+     * Imports the workbook on every shard at once, each pass taking the rows whose NIC hashes to its shard.
+     * Row numbers in errors are those of the uploaded file. Runs asynchronously like the unsharded import,
+     * the caller only gets the future.
+     */
+    @Override
+    @Async
+    public CompletableFuture<BulkProcessingResultDTO> processBulkCustomerCreation(MultipartFile file) {
+        if (!shardRouter.isSharded()) {
+            // Already on an async thread, the delegate's own @Async entry point would only queue it again
+            return delegate.processBulkCustomerCreation(file, nicNumber -> true);
+        }
+        List<BulkProcessingResultDTO> results = shardRouter.onEveryShard(shard ->
+                delegate.processBulkCustomerCreation(file, shardRouter.ownsNic(shard)).join());
+        return CompletableFuture.completedFuture(mergeResults(results));
+    }
+
+    // Sums the counts and orders the errors by sheet and row
+    static BulkProcessingResultDTO mergeResults(Collection<BulkProcessingResultDTO> results) {
+        BulkProcessingResultDTO merged = BulkProcessingResultDTO.builder()
+                .errors(new ArrayList<>())
+                .build();
+        for (BulkProcessingResultDTO result : results) {
+            merged.setTotalProcessed(merged.getTotalProcessed() + result.getTotalProcessed());
+            merged.setSuccessCount(merged.getSuccessCount() + result.getSuccessCount());
+            merged.setFailureCount(merged.getFailureCount() + result.getFailureCount());
+            merged.setAddressesImported(merged.getAddressesImported() + result.getAddressesImported());
+            merged.setMobileNumbersImported(merged.getMobileNumbersImported() + result.getMobileNumbersImported());
+            merged.setRelationshipsImported(merged.getRelationshipsImported() + result.getRelationshipsImported());
+            merged.getErrors().addAll(result.getErrors());
+        }
+        merged.getErrors().sort(Comparator
+                .comparing(BulkRowErrorDTO::getSheet, Comparator.nullsFirst(Comparator.naturalOrder()))
+                .thenComparingInt(BulkRowErrorDTO::getRowNumber));
+        return merged;
+    }
+
+    private void checkFamilyOnShard(int shard, CustomerDTO customerDTO) {
+        if (customerDTO.getFamilyMemberIds() == null) {
+            return;
+        }
+        for (Long familyMemberId : customerDTO.getFamilyMemberIds()) {
+            if (shardRouter.shardOfId(familyMemberId) != shard) {
+                throw new IllegalArgumentException("Family member " + familyMemberId
+                        + " is stored on another shard than the customer");
+            }
+        }
+    }
+
+    /**
+     * Every shard returns its first (page + 1) * size rows in the requested order, the merge keeps the
+     * requested slice. Deep pages get more expensive with the shard count.
+     */
+    private Page<CustomerSummaryDTO> scatterPage(Pageable pageable,
+                                                 Function<Pageable, Page<CustomerSummaryDTO>> query) {
+        Pageable shardPageable = pageable.isPaged()
+                ? PageRequest.of(0, (pageable.getPageNumber() + 1) * pageable.getPageSize(), pageable.getSort())
+                : pageable;
+        List<Page<CustomerSummaryDTO>> pages = shardRouter.onEveryShard(shard -> query.apply(shardPageable));
+
+        List<CustomerSummaryDTO> merged = new ArrayList<>();
+        long total = 0;
+        for (Page<CustomerSummaryDTO> page : pages) {
+            merged.addAll(page.getContent());
+            total += page.getTotalElements();
+        }
+        merged.sort(comparator(pageable.getSort()));
+        if (pageable.isUnpaged()) {
+            return new PageImpl<>(merged, pageable, total);
+        }
+        int from = (int) Math.min(pageable.getOffset(), merged.size());
+        int to = Math.min(from + pageable.getPageSize(), merged.size());
+        return new PageImpl<>(new ArrayList<>(merged.subList(from, to)), pageable, total);
+    }
+
+    // Shard ids are ordered like the shards, so the id tie break gives one stable order across shards
+    @SuppressWarnings("unchecked")
+    private static Comparator<CustomerSummaryDTO> comparator(Sort sort) {
+        Comparator<CustomerSummaryDTO> comparator = null;
+        for (Sort.Order order : sort) {
+            String property = "customerId".equals(order.getProperty()) ? "id" : order.getProperty();
+            Comparator<CustomerSummaryDTO> next = Comparator.comparing(
+                    summary -> (Comparable<Object>) sortKey(new BeanWrapperImpl(summary).getPropertyValue(property)),
+                    NULLS_FIRST);
+            if (order.isDescending()) {
+                next = next.reversed();
+            }
+            comparator = comparator == null ? next : comparator.thenComparing(next);
+        }
+        Comparator<CustomerSummaryDTO> byId = Comparator.comparing(CustomerSummaryDTO::getId);
+        return comparator == null ? byId : comparator.thenComparing(byId);
+    }
+
+    // Text compares case insensitively like the database collation
+    private static Object sortKey(Object value) {
+        return value instanceof String text ? text.toLowerCase(Locale.ROOT) : value;
+    }
+}
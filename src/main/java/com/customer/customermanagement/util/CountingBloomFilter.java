@@ -0,0 +1,133 @@
+package com.customer.customermanagement.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counting Bloom filter over strings with 4 bit counters, sixteen to a long, updated lock free.
+ * A negative answer is definite, a positive one only means "possibly present".
+ * Counters saturate at 15 and are never decremented afterwards, so removals can only leave
+ * false positives behind, never false negatives.
+ */
+public class CountingBloomFilter {
+
+    private static final int COUNTERS_PER_WORD = 16;
+    private static final int BITS_PER_COUNTER = 4;
+    private static final long COUNTER_MASK = 0xFL;
+    private static final int MAX_HASHES = 16;
+
+    private final AtomicLongArray words;
+    private final long counterCount;
+    private final int hashCount;
+
+    /**
+     * @param memoryBytes      memory budget for the counters
+     * @param expectedElements number of elements the filter is sized for
+     */
+    public CountingBloomFilter(long memoryBytes, long expectedElements) {
+        int wordCount = (int) Math.max(1, Math.min(Integer.MAX_VALUE - 8, memoryBytes / Long.BYTES));
+        this.words = new AtomicLongArray(wordCount);
+        this.counterCount = (long) wordCount * COUNTERS_PER_WORD;
+        this.hashCount = optimalHashCount(counterCount, Math.max(1, expectedElements));
+    }
+
+    public void add(String value) {
+        long hash = hash(value);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < hashCount; i++) {
+            increment(index(h1 + i * h2));
+        }
+    }
+
+    public void remove(String value) {
+        long hash = hash(value);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < hashCount; i++) {
+            decrement(index(h1 + i * h2));
+        }
+    }
+
+    public boolean mightContain(String value) {
+        long hash = hash(value);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < hashCount; i++) {
+            if (counter(index(h1 + i * h2)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Theoretical false positive probability once the filter holds the given number of elements
+     */
+    public double expectedFalsePositiveRate(long elements) {
+        return Math.pow(1 - Math.exp(-(double) hashCount * elements / counterCount), hashCount);
+    }
+
+    public int getHashCount() {
+        return hashCount;
+    }
+
+    public long getCounterCount() {
+        return counterCount;
+    }
+
+    private long index(int combinedHash) {
+        return (combinedHash & Integer.MAX_VALUE) % counterCount;
+    }
+
+    private int counter(long index) {
+        long word = words.get((int) (index / COUNTERS_PER_WORD));
+        return (int) ((word >>> shift(index)) & COUNTER_MASK);
+    }
+
+    private void increment(long index) {
+        int wordIndex = (int) (index / COUNTERS_PER_WORD);
+        int shift = shift(index);
+        long word;
+        do {
+            word = words.get(wordIndex);
+            if (((word >>> shift) & COUNTER_MASK) == COUNTER_MASK) {
+                return;
+            }
+        } while (!words.compareAndSet(wordIndex, word, word + (1L << shift)));
+    }
+
+    private void decrement(long index) {
+        int wordIndex = (int) (index / COUNTERS_PER_WORD);
+        int shift = shift(index);
+        long word;
+        do {
+            word = words.get(wordIndex);
+            long count = (word >>> shift) & COUNTER_MASK;
+            // Empty counters stay empty, saturated ones have lost their exact count
+            if (count == 0 || count == COUNTER_MASK) {
+                return;
+            }
+        } while (!words.compareAndSet(wordIndex, word, word - (1L << shift)));
+    }
+
+    private static int shift(long index) {
+        return (int) (index % COUNTERS_PER_WORD) * BITS_PER_COUNTER;
+    }
+
+    private static int optimalHashCount(long counters, long elements) {
+        long hashes = Math.round((double) counters / elements * Math.log(2));
+        return (int) Math.max(1, Math.min(MAX_HASHES, hashes));
+    }
+
+    // FNV-1a over the chars followed by the SplitMix64 finalizer, both halves are used as independent hashes
+    private static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash = (hash ^ (hash >>> 30)) * 0xbf58476d1ce4e5b9L;
+        hash = (hash ^ (hash >>> 27)) * 0x94d049bb133111ebL;
+        return hash ^ (hash >>> 31);
+    }
+}
@@ -0,0 +1,175 @@
+package com.customer.customermanagement.util;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Customer counts by country, city, date of birth, mobile and family coverage, kept up to date by adding
+ * and removing what each customer contributes. Reading costs one pass over the distinct countries, cities
+ * and birth dates, however many customers there are. Ages are worked out when read, so a band never goes stale.
+ */
+public class CustomerStatsCounters {
+
+    private static final int[] AGE_BAND_LOWER_BOUNDS = {0, 18, 25, 35, 45, 55, 65};
+
+    private final LongAdder total = new LongAdder();
+    private final LongAdder withoutAddress = new LongAdder();
+    private final LongAdder withMobileNumbers = new LongAdder();
+    private final LongAdder withFamily = new LongAdder();
+    private final Map<String, LongAdder> countries = new ConcurrentHashMap<>();
+    private final Map<Location, LongAdder> cities = new ConcurrentHashMap<>();
+    private final Map<LocalDate, LongAdder> birthDates = new ConcurrentHashMap<>();
+
+    /**
+     * What one customer adds to the counts, taken from its summary row
+     *
+     * @param countryName country of the primary address, null without one
+     * @param cityName    city of the primary address, null without one
+     */
+    public record Contribution(String countryName, String cityName, LocalDate dateOfBirth,
+                               boolean hasMobileNumbers, boolean hasFamily) {
+    }
+
+    private record Location(String countryName, String cityName) {
+    }
+
+    /**
+     * Contributions removed and added by one transaction, applied together once it commits
+     */
+    public static class Delta {
+
+        private final List<Contribution> removed = new ArrayList<>();
+        private final List<Contribution> added = new ArrayList<>();
+
+        /**
+         * Records a customer going from one state to another; null stands for not existing
+         */
+        public void change(Contribution before, Contribution after) {
+            if (before != null && before.equals(after)) {
+                return;
+            }
+            if (before != null) {
+                removed.add(before);
+            }
+            if (after != null) {
+                added.add(after);
+            }
+        }
+
+        public boolean isEmpty() {
+            return removed.isEmpty() && added.isEmpty();
+        }
+    }
+
+    public void apply(Delta delta) {
+        delta.removed.forEach(contribution -> add(contribution, -1));
+        delta.added.forEach(contribution -> add(contribution, 1));
+    }
+
+    public void add(Contribution contribution) {
+        add(contribution, 1);
+    }
+
+    public long getTotal() {
+        return total.sum();
+    }
+
+    public long getWithoutAddress() {
+        return withoutAddress.sum();
+    }
+
+    public long getWithMobileNumbers() {
+        return withMobileNumbers.sum();
+    }
+
+    public long getWithFamily() {
+        return withFamily.sum();
+    }
+
+    /**
+     * Customers by country name, in name order
+     */
+    public Map<String, Long> countByCountry() {
+        Map<String, Long> counts = new TreeMap<>();
+        countries.forEach((country, count) -> putIfPositive(counts, country, count.sum()));
+        return counts;
+    }
+
+    /**
+     * Customers by city name within each country name, both in name order
+     */
+    public Map<String, Map<String, Long>> countByCity() {
+        Map<String, Map<String, Long>> counts = new TreeMap<>();
+        cities.forEach((location, count) -> {
+            long sum = count.sum();
+            if (sum > 0) {
+                counts.computeIfAbsent(location.countryName(), country -> new TreeMap<>()).put(location.cityName(), sum);
+            }
+        });
+        return counts;
+    }
+
+    /**
+     * Customers by age on the given day, in bands "0-17", "18-24" up to "65+"; every band is present
+     */
+    public Map<String, Long> countByAgeBand(LocalDate today) {
+        long[] bandCounts = new long[AGE_BAND_LOWER_BOUNDS.length];
+        birthDates.forEach((dateOfBirth, count) -> bandCounts[ageBand(dateOfBirth, today)] += count.sum());
+
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (int band = 0; band < AGE_BAND_LOWER_BOUNDS.length; band++) {
+            counts.put(ageBandLabel(band), bandCounts[band]);
+        }
+        return counts;
+    }
+
+    private void add(Contribution contribution, int sign) {
+        total.add(sign);
+        if (contribution.hasMobileNumbers()) {
+            withMobileNumbers.add(sign);
+        }
+        if (contribution.hasFamily()) {
+            withFamily.add(sign);
+        }
+        if (contribution.countryName() == null) {
+            withoutAddress.add(sign);
+        } else {
+            countries.computeIfAbsent(contribution.countryName(), country -> new LongAdder()).add(sign);
+            if (contribution.cityName() != null) {
+                cities.computeIfAbsent(new Location(contribution.countryName(), contribution.cityName()),
+                        location -> new LongAdder()).add(sign);
+            }
+        }
+        if (contribution.dateOfBirth() != null) {
+            birthDates.computeIfAbsent(contribution.dateOfBirth(), date -> new LongAdder()).add(sign);
+        }
+    }
+
+    private static void putIfPositive(Map<String, Long> counts, String key, long count) {
+        if (count > 0) {
+            counts.put(key, count);
+        }
+    }
+
+    private static int ageBand(LocalDate dateOfBirth, LocalDate today) {
+        long age = ChronoUnit.YEARS.between(dateOfBirth, today);
+        int band = 0;
+        while (band + 1 < AGE_BAND_LOWER_BOUNDS.length && age >= AGE_BAND_LOWER_BOUNDS[band + 1]) {
+            band++;
+        }
+        return band;
+    }
+
+    private static String ageBandLabel(int band) {
+        return band + 1 < AGE_BAND_LOWER_BOUNDS.length
+                ? AGE_BAND_LOWER_BOUNDS[band] + "-" + (AGE_BAND_LOWER_BOUNDS[band + 1] - 1)
+                : AGE_BAND_LOWER_BOUNDS[band] + "+";
+    }
+}
@@ -0,0 +1,394 @@
+package com.customer.customermanagement.util;
+
+import com.customer.customermanagement.dto.DuplicateReason;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Finds probable duplicate customers without comparing every pair. Customers are grouped into blocks by
+ * keys that two records of one person are likely to share, and only customers of the same block are
+ * scored against each other. The blocking keys are:
+ * <ul>
+ * <li>date of birth with the Soundex of the first or of the last name</li>
+ * <li>the NIC and each of its one character deletions, so NICs one typo apart share a key</li>
+ * <li>each mobile number</li>
+ * </ul>
+ * A key is a hash packed with the customer's index into a long; sorting those makes every block a run of
+ * equal keys, and a hash collision only merges two blocks. Each kind of key is processed on its own, in
+ * several passes over disjoint hash ranges when its keys would not fit maxKeysPerPass, which bounds the
+ * memory next to the customers themselves. Blocks above maxBlockSize carry no signal (a number shared
+ * by a call centre, say) and are skipped. Blocks are scored in parallel on a fork/join pool.
+ */
+public class DuplicateMatcher {
+
+    public static final int MAX_CUSTOMERS = 1 << 26;
+
+    private static final int INDEX_BITS = 26;
+    private static final long INDEX_MASK = MAX_CUSTOMERS - 1;
+    // Entries a fork/join task scores itself instead of splitting
+    private static final int SPLIT_THRESHOLD = 8192;
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private static final double NIC_WEIGHT = 0.4;
+    private static final double NAME_WEIGHT = 0.3;
+    private static final double DATE_OF_BIRTH_WEIGHT = 0.2;
+    private static final double MOBILE_WEIGHT = 0.1;
+    private static final double NAME_MATCH = 0.9;
+
+    private final double minScore;
+    private final int maxBlockSize;
+    private final int maxKeysPerPass;
+
+    private long[] customerIds = new long[INITIAL_CAPACITY];
+    // yyyymmdd, so a date that differs in one part only can be recognised without building dates
+    private int[] birthDates = new int[INITIAL_CAPACITY];
+    private String[] names = new String[INITIAL_CAPACITY];
+    private String[] nicNumbers = new String[INITIAL_CAPACITY];
+    private String[] mobileNumbers = new String[INITIAL_CAPACITY];
+    private int size;
+
+    public DuplicateMatcher(double minScore, int maxBlockSize, int maxKeysPerPass) {
+        this.minScore = minScore;
+        this.maxBlockSize = maxBlockSize;
+        this.maxKeysPerPass = Math.max(1, maxKeysPerPass);
+    }
+
+    /**
+     * @param mobileNumbers normalized numbers separated by commas, as customer_summary keeps them
+     */
+    public void add(long customerId, String name, LocalDate dateOfBirth, String nicNumber, String mobileNumbers) {
+        if (size == MAX_CUSTOMERS) {
+            throw new IllegalStateException("Duplicate detection handles at most " + MAX_CUSTOMERS + " customers");
+        }
+        if (size == customerIds.length) {
+            int capacity = Math.min(MAX_CUSTOMERS, size * 2);
+            customerIds = Arrays.copyOf(customerIds, capacity);
+            birthDates = Arrays.copyOf(birthDates, capacity);
+            names = Arrays.copyOf(names, capacity);
+            nicNumbers = Arrays.copyOf(nicNumbers, capacity);
+            this.mobileNumbers = Arrays.copyOf(this.mobileNumbers, capacity);
+        }
+        customerIds[size] = customerId;
+        birthDates[size] = dateOfBirth.getYear() * 10_000 + dateOfBirth.getMonthValue() * 100 + dateOfBirth.getDayOfMonth();
+        names[size] = normalizeName(name);
+        nicNumbers[size] = canonicalNic(nicNumber);
+        this.mobileNumbers[size] = mobileNumbers == null || mobileNumbers.isEmpty() ? null : mobileNumbers;
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public Result findDuplicates(ForkJoinPool pool) {
+        Map<Long, Candidate> candidates = new ConcurrentHashMap<>();
+        Counters counters = new Counters();
+        for (KeyKind kind : KeyKind.values()) {
+            long expectedKeys = (long) size * kind.keysPerCustomer;
+            int passes = (int) Math.max(1, (expectedKeys + maxKeysPerPass - 1) / maxKeysPerPass);
+            for (int pass = 0; pass < passes; pass++) {
+                long[] entries = collect(kind, passes, pass);
+                Arrays.parallelSort(entries);
+                pool.invoke(new BlockTask(entries, 0, entries.length, candidates, counters));
+            }
+        }
+        List<Candidate> sorted = new ArrayList<>(candidates.values());
+        sorted.sort(Comparator.comparingDouble(Candidate::score).reversed()
+                .thenComparingLong(Candidate::customerId)
+                .thenComparingLong(Candidate::otherCustomerId));
+        return new Result(sorted, counters.blocks.sum(), counters.comparisons.sum(), counters.skippedBlocks.sum());
+    }
+
+    private long[] collect(KeyKind kind, int passes, int pass) {
+        long[][] entries = {new long[(int) Math.min(Integer.MAX_VALUE - 8,
+                (long) size * kind.keysPerCustomer / passes + INITIAL_CAPACITY)]};
+        int[] count = {0};
+        for (int i = 0; i < size; i++) {
+            int index = i;
+            kind.keys(this, index, hash -> {
+                long key = hash & ~INDEX_MASK;
+                if (passes > 1 && Long.remainderUnsigned(key >>> INDEX_BITS, passes) != pass) {
+                    return;
+                }
+                if (count[0] == entries[0].length) {
+                    entries[0] = Arrays.copyOf(entries[0], count[0] + (count[0] >> 1) + 1);
+                }
+                entries[0][count[0]++] = key | index;
+            });
+        }
+        return Arrays.copyOf(entries[0], count[0]);
+    }
+
+    private Candidate score(int left, int right) {
+        EnumSet<DuplicateReason> reasons = EnumSet.noneOf(DuplicateReason.class);
+        String leftNic = nicNumbers[left];
+        String rightNic = nicNumbers[right];
+        int nicDistance = StringSimilarity.editDistance(leftNic, rightNic);
+        double nic = Math.max(0, 1 - (double) nicDistance / Math.max(1, Math.max(leftNic.length(), rightNic.length())));
+        if (nicDistance <= 1) {
+            reasons.add(DuplicateReason.NIC);
+        }
+        double name = StringSimilarity.jaroWinkler(names[left], names[right]);
+        if (name >= NAME_MATCH) {
+            reasons.add(DuplicateReason.NAME);
+        }
+        double dateOfBirth = dateOfBirthSimilarity(birthDates[left], birthDates[right]);
+        if (dateOfBirth == 1) {
+            reasons.add(DuplicateReason.DATE_OF_BIRTH);
+        }
+        boolean mobile = sharesMobileNumber(mobileNumbers[left], mobileNumbers[right]);
+        if (mobile) {
+            reasons.add(DuplicateReason.MOBILE);
+        }
+        double score = NIC_WEIGHT * nic + NAME_WEIGHT * name + DATE_OF_BIRTH_WEIGHT * dateOfBirth
+                + (mobile ? MOBILE_WEIGHT : 0);
+        if (score < minScore) {
+            return null;
+        }
+        long leftId = customerIds[left];
+        long rightId = customerIds[right];
+        return new Candidate(Math.min(leftId, rightId), Math.max(leftId, rightId),
+                Math.round(score * 1000) / 1000.0, reasons);
+    }
+
+    // A typo in one part of the date still counts for half
+    private static double dateOfBirthSimilarity(int left, int right) {
+        if (left == right) {
+            return 1;
+        }
+        int differentParts = (left / 10_000 != right / 10_000 ? 1 : 0)
+                + (left / 100 % 100 != right / 100 % 100 ? 1 : 0)
+                + (left % 100 != right % 100 ? 1 : 0);
+        return differentParts == 1 ? 0.5 : 0;
+    }
+
+    private static boolean sharesMobileNumber(String left, String right) {
+        if (left == null || right == null) {
+            return false;
+        }
+        for (String number : left.split(",")) {
+            for (String other : right.split(",")) {
+                if (number.equals(other)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    static String normalizeName(String name) {
+        StringBuilder normalized = new StringBuilder(name.length());
+        for (int i = 0; i < name.length(); i++) {
+            char c = Character.toLowerCase(name.charAt(i));
+            if (Character.isLetter(c)) {
+                normalized.append(c);
+            } else if (normalized.length() > 0 && normalized.charAt(normalized.length() - 1) != ' ') {
+                normalized.append(' ');
+            }
+        }
+        int length = normalized.length();
+        return length > 0 && normalized.charAt(length - 1) == ' ' ? normalized.substring(0, length - 1) : normalized.toString();
+    }
+
+    // Old format NICs (YYDDDSSSC followed by V or X) in the 12 digit form, 19YY DDD 0SSS C
+    static String canonicalNic(String nicNumber) {
+        String nic = nicNumber.trim().toUpperCase(Locale.ROOT);
+        if (nic.length() == 10 && (nic.endsWith("V") || nic.endsWith("X"))) {
+            boolean digits = true;
+            for (int i = 0; i < 9 && digits; i++) {
+                digits = Character.isDigit(nic.charAt(i));
+            }
+            if (digits) {
+                return "19" + nic.substring(0, 5) + "0" + nic.substring(5, 9);
+            }
+        }
+        return nic;
+    }
+
+    // FNV-1a over the seed and the value without the character at skip, with the SplitMix64 finalizer
+    private static long hash(long seed, String value, int skip) {
+        long hash = 0xcbf29ce484222325L;
+        hash ^= seed;
+        hash *= 0x100000001b3L;
+        for (int i = 0; i < value.length(); i++) {
+            if (i != skip) {
+                hash ^= value.charAt(i);
+                hash *= 0x100000001b3L;
+            }
+        }
+        hash = (hash ^ (hash >>> 30)) * 0xbf58476d1ce4e5b9L;
+        hash = (hash ^ (hash >>> 27)) * 0x94d049bb133111ebL;
+        return hash ^ (hash >>> 31);
+    }
+
+    private interface KeySink {
+
+        void accept(long hash);
+    }
+
+    private enum KeyKind {
+        NAME_AND_DATE_OF_BIRTH(2) {
+            @Override
+            void keys(DuplicateMatcher matcher, int index, KeySink sink) {
+                String name = matcher.names[index];
+                long seed = ((long) ordinal() << 32) | matcher.birthDates[index];
+                int firstSpace = name.indexOf(' ');
+                // Soundex only knows a to z, names in other scripts get no key of this kind
+                String first = StringSimilarity.soundex(firstSpace < 0 ? name : name.substring(0, firstSpace));
+                String last = firstSpace < 0 ? null : StringSimilarity.soundex(name.substring(name.lastIndexOf(' ') + 1));
+                if (first != null) {
+                    sink.accept(hash(seed, first, -1));
+                }
+                if (last != null && !last.equals(first)) {
+                    sink.accept(hash(seed, last, -1));
+                }
+            }
+        },
+        NIC(13) {
+            @Override
+            void keys(DuplicateMatcher matcher, int index, KeySink sink) {
+                String nic = matcher.nicNumbers[index];
+                for (int skip = -1; skip < nic.length(); skip++) {
+                    sink.accept(hash(ordinal(), nic, skip));
+                }
+            }
+        },
+        MOBILE(2) {
+            @Override
+            void keys(DuplicateMatcher matcher, int index, KeySink sink) {
+                String numbers = matcher.mobileNumbers[index];
+                if (numbers != null) {
+                    for (String number : numbers.split(",")) {
+                        sink.accept(hash(ordinal(), number, -1));
+                    }
+                }
+            }
+        };
+
+        // For sizing the passes, a customer may give fewer or a few more
+        private final int keysPerCustomer;
+
+        KeyKind(int keysPerCustomer) {
+            this.keysPerCustomer = keysPerCustomer;
+        }
+
+        abstract void keys(DuplicateMatcher matcher, int index, KeySink sink);
+    }
+
+    private static final class Counters {
+
+        final LongAdder blocks = new LongAdder();
+        final LongAdder comparisons = new LongAdder();
+        final LongAdder skippedBlocks = new LongAdder();
+    }
+
+    /**
+     * Scores the blocks in a range of sorted entries, splitting it at block boundaries while it is large
+     */
+    private final class BlockTask extends RecursiveAction {
+
+        private final long[] entries;
+        private final int from;
+        private final int to;
+        private final Map<Long, Candidate> candidates;
+        private final Counters counters;
+
+        BlockTask(long[] entries, int from, int to, Map<Long, Candidate> candidates, Counters counters) {
+            this.entries = entries;
+            this.from = from;
+            this.to = to;
+            this.candidates = candidates;
+            this.counters = counters;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > SPLIT_THRESHOLD) {
+                int middle = (from + to) >>> 1;
+                while (middle < to && key(entries[middle]) == key(entries[middle - 1])) {
+                    middle++;
+                }
+                if (middle < to) {
+                    invokeAll(new BlockTask(entries, from, middle, candidates, counters),
+                            new BlockTask(entries, middle, to, candidates, counters));
+                    return;
+                }
+            }
+            int[] members = new int[Math.min(maxBlockSize, to - from) + 1];
+            int start = from;
+            while (start < to) {
+                int end = start + 1;
+                while (end < to && key(entries[end]) == key(entries[start])) {
+                    end++;
+                }
+                scoreBlock(start, end, members);
+                start = end;
+            }
+        }
+
+        private void scoreBlock(int start, int end, int[] members) {
+            if (end - start < 2) {
+                return;
+            }
+            // A customer can give the same key twice, e.g. deleting either of two equal adjacent digits
+            int count = 0;
+            for (int i = start; i < end; i++) {
+                if (i > start && entries[i] == entries[i - 1]) {
+                    continue;
+                }
+                if (count == members.length) {
+                    counters.blocks.increment();
+                    counters.skippedBlocks.increment();
+                    return;
+                }
+                members[count++] = (int) (entries[i] & INDEX_MASK);
+            }
+            if (count < 2) {
+                return;
+            }
+            counters.blocks.increment();
+            if (count > maxBlockSize) {
+                counters.skippedBlocks.increment();
+                return;
+            }
+            for (int i = 0; i < count; i++) {
+                for (int j = i + 1; j < count; j++) {
+                    counters.comparisons.increment();
+                    int left = Math.min(members[i], members[j]);
+                    int right = Math.max(members[i], members[j]);
+                    long pair = ((long) left << INDEX_BITS) | right;
+                    if (candidates.containsKey(pair)) {
+                        continue;
+                    }
+                    Candidate candidate = score(left, right);
+                    if (candidate != null) {
+                        candidates.putIfAbsent(pair, candidate);
+                    }
+                }
+            }
+        }
+
+        private static long key(long entry) {
+            return entry & ~INDEX_MASK;
+        }
+    }
+
+    /**
+     * A pair of probable duplicates, the lower customer id first
+     */
+    public record Candidate(long customerId, long otherCustomerId, double score, Set<DuplicateReason> reasons) {
+    }
+
+    /**
+     * @param candidates    best score first
+     * @param blocks        blocks of two or more customers, counted once per kind of key
+     * @param skippedBlocks blocks over the size limit, their customers were not compared
+     */
+    public record Result(List<Candidate> candidates, long blocks, long comparisons, long skippedBlocks) {
+    }
+}
@@ -0,0 +1,201 @@
+package com.customer.customermanagement.util;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.Date1904Support;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.usermodel.Workbook;
+
+import java.time.LocalDate;
+
+/**
+ * Typed decoder for the cells of a bulk upload sheet.
+ * Dates are read straight into epoch days and numeric NICs as longs, so a row is decoded
+ * without the format-then-parse string round trip and without exceptions on bad input.
+ * One instance is bound to one workbook and is not thread safe.
+ */
+public class ExcelCellDecoder {
+
+    public static final long INVALID_DATE = Long.MIN_VALUE;
+
+    // Days between the Excel epochs (1899-12-30 and 1904-01-01) and 1970-01-01
+    private static final long EXCEL_1900_EPOCH_OFFSET = 25569;
+    private static final long EXCEL_1904_EPOCH_OFFSET = 24107;
+    // Excel treats 1900 as a leap year, serials below the phantom 1900-02-29 are one day off
+    private static final double EXCEL_1900_LEAP_BUG_SERIAL = 60;
+    private static final int DAYS_0000_TO_1970 = 719528;
+
+    private final boolean date1904;
+
+    public ExcelCellDecoder(Workbook workbook) {
+        this.date1904 = workbook instanceof Date1904Support && ((Date1904Support) workbook).isDate1904();
+    }
+
+    /**
+     * Returns the trimmed text of a string cell, or null when the cell is missing, not text or blank.
+     * The apostrophe a CSV export puts in front of formula characters is dropped.
+     */
+    public String readText(Cell cell) {
+        if (cell == null || cell.getCellType() != CellType.STRING) {
+            return null;
+        }
+        return trimToNull(cell.getStringCellValue());
+    }
+
+    /**
+     * Returns the NIC held by the cell. Numeric cells are read as a long, so 12 digit NICs
+     * are no longer truncated to an int.
+     */
+    public String readNic(Cell cell) {
+        return readIdentifier(cell);
+    }
+
+    /**
+     * Returns the trimmed text of the cell, or the digits of a whole positive number for numeric cells.
+     * Used for identifiers such as NICs and phone numbers that Excel may store as numbers.
+     */
+    public String readIdentifier(Cell cell) {
+        if (cell == null) {
+            return null;
+        }
+        switch (cell.getCellType()) {
+            case STRING:
+                return trimToNull(cell.getStringCellValue());
+            case NUMERIC:
+                double value = cell.getNumericCellValue();
+                long number = (long) value;
+                if (number <= 0 || number != value) {
+                    return null;
+                }
+                return Long.toString(number);
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Returns the date held by the cell, or null when it is missing or not a valid date.
+     */
+    public LocalDate readDate(Cell cell) {
+        long epochDay = readEpochDay(cell);
+        return epochDay == INVALID_DATE ? null : LocalDate.ofEpochDay(epochDay);
+    }
+
+    /**
+     * Returns the date held by the cell as epoch days, or {@link #INVALID_DATE}.
+     * Accepts date formatted numeric cells and text in the yyyy-MM-dd format.
+     */
+    public long readEpochDay(Cell cell) {
+        if (cell == null) {
+            return INVALID_DATE;
+        }
+        switch (cell.getCellType()) {
+            case NUMERIC:
+                if (!DateUtil.isCellDateFormatted(cell)) {
+                    return INVALID_DATE;
+                }
+                return serialToEpochDay(cell.getNumericCellValue());
+            case STRING:
+                return parseIsoEpochDay(cell.getStringCellValue());
+            default:
+                return INVALID_DATE;
+        }
+    }
+
+    long serialToEpochDay(double serial) {
+        if (!DateUtil.isValidExcelDate(serial)) {
+            return INVALID_DATE;
+        }
+        long wholeDays = (long) Math.floor(serial);
+        if (date1904) {
+            return wholeDays - EXCEL_1904_EPOCH_OFFSET;
+        }
+        if (serial < EXCEL_1900_LEAP_BUG_SERIAL) {
+            return wholeDays - EXCEL_1900_EPOCH_OFFSET + 1;
+        }
+        return wholeDays - EXCEL_1900_EPOCH_OFFSET;
+    }
+
+    static long parseIsoEpochDay(String text) {
+        if (text == null) {
+            return INVALID_DATE;
+        }
+        int start = 0;
+        int end = text.length();
+        while (start < end && text.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && text.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        if (end - start != 10 || text.charAt(start + 4) != '-' || text.charAt(start + 7) != '-') {
+            return INVALID_DATE;
+        }
+        int year = parseDigits(text, start, start + 4);
+        int month = parseDigits(text, start + 5, start + 7);
+        int day = parseDigits(text, start + 8, start + 10);
+        if (year < 0 || month < 1 || month > 12 || day < 1 || day > lengthOfMonth(year, month)) {
+            return INVALID_DATE;
+        }
+        return toEpochDay(year, month, day);
+    }
+
+    private static int parseDigits(String text, int from, int to) {
+        int value = 0;
+        for (int i = from; i < to; i++) {
+            int digit = text.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private static int lengthOfMonth(int year, int month) {
+        switch (month) {
+            case 2:
+                return isLeapYear(year) ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+
+    private static boolean isLeapYear(int year) {
+        return (year & 3) == 0 && (year % 100 != 0 || year % 400 == 0);
+    }
+
+    // Same arithmetic as LocalDate.toEpochDay, without creating the LocalDate
+    private static long toEpochDay(int year, int month, int day) {
+        long y = year;
+        long total = 365 * y;
+        total += (y + 3) / 4 - (y + 99) / 100 + (y + 399) / 400;
+        total += (367L * month - 362) / 12;
+        total += day - 1;
+        if (month > 2) {
+            total--;
+            if (!isLeapYear(year)) {
+                total--;
+            }
+        }
+        return total - DAYS_0000_TO_1970;
+    }
+
+    // String.trim returns the same instance when there is nothing to strip, so well formed cells allocate nothing
+    private static String trimToNull(String value) {
+        if (value == null) {
+            return null;
+        }
+        String trimmed = value.trim();
+        if (trimmed.length() > 1 && trimmed.charAt(0) == '\''
+                && ExcelProcessor.FORMULA_PREFIXES.indexOf(trimmed.charAt(1)) >= 0) {
+            trimmed = trimmed.substring(1);
+        }
+        return trimmed.isEmpty() ? null : trimmed;
+    }
+}
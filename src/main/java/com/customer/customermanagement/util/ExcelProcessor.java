@@ -18,6 +18,11 @@ import java.util.List;
 @Component
 public class ExcelProcessor {
 
+    // Same column order the bulk upload reads, so an export can be uploaded again
+    public static final List<String> CUSTOMER_HEADERS = List.of("Name", "Date of Birth", "NIC Number", "Mobile Numbers");
+    // Leading characters that make a spreadsheet read a CSV value as a formula
+    public static final String FORMULA_PREFIXES = "=+-@\t\r";
+
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
 
     /**
@@ -30,10 +35,9 @@ public class ExcelProcessor {
 
             // Create header row
             Row headerRow = sheet.createRow(0);
-            headerRow.createCell(0).setCellValue("Name");
-            headerRow.createCell(1).setCellValue("Date of Birth");
-            headerRow.createCell(2).setCellValue("NIC Number");
-            headerRow.createCell(3).setCellValue("Mobile Numbers");
+            for (int i = 0; i < CUSTOMER_HEADERS.size(); i++) {
+                headerRow.createCell(i).setCellValue(CUSTOMER_HEADERS.get(i));
+            }
 
             // Fill data rows
             int rowNum = 1;
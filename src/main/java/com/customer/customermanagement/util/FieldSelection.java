@@ -0,0 +1,110 @@
+package com.customer.customermanagement.util;
+
+import com.customer.customermanagement.dto.CustomerAssociation;
+import com.fasterxml.jackson.databind.ser.PropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import org.springframework.http.converter.json.MappingJacksonValue;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Sparse fieldset of a customer read, parsed from the fields= and include= request parameters.
+ * Without include the associations named in fields are included, without either everything is.
+ * The selection decides which associations are queried and which properties are serialized.
+ */
+public final class FieldSelection {
+
+    public static final String FILTER_ID = "customerFields";
+
+    private static final String ID_PROPERTY = "id";
+    private static final String INCLUDE_NONE = "none";
+
+    // Null when every scalar property is wanted
+    private final Set<String> fields;
+    private final Set<CustomerAssociation> associations;
+
+    private FieldSelection(Set<String> fields, Set<CustomerAssociation> associations) {
+        this.fields = fields;
+        this.associations = associations;
+    }
+
+    public static FieldSelection all() {
+        return new FieldSelection(null, EnumSet.allOf(CustomerAssociation.class));
+    }
+
+    public static FieldSelection parse(String fields, String include) {
+        Set<String> fieldNames = fields != null ? split(fields) : null;
+        Set<CustomerAssociation> associations = EnumSet.noneOf(CustomerAssociation.class);
+        if (include != null) {
+            for (String name : split(include)) {
+                if (!INCLUDE_NONE.equalsIgnoreCase(name)) {
+                    associations.add(CustomerAssociation.fromParameter(name));
+                }
+            }
+        } else if (fieldNames != null) {
+            for (CustomerAssociation association : CustomerAssociation.values()) {
+                if (fieldNames.contains(association.getParameterName())
+                        || fieldNames.contains(association.getDetailProperty())
+                        || fieldNames.contains(association.getSummaryProperty())) {
+                    associations.add(association);
+                }
+            }
+        } else {
+            associations = EnumSet.allOf(CustomerAssociation.class);
+        }
+        return new FieldSelection(fieldNames, associations);
+    }
+
+    public Set<CustomerAssociation> getAssociations() {
+        return Collections.unmodifiableSet(associations);
+    }
+
+    public boolean includes(CustomerAssociation association) {
+        return associations.contains(association);
+    }
+
+    public MappingJacksonValue forDetail(Object body) {
+        return wrap(body, CustomerAssociation::getDetailProperty);
+    }
+
+    public MappingJacksonValue forSummary(Object body) {
+        return wrap(body, CustomerAssociation::getSummaryProperty);
+    }
+
+    private MappingJacksonValue wrap(Object body, Function<CustomerAssociation, String> property) {
+        PropertyFilter filter;
+        if (fields == null) {
+            Set<String> excluded = new HashSet<>();
+            for (CustomerAssociation association : CustomerAssociation.values()) {
+                if (!associations.contains(association)) {
+                    excluded.add(property.apply(association));
+                }
+            }
+            filter = SimpleBeanPropertyFilter.serializeAllExcept(excluded);
+        } else {
+            Set<String> included = new HashSet<>(fields);
+            included.add(ID_PROPERTY);
+            for (CustomerAssociation association : CustomerAssociation.values()) {
+                included.remove(association.getParameterName());
+                included.remove(property.apply(association));
+            }
+            associations.forEach(association -> included.add(property.apply(association)));
+            filter = SimpleBeanPropertyFilter.filterOutAllExcept(included);
+        }
+        MappingJacksonValue value = new MappingJacksonValue(body);
+        value.setFilters(new SimpleFilterProvider().addFilter(FILTER_ID, filter));
+        return value;
+    }
+
+    private static Set<String> split(String value) {
+        Set<String> names = new LinkedHashSet<>();
+        for (String name : value.split(",")) {
+            if (!name.isBlank()) {
+                names.add(name.trim());
+            }
+        }
+        return names;
+    }
+}
@@ -0,0 +1,37 @@
+package com.customer.customermanagement.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits an inclusive id range into contiguous sub ranges of near equal width.
+ * The widths are equal, the row counts only when ids are dense.
+ */
+public final class IdRangePartitioner {
+
+    public record IdRange(long fromId, long toId) {
+    }
+
+    private IdRangePartitioner() {
+    }
+
+    public static List<IdRange> split(long minId, long maxId, int partitions) {
+        if (maxId < minId) {
+            return List.of();
+        }
+        long span = maxId - minId + 1;
+        int count = (int) Math.max(1, Math.min(partitions, span));
+        long width = span / count;
+        long remainder = span % count;
+
+        List<IdRange> ranges = new ArrayList<>(count);
+        long from = minId;
+        for (int i = 0; i < count; i++) {
+            // The first ranges absorb the remainder, one id each
+            long to = from + width - 1 + (i < remainder ? 1 : 0);
+            ranges.add(new IdRange(from, to));
+            from = to + 1;
+        }
+        return ranges;
+    }
+}
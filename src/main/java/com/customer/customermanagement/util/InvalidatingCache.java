@@ -0,0 +1,132 @@
+package com.customer.customermanagement.util;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Bounded in-process cache whose entries live at most ttlMillis and are dropped by key or all at once when
+ * the data behind them changes. A load that overlaps an invalidation of its key is returned to its caller but
+ * not kept, so a value read just before a write committed cannot outlive the write's invalidation.
+ * Past maxEntries, expired entries go first and then arbitrary ones. Null values and exceptions are not cached.
+ */
+public class InvalidatingCache<K, V> {
+
+    private final ConcurrentMap<K, Entry<V>> entries = new ConcurrentHashMap<>();
+    private final int maxEntries;
+    private final long ttlNanos;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    // Compared by identity: a load only replaces the placeholder it put there itself
+    private static final class Entry<V> {
+
+        private final V value;
+        private final long expiresAtNanos;
+
+        private Entry(V value, long expiresAtNanos) {
+            this.value = value;
+            this.expiresAtNanos = expiresAtNanos;
+        }
+
+        private boolean isLive(long nowNanos) {
+            return value != null && nowNanos - expiresAtNanos < 0;
+        }
+    }
+
+    public InvalidatingCache(int maxEntries, long ttlMillis) {
+        this.maxEntries = maxEntries;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+    }
+
+    public V get(K key, Supplier<V> loader) {
+        Entry<V> entry = entries.get(key);
+        if (entry != null && entry.isLive(System.nanoTime())) {
+            hits.incrementAndGet();
+            return entry.value;
+        }
+
+        misses.incrementAndGet();
+        Entry<V> loading = new Entry<>(null, 0);
+        entries.put(key, loading);
+        V value;
+        try {
+            value = loader.get();
+        } catch (RuntimeException | Error e) {
+            entries.remove(key, loading);
+            throw e;
+        }
+        if (value == null) {
+            entries.remove(key, loading);
+        } else if (entries.replace(key, loading, new Entry<>(value, System.nanoTime() + ttlNanos))) {
+            evictIfFull();
+        }
+        return value;
+    }
+
+    public V getIfPresent(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry != null && entry.isLive(System.nanoTime())) {
+            hits.incrementAndGet();
+            return entry.value;
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * For values that may only be cached later, such as once the transaction that read them commits.
+     * Unlike get, nothing guards against an invalidation that arrived in between.
+     */
+    public void put(K key, V value) {
+        entries.put(key, new Entry<>(value, System.nanoTime() + ttlNanos));
+        evictIfFull();
+    }
+
+    public void invalidate(K key) {
+        invalidations.incrementAndGet();
+        entries.remove(key);
+    }
+
+    public void invalidateAll() {
+        invalidations.incrementAndGet();
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /** Gets answered from the cache */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /** Gets that ran the loader */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /** Keys invalidated one by one or the whole cache cleared */
+    public long getInvalidations() {
+        return invalidations.get();
+    }
+
+    private void evictIfFull() {
+        if (entries.size() <= maxEntries) {
+            return;
+        }
+        long now = System.nanoTime();
+        entries.values().removeIf(entry -> entry.value != null && !entry.isLive(now));
+        Iterator<Entry<V>> iterator = entries.values().iterator();
+        while (entries.size() > maxEntries && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.customer.customermanagement.util;
+
+/**
+ * Brings mobile numbers into one canonical E.164 form ("+" followed by digits only), so that
+ * "077 123 4567", "+94 77-123-4567" and "0094771234567" are stored and looked up as "+94771234567".
+ * Numbers without a country code are taken to be Sri Lankan.
+ */
+public final class MobileNumberNormalizer {
+
+    public static final String DEFAULT_COUNTRY_CODE = "94";
+
+    private static final int MIN_DIGITS = 8;
+    private static final int MAX_DIGITS = 15;
+    private static final int MAX_NATIONAL_DIGITS = 9;
+
+    private MobileNumberNormalizer() {
+    }
+
+    /**
+     * Returns the canonical form, or null when the value cannot be a phone number
+     */
+    public static String normalize(String number) {
+        if (number == null) {
+            return null;
+        }
+
+        StringBuilder digits = new StringBuilder(MAX_DIGITS + 1);
+        boolean international = false;
+        for (int i = 0; i < number.length(); i++) {
+            char c = number.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits.append(c);
+            } else if (c == '+' && digits.length() == 0 && !international) {
+                international = true;
+            } else if (c != ' ' && c != '-' && c != '(' && c != ')' && c != '.') {
+                return null;
+            }
+        }
+
+        if (!international) {
+            if (digits.length() > 2 && digits.charAt(0) == '0' && digits.charAt(1) == '0') {
+                // 00 international call prefix
+                digits.delete(0, 2);
+            } else if (digits.length() > 0 && digits.charAt(0) == '0') {
+                // National trunk prefix
+                digits.replace(0, 1, DEFAULT_COUNTRY_CODE);
+            } else if (digits.length() <= MAX_NATIONAL_DIGITS) {
+                digits.insert(0, DEFAULT_COUNTRY_CODE);
+            }
+        }
+
+        if (digits.length() < MIN_DIGITS || digits.length() > MAX_DIGITS) {
+            return null;
+        }
+        return digits.insert(0, '+').toString();
+    }
+}
@@ -0,0 +1,98 @@
+package com.customer.customermanagement.util;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent loads of the same key: the first caller runs the loader on its own thread and
+ * every caller arriving while it runs gets the same result or exception. Nothing is kept once the load
+ * completes, so this is not a cache. A waiter gives up after maxWaitMillis and loads on its own, so a
+ * slow leader cannot hold its followers longer than that.
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final long maxWaitMillis;
+
+    private final AtomicLong loads = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong timeouts = new AtomicLong();
+
+    public SingleFlight(long maxWaitMillis) {
+        this.maxWaitMillis = maxWaitMillis;
+    }
+
+    public V load(K key, Supplier<V> loader) {
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> leader = inFlight.putIfAbsent(key, flight);
+        if (leader != null) {
+            return await(leader, loader);
+        }
+
+        loads.incrementAndGet();
+        try {
+            V value = loader.get();
+            flight.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    /**
+     * Callers arriving later start a new load instead of joining a running one of a key the predicate accepts,
+     * for data that changed after those loads read it. Callers already waiting still get the running load.
+     */
+    public void forget(Predicate<K> keys) {
+        inFlight.keySet().removeIf(keys);
+    }
+
+    /** Loads that ran a loader */
+    public long getLoads() {
+        return loads.get();
+    }
+
+    /** Calls answered by another caller's load */
+    public long getCoalesced() {
+        return coalesced.get();
+    }
+
+    /** Waiters that gave up on the leader and loaded on their own */
+    public long getTimeouts() {
+        return timeouts.get();
+    }
+
+    private V await(CompletableFuture<V> leader, Supplier<V> loader) {
+        try {
+            V value = leader.get(maxWaitMillis, TimeUnit.MILLISECONDS);
+            coalesced.incrementAndGet();
+            return value;
+        } catch (TimeoutException e) {
+            timeouts.incrementAndGet();
+            loads.incrementAndGet();
+            return loader.get();
+        } catch (ExecutionException e) {
+            coalesced.incrementAndGet();
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a concurrent load", e);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.customer.customermanagement.util;
+
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Normalizes SQL so that executions of one statement shape share a fingerprint: literals become ?,
+ * lists of placeholders collapse to (?+) whatever their length, whitespace and case are folded.
+ */
+public final class SqlFingerprint {
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern PLACEHOLDER_LIST = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)+\\s*\\)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private SqlFingerprint() {
+    }
+
+    public static String of(String sql) {
+        if (sql == null) {
+            return "";
+        }
+        String normalized = STRING_LITERAL.matcher(sql).replaceAll("?");
+        normalized = NUMBER_LITERAL.matcher(normalized).replaceAll("?");
+        normalized = WHITESPACE.matcher(normalized).replaceAll(" ").trim();
+        normalized = PLACEHOLDER_LIST.matcher(normalized).replaceAll("(?+)");
+        return normalized.toLowerCase(Locale.ROOT);
+    }
+}
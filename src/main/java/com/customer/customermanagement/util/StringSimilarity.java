@@ -0,0 +1,134 @@
+package com.customer.customermanagement.util;
+
+/**
+ * String measures for matching people: Soundex codes for blocking, Jaro-Winkler for names and an
+ * edit distance for identifiers.
+ */
+public final class StringSimilarity {
+
+    // Soundex digits of 'a' to 'z', 0 for vowels and the letters Soundex ignores
+    private static final String SOUNDEX_DIGITS = "01230120022455012623010202";
+    private static final int SOUNDEX_LENGTH = 4;
+    private static final double WINKLER_SCALE = 0.1;
+    private static final int WINKLER_MAX_PREFIX = 4;
+
+    private StringSimilarity() {
+    }
+
+    /**
+     * American Soundex of the letters a to z in the value, so "Pereira" and "Perera" both give "P660".
+     * Returns null when the value has none of these letters.
+     */
+    public static String soundex(String value) {
+        char[] code = new char[SOUNDEX_LENGTH];
+        int length = 0;
+        char previous = 0;
+        for (int i = 0; i < value.length() && length < SOUNDEX_LENGTH; i++) {
+            char c = Character.toLowerCase(value.charAt(i));
+            if (c < 'a' || c > 'z') {
+                continue;
+            }
+            char digit = SOUNDEX_DIGITS.charAt(c - 'a');
+            if (length == 0) {
+                code[length++] = Character.toUpperCase(c);
+            } else if (digit != '0' && digit != previous) {
+                code[length++] = digit;
+            }
+            // H and W do not separate letters with the same code, vowels do
+            if (c != 'h' && c != 'w') {
+                previous = digit;
+            }
+        }
+        if (length == 0) {
+            return null;
+        }
+        while (length < SOUNDEX_LENGTH) {
+            code[length++] = '0';
+        }
+        return new String(code);
+    }
+
+    /**
+     * Jaro-Winkler similarity between 0 and 1, rewarding a common prefix of up to four characters
+     */
+    public static double jaroWinkler(String left, String right) {
+        if (left.equals(right)) {
+            return 1;
+        }
+        int leftLength = left.length();
+        int rightLength = right.length();
+        if (leftLength == 0 || rightLength == 0) {
+            return 0;
+        }
+        int window = Math.max(0, Math.max(leftLength, rightLength) / 2 - 1);
+        boolean[] leftMatched = new boolean[leftLength];
+        boolean[] rightMatched = new boolean[rightLength];
+        int matches = 0;
+        for (int i = 0; i < leftLength; i++) {
+            int from = Math.max(0, i - window);
+            int to = Math.min(rightLength - 1, i + window);
+            for (int j = from; j <= to; j++) {
+                if (!rightMatched[j] && left.charAt(i) == right.charAt(j)) {
+                    leftMatched[i] = true;
+                    rightMatched[j] = true;
+                    matches++;
+                    break;
+                }
+            }
+        }
+        if (matches == 0) {
+            return 0;
+        }
+        int transpositions = 0;
+        for (int i = 0, j = 0; i < leftLength; i++) {
+            if (leftMatched[i]) {
+                while (!rightMatched[j]) {
+                    j++;
+                }
+                if (left.charAt(i) != right.charAt(j)) {
+                    transpositions++;
+                }
+                j++;
+            }
+        }
+        double m = matches;
+        double jaro = (m / leftLength + m / rightLength + (m - transpositions / 2.0) / m) / 3;
+        int prefix = 0;
+        while (prefix < Math.min(WINKLER_MAX_PREFIX, Math.min(leftLength, rightLength))
+                && left.charAt(prefix) == right.charAt(prefix)) {
+            prefix++;
+        }
+        return jaro + prefix * WINKLER_SCALE * (1 - jaro);
+    }
+
+    /**
+     * Edit distance counting insertions, deletions, substitutions and swaps of adjacent characters,
+     * the typos of a keyed-in number (optimal string alignment)
+     */
+    public static int editDistance(String left, String right) {
+        int leftLength = left.length();
+        int rightLength = right.length();
+        int[] beforePrevious = new int[rightLength + 1];
+        int[] previous = new int[rightLength + 1];
+        int[] current = new int[rightLength + 1];
+        for (int j = 0; j <= rightLength; j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= leftLength; i++) {
+            current[0] = i;
+            for (int j = 1; j <= rightLength; j++) {
+                int cost = left.charAt(i - 1) == right.charAt(j - 1) ? 0 : 1;
+                int distance = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && left.charAt(i - 1) == right.charAt(j - 2) && left.charAt(i - 2) == right.charAt(j - 1)) {
+                    distance = Math.min(distance, beforePrevious[j - 2] + 1);
+                }
+                current[j] = distance;
+            }
+            int[] recycled = beforePrevious;
+            beforePrevious = previous;
+            previous = current;
+            current = recycled;
+        }
+        return previous[rightLength];
+    }
+}
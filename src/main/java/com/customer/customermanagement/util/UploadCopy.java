@@ -0,0 +1,95 @@
+package com.customer.customermanagement.util;
+
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * An uploaded file copied to a temporary file of its own. The container deletes the parts of a multipart
+ * request once the request completes, so work that outlives the request reads this copy instead.
+ * The copy is removed by delete().
+ */
+public final class UploadCopy implements MultipartFile {
+
+    private final String name;
+    private final String originalFilename;
+    private final String contentType;
+    private final Path file;
+    private final long size;
+
+    private UploadCopy(MultipartFile upload, Path file) {
+        this.name = upload.getName();
+        this.originalFilename = upload.getOriginalFilename();
+        this.contentType = upload.getContentType();
+        this.file = file;
+        this.size = upload.getSize();
+    }
+
+    public static UploadCopy of(MultipartFile upload) throws IOException {
+        Path file = Files.createTempFile("upload-", null);
+        try (InputStream is = upload.getInputStream()) {
+            Files.copy(is, file, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+        return new UploadCopy(upload, file);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public String getOriginalFilename() {
+        return originalFilename;
+    }
+
+    @Override
+    public String getContentType() {
+        return contentType;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public long getSize() {
+        return size;
+    }
+
+    @Override
+    public byte[] getBytes() throws IOException {
+        return Files.readAllBytes(file);
+    }
+
+    @Override
+    public InputStream getInputStream() throws IOException {
+        return Files.newInputStream(file);
+    }
+
+    @Override
+    public void transferTo(File dest) throws IOException {
+        Files.copy(file, dest.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Returns false when the copy could not be deleted
+     */
+    public boolean delete() {
+        try {
+            Files.deleteIfExists(file);
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.customer.customermanagement.util;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Timestamps for the created_at, updated_at and deleted_at columns. Always UTC and cut to
+ * microseconds, the precision of DATETIME(6), so a value read back compares equal to the one written.
+ */
+public final class UtcClock {
+
+    private UtcClock() {
+    }
+
+    public static LocalDateTime now() {
+        return LocalDateTime.now(ZoneOffset.UTC).truncatedTo(ChronoUnit.MICROS);
+    }
+}
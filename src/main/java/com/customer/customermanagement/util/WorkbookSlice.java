@@ -0,0 +1,87 @@
+package com.customer.customermanagement.util;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+/**
+ * Copies a row range of some sheets of a workbook into a workbook of its own, so the range can be imported
+ * without parsing the rest of the upload. Sheet names, row numbers and the header row are kept, the values
+ * read the same through {@link ExcelCellDecoder}: dates stay date formatted, formulas and errors are left out
+ * because the decoder reads them as missing anyway.
+ */
+public final class WorkbookSlice {
+
+    private static final int WINDOW_SIZE = 100;
+    private static final String DATE_FORMAT = "yyyy-mm-dd";
+
+    private WorkbookSlice() {
+    }
+
+    public static void write(Workbook source, List<String> sheetNames, int firstRow, int lastRow,
+                             OutputStream out) throws IOException {
+        SXSSFWorkbook slice = new SXSSFWorkbook(WINDOW_SIZE);
+        try {
+            CellStyle dateStyle = slice.createCellStyle();
+            dateStyle.setDataFormat(slice.createDataFormat().getFormat(DATE_FORMAT));
+            for (String sheetName : sheetNames) {
+                Sheet sheet = source.getSheet(sheetName);
+                if (sheet != null) {
+                    copyRows(sheet, slice.createSheet(sheetName), firstRow, lastRow, dateStyle);
+                }
+            }
+            slice.write(out);
+        } finally {
+            slice.dispose();
+            slice.close();
+        }
+    }
+
+    // The import skips the first row of every sheet, so the header is copied into every slice
+    private static void copyRows(Sheet source, Sheet target, int firstRow, int lastRow, CellStyle dateStyle) {
+        if (source.getPhysicalNumberOfRows() == 0) {
+            return;
+        }
+        int headerRow = source.getFirstRowNum();
+        copyRow(source.getRow(headerRow), target, dateStyle);
+        for (int rowNumber = Math.max(firstRow, headerRow + 1); rowNumber <= Math.min(lastRow, source.getLastRowNum()); rowNumber++) {
+            Row row = source.getRow(rowNumber);
+            if (row != null) {
+                copyRow(row, target, dateStyle);
+            }
+        }
+    }
+
+    private static void copyRow(Row source, Sheet target, CellStyle dateStyle) {
+        Row row = target.createRow(source.getRowNum());
+        for (Cell cell : source) {
+            switch (cell.getCellType()) {
+                case STRING:
+                    row.createCell(cell.getColumnIndex()).setCellValue(cell.getStringCellValue());
+                    break;
+                case NUMERIC:
+                    Cell copy = row.createCell(cell.getColumnIndex());
+                    if (DateUtil.isCellDateFormatted(cell)) {
+                        // Written as a date of this workbook, which always uses the 1900 date system
+                        copy.setCellValue(cell.getLocalDateTimeCellValue());
+                        copy.setCellStyle(dateStyle);
+                    } else {
+                        copy.setCellValue(cell.getNumericCellValue());
+                    }
+                    break;
+                case BOOLEAN:
+                    row.createCell(cell.getColumnIndex()).setCellValue(cell.getBooleanCellValue());
+                    break;
+                default:
+            }
+        }
+    }
+}
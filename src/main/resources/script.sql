@@ -23,9 +23,12 @@ CREATE TABLE IF NOT EXISTS cities (
 -- Customers Table
 CREATE TABLE IF NOT EXISTS customers (
     id BIGINT PRIMARY KEY AUTO_INCREMENT,
+    version BIGINT NOT NULL DEFAULT 0,
     name VARCHAR(255) NOT NULL,
     date_of_birth DATE NOT NULL,
-    nic_number VARCHAR(255) NOT NULL UNIQUE
+    nic_number VARCHAR(255) NOT NULL UNIQUE,
+    created_at DATETIME(6),
+    updated_at DATETIME(6)
 );
 
 -- Customer Mobile Numbers Table
@@ -56,10 +59,50 @@ CREATE TABLE IF NOT EXISTS family_relationships (
     FOREIGN KEY (family_member_id) REFERENCES customers(id) ON DELETE CASCADE
 );
 
+-- Customer Summary Read Table (one flattened row per customer, maintained by the write paths)
+CREATE TABLE IF NOT EXISTS customer_summary (
+    customer_id BIGINT PRIMARY KEY,
+    name VARCHAR(255) NOT NULL,
+    date_of_birth DATE NOT NULL,
+    nic_number VARCHAR(255) NOT NULL,
+    mobile_numbers VARCHAR(1024),
+    address_line1 VARCHAR(255),
+    address_line2 VARCHAR(255),
+    city_name VARCHAR(255),
+    country_name VARCHAR(255),
+    family_member_count INT NOT NULL DEFAULT 0
+);
+
+-- Customer Staging Table (bulk upload rows waiting for the set-based merge into customers)
+CREATE TABLE IF NOT EXISTS customer_staging (
+    id BIGINT PRIMARY KEY AUTO_INCREMENT,
+    import_id VARCHAR(36) NOT NULL,
+    source_row INT NOT NULL,
+    name VARCHAR(255) NOT NULL,
+    date_of_birth DATE NOT NULL,
+    nic_number VARCHAR(255) NOT NULL,
+    mobile_numbers VARCHAR(1024),
+    rejected BOOLEAN NOT NULL DEFAULT FALSE
+);
+
+-- Customer Tombstones Table (deleted customers, read by the changes feed)
+CREATE TABLE IF NOT EXISTS customer_tombstones (
+    id BIGINT PRIMARY KEY AUTO_INCREMENT,
+    customer_id BIGINT NOT NULL,
+    nic_number VARCHAR(255) NOT NULL,
+    deleted_at DATETIME(6) NOT NULL
+);
+
 -- Add indexes for better performance
 CREATE INDEX idx_customers_nic ON customers(nic_number);
+CREATE INDEX idx_customers_updated_at ON customers(updated_at, id);
+CREATE INDEX idx_customer_tombstones_deleted_at ON customer_tombstones(deleted_at, customer_id);
 CREATE INDEX idx_cities_country ON cities(country_id);
 CREATE INDEX idx_addresses_customer ON addresses(customer_id);
+CREATE INDEX idx_customer_mobile_numbers_number ON customer_mobile_numbers(mobile_number);
+CREATE INDEX idx_customer_summary_name ON customer_summary(name);
+CREATE INDEX idx_customer_summary_nic ON customer_summary(nic_number);
+CREATE INDEX idx_customer_staging_import_nic ON customer_staging(import_id, nic_number);
 
 -- DML Script for initial data
 
@@ -0,0 +1,111 @@
+package com.customer.customermanagement;
+
+import com.customer.customermanagement.config.AotConditionsVerifier;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.core.type.classreading.MetadataReader;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AotConditionsVerifierTest {
+
+    private static final Pattern EXPRESSION_PROPERTY = Pattern.compile("\\$\\{([^:}]+)");
+
+    // Without AOT the conditions are evaluated at startup, so the verifier has to agree with them
+    @Test
+    public void testAgreesWithTheConditionsEvaluatedAtStartup() {
+        try (ConfigurableApplicationContext application = new SpringApplicationBuilder(CustomerManagementApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:aotconditions;MODE=MariaDB;DB_CLOSE_DELAY=-1",
+                        "--customer.reactive.enabled=true",
+                        "--customer.reactive.port=0",
+                        "--customer.cache.transport=jdbc")) {
+            assertEquals(List.of(), AotConditionsVerifier.mismatches(application.getEnvironment(), application));
+        }
+    }
+
+    @Test
+    public void testReportsPropertiesThatWouldChooseOtherBeans() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerBeanDefinition("queryBudgetFilter", new RootBeanDefinition(Object.class));
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("customer.sql-profiler.enabled", "false")
+                .withProperty("customer.reactive.enabled", "true");
+
+        assertEquals(List.of("customer.reactive.enabled (built without it, now with)",
+                        "customer.sql-profiler.request-budget (built with it, now without)"),
+                AotConditionsVerifier.mismatches(environment, beanFactory));
+    }
+
+    // Every bean a property switches on, present although no property is set, has to be reported under its property
+    @Test
+    public void testChecksEveryPropertyConditionOfTheApplication() throws Exception {
+        // Every class, without the scanner's own evaluation of their conditions
+        ClassPathScanningCandidateComponentProvider scanner = new ClassPathScanningCandidateComponentProvider(false) {
+            @Override
+            protected boolean isCandidateComponent(MetadataReader metadataReader) {
+                return true;
+            }
+        };
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        Set<String> conditionProperties = new TreeSet<>();
+        for (BeanDefinition candidate : scanner.findCandidateComponents(CustomerManagementApplication.class.getPackageName())) {
+            Class<?> type = Class.forName(candidate.getBeanClassName());
+            if (addConditionProperties(type, conditionProperties)) {
+                beanFactory.registerBeanDefinition(type.getName(), new RootBeanDefinition(type));
+            }
+            for (Method method : type.getDeclaredMethods()) {
+                if (method.isAnnotationPresent(Bean.class) && addConditionProperties(method, conditionProperties)) {
+                    beanFactory.registerBeanDefinition(method.getName(), new RootBeanDefinition(method.getReturnType()));
+                }
+            }
+        }
+
+        Set<String> reported = AotConditionsVerifier.mismatches(new MockEnvironment(), beanFactory).stream()
+                .map(mismatch -> mismatch.substring(0, mismatch.indexOf(' ')))
+                .collect(Collectors.toCollection(TreeSet::new));
+        assertFalse(conditionProperties.isEmpty());
+        assertEquals(conditionProperties, reported);
+    }
+
+    // Returns whether the element is switched on by properties that are unset by default
+    private static boolean addConditionProperties(AnnotatedElement element, Set<String> properties) {
+        boolean conditional = false;
+        ConditionalOnProperty onProperty = element.getAnnotation(ConditionalOnProperty.class);
+        if (onProperty != null && !onProperty.matchIfMissing()) {
+            String prefix = onProperty.prefix().isEmpty() ? "" : onProperty.prefix() + ".";
+            for (String name : onProperty.name().length > 0 ? onProperty.name() : onProperty.value()) {
+                properties.add(prefix + name);
+            }
+            conditional = true;
+        }
+        ConditionalOnExpression onExpression = element.getAnnotation(ConditionalOnExpression.class);
+        if (onExpression != null) {
+            Matcher matcher = EXPRESSION_PROPERTY.matcher(onExpression.value());
+            while (matcher.find()) {
+                properties.add(matcher.group(1));
+                conditional = true;
+            }
+        }
+        return conditional;
+    }
+}
@@ -0,0 +1,49 @@
+package com.customer.customermanagement;
+
+import com.customer.customermanagement.dto.BulkDeleteRequestDTO;
+import com.customer.customermanagement.dto.CustomerDTO;
+import com.customer.customermanagement.exception.ResourceNotFoundException;
+import com.customer.customermanagement.service.CustomerService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Filtered bulk deletes against the database, where the prefixes become LIKE patterns
+ */
+@SpringBootTest
+public class BulkDeleteTest {
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Test
+    public void testWildcardsInPrefixesAreMatchedLiterally() {
+        Long plain = customerService.createCustomer(customer("Dilan Perera", "197701011111")).getId();
+        Long underscored = customerService.createCustomer(customer("Dil_n Perera", "197701012222")).getId();
+        Long percent = customerService.createCustomer(customer("100% Dilan", "197701013333")).getId();
+
+        assertEquals(0, customerService.deleteCustomers(BulkDeleteRequestDTO.builder().namePrefix("%").build()).getDeletedCount());
+        assertEquals(0, customerService.deleteCustomers(BulkDeleteRequestDTO.builder().nicPrefix("_").build()).getDeletedCount());
+        assertEquals(0, customerService.deleteCustomers(BulkDeleteRequestDTO.builder().namePrefix("!").build()).getDeletedCount());
+        assertNotNull(customerService.getCustomerById(plain));
+
+        assertEquals(1, customerService.deleteCustomers(BulkDeleteRequestDTO.builder().namePrefix("Dil_").build()).getDeletedCount());
+        assertEquals(1, customerService.deleteCustomers(BulkDeleteRequestDTO.builder().namePrefix("100%").build()).getDeletedCount());
+        assertNotNull(customerService.getCustomerById(plain));
+        assertThrows(ResourceNotFoundException.class, () -> customerService.getCustomerById(underscored));
+        assertThrows(ResourceNotFoundException.class, () -> customerService.getCustomerById(percent));
+    }
+
+    private static CustomerDTO customer(String name, String nicNumber) {
+        CustomerDTO customer = new CustomerDTO();
+        customer.setName(name);
+        customer.setDateOfBirth(LocalDate.of(1977, 1, 1));
+        customer.setNicNumber(nicNumber);
+        return customer;
+    }
+}
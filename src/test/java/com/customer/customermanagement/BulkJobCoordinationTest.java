@@ -0,0 +1,208 @@
+package com.customer.customermanagement;
+
+import com.customer.customermanagement.dto.BulkJobDTO;
+import com.customer.customermanagement.dto.BulkJobPartitionDTO;
+import com.customer.customermanagement.dto.BulkJobPartitionStatus;
+import com.customer.customermanagement.dto.BulkJobPhase;
+import com.customer.customermanagement.dto.BulkJobStatus;
+import com.customer.customermanagement.dto.BulkRowErrorCode;
+import com.customer.customermanagement.dto.BulkRowErrorDTO;
+import com.customer.customermanagement.loadtest.SyntheticCustomerGenerator;
+import com.customer.customermanagement.loadtest.SyntheticDataWriter;
+import com.customer.customermanagement.service.BulkJobService;
+import com.customer.customermanagement.util.UtcClock;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInfo;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Two application instances sharing one database, each stepped by hand instead of by its poller
+ */
+public class BulkJobCoordinationTest {
+
+    private ConfigurableApplicationContext nodeA;
+    private ConfigurableApplicationContext nodeB;
+
+    // One database per test, both nodes of a test share it
+    @BeforeEach
+    public void startNodes(TestInfo testInfo) {
+        String database = testInfo.getTestMethod().orElseThrow().getName();
+        nodeA = startNode(database, "node-a");
+        nodeB = startNode(database, "node-b");
+    }
+
+    @AfterEach
+    public void stopNodes() {
+        nodeB.close();
+        nodeA.close();
+    }
+
+    @Test
+    public void testNodesSharePartitionsAndReclaimExpiredLeases() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        SyntheticDataWriter.writeWorkbook(new SyntheticCustomerGenerator(42), 60, out);
+        int customerRows;
+        int relationshipRows;
+        try (Workbook workbook = new XSSFWorkbook(new ByteArrayInputStream(out.toByteArray()))) {
+            customerRows = workbook.getSheet("Customers").getLastRowNum();
+            relationshipRows = workbook.getSheet("Relationships").getLastRowNum();
+        }
+
+        BulkJobService bulkJobsA = nodeA.getBean(BulkJobService.class);
+        BulkJobService bulkJobsB = nodeB.getBean(BulkJobService.class);
+        BulkJobDTO job = bulkJobsA.submit(new MockMultipartFile("file", "customers.xlsx",
+                "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet", out.toByteArray()));
+        assertEquals(BulkJobStatus.RUNNING, job.getStatus());
+        assertTrue(job.getPartitions().stream().filter(partition -> partition.getPhase() == BulkJobPhase.CUSTOMERS).count() >= 3);
+
+        // Node B takes the first partition, a node that died holds the second with an expired lease
+        assertTrue(bulkJobsB.runNextPartition());
+        JdbcTemplate jdbcTemplate = nodeA.getBean(JdbcTemplate.class);
+        Long abandoned = jdbcTemplate.queryForObject("SELECT MIN(id) FROM bulk_job_partitions WHERE status = 'PENDING'", Long.class);
+        jdbcTemplate.update("UPDATE bulk_job_partitions SET status = 'RUNNING', lease_owner = 'node-c', lease_token = 'dead', "
+                + "lease_expires_at = ?, attempts = 1 WHERE id = ?", UtcClock.now().minusMinutes(5), abandoned);
+
+        boolean claimed;
+        do {
+            claimed = bulkJobsA.runNextPartition() | bulkJobsB.runNextPartition();
+        } while (claimed);
+
+        BulkJobDTO finished = bulkJobsB.getJob(job.getId());
+        assertEquals(BulkJobStatus.COMPLETED, finished.getStatus());
+        assertEquals(finished.getPartitionCount(), finished.getPartitionsCompleted());
+        assertEquals(Set.of("node-a", "node-b"), finished.getPartitions().stream()
+                .map(BulkJobPartitionDTO::getNode)
+                .collect(Collectors.toSet()));
+        assertTrue(finished.getPartitions().stream().allMatch(partition -> partition.getStatus() == BulkJobPartitionStatus.COMPLETED));
+        assertEquals(2, jdbcTemplate.queryForObject("SELECT attempts FROM bulk_job_partitions WHERE id = ?", Integer.class, abandoned));
+
+        assertEquals(customerRows, finished.getResult().getTotalProcessed());
+        assertEquals(customerRows, finished.getResult().getSuccessCount());
+        assertEquals(relationshipRows, finished.getResult().getRelationshipsImported());
+        assertTrue(finished.getResult().getErrors().isEmpty(), () -> finished.getResult().getErrors().toString());
+        assertEquals(customerRows, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM customers", Integer.class));
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM bulk_job_files", Integer.class));
+    }
+
+    @Test
+    public void testNicRepeatedInPartitionsOfDifferentNodesRejectsOnlyItsRow() throws Exception {
+        BulkJobService bulkJobsA = nodeA.getBean(BulkJobService.class);
+        BulkJobService bulkJobsB = nodeB.getBean(BulkJobService.class);
+        BulkJobDTO job = bulkJobsA.submit(repeatedNicWorkbook());
+        assertEquals(2, job.getPartitionCount());
+
+        assertTrue(bulkJobsA.runNextPartition());
+        assertTrue(bulkJobsB.runNextPartition());
+        assertFalse(bulkJobsA.runNextPartition() | bulkJobsB.runNextPartition());
+
+        BulkJobDTO finished = bulkJobsA.getJob(job.getId());
+        assertEquals(BulkJobStatus.COMPLETED, finished.getStatus());
+        assertEquals(List.of("node-a", "node-b"), finished.getPartitions().stream()
+                .map(BulkJobPartitionDTO::getNode)
+                .sorted()
+                .toList());
+        assertTrue(finished.getPartitions().stream().allMatch(partition -> partition.getAttempts() == 1));
+        assertEquals(40, finished.getResult().getTotalProcessed());
+        assertEquals(39, finished.getResult().getSuccessCount());
+        assertEquals(1, finished.getResult().getErrors().size());
+        BulkRowErrorDTO error = finished.getResult().getErrors().get(0);
+        assertEquals(BulkRowErrorCode.NIC_ALREADY_EXISTS, error.getCode());
+        assertEquals(30, error.getRowNumber());
+        assertEquals(39, nodeA.getBean(JdbcTemplate.class).queryForObject("SELECT COUNT(*) FROM customers", Integer.class));
+    }
+
+    // The partition that inserts the NIC second waits on the unique index until the first commits, then runs again
+    // with its NICs looked up instead of failing as a whole
+    @Test
+    public void testNicRepeatedInPartitionsRunningConcurrentlyRejectsOnlyItsRow() throws Exception {
+        BulkJobService bulkJobsA = nodeA.getBean(BulkJobService.class);
+        BulkJobService bulkJobsB = nodeB.getBean(BulkJobService.class);
+        BulkJobDTO job = bulkJobsA.submit(repeatedNicWorkbook());
+        assertEquals(2, job.getPartitionCount());
+
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            List<Future<Boolean>> claims = new ArrayList<>();
+            for (BulkJobService bulkJobs : List.of(bulkJobsA, bulkJobsB)) {
+                claims.add(executor.submit(() -> {
+                    start.await();
+                    return bulkJobs.runNextPartition();
+                }));
+            }
+            start.countDown();
+            for (Future<Boolean> claim : claims) {
+                assertTrue(claim.get(30, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertFalse(bulkJobsA.runNextPartition() | bulkJobsB.runNextPartition());
+
+        BulkJobDTO finished = bulkJobsA.getJob(job.getId());
+        assertEquals(BulkJobStatus.COMPLETED, finished.getStatus());
+        assertTrue(finished.getPartitions().stream().allMatch(partition -> partition.getAttempts() == 1));
+        assertEquals(40, finished.getResult().getTotalProcessed());
+        assertEquals(39, finished.getResult().getSuccessCount());
+        assertEquals(1, finished.getResult().getErrors().size());
+        BulkRowErrorDTO error = finished.getResult().getErrors().get(0);
+        assertEquals(BulkRowErrorCode.NIC_ALREADY_EXISTS, error.getCode());
+        // Whichever partition committed first keeps the NIC
+        assertTrue(error.getRowNumber() == 3 || error.getRowNumber() == 30, () -> error.toString());
+        assertEquals(39, nodeA.getBean(JdbcTemplate.class).queryForObject("SELECT COUNT(*) FROM customers", Integer.class));
+    }
+
+    // Two partitions of 25 rows, row 30 of the second repeats the NIC of row 3 in the first
+    private static MockMultipartFile repeatedNicWorkbook() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (Workbook workbook = new XSSFWorkbook()) {
+            Sheet sheet = workbook.createSheet("Customers");
+            sheet.createRow(0).createCell(0).setCellValue("Name");
+            for (int rowNumber = 1; rowNumber <= 40; rowNumber++) {
+                Row row = sheet.createRow(rowNumber);
+                row.createCell(0).setCellValue("Customer " + rowNumber);
+                row.createCell(1).setCellValue("1991-03-0" + (rowNumber % 9 + 1));
+                row.createCell(2).setCellValue(String.valueOf(199106300000L + (rowNumber == 30 ? 3 : rowNumber)));
+            }
+            workbook.write(out);
+        }
+        return new MockMultipartFile("file", "customers.xlsx",
+                "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet", out.toByteArray());
+    }
+
+    private static ConfigurableApplicationContext startNode(String database, String nodeId) {
+        return new SpringApplicationBuilder(CustomerManagementApplication.class)
+                .web(WebApplicationType.NONE)
+                // Arguments, unlike default properties, win over the test application.properties
+                .run("--spring.datasource.url=jdbc:h2:mem:" + database + ";MODE=MariaDB;DB_CLOSE_DELAY=-1",
+                        "--spring.jpa.hibernate.ddl-auto=update",
+                        "--customer.bulk-jobs.enabled=true",
+                        "--customer.bulk-jobs.node-id=" + nodeId,
+                        "--customer.bulk-jobs.partition-rows=25",
+                        "--customer.bulk-jobs.poll-millis=0");
+    }
+}
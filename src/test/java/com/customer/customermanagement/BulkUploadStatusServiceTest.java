@@ -0,0 +1,55 @@
+package com.customer.customermanagement;
+
+import com.customer.customermanagement.dto.BulkJobDTO;
+import com.customer.customermanagement.dto.BulkJobStatus;
+import com.customer.customermanagement.dto.BulkProcessingResultDTO;
+import com.customer.customermanagement.dto.BulkRowErrorCode;
+import com.customer.customermanagement.dto.BulkRowErrorDTO;
+import com.customer.customermanagement.exception.ResourceNotFoundException;
+import com.customer.customermanagement.service.impl.BulkUploadStatusServiceImpl;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BulkUploadStatusServiceTest {
+
+    private final BulkUploadStatusServiceImpl statusService = new BulkUploadStatusServiceImpl(60);
+
+    @Test
+    public void testStatusCarriesTheResultWithRowErrors() {
+        CompletableFuture<BulkProcessingResultDTO> processing = new CompletableFuture<>();
+        BulkJobDTO upload = statusService.track("customers.xlsx", processing);
+        assertEquals(BulkJobStatus.RUNNING, upload.getStatus());
+        assertEquals(BulkJobStatus.RUNNING, statusService.getUpload(upload.getId()).getStatus());
+
+        BulkRowErrorDTO rowError = BulkRowErrorDTO.builder()
+                .rowNumber(3)
+                .code(BulkRowErrorCode.NIC_ALREADY_EXISTS)
+                .build();
+        processing.complete(BulkProcessingResultDTO.builder()
+                .totalProcessed(2)
+                .successCount(1)
+                .failureCount(1)
+                .errors(List.of(rowError))
+                .build());
+
+        BulkJobDTO finished = statusService.getUpload(upload.getId());
+        assertEquals(BulkJobStatus.COMPLETED, finished.getStatus());
+        assertEquals("customers.xlsx", finished.getFileName());
+        assertNotNull(finished.getFinishedAt());
+        assertEquals(List.of(rowError), finished.getResult().getErrors());
+    }
+
+    @Test
+    public void testFailedProcessingAndUnknownIds() {
+        CompletableFuture<BulkProcessingResultDTO> processing = new CompletableFuture<>();
+        String id = statusService.track("broken.xlsx", processing).getId();
+        processing.completeExceptionally(new IllegalStateException("Workbook could not be read"));
+
+        assertEquals(BulkJobStatus.FAILED, statusService.getUpload(id).getStatus());
+        assertThrows(ResourceNotFoundException.class, () -> statusService.getUpload("unknown"));
+    }
+}
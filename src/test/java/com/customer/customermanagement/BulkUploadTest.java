@@ -0,0 +1,108 @@
+package com.customer.customermanagement;
+
+import com.customer.customermanagement.dto.BulkJobDTO;
+import com.customer.customermanagement.dto.BulkJobStatus;
+import com.customer.customermanagement.dto.BulkRowErrorCode;
+import com.customer.customermanagement.dto.BulkRowErrorDTO;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.net.URI;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Uploads over HTTP with bulk jobs disabled, imported after the request has completed
+ */
+public class BulkUploadTest {
+
+    private static final long TIMEOUT_MILLIS = 10_000;
+
+    private static ConfigurableApplicationContext application;
+    private static final RestTemplate client = new RestTemplate();
+
+    @BeforeAll
+    public static void startApplication() {
+        application = new SpringApplicationBuilder(CustomerManagementApplication.class)
+                .web(WebApplicationType.SERVLET)
+                .run("--server.port=0",
+                        "--spring.datasource.url=jdbc:h2:mem:bulkupload;MODE=MariaDB;DB_CLOSE_DELAY=-1",
+                        "--customer.bulk-jobs.enabled=false");
+    }
+
+    @AfterAll
+    public static void stopApplication() {
+        application.close();
+    }
+
+    @Test
+    public void testStatusOfTheUploadReportsRowErrors() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (Workbook workbook = new XSSFWorkbook()) {
+            Sheet sheet = workbook.createSheet("Customers");
+            sheet.createRow(0).createCell(0).setCellValue("Name");
+            addRow(sheet, 1, "Chamari Silva", "1985-04-12", "198510312345");
+            addRow(sheet, 2, "Chamari Perera", "1986-04-12", "198510312345");
+            workbook.write(out);
+        }
+        MultiValueMap<String, Object> form = new LinkedMultiValueMap<>();
+        form.add("file", new ByteArrayResource(out.toByteArray()) {
+            @Override
+            public String getFilename() {
+                return "customers.xlsx";
+            }
+        });
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.MULTIPART_FORM_DATA);
+
+        ResponseEntity<BulkJobDTO> accepted = client.postForEntity(baseUrl() + "/api/customers/bulk-upload",
+                new HttpEntity<>(form, headers), BulkJobDTO.class);
+        assertEquals(HttpStatus.ACCEPTED, accepted.getStatusCode());
+        URI location = accepted.getHeaders().getLocation();
+        assertNotNull(location);
+        assertTrue(location.getPath().endsWith("/api/customers/bulk-uploads/" + accepted.getBody().getId()));
+
+        BulkJobDTO upload;
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while ((upload = client.getForObject(location, BulkJobDTO.class)).getStatus() == BulkJobStatus.RUNNING) {
+            assertTrue(System.currentTimeMillis() < deadline, "Upload did not finish in time");
+            Thread.sleep(50);
+        }
+        assertEquals(BulkJobStatus.COMPLETED, upload.getStatus());
+        assertEquals("customers.xlsx", upload.getFileName());
+        assertEquals(1, upload.getResult().getSuccessCount());
+        assertEquals(List.of(BulkRowErrorCode.NIC_DUPLICATED_IN_FILE),
+                upload.getResult().getErrors().stream().map(BulkRowErrorDTO::getCode).toList());
+    }
+
+    private static String baseUrl() {
+        return "http://localhost:" + application.getEnvironment().getProperty("local.server.port")
+                + application.getEnvironment().getProperty("server.servlet.context-path", "");
+    }
+
+    private static void addRow(Sheet sheet, int rowNumber, String name, String dateOfBirth, String nicNumber) {
+        Row row = sheet.createRow(rowNumber);
+        row.createCell(0).setCellValue(name);
+        row.createCell(1).setCellValue(dateOfBirth);
+        row.createCell(2).setCellValue(nicNumber);
+    }
+}
@@ -0,0 +1,110 @@
+package com.customer.customermanagement;
+
+import com.customer.customermanagement.dto.AddressDTO;
+import com.customer.customermanagement.dto.CustomerDTO;
+import com.customer.customermanagement.exception.ResourceNotFoundException;
+import com.customer.customermanagement.service.CustomerService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Two application instances sharing one database, each caching customers it has read
+ */
+public class CacheInvalidationBusTest {
+
+    private static final long PROPAGATION_TIMEOUT_MILLIS = 5000;
+
+    private ConfigurableApplicationContext nodeA;
+    private ConfigurableApplicationContext nodeB;
+
+    @BeforeEach
+    public void startNodes() {
+        nodeA = startNode();
+        nodeB = startNode();
+    }
+
+    @AfterEach
+    public void stopNodes() {
+        nodeB.close();
+        nodeA.close();
+    }
+
+    @Test
+    public void testWritesOnOneNodeInvalidateTheOther() throws InterruptedException {
+        CustomerService customersA = nodeA.getBean(CustomerService.class);
+        CustomerService customersB = nodeB.getBean(CustomerService.class);
+        CustomerDTO created = customersA.createCustomer(customer("Kasun Perera", "199013501234"));
+        Long id = created.getId();
+
+        assertEquals("Kasun Perera", customersA.getCustomerById(id).getName());
+        assertEquals("Kasun Perera", customersB.getCustomerById(id).getName());
+        assertEquals("Kasun Perera", customersA.getCustomerById(id).getName());
+        assertTrue(cacheHits(nodeA, "customer") >= 1);
+
+        customersB.updateCustomer(id, customer("Kasun Pereira", "199013501234"));
+        // The second update finds the city in the cache, and the writer's own cache is invalidated on commit
+        customersB.updateCustomer(id, customer("Kasun Pereira", "199013501234"));
+        assertTrue(cacheHits(nodeB, "city") >= 1);
+        assertEquals("Kasun Pereira", customersB.getCustomerById(id).getName());
+        awaitTrue(() -> "Kasun Pereira".equals(customersA.getCustomerById(id).getName()));
+
+        customersB.deleteCustomer(id);
+        awaitTrue(() -> {
+            try {
+                customersA.getCustomerById(id);
+                return false;
+            } catch (ResourceNotFoundException e) {
+                return true;
+            }
+        });
+
+        // The second customer in the same city finds it in the cache
+        customersA.createCustomer(customer("Saman Perera", "199220201111"));
+        assertTrue(cacheHits(nodeA, "city") >= 1);
+    }
+
+    private static CustomerDTO customer(String name, String nicNumber) {
+        CustomerDTO customer = new CustomerDTO();
+        customer.setName(name);
+        customer.setDateOfBirth(LocalDate.of(1990, 5, 15));
+        customer.setNicNumber(nicNumber);
+        customer.setAddresses(List.of(AddressDTO.builder()
+                .addressLine1("12 Galle Road")
+                .cityName("Colombo")
+                .countryName("Sri Lanka")
+                .build()));
+        return customer;
+    }
+
+    private static double cacheHits(ConfigurableApplicationContext node, String cache) {
+        return node.getBean(MeterRegistry.class).get("customer.cache.hits").tag("cache", cache).functionCounter().count();
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + PROPAGATION_TIMEOUT_MILLIS;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "Invalidation did not reach the other node in time");
+            Thread.sleep(10);
+        }
+    }
+
+    private static ConfigurableApplicationContext startNode() {
+        return new SpringApplicationBuilder(CustomerManagementApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:cachebus;MODE=MariaDB;DB_CLOSE_DELAY=-1",
+                        "--spring.jpa.hibernate.ddl-auto=update",
+                        "--customer.cache.transport=jdbc",
+                        "--customer.cache.poll-millis=10");
+    }
+}
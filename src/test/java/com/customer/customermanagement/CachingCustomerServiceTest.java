@@ -0,0 +1,75 @@
+package com.customer.customermanagement;
+
+import com.customer.customermanagement.dto.CachedEntity;
+import com.customer.customermanagement.dto.CustomerDTO;
+import com.customer.customermanagement.service.CacheInvalidationBus;
+import com.customer.customermanagement.service.CustomerService;
+import com.customer.customermanagement.service.impl.CachingCustomerService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class CachingCustomerServiceTest {
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testCacheFillAfterAnInvalidationDoesNotJoinAnOlderLoad() throws Exception {
+        CustomerService delegate = mock(CustomerService.class);
+        CacheInvalidationBus cacheInvalidationBus = mock(CacheInvalidationBus.class);
+        CachingCustomerService service = new CachingCustomerService(delegate, new SimpleMeterRegistry(),
+                cacheInvalidationBus, true, 60_000, true, 100, 300);
+        ArgumentCaptor<Consumer<Long>> invalidations = ArgumentCaptor.forClass(Consumer.class);
+        verify(cacheInvalidationBus).subscribe(eq(CachedEntity.CUSTOMER), invalidations.capture());
+
+        // The first load reads the customer before the write commits and finishes only after its invalidation
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch firstLoadStarted = new CountDownLatch(1);
+        CountDownLatch releaseFirstLoad = new CountDownLatch(1);
+        when(delegate.getCustomerById(eq(1L), any())).thenAnswer(invocation -> {
+            if (loads.incrementAndGet() == 1) {
+                firstLoadStarted.countDown();
+                releaseFirstLoad.await(5, TimeUnit.SECONDS);
+                return customer("Nimal Perera");
+            }
+            return customer("Nimal Fernando");
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<CustomerDTO> beforeWrite = executor.submit(() -> service.getCustomerById(1L));
+            assertTrue(firstLoadStarted.await(5, TimeUnit.SECONDS));
+
+            invalidations.getValue().accept(1L);
+            Future<CustomerDTO> afterWrite = executor.submit(() -> service.getCustomerById(1L));
+            assertEquals("Nimal Fernando", afterWrite.get(5, TimeUnit.SECONDS).getName());
+
+            releaseFirstLoad.countDown();
+            assertEquals("Nimal Perera", beforeWrite.get(5, TimeUnit.SECONDS).getName());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals("Nimal Fernando", service.getCustomerById(1L).getName());
+        assertEquals(2, loads.get());
+    }
+
+    private static CustomerDTO customer(String name) {
+        CustomerDTO customer = new CustomerDTO();
+        customer.setId(1L);
+        customer.setName(name);
+        return customer;
+    }
+}
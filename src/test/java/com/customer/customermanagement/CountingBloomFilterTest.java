@@ -0,0 +1,56 @@
+package com.customer.customermanagement;
+
+import com.customer.customermanagement.util.CountingBloomFilter;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CountingBloomFilterTest {
+
+    @Test
+    public void testNoFalseNegatives() {
+        CountingBloomFilter filter = new CountingBloomFilter(64 * 1024, 10_000);
+        for (int i = 0; i < 10_000; i++) {
+            filter.add("NIC" + i);
+        }
+
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(filter.mightContain("NIC" + i));
+        }
+    }
+
+    @Test
+    public void testFalsePositiveRateWithinExpectation() {
+        CountingBloomFilter filter = new CountingBloomFilter(64 * 1024, 10_000);
+        for (int i = 0; i < 10_000; i++) {
+            filter.add("NIC" + i);
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain("ABSENT" + i)) {
+                falsePositives++;
+            }
+        }
+
+        double expected = filter.expectedFalsePositiveRate(10_000);
+        assertTrue(falsePositives / 100_000.0 < expected * 2 + 0.001,
+                "observed " + falsePositives / 100_000.0 + ", expected " + expected);
+    }
+
+    @Test
+    public void testRemoveKeepsOtherElements() {
+        CountingBloomFilter filter = new CountingBloomFilter(1024, 100);
+        for (int i = 0; i < 100; i++) {
+            filter.add("NIC" + i);
+        }
+
+        filter.remove("NIC0");
+        filter.remove("NIC0");
+
+        assertFalse(filter.mightContain("NIC0"));
+        for (int i = 1; i < 100; i++) {
+            assertTrue(filter.mightContain("NIC" + i));
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.customer.customermanagement;
+
+import com.customer.customermanagement.dto.AddressDTO;
+import com.customer.customermanagement.dto.CustomerDTO;
+import com.customer.customermanagement.service.CustomerService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.ApplicationContext;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Read endpoints over HTTP, each request under the statement budget the test properties fail on
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+public class CustomerApiTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    @Test
+    public void testListingSortsById() throws Exception {
+        customerService.createCustomer(customer("Anura Wickramasinghe", "197304051111"));
+        customerService.createCustomer(customer("Anura Bandara", "197304052222"));
+
+        List<Long> ids = ids(mockMvc.perform(get("/api/customers").param("sort", "id,desc"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+        assertTrue(ids.size() >= 2);
+        assertEquals(ids.stream().sorted(Comparator.reverseOrder()).toList(), ids);
+    }
+
+    // Customers with every association filled, so loading any of them per customer would run over the budget
+    @Test
+    public void testReadsStayWithinTheQueryBudget() throws Exception {
+        assertTrue(applicationContext.getBean("queryBudgetFilter", FilterRegistrationBean.class).isEnabled());
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            CustomerDTO customer = customer("Budget Customer " + i, String.valueOf(198501010000L + i));
+            customer.setMobileNumbers(Set.of("07712" + String.format("%05d", i), "07812" + String.format("%05d", i)));
+            customer.setAddresses(List.of(AddressDTO.builder()
+                    .addressLine1(i + " Galle Road")
+                    .cityName("Colombo")
+                    .countryName("Sri Lanka")
+                    .build()));
+            if (!ids.isEmpty()) {
+                customer.setFamilyMemberIds(Set.of(ids.get(ids.size() - 1)));
+            }
+            ids.add(customerService.createCustomer(customer).getId());
+        }
+
+        mockMvc.perform(get("/api/customers/{id}", ids.get(1)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.familyMemberIds.length()").value(greaterThanOrEqualTo(1)))
+                .andExpect(jsonPath("$.addresses[0].cityName").value("Colombo"));
+        mockMvc.perform(get("/api/customers").param("size", "50"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(greaterThanOrEqualTo(30)));
+        mockMvc.perform(get("/api/customers/search").param("query", "Budget Customer").param("size", "50"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(30));
+    }
+
+    private List<Long> ids(String page) throws Exception {
+        List<Long> ids = new ArrayList<>();
+        for (JsonNode customer : objectMapper.readTree(page).get("content")) {
+            ids.add(customer.get("id").asLong());
+        }
+        return ids;
+    }
+
+    private static CustomerDTO customer(String name, String nicNumber) {
+        CustomerDTO customer = new CustomerDTO();
+        customer.setName(name);
+        customer.setDateOfBirth(LocalDate.of(1973, 4, 5));
+        customer.setNicNumber(nicNumber);
+        return customer;
+    }
+}
@@ -0,0 +1,68 @@
+package com.customer.customermanagement;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * A database written before customers had timestamps and mobile numbers were normalized, started once with
+ * --backfill-customers
+ */
+public class CustomerBackfillTest {
+
+    private static final String NIC_NUMBER = "198105601234";
+
+    @Test
+    public void testBackfillSetsTimestampsAndNormalizesStoredMobileNumbers() {
+        try (ConfigurableApplicationContext before = startApplication()) {
+            JdbcTemplate jdbcTemplate = before.getBean(JdbcTemplate.class);
+            jdbcTemplate.update("INSERT INTO customers (version, name, date_of_birth, nic_number) VALUES (0, ?, ?, ?)",
+                    "Kamala Silva", LocalDate.of(1981, 2, 25), NIC_NUMBER);
+            long id = customerId(jdbcTemplate);
+            for (String mobileNumber : List.of("077 123 4567", "0771234567", "0094 11 2345678", "ext. 12")) {
+                jdbcTemplate.update("INSERT INTO customer_mobile_numbers (customer_id, mobile_number) VALUES (?, ?)",
+                        id, mobileNumber);
+            }
+        }
+
+        try (ConfigurableApplicationContext after = startApplication("--backfill-customers")) {
+            JdbcTemplate jdbcTemplate = after.getBean(JdbcTemplate.class);
+            long id = customerId(jdbcTemplate);
+            assertEquals(Set.of("+94771234567", "+94112345678", "ext. 12"), Set.copyOf(jdbcTemplate.queryForList(
+                    "SELECT mobile_number FROM customer_mobile_numbers WHERE customer_id = ?", String.class, id)));
+            assertEquals(1, jdbcTemplate.queryForObject("SELECT version FROM customers WHERE id = ?", Long.class, id));
+            assertEquals(0, jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM customers WHERE created_at IS NULL OR updated_at IS NULL", Long.class));
+        }
+
+        // Nothing is left to change on a second run
+        try (ConfigurableApplicationContext again = startApplication("--backfill-customers")) {
+            JdbcTemplate jdbcTemplate = again.getBean(JdbcTemplate.class);
+            assertEquals(1, jdbcTemplate.queryForObject("SELECT version FROM customers WHERE id = ?", Long.class,
+                    customerId(jdbcTemplate)));
+        }
+    }
+
+    private static long customerId(JdbcTemplate jdbcTemplate) {
+        return jdbcTemplate.queryForObject("SELECT id FROM customers WHERE nic_number = ?", Long.class, NIC_NUMBER);
+    }
+
+    private static ConfigurableApplicationContext startApplication(String... args) {
+        List<String> arguments = new ArrayList<>(List.of(
+                "--spring.datasource.url=jdbc:h2:mem:customerbackfill;MODE=MariaDB;DB_CLOSE_DELAY=-1",
+                "--spring.jpa.hibernate.ddl-auto=update"));
+        arguments.addAll(List.of(args));
+        return new SpringApplicationBuilder(CustomerManagementApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(arguments.toArray(String[]::new));
+    }
+}
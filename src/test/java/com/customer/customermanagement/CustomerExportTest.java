@@ -0,0 +1,62 @@
+package com.customer.customermanagement;
+
+import com.customer.customermanagement.dto.CustomerDTO;
+import com.customer.customermanagement.dto.ExportFormat;
+import com.customer.customermanagement.service.CustomerExportService;
+import com.customer.customermanagement.service.CustomerService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Set;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+public class CustomerExportTest {
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private CustomerExportService customerExportService;
+
+    @Test
+    public void testCsvExportKeepsFormulasAsText() throws Exception {
+        customerService.createCustomer(customer("=HYPERLINK(\"http://example.com\",\"x\")", "196501010001", "0771234567"));
+        customerService.createCustomer(customer("@SUM(A1)", "196501010002", null));
+
+        String csv = exportCsv();
+
+        assertTrue(csv.contains("\"'=HYPERLINK(\"\"http://example.com\"\",\"\"x\"\")\",1965-01-01,196501010001,\"'+94771234567\"\r\n"), csv);
+        assertTrue(csv.contains("\"'@SUM(A1)\",1965-01-01,196501010002,\r\n"), csv);
+    }
+
+    private String exportCsv() throws Exception {
+        ByteArrayOutputStream zip = new ByteArrayOutputStream();
+        customerExportService.exportCustomers(ExportFormat.CSV, zip);
+        StringBuilder csv = new StringBuilder();
+        try (ZipInputStream parts = new ZipInputStream(new ByteArrayInputStream(zip.toByteArray()))) {
+            while (parts.getNextEntry() != null) {
+                csv.append(new String(parts.readAllBytes(), StandardCharsets.UTF_8));
+            }
+        }
+        return csv.toString();
+    }
+
+    private static CustomerDTO customer(String name, String nicNumber, String mobileNumber) {
+        CustomerDTO customer = new CustomerDTO();
+        customer.setName(name);
+        customer.setDateOfBirth(LocalDate.of(1965, 1, 1));
+        customer.setNicNumber(nicNumber);
+        if (mobileNumber != null) {
+            customer.setMobileNumbers(Set.of(mobileNumber));
+        }
+        return customer;
+    }
+}
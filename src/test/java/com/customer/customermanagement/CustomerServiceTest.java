@@ -1,31 +1,55 @@
 package com.customer.customermanagement;
 
 
+import com.customer.customermanagement.dto.BulkProcessingResultDTO;
+import com.customer.customermanagement.dto.BulkRowErrorCode;
+import com.customer.customermanagement.dto.BulkRowErrorDTO;
+import com.customer.customermanagement.dto.CustomerAssociation;
 import com.customer.customermanagement.dto.CustomerDTO;
+import com.customer.customermanagement.dto.CustomerSummaryDTO;
 import com.customer.customermanagement.exception.DuplicateResourceException;
+import com.customer.customermanagement.exception.PreconditionFailedException;
 import com.customer.customermanagement.exception.ResourceNotFoundException;
 import com.customer.customermanagement.model.Customer;
 import com.customer.customermanagement.repository.AddressRepository;
 import com.customer.customermanagement.repository.CityRepository;
 import com.customer.customermanagement.repository.CountryRepository;
 import com.customer.customermanagement.repository.CustomerRepository;
+import com.customer.customermanagement.repository.CustomerScalarView;
+import com.customer.customermanagement.repository.CustomerTombstoneRepository;
+import com.customer.customermanagement.service.CacheInvalidationBus;
+import com.customer.customermanagement.service.CustomerSummaryService;
+import com.customer.customermanagement.service.NicMembershipService;
+import com.customer.customermanagement.service.impl.CityCache;
+import com.customer.customermanagement.service.impl.CustomerGraphImporter;
 import com.customer.customermanagement.service.impl.CustomerServiceImpl;
+import com.customer.customermanagement.service.impl.CustomerStagingImporter;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
 
+import java.io.ByteArrayOutputStream;
 import java.time.LocalDate;
 import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -43,6 +67,30 @@ public class CustomerServiceTest {
     @Mock
     private AddressRepository addressRepository;
 
+    @Mock
+    private CustomerSummaryService customerSummaryService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private NicMembershipService nicMembershipService;
+
+    @Mock
+    private CustomerGraphImporter customerGraphImporter;
+
+    @Mock
+    private CustomerStagingImporter customerStagingImporter;
+
+    @Mock
+    private CustomerTombstoneRepository customerTombstoneRepository;
+
+    @Mock
+    private CacheInvalidationBus cacheInvalidationBus;
+
+    @Mock
+    private CityCache cityCache;
+
     @InjectMocks
     private CustomerServiceImpl customerService;
 
@@ -71,7 +119,7 @@ public class CustomerServiceTest {
     @Test
     public void testCreateCustomer_Success() {
         // Given
-        when(customerRepository.existsByNicNumber(any())).thenReturn(false);
+        when(nicMembershipService.exists(any())).thenReturn(false);
         when(customerRepository.save(any())).thenReturn(customer);
 
         // When
@@ -82,12 +130,14 @@ public class CustomerServiceTest {
         assertEquals(customerDTO.getName(), result.getName());
         assertEquals(customerDTO.getNicNumber(), result.getNicNumber());
         verify(customerRepository, times(1)).save(any());
+        verify(customerSummaryService, times(1)).refresh(customer);
+        verify(nicMembershipService, times(1)).registerNic("123456789X");
     }
 
     @Test
     public void testCreateCustomer_DuplicateNic() {
         // Given
-        when(customerRepository.existsByNicNumber(any())).thenReturn(true);
+        when(nicMembershipService.exists(any())).thenReturn(true);
 
         // When/Then
         assertThrows(DuplicateResourceException.class, () -> {
@@ -122,22 +172,49 @@ public class CustomerServiceTest {
         });
     }
 
+    @Test
+    public void testGetCustomerById_WithoutAssociationsReadsProjectionOnly() {
+        // Given
+        CustomerScalarView view = mock(CustomerScalarView.class);
+        when(view.getId()).thenReturn(1L);
+        when(view.getName()).thenReturn("John Doe");
+        when(view.getNicNumber()).thenReturn("123456789X");
+        when(customerRepository.findScalarById(1L)).thenReturn(Optional.of(view));
+
+        // When
+        CustomerDTO result = customerService.getCustomerById(1L, EnumSet.noneOf(CustomerAssociation.class));
+
+        // Then
+        assertEquals("John Doe", result.getName());
+        assertNull(result.getMobileNumbers());
+        assertNull(result.getAddresses());
+        verify(customerRepository, never()).findByIdWithDetails(any());
+        verify(customerRepository, never()).findMobileNumbersByIdIn(any());
+        verify(customerRepository, never()).findFamilyMemberIdsById(any());
+        verifyNoInteractions(addressRepository);
+    }
+
     @Test
     public void testGetAllCustomers() {
         // Given
-        List<Customer> customers = Collections.singletonList(customer);
-        Page<Customer> customerPage = new PageImpl<>(customers);
+        CustomerSummaryDTO summary = CustomerSummaryDTO.builder()
+                .id(1L)
+                .name("John Doe")
+                .nicNumber("123456789X")
+                .build();
+        Page<CustomerSummaryDTO> summaryPage = new PageImpl<>(Collections.singletonList(summary));
         Pageable pageable = PageRequest.of(0, 10);
 
-        when(customerRepository.findAll(pageable)).thenReturn(customerPage);
+        when(customerSummaryService.findAll(pageable)).thenReturn(summaryPage);
 
         // When
-        Page<CustomerDTO> result = customerService.getAllCustomers(pageable);
+        Page<CustomerSummaryDTO> result = customerService.getAllCustomers(pageable);
 
         // Then
         assertNotNull(result);
         assertEquals(1, result.getTotalElements());
         assertEquals(customerDTO.getName(), result.getContent().get(0).getName());
+        verify(customerRepository, never()).findAll(any(Pageable.class));
     }
 
     @Test
@@ -174,28 +251,181 @@ public class CustomerServiceTest {
     }
 
     @Test
-    public void testDeleteCustomer_Success() {
+    public void testUpdateCustomer_StaleVersion() {
+        // Given
+        customer.setVersion(3);
+        when(customerRepository.findById(1L)).thenReturn(Optional.of(customer));
+
+        // When/Then
+        assertThrows(PreconditionFailedException.class, () -> {
+            customerService.updateCustomer(1L, customerDTO, 2L);
+        });
+
+        verify(customerRepository, never()).save(any());
+    }
+
+    @Test
+    public void testUpdateCustomer_RetriesConcurrentModification() {
+        // Given
+        when(customerRepository.findById(1L)).thenReturn(Optional.of(customer));
+        when(customerRepository.save(any())).thenReturn(customer);
+        doThrow(new ObjectOptimisticLockingFailureException(Customer.class, 1L))
+                .doNothing()
+                .when(customerRepository).flush();
+
+        // When
+        CustomerDTO result = customerService.updateCustomer(1L, customerDTO, null);
+
+        // Then
+        assertNotNull(result);
+        verify(customerRepository, times(2)).findById(1L);
+        verify(customerRepository, times(2)).flush();
+    }
+
+    @Test
+    public void testUpdateCustomer_DoesNotRetryOverAConcurrentChangeOfItsFields() {
+        // Given
+        Customer renamed = new Customer();
+        renamed.setId(1L);
+        renamed.setVersion(1);
+        renamed.setName("Jane Doe");
+        renamed.setDateOfBirth(customer.getDateOfBirth());
+        renamed.setNicNumber(customer.getNicNumber());
+        customerDTO.setName("John Smith");
+        when(customerRepository.findById(1L))
+                .thenReturn(Optional.of(customer))
+                .thenReturn(Optional.of(renamed));
+        when(customerRepository.save(any())).thenReturn(customer);
+        doThrow(new ObjectOptimisticLockingFailureException(Customer.class, 1L)).when(customerRepository).flush();
+
+        // When/Then
+        OptimisticLockingFailureException e = assertThrows(OptimisticLockingFailureException.class,
+                () -> customerService.updateCustomer(1L, customerDTO, null));
+        assertFalse(e instanceof ObjectOptimisticLockingFailureException);
+        assertTrue(e.getMessage().contains("name"));
+        assertEquals("Jane Doe", renamed.getName());
+        verify(customerRepository, times(2)).findById(1L);
+        verify(customerRepository, times(1)).flush();
+    }
+
+    @Test
+    public void testUpdateCustomer_DoesNotRetryAPinnedVersion() {
         // Given
         when(customerRepository.findById(1L)).thenReturn(Optional.of(customer));
-        doNothing().when(customerRepository).delete(any());
+        when(customerRepository.save(any())).thenReturn(customer);
+        doThrow(new ObjectOptimisticLockingFailureException(Customer.class, 1L)).when(customerRepository).flush();
+
+        // When/Then
+        assertThrows(PreconditionFailedException.class, () -> customerService.updateCustomer(1L, customerDTO, 0L));
+        verify(customerRepository, times(1)).flush();
+    }
+
+    @Test
+    public void testDeleteCustomer_Success() {
+        // Given
+        when(customerRepository.existsById(1L)).thenReturn(true);
+        when(customerRepository.findIdsRelatedTo(List.of(1L))).thenReturn(List.of(2L));
+        when(customerRepository.findNicNumbersByIdIn(List.of(1L))).thenReturn(List.of("123456789X"));
+        when(customerRepository.deleteByIdIn(List.of(1L))).thenReturn(1);
 
         // When
         customerService.deleteCustomer(1L);
 
         // Then
-        verify(customerRepository, times(1)).delete(any());
+        verify(customerRepository, times(1)).deleteFamilyRelationshipsByIdIn(List.of(1L));
+        verify(customerRepository, times(1)).deleteByIdIn(List.of(1L));
+        verify(customerTombstoneRepository, times(1)).insertForCustomers(eq(List.of(1L)), any());
+        verify(customerRepository, times(1)).touch(eq(List.of(2L)), any());
+        verify(nicMembershipService, times(1)).unregisterNic("123456789X");
+        verify(customerRepository, never()).findById(any());
+        verify(customerSummaryService, times(1)).recountFamilyMembers(List.of(2L));
     }
 
     @Test
     public void testDeleteCustomer_NotFound() {
         // Given
-        when(customerRepository.findById(99L)).thenReturn(Optional.empty());
+        when(customerRepository.existsById(99L)).thenReturn(false);
 
         // When/Then
         assertThrows(ResourceNotFoundException.class, () -> {
             customerService.deleteCustomer(99L);
         });
 
-        verify(customerRepository, never()).delete(any());
+        verify(customerRepository, never()).deleteByIdIn(any());
+    }
+
+    @Test
+    public void testProcessBulkCustomerCreation_CollectsRowErrors() throws Exception {
+        // Given
+        byte[] workbookBytes;
+        try (Workbook workbook = new XSSFWorkbook(); ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+            Sheet sheet = workbook.createSheet("Customers");
+            sheet.createRow(0).createCell(0).setCellValue("Name");
+            addBulkRow(sheet, 1, "Jane Doe", "1991-02-03", "911234567V");
+            addBulkRow(sheet, 2, "", "1991-02-03", "921234567V");
+            addBulkRow(sheet, 3, "Bad Date", "03/02/1991", "931234567V");
+            addBulkRow(sheet, 4, "Same Nic", "1991-02-03", "911234567v");
+            addBulkRow(sheet, 5, "", "1994-02-03", "941234567V");
+            addBulkRow(sheet, 6, "Nic Of An Invalid Row", "1994-02-03", "941234567V");
+            workbook.write(out);
+            workbookBytes = out.toByteArray();
+        }
+        MockMultipartFile file = new MockMultipartFile("file", "customers.xlsx", null, workbookBytes);
+        when(nicMembershipService.exists(any())).thenReturn(false);
+        when(customerGraphImporter.importRelatedSheets(any(), any(), any(), any()))
+                .thenReturn(new CustomerGraphImporter.ImportCounts());
+
+        // When
+        BulkProcessingResultDTO result = customerService.processBulkCustomerCreation(file).get();
+
+        // Then
+        assertEquals(6, result.getTotalProcessed());
+        assertEquals(2, result.getSuccessCount());
+        assertEquals(4, result.getFailureCount());
+        assertEquals(List.of(BulkRowErrorCode.NAME_MISSING, BulkRowErrorCode.DATE_OF_BIRTH_INVALID,
+                        BulkRowErrorCode.NIC_DUPLICATED_IN_FILE, BulkRowErrorCode.NAME_MISSING),
+                result.getErrors().stream().map(BulkRowErrorDTO::getCode).toList());
+        assertEquals(2, result.getErrors().get(0).getRowNumber());
+        assertEquals("Customers", result.getErrors().get(0).getSheet());
+        verify(nicMembershipService, times(2)).exists(any());
+        verify(customerRepository, never()).findIdsByNicNumberIn(any());
+        verify(customerRepository, times(1)).saveAll(any());
+    }
+
+    @Test
+    public void testProcessBulkCustomerCreation_StagingEngineCountsRejectedRows() throws Exception {
+        // Given
+        byte[] workbookBytes;
+        try (Workbook workbook = new XSSFWorkbook(); ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+            Sheet sheet = workbook.createSheet("Customers");
+            sheet.createRow(0).createCell(0).setCellValue("Name");
+            addBulkRow(sheet, 1, "Jane Doe", "1991-02-03", "911234567V");
+            addBulkRow(sheet, 2, "John Doe", "1992-02-03", "921234567V");
+            workbook.write(out);
+            workbookBytes = out.toByteArray();
+        }
+        MockMultipartFile file = new MockMultipartFile("file", "customers.xlsx", null, workbookBytes);
+        when(customerStagingImporter.isEnabled()).thenReturn(true);
+        when(customerStagingImporter.getChunkSize()).thenReturn(10000);
+        when(customerStagingImporter.importChunk(any(), eq(List.of(1, 2)), eq("Customers"), any())).thenReturn(1);
+        when(customerGraphImporter.importRelatedSheets(any(), any(), any(), any()))
+                .thenReturn(new CustomerGraphImporter.ImportCounts());
+
+        // When
+        BulkProcessingResultDTO result = customerService.processBulkCustomerCreation(file).get();
+
+        // Then
+        assertEquals(2, result.getTotalProcessed());
+        assertEquals(1, result.getSuccessCount());
+        assertEquals(1, result.getFailureCount());
+        verify(nicMembershipService, never()).exists(any());
+        verify(customerRepository, never()).saveAll(any());
+    }
+
+    private void addBulkRow(Sheet sheet, int rowNumber, String name, String dateOfBirth, String nicNumber) {
+        Row row = sheet.createRow(rowNumber);
+        row.createCell(0).setCellValue(name);
+        row.createCell(1).setCellValue(dateOfBirth);
+        row.createCell(2).setCellValue(nicNumber);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,63 @@
+package com.customer.customermanagement;
+
+import com.customer.customermanagement.util.CustomerStatsCounters;
+import com.customer.customermanagement.util.CustomerStatsCounters.Contribution;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CustomerStatsCountersTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2025, 6, 1);
+
+    @Test
+    public void testCountsFollowChanges() {
+        Contribution colombo = new Contribution("Sri Lanka", "Colombo", LocalDate.of(1990, 5, 15), true, false);
+        Contribution kandy = new Contribution("Sri Lanka", "Kandy", LocalDate.of(1990, 5, 15), true, true);
+        Contribution noAddress = new Contribution(null, null, LocalDate.of(2010, 1, 1), false, false);
+        Contribution chennai = new Contribution("India", "Chennai", LocalDate.of(1950, 1, 1), false, true);
+
+        CustomerStatsCounters counters = new CustomerStatsCounters();
+        CustomerStatsCounters.Delta created = new CustomerStatsCounters.Delta();
+        created.change(null, colombo);
+        created.change(null, noAddress);
+        created.change(null, chennai);
+        counters.apply(created);
+
+        // Moved to Kandy and gained family, then the customer without an address was deleted
+        CustomerStatsCounters.Delta changed = new CustomerStatsCounters.Delta();
+        changed.change(colombo, kandy);
+        changed.change(noAddress, null);
+        changed.change(chennai, chennai);
+        counters.apply(changed);
+
+        assertEquals(2, counters.getTotal());
+        assertEquals(0, counters.getWithoutAddress());
+        assertEquals(1, counters.getWithMobileNumbers());
+        assertEquals(2, counters.getWithFamily());
+        assertEquals(Map.of("India", 1L, "Sri Lanka", 1L), counters.countByCountry());
+        assertEquals(Map.of("India", Map.of("Chennai", 1L), "Sri Lanka", Map.of("Kandy", 1L)), counters.countByCity());
+    }
+
+    @Test
+    public void testAgeBandsOnTheDayOfReading() {
+        CustomerStatsCounters counters = new CustomerStatsCounters();
+        counters.add(new Contribution(null, null, LocalDate.of(2007, 6, 2), false, false));
+        counters.add(new Contribution(null, null, LocalDate.of(2007, 6, 1), false, false));
+        counters.add(new Contribution(null, null, LocalDate.of(1960, 6, 1), false, false));
+        counters.add(new Contribution(null, null, LocalDate.of(1930, 1, 1), false, false));
+
+        Map<String, Long> bands = counters.countByAgeBand(TODAY);
+        assertEquals(List.of("0-17", "18-24", "25-34", "35-44", "45-54", "55-64", "65+"),
+                List.copyOf(bands.keySet()));
+        assertEquals(1L, bands.get("0-17"));
+        assertEquals(1L, bands.get("18-24"));
+        assertEquals(2L, bands.get("65+"));
+        // A year later the youngest has turned 18
+        assertEquals(2L, counters.countByAgeBand(TODAY.plusYears(1)).get("18-24"));
+    }
+}
@@ -0,0 +1,42 @@
+package com.customer.customermanagement;
+
+import com.customer.customermanagement.dto.CustomerSummaryDTO;
+import com.customer.customermanagement.service.CustomerService;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * A database that held customers before the summary table existed, started again after the upgrade
+ */
+public class CustomerSummaryRebuildTest {
+
+    @Test
+    public void testStartupFillsAMissingSummary() {
+        try (ConfigurableApplicationContext before = startApplication()) {
+            before.getBean(JdbcTemplate.class).update("INSERT INTO customers (version, name, date_of_birth, nic_number) "
+                    + "VALUES (0, ?, ?, ?)", "Ruwan Jayasinghe", LocalDate.of(1979, 2, 3), "197903401234");
+        }
+
+        try (ConfigurableApplicationContext after = startApplication()) {
+            List<CustomerSummaryDTO> customers = after.getBean(CustomerService.class)
+                    .getAllCustomers(PageRequest.of(0, 10)).getContent();
+            assertEquals(List.of("Ruwan Jayasinghe"), customers.stream().map(CustomerSummaryDTO::getName).toList());
+        }
+    }
+
+    private static ConfigurableApplicationContext startApplication() {
+        return new SpringApplicationBuilder(CustomerManagementApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:summaryrebuild;MODE=MariaDB;DB_CLOSE_DELAY=-1",
+                        "--spring.jpa.hibernate.ddl-auto=update");
+    }
+}
@@ -0,0 +1,88 @@
+package com.customer.customermanagement;
+
+import com.customer.customermanagement.dto.DuplicateReason;
+import com.customer.customermanagement.util.DuplicateMatcher;
+import com.customer.customermanagement.util.StringSimilarity;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DuplicateMatcherTest {
+
+    private final ForkJoinPool pool = new ForkJoinPool(4);
+
+    @AfterEach
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Test
+    public void testStringMeasures() {
+        assertEquals("P660", StringSimilarity.soundex("Perera"));
+        assertEquals("P660", StringSimilarity.soundex("Pereira"));
+        assertEquals("A261", StringSimilarity.soundex("Ashcraft"));
+        assertNull(StringSimilarity.soundex("--"));
+        assertEquals(0.961, StringSimilarity.jaroWinkler("martha", "marhta"), 0.001);
+        assertEquals(1, StringSimilarity.editDistance("199013501234", "199013501243"));
+        assertEquals(1, StringSimilarity.editDistance("199013501234", "19901350124"));
+        assertEquals(2, StringSimilarity.editDistance("199013501234", "199013501255"));
+    }
+
+    @Test
+    public void testFindsTyposAndFormatChangesButNotRelatives() {
+        DuplicateMatcher.Result result = fixture(new DuplicateMatcher(0.8, 1000, 20_000_000)).findDuplicates(pool);
+
+        assertEquals(List.of(pair(5, 6), pair(8, 9), pair(1, 2)), result.candidates().stream()
+                .map(candidate -> pair(candidate.customerId(), candidate.otherCustomerId()))
+                .toList());
+        assertEquals(EnumSet.of(DuplicateReason.NIC, DuplicateReason.NAME, DuplicateReason.DATE_OF_BIRTH),
+                result.candidates().get(2).reasons());
+        // Old and new format of one NIC are the same NIC
+        assertEquals(0.9, result.candidates().get(0).score());
+        assertTrue(result.candidates().get(1).reasons().contains(DuplicateReason.MOBILE));
+    }
+
+    @Test
+    public void testPassesGiveTheSameResultAndLargeBlocksAreSkipped() {
+        List<DuplicateMatcher.Candidate> onePass = fixture(new DuplicateMatcher(0.8, 1000, 20_000_000))
+                .findDuplicates(pool).candidates();
+        assertEquals(onePass, fixture(new DuplicateMatcher(0.8, 1000, 5)).findDuplicates(pool).candidates());
+
+        DuplicateMatcher matcher = fixture(new DuplicateMatcher(0.8, 10, 20_000_000));
+        for (int i = 0; i < 50; i++) {
+            matcher.add(100 + i, "Agent " + (char) ('a' + i % 26) + i, LocalDate.of(1960 + i, 1, 1),
+                    String.format("%04d00000%03d", 1960 + i, i), "+94110000000");
+        }
+        DuplicateMatcher.Result result = matcher.findDuplicates(pool);
+        assertTrue(result.skippedBlocks() >= 1);
+        assertEquals(onePass, result.candidates());
+    }
+
+    private static DuplicateMatcher fixture(DuplicateMatcher matcher) {
+        // A NIC with two digits swapped and a name spelt differently
+        matcher.add(1, "Kasun Perera", LocalDate.of(1990, 5, 15), "199013501234", "+94771234567");
+        matcher.add(2, "Kasun  Pereira", LocalDate.of(1990, 5, 15), "199013501243", null);
+        // Brother, same surname and address but another person
+        matcher.add(3, "Saman Perera", LocalDate.of(1992, 7, 20), "199220201111", "+94771234568");
+        // Twin, born the same day with the next NICs of that day
+        matcher.add(4, "Nuwan Perera", LocalDate.of(1990, 5, 15), "199013502227", null);
+        // The same NIC in the old and in the new format
+        matcher.add(5, "Nimali Silva", LocalDate.of(1985, 2, 1), "850320456v", "+94712222222");
+        matcher.add(6, "nimali silva", LocalDate.of(1985, 2, 1), "198503200456", null);
+        matcher.add(7, "Dilani Fernando", LocalDate.of(1979, 11, 3), "197930700987", null);
+        // Shared mobile number, a typo in the year of birth and in the NIC
+        matcher.add(8, "Ruwan Fernando", LocalDate.of(1980, 3, 4), "198006400123", "+94773333333");
+        matcher.add(9, "Ruwan Fernando", LocalDate.of(1981, 3, 4), "198106400123", "+94701111111,+94773333333");
+        return matcher;
+    }
+
+    private static List<Long> pair(long customerId, long otherCustomerId) {
+        return List.of(customerId, otherCustomerId);
+    }
+}
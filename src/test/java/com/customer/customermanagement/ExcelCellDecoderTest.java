@@ -0,0 +1,77 @@
+package com.customer.customermanagement;
+
+import com.customer.customermanagement.util.ExcelCellDecoder;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ExcelCellDecoderTest {
+
+    private Workbook workbook;
+    private Row row;
+    private ExcelCellDecoder decoder;
+
+    @BeforeEach
+    public void setup() {
+        workbook = new XSSFWorkbook();
+        row = workbook.createSheet("Customers").createRow(0);
+        decoder = new ExcelCellDecoder(workbook);
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        workbook.close();
+    }
+
+    @Test
+    public void testReadDate_DateFormattedCell() {
+        CellStyle dateStyle = workbook.createCellStyle();
+        dateStyle.setDataFormat(workbook.getCreationHelper().createDataFormat().getFormat("yyyy-mm-dd"));
+        row.createCell(0).setCellValue(LocalDate.of(1990, 5, 15));
+        row.getCell(0).setCellStyle(dateStyle);
+
+        assertEquals(LocalDate.of(1990, 5, 15), decoder.readDate(row.getCell(0)));
+    }
+
+    @Test
+    public void testReadDate_TextCell() {
+        row.createCell(0).setCellValue(" 2000-02-29 ");
+        row.createCell(1).setCellValue("2001-02-29");
+        row.createCell(2).setCellValue("15/05/1990");
+
+        assertEquals(LocalDate.of(2000, 2, 29), decoder.readDate(row.getCell(0)));
+        assertNull(decoder.readDate(row.getCell(1)));
+        assertNull(decoder.readDate(row.getCell(2)));
+        assertEquals(ExcelCellDecoder.INVALID_DATE, decoder.readEpochDay(row.getCell(3)));
+    }
+
+    @Test
+    public void testReadNic_NumericCellIsNotTruncated() {
+        row.createCell(0).setCellValue(199012345678L);
+        row.createCell(1).setCellValue("  901234567V ");
+        row.createCell(2).setCellValue("   ");
+
+        assertEquals("199012345678", decoder.readNic(row.getCell(0)));
+        assertEquals("901234567V", decoder.readNic(row.getCell(1)));
+        assertNull(decoder.readNic(row.getCell(2)));
+    }
+
+    @Test
+    public void testReadText_DropsTheApostropheOfAnExportedFormula() {
+        row.createCell(0).setCellValue("'=1+2");
+        row.createCell(1).setCellValue("'+94771234567");
+        row.createCell(2).setCellValue("'Neill");
+
+        assertEquals("=1+2", decoder.readText(row.getCell(0)));
+        assertEquals("+94771234567", decoder.readIdentifier(row.getCell(1)));
+        assertEquals("'Neill", decoder.readText(row.getCell(2)));
+    }
+}
@@ -0,0 +1,48 @@
+package com.customer.customermanagement;
+
+import com.customer.customermanagement.dto.CustomerAssociation;
+import com.customer.customermanagement.dto.CustomerDTO;
+import com.customer.customermanagement.util.FieldSelection;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.MappingJacksonValue;
+
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FieldSelectionTest {
+
+    @Test
+    public void testAssociationsFollowIncludeThenFields() {
+        assertEquals(EnumSet.allOf(CustomerAssociation.class), FieldSelection.parse(null, null).getAssociations());
+        assertEquals(EnumSet.of(CustomerAssociation.MOBILES),
+                FieldSelection.parse("name,mobileNumbers", null).getAssociations());
+        assertEquals(EnumSet.of(CustomerAssociation.ADDRESSES, CustomerAssociation.FAMILY),
+                FieldSelection.parse("name", "addresses, family").getAssociations());
+        assertTrue(FieldSelection.parse(null, "none").getAssociations().isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> FieldSelection.parse(null, "orders"));
+    }
+
+    @Test
+    public void testOnlySelectedPropertiesAreSerialized() throws Exception {
+        CustomerDTO customer = CustomerDTO.builder()
+                .id(1L)
+                .version(3L)
+                .name("John Doe")
+                .nicNumber("123456789X")
+                .mobileNumbers(Set.of("0771234567"))
+                .build();
+        MappingJacksonValue value = FieldSelection.parse("name,nicNumber", "").forDetail(customer);
+
+        ObjectMapper mapper = new ObjectMapper().findAndRegisterModules();
+        JsonNode json = mapper.readTree(mapper.writer(value.getFilters()).writeValueAsString(value.getValue()));
+
+        Set<String> properties = new HashSet<>();
+        json.fieldNames().forEachRemaining(properties::add);
+        assertEquals(Set.of("id", "name", "nicNumber"), properties);
+    }
+}
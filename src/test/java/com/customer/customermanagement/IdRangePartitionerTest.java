@@ -0,0 +1,34 @@
+package com.customer.customermanagement;
+
+import com.customer.customermanagement.util.IdRangePartitioner;
+import com.customer.customermanagement.util.IdRangePartitioner.IdRange;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IdRangePartitionerTest {
+
+    @Test
+    public void testRangesAreContiguousAndCoverEveryId() {
+        List<IdRange> ranges = IdRangePartitioner.split(5, 104, 7);
+
+        assertEquals(7, ranges.size());
+        assertEquals(5, ranges.get(0).fromId());
+        assertEquals(104, ranges.get(ranges.size() - 1).toId());
+        for (int i = 1; i < ranges.size(); i++) {
+            assertEquals(ranges.get(i - 1).toId() + 1, ranges.get(i).fromId());
+        }
+        long widest = ranges.stream().mapToLong(r -> r.toId() - r.fromId() + 1).max().orElseThrow();
+        long narrowest = ranges.stream().mapToLong(r -> r.toId() - r.fromId() + 1).min().orElseThrow();
+        assertTrue(widest - narrowest <= 1);
+    }
+
+    @Test
+    public void testNeverMorePartitionsThanIds() {
+        assertEquals(List.of(new IdRange(1, 1), new IdRange(2, 2), new IdRange(3, 3)),
+                IdRangePartitioner.split(1, 3, 8));
+        assertTrue(IdRangePartitioner.split(10, 9, 4).isEmpty());
+    }
+}
@@ -0,0 +1,62 @@
+package com.customer.customermanagement;
+
+import com.customer.customermanagement.util.InvalidatingCache;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class InvalidatingCacheTest {
+
+    @Test
+    public void testLoadsOnceUntilInvalidated() {
+        InvalidatingCache<Long, String> cache = new InvalidatingCache<>(100, 60_000);
+        AtomicInteger loads = new AtomicInteger();
+
+        assertEquals("v1", cache.get(1L, () -> "v" + loads.incrementAndGet()));
+        assertEquals("v1", cache.get(1L, () -> "v" + loads.incrementAndGet()));
+        cache.invalidate(1L);
+        assertEquals("v2", cache.get(1L, () -> "v" + loads.incrementAndGet()));
+        cache.invalidateAll();
+        assertNull(cache.getIfPresent(1L));
+        assertEquals(1, cache.getHits());
+        assertEquals(3, cache.getMisses());
+
+        // Failed and empty loads leave nothing behind
+        assertThrows(IllegalStateException.class, () -> cache.get(2L, () -> {
+            throw new IllegalStateException("down");
+        }));
+        assertNull(cache.get(3L, () -> null));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testLoadOverlappingAnInvalidationIsNotKept() {
+        InvalidatingCache<Long, String> cache = new InvalidatingCache<>(100, 60_000);
+
+        // A write commits and invalidates while the read of the old value is still running
+        assertEquals("old", cache.get(1L, () -> {
+            cache.invalidate(1L);
+            return "old";
+        }));
+        assertNull(cache.getIfPresent(1L));
+
+        assertEquals("new", cache.get(1L, () -> "new"));
+        assertEquals("new", cache.getIfPresent(1L));
+    }
+
+    @Test
+    public void testExpiresAndStaysBounded() throws InterruptedException {
+        InvalidatingCache<Long, String> expiring = new InvalidatingCache<>(100, 1);
+        expiring.put(1L, "v");
+        Thread.sleep(5);
+        assertNull(expiring.getIfPresent(1L));
+
+        InvalidatingCache<Long, String> bounded = new InvalidatingCache<>(10, 60_000);
+        for (long key = 0; key < 50; key++) {
+            bounded.get(key, () -> "v");
+        }
+        assertEquals(10, bounded.size());
+    }
+}
@@ -0,0 +1,27 @@
+package com.customer.customermanagement;
+
+import com.customer.customermanagement.util.MobileNumberNormalizer;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MobileNumberNormalizerTest {
+
+    @Test
+    public void testNormalize_EquivalentFormats() {
+        assertEquals("+94771234567", MobileNumberNormalizer.normalize("+94 77 123 4567"));
+        assertEquals("+94771234567", MobileNumberNormalizer.normalize("077-123-4567"));
+        assertEquals("+94771234567", MobileNumberNormalizer.normalize("0094 (77) 1234567"));
+        assertEquals("+94771234567", MobileNumberNormalizer.normalize("771234567"));
+        assertEquals("+447911123456", MobileNumberNormalizer.normalize("+44 7911 123456"));
+    }
+
+    @Test
+    public void testNormalize_Invalid() {
+        assertNull(MobileNumberNormalizer.normalize(null));
+        assertNull(MobileNumberNormalizer.normalize("12"));
+        assertNull(MobileNumberNormalizer.normalize("077 123 abc"));
+        assertNull(MobileNumberNormalizer.normalize("+94+771234567"));
+        assertNull(MobileNumberNormalizer.normalize("+1234567890123456"));
+    }
+}
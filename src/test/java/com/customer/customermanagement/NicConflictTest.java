@@ -0,0 +1,120 @@
+package com.customer.customermanagement;
+
+import com.customer.customermanagement.dto.BulkProcessingResultDTO;
+import com.customer.customermanagement.dto.BulkRowErrorCode;
+import com.customer.customermanagement.dto.BulkRowErrorDTO;
+import com.customer.customermanagement.dto.CustomerDTO;
+import com.customer.customermanagement.exception.DuplicateResourceException;
+import com.customer.customermanagement.service.CustomerService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.io.ByteArrayOutputStream;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Two application instances sharing one database, each with a NIC filter that only knows its own writes
+ */
+public class NicConflictTest {
+
+    private static final long TIMEOUT_MILLIS = 10_000;
+
+    private ConfigurableApplicationContext nodeA;
+    private ConfigurableApplicationContext nodeB;
+
+    @BeforeEach
+    public void startNodes() throws InterruptedException {
+        nodeA = startNode();
+        nodeB = startNode();
+        awaitFilterReady(nodeA);
+        awaitFilterReady(nodeB);
+    }
+
+    @AfterEach
+    public void stopNodes() {
+        nodeB.close();
+        nodeA.close();
+    }
+
+    @Test
+    public void testNicCreatedOnTheOtherNodeIsADuplicate() throws Exception {
+        CustomerService customersA = nodeA.getBean(CustomerService.class);
+        CustomerService customersB = nodeB.getBean(CustomerService.class);
+        customersA.createCustomer(customer("Nimal Fernando", "198820301234"));
+        Long otherId = customersB.createCustomer(customer("Sunil Fernando", "198820305678")).getId();
+
+        // Node B's filter has never seen the NIC, the unique index catches it
+        assertThrows(DuplicateResourceException.class,
+                () -> customersB.createCustomer(customer("Nimal Silva", "198820301234")));
+        assertThrows(DuplicateResourceException.class,
+                () -> customersB.updateCustomer(otherId, customer("Sunil Fernando", "198820301234")));
+
+        BulkProcessingResultDTO result = customersB.processBulkCustomerCreation(workbook(
+                        "Nimal Perera", "198820301234",
+                        "Kamal Perera", "198820309999"))
+                .get(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        assertEquals(2, result.getTotalProcessed());
+        assertEquals(1, result.getSuccessCount());
+        assertEquals(1, result.getFailureCount());
+        assertEquals(List.of(BulkRowErrorCode.NIC_ALREADY_EXISTS),
+                result.getErrors().stream().map(BulkRowErrorDTO::getCode).toList());
+        assertEquals(1, result.getErrors().get(0).getRowNumber());
+        assertThrows(DuplicateResourceException.class,
+                () -> customersA.createCustomer(customer("Kamal Silva", "198820309999")));
+    }
+
+    private static CustomerDTO customer(String name, String nicNumber) {
+        CustomerDTO customer = new CustomerDTO();
+        customer.setName(name);
+        customer.setDateOfBirth(LocalDate.of(1988, 7, 21));
+        customer.setNicNumber(nicNumber);
+        return customer;
+    }
+
+    private static MockMultipartFile workbook(String... namesAndNics) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (Workbook workbook = new XSSFWorkbook()) {
+            Sheet sheet = workbook.createSheet("Customers");
+            sheet.createRow(0).createCell(0).setCellValue("Name");
+            for (int i = 0; i < namesAndNics.length; i += 2) {
+                Row row = sheet.createRow(i / 2 + 1);
+                row.createCell(0).setCellValue(namesAndNics[i]);
+                row.createCell(1).setCellValue("1988-07-21");
+                row.createCell(2).setCellValue(namesAndNics[i + 1]);
+            }
+            workbook.write(out);
+        }
+        return new MockMultipartFile("file", "customers.xlsx", null, out.toByteArray());
+    }
+
+    // Until its filter is built a node checks every NIC against the database
+    private static void awaitFilterReady(ConfigurableApplicationContext node) throws InterruptedException {
+        MeterRegistry registry = node.getBean(MeterRegistry.class);
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (Double.isNaN(registry.get("customer.nic.filter.expected.false.positive.rate").gauge().value())) {
+            assertTrue(System.currentTimeMillis() < deadline, "NIC filter was not built in time");
+            Thread.sleep(10);
+        }
+    }
+
+    private static ConfigurableApplicationContext startNode() {
+        return new SpringApplicationBuilder(CustomerManagementApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:nicconflict;MODE=MariaDB;DB_CLOSE_DELAY=-1",
+                        "--spring.jpa.hibernate.ddl-auto=update");
+    }
+}
@@ -0,0 +1,158 @@
+package com.customer.customermanagement;
+
+import com.customer.customermanagement.config.ReactiveServer;
+import com.customer.customermanagement.dto.AddressDTO;
+import com.customer.customermanagement.dto.CustomerDTO;
+import com.customer.customermanagement.dto.CustomerSummaryDTO;
+import com.customer.customermanagement.service.CustomerService;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Reads through the reactive server against what the JPA services return, with pages of two rows
+ */
+public class ReactiveCustomerReadTest {
+
+    private static final String CONTEXT_PATH = "/customer-management";
+
+    private static ConfigurableApplicationContext application;
+    private static WebClient client;
+    private static CustomerService customerService;
+
+    @BeforeAll
+    public static void startApplication() {
+        application = new SpringApplicationBuilder(CustomerManagementApplication.class)
+                .web(WebApplicationType.SERVLET)
+                .run("--server.port=0",
+                        "--server.servlet.context-path=" + CONTEXT_PATH,
+                        "--spring.datasource.url=jdbc:h2:mem:reactive;MODE=MariaDB;DB_CLOSE_DELAY=-1",
+                        "--customer.reactive.enabled=true",
+                        "--customer.reactive.page-size=2");
+        customerService = application.getBean(CustomerService.class);
+        client = WebClient.create(reactiveUrl() + CONTEXT_PATH + "/api/customers");
+    }
+
+    @AfterAll
+    public static void stopApplication() {
+        application.close();
+    }
+
+    @Test
+    public void testGetByIdMatchesTheServletRead() {
+        CustomerDTO relative = customerService.createCustomer(customer("Nimal Silva", "198512301111", "0771234567"));
+        CustomerDTO created = customer("Nimal Fernando", "198712302222", "0777654321");
+        created.setFamilyMemberIds(Set.of(relative.getId()));
+        Long id = customerService.createCustomer(created).getId();
+
+        ResponseEntity<CustomerDTO> response = client.get().uri("/{id}", id)
+                .retrieve()
+                .toEntity(CustomerDTO.class)
+                .block();
+        CustomerDTO expected = customerService.getCustomerById(id);
+        assertEquals(expected, response.getBody());
+        assertEquals(Set.of(relative.getId()), response.getBody().getFamilyMemberIds());
+        assertEquals("Colombo", response.getBody().getAddresses().get(0).getCityName());
+        assertEquals("\"" + expected.getVersion() + "\"", response.getHeaders().getETag());
+
+        WebClientResponseException missing = assertThrows(WebClientResponseException.class,
+                () -> client.get().uri("/{id}", id + 1000).retrieve().toBodilessEntity().block());
+        assertEquals(HttpStatus.NOT_FOUND, missing.getStatusCode());
+        assertTrue(missing.getResponseBodyAsString().contains("Customer not found with id: " + (id + 1000)));
+
+        WebClientResponseException malformed = assertThrows(WebClientResponseException.class,
+                () -> client.get().uri("/not-a-number").retrieve().toBodilessEntity().block());
+        assertEquals(HttpStatus.BAD_REQUEST, malformed.getStatusCode());
+    }
+
+    @Test
+    public void testRoutesAreServedUnderTheContextPathOnly() {
+        Long id = customerService.createCustomer(customer("Kamal Perera", "198801018888", null)).getId();
+        WebClient root = WebClient.create(reactiveUrl());
+
+        assertEquals(id, root.get().uri(CONTEXT_PATH + "/api/customers/{id}", id)
+                .retrieve()
+                .bodyToMono(CustomerDTO.class)
+                .block()
+                .getId());
+        WebClientResponseException withoutContextPath = assertThrows(WebClientResponseException.class,
+                () -> root.get().uri("/api/customers/{id}", id).retrieve().toBodilessEntity().block());
+        assertEquals(HttpStatus.NOT_FOUND, withoutContextPath.getStatusCode());
+        WebClientResponseException unknownPath = assertThrows(WebClientResponseException.class,
+                () -> root.get().uri(CONTEXT_PATH + "/api/unknown").retrieve().toBodilessEntity().block());
+        assertEquals(HttpStatus.NOT_FOUND, unknownPath.getStatusCode());
+    }
+
+    @Test
+    public void testListingAndSearchStreamInIdOrderAcrossPages() {
+        CustomerDTO first = customerService.createCustomer(customer("Ruwan Jayasuriya", "199001013333", "0711111111"));
+        List<Long> ids = List.of(
+                first.getId(),
+                customerService.createCustomer(customer("Ruwini Jayasuriya", "199101014444", null)).getId(),
+                customerService.createCustomer(customer("Ruvi_n Perera", "199201015555", null)).getId(),
+                customerService.createCustomer(customer("Ruwan Dias", "199301016666", "0722222222")).getId(),
+                customerService.createCustomer(customer("Sunil Dias", "199401017777", null)).getId());
+
+        List<CustomerSummaryDTO> listed = stream("?after={after}&limit=5", ids.get(0) - 1);
+        assertEquals(ids, listed.stream().map(CustomerSummaryDTO::getId).toList());
+        assertEquals(first.getMobileNumbers(), listed.get(0).getMobileNumbers());
+        assertEquals("Sri Lanka", listed.get(0).getPrimaryAddress().getCountryName());
+
+        assertEquals(List.of(ids.get(0), ids.get(1), ids.get(3)),
+                stream("/search?query=Ruw").stream().map(CustomerSummaryDTO::getId).toList());
+        assertEquals(List.of(ids.get(1), ids.get(3)),
+                stream("/search?query=Ruw&after={after}&limit=2", ids.get(0)).stream().map(CustomerSummaryDTO::getId).toList());
+        // The underscore is a character to match, not a wildcard
+        assertEquals(List.of(ids.get(2)),
+                stream("/search?query=Ruvi_").stream().map(CustomerSummaryDTO::getId).toList());
+        assertEquals(List.of(ids.get(4)),
+                stream("/search?query=199401").stream().map(CustomerSummaryDTO::getId).toList());
+
+        WebClientResponseException blank = assertThrows(WebClientResponseException.class,
+                () -> client.get().uri("/search?query= ").retrieve().toBodilessEntity().block());
+        assertEquals(HttpStatus.BAD_REQUEST, blank.getStatusCode());
+    }
+
+    private static String reactiveUrl() {
+        return "http://localhost:" + application.getBean(ReactiveServer.class).getPort();
+    }
+
+    private static List<CustomerSummaryDTO> stream(String uri, Object... variables) {
+        return client.get().uri(uri, variables)
+                .accept(MediaType.APPLICATION_NDJSON)
+                .retrieve()
+                .bodyToFlux(CustomerSummaryDTO.class)
+                .collectList()
+                .block();
+    }
+
+    private static CustomerDTO customer(String name, String nicNumber, String mobileNumber) {
+        CustomerDTO customer = new CustomerDTO();
+        customer.setName(name);
+        customer.setDateOfBirth(LocalDate.of(1990, 5, 15));
+        customer.setNicNumber(nicNumber);
+        if (mobileNumber != null) {
+            customer.setMobileNumbers(Set.of(mobileNumber));
+        }
+        customer.setAddresses(List.of(AddressDTO.builder()
+                .addressLine1("12 Galle Road")
+                .cityName("Colombo")
+                .countryName("Sri Lanka")
+                .build()));
+        return customer;
+    }
+}
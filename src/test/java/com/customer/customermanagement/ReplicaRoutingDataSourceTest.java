@@ -0,0 +1,91 @@
+package com.customer.customermanagement;
+
+import com.customer.customermanagement.config.ReadRoutingContext;
+import com.customer.customermanagement.config.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReplicaRoutingDataSourceTest {
+
+    private HikariDataSource primary;
+    private HikariDataSource replica;
+    private ReplicaRoutingDataSource routing;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate writeTransaction;
+    private TransactionTemplate readTransaction;
+
+    @BeforeEach
+    public void setUp() {
+        primary = h2("routing-primary");
+        replica = h2("routing-replica");
+        new JdbcTemplate(primary).execute("DROP TABLE IF EXISTS node; CREATE TABLE node (name VARCHAR(16)); INSERT INTO node VALUES ('primary')");
+        new JdbcTemplate(replica).execute("DROP TABLE IF EXISTS node; CREATE TABLE node (name VARCHAR(16)); INSERT INTO node VALUES ('replica')");
+
+        routing = new ReplicaRoutingDataSource(primary, List.of(replica), 0);
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(routing);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        writeTransaction = new TransactionTemplate(transactionManager);
+        readTransaction = new TransactionTemplate(transactionManager);
+        readTransaction.setReadOnly(true);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        ReadRoutingContext.clear();
+        routing.destroy();
+        primary.close();
+    }
+
+    @Test
+    public void testReadOnlyTransactionsUseTheReplica() {
+        assertEquals("replica", readTransaction.execute(status -> currentNode()));
+        assertEquals("primary", writeTransaction.execute(status -> currentNode()));
+        assertEquals("primary", currentNode());
+    }
+
+    @Test
+    public void testReadsAfterAWriteStayOnThePrimary() {
+        AtomicInteger windowsOpened = new AtomicInteger();
+        ReadRoutingContext.begin(false, windowsOpened::incrementAndGet);
+
+        assertEquals("replica", readTransaction.execute(status -> currentNode()));
+        writeTransaction.executeWithoutResult(status -> jdbcTemplate.update("UPDATE node SET name = name"));
+        writeTransaction.executeWithoutResult(status -> jdbcTemplate.update("UPDATE node SET name = name"));
+
+        assertEquals("primary", readTransaction.execute(status -> currentNode()));
+        assertEquals(1, windowsOpened.get());
+    }
+
+    @Test
+    public void testReadsFallBackToThePrimaryWhenTheReplicaIsDown() {
+        replica.close();
+
+        assertEquals("primary", readTransaction.execute(status -> currentNode()));
+        assertEquals("primary", readTransaction.execute(status -> currentNode()));
+    }
+
+    private String currentNode() {
+        return jdbcTemplate.queryForObject("SELECT name FROM node", String.class);
+    }
+
+    private static HikariDataSource h2(String name) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName(name);
+        dataSource.setJdbcUrl("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1");
+        dataSource.setMaximumPoolSize(2);
+        dataSource.setConnectionTimeout(250);
+        return dataSource;
+    }
+}
@@ -0,0 +1,61 @@
+package com.customer.customermanagement;
+
+import com.customer.customermanagement.config.ShardContext;
+import com.customer.customermanagement.config.ShardRouter;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ShardRouterTest {
+
+    private final ShardRouter router = new ShardRouter(List.of("jdbc:h2:mem:shard1", "jdbc:h2:mem:shard2"), Runnable::run);
+
+    @Test
+    public void testNicsSpreadOverShardsAndIgnoreCase() {
+        int[] counts = new int[router.getShardCount()];
+        for (int i = 0; i < 3000; i++) {
+            counts[router.shardOfNic(String.format("%09dV", 100_000_000 + i))]++;
+        }
+        for (int count : counts) {
+            assertTrue(count > 800, "uneven spread " + count);
+        }
+        assertEquals(router.shardOfNic("123456789V"), router.shardOfNic(" 123456789v"));
+        assertTrue(router.ownsNic(0).test(null));
+        assertFalse(router.ownsNic(1).test(null));
+    }
+
+    @Test
+    public void testIdsCarryTheirShard() {
+        assertEquals(0, router.shardOfId(42));
+        assertEquals(2, router.shardOfId(ShardRouter.firstId(2) + 1000));
+        assertThrows(IllegalArgumentException.class, () -> router.shardOfId(ShardRouter.firstId(3)));
+        assertEquals(0, new ShardRouter(List.of(), Runnable::run).shardOfNic("123456789V"));
+    }
+
+    @Test
+    public void testRejectedFanOutCancelsTheQueuedShards() {
+        List<Runnable> queued = new ArrayList<>();
+        ShardRouter full = new ShardRouter(List.of("jdbc:h2:mem:shard1", "jdbc:h2:mem:shard2"), task -> {
+            if (queued.size() == 2) {
+                throw new RejectedExecutionException("Queue full");
+            }
+            queued.add(task);
+        });
+        AtomicInteger runs = new AtomicInteger();
+
+        assertThrows(RejectedExecutionException.class, () -> full.onEveryShard(shard -> runs.incrementAndGet()));
+        queued.forEach(Runnable::run);
+        assertEquals(0, runs.get());
+    }
+
+    @Test
+    public void testEveryShardRunsWithItsContext() {
+        assertEquals(List.of(0, 1, 2), router.onEveryShard(shard -> ShardContext.current()));
+        assertNull(ShardContext.current());
+    }
+}
@@ -0,0 +1,97 @@
+package com.customer.customermanagement;
+
+import com.customer.customermanagement.util.SingleFlight;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SingleFlightTest {
+
+    @Test
+    public void testConcurrentLoadsShareOneResult() throws Exception {
+        SingleFlight<Long, String> flights = new SingleFlight<>(5000);
+        AtomicInteger loaderRuns = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(() -> flights.load(1L, () -> {
+                    loaderRuns.incrementAndGet();
+                    await(release);
+                    return "customer-1";
+                })));
+            }
+            // Let every caller arrive before the leader finishes
+            while (loaderRuns.get() == 0) {
+                Thread.sleep(5);
+            }
+            Thread.sleep(200);
+            release.countDown();
+
+            for (Future<String> result : results) {
+                assertEquals("customer-1", result.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, loaderRuns.get());
+        assertEquals(1, flights.getLoads());
+        assertEquals(7, flights.getCoalesced());
+        assertEquals(0, flights.getTimeouts());
+    }
+
+    @Test
+    public void testWaitersGiveUpAfterMaxWait() throws Exception {
+        SingleFlight<Long, String> flights = new SingleFlight<>(50);
+        CountDownLatch leaderStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> leader = executor.submit(() -> flights.load(1L, () -> {
+                leaderStarted.countDown();
+                await(release);
+                return "slow";
+            }));
+            assertTrue(leaderStarted.await(5, TimeUnit.SECONDS));
+
+            assertEquals("fast", flights.load(1L, () -> "fast"));
+            release.countDown();
+            assertEquals("slow", leader.get(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(2, flights.getLoads());
+        assertEquals(1, flights.getTimeouts());
+    }
+
+    @Test
+    public void testFailuresReachWaitersAndAreNotKept() {
+        SingleFlight<Long, String> flights = new SingleFlight<>(1000);
+
+        assertThrows(IllegalStateException.class, () -> flights.load(1L, () -> {
+            throw new IllegalStateException("down");
+        }));
+        assertEquals("up", flights.load(1L, () -> "up"));
+        assertEquals(2, flights.getLoads());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.customer.customermanagement;
+
+import com.customer.customermanagement.config.ProfilingDataSource;
+import com.customer.customermanagement.config.QueryBudget;
+import com.customer.customermanagement.config.SqlProfiler;
+import com.customer.customermanagement.dto.SqlStatementProfileDTO;
+import com.customer.customermanagement.exception.QueryBudgetExceededException;
+import com.customer.customermanagement.util.SqlFingerprint;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SqlProfilerTest {
+
+    private SqlProfiler profiler;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    public void setUp() {
+        DriverManagerDataSource target = new DriverManagerDataSource("jdbc:h2:mem:profiler;DB_CLOSE_DELAY=-1", "sa", "");
+        new JdbcTemplate(target).execute("DROP TABLE IF EXISTS item; CREATE TABLE item (id INT, name VARCHAR(16))");
+        profiler = new SqlProfiler(100);
+        jdbcTemplate = new JdbcTemplate(new ProfilingDataSource(target, profiler));
+    }
+
+    @Test
+    public void testFingerprintFoldsLiteralsAndPlaceholderLists() {
+        assertEquals("select * from item where id in (?+) and name = ?",
+                SqlFingerprint.of("SELECT *  FROM item\n WHERE id IN (?, ?, ?) AND name = 'it''s'"));
+        assertEquals(SqlFingerprint.of("select c1_0.id from customers c1_0 where c1_0.id = 7"),
+                SqlFingerprint.of("select c1_0.id from customers c1_0 where c1_0.id = 12"));
+    }
+
+    @Test
+    public void testStatementsAreAggregatedByFingerprint() {
+        for (int i = 0; i < 3; i++) {
+            jdbcTemplate.update("INSERT INTO item VALUES (?, ?)", i, "item" + i);
+        }
+        SqlProfiler.callingAs("CustomerService.list", () -> jdbcTemplate.queryForList("SELECT name FROM item WHERE id < 2"));
+        jdbcTemplate.queryForList("SELECT name FROM item WHERE id < 5");
+
+        List<SqlStatementProfileDTO> profiles = profiler.snapshot();
+        SqlStatementProfileDTO insert = find(profiles, "insert into item values (?+)");
+        assertEquals(3, insert.getCount());
+        assertEquals(3, insert.getRows());
+        SqlStatementProfileDTO select = find(profiles, "select name from item where id < ?");
+        assertEquals(2, select.getCount());
+        assertEquals(5, select.getRows());
+        assertEquals(1L, select.getCallers().get("CustomerService.list"));
+        assertEquals(2L, select.getLatencyHistogram().values().stream().mapToLong(Long::longValue).sum());
+    }
+
+    @Test
+    public void testBudgetFailsTheStatementThatGoesOver() {
+        try (QueryBudget budget = QueryBudget.open("test", 2, true)) {
+            jdbcTemplate.queryForList("SELECT name FROM item");
+            jdbcTemplate.queryForList("SELECT name FROM item");
+            assertThrows(QueryBudgetExceededException.class, () -> jdbcTemplate.queryForList("SELECT name FROM item"));
+            assertTrue(budget.isExceeded());
+        }
+        assertNull(QueryBudget.current());
+
+        try (QueryBudget budget = QueryBudget.open("test", 1, false)) {
+            jdbcTemplate.queryForList("SELECT name FROM item");
+            jdbcTemplate.queryForList("SELECT name FROM item");
+            assertEquals(2, budget.getQueryCount());
+        }
+    }
+
+    private static SqlStatementProfileDTO find(List<SqlStatementProfileDTO> profiles, String fingerprint) {
+        return profiles.stream()
+                .filter(profile -> profile.getFingerprint().equals(fingerprint))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("No profile for " + fingerprint + " in " + profiles));
+    }
+}
@@ -0,0 +1,82 @@
+package com.customer.customermanagement;
+
+import com.customer.customermanagement.loadtest.SyntheticCustomerGenerator;
+import com.customer.customermanagement.loadtest.SyntheticCustomerGenerator.SyntheticCustomer;
+import com.customer.customermanagement.loadtest.SyntheticDataWriter;
+import com.customer.customermanagement.util.MobileNumberNormalizer;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SyntheticCustomerGeneratorTest {
+
+    @Test
+    public void testSameSeedGivesSameCustomers() {
+        assertEquals(generate(42, 500), generate(42, 500));
+        assertNotEquals(generate(42, 500), generate(43, 500));
+    }
+
+    @Test
+    public void testNicAndMobileNumbersAreUniqueAndWellFormed() {
+        List<SyntheticCustomer> customers = generate(42, 20_000);
+        Set<String> nicNumbers = new HashSet<>();
+        Set<String> mobileNumbers = new HashSet<>();
+        for (SyntheticCustomer customer : customers) {
+            String nic = customer.nicNumber();
+            assertTrue(nicNumbers.add(nic), "Duplicate NIC " + nic);
+            if (nic.endsWith("V")) {
+                assertTrue(nic.matches("\\d{9}V"), nic);
+                assertEquals(customer.dateOfBirth().getYear() % 100, Integer.parseInt(nic.substring(0, 2)));
+            } else {
+                assertTrue(nic.matches("\\d{12}"), nic);
+                assertEquals(customer.dateOfBirth().getYear(), Integer.parseInt(nic.substring(0, 4)));
+            }
+            for (String mobileNumber : customer.mobileNumbers()) {
+                String normalized = MobileNumberNormalizer.normalize(mobileNumber);
+                assertNotNull(normalized, mobileNumber);
+                assertTrue(mobileNumbers.add(normalized), "Duplicate mobile number " + mobileNumber);
+            }
+        }
+    }
+
+    @Test
+    public void testFamiliesLinkToEarlierMembersAndFitTheWorkbook() throws Exception {
+        SyntheticCustomerGenerator generator = new SyntheticCustomerGenerator(42);
+        List<List<SyntheticCustomer>> clusters = new ArrayList<>();
+        generator.generate(1_000, clusters::add);
+        int links = 0;
+        for (List<SyntheticCustomer> cluster : clusters) {
+            for (SyntheticCustomer customer : cluster) {
+                for (long familyIndex : customer.familyIndexes()) {
+                    assertTrue(familyIndex < customer.index());
+                    assertTrue(cluster.stream().anyMatch(member -> member.index() == familyIndex));
+                }
+                links += customer.familyIndexes().size();
+            }
+        }
+        assertTrue(links > 0);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        SyntheticDataWriter.writeWorkbook(new SyntheticCustomerGenerator(42), 1_000, out);
+        try (Workbook workbook = new XSSFWorkbook(new ByteArrayInputStream(out.toByteArray()))) {
+            long customers = clusters.stream().mapToLong(List::size).sum();
+            assertEquals(customers, workbook.getSheet("Customers").getLastRowNum());
+            assertEquals(links, workbook.getSheet("Relationships").getLastRowNum());
+        }
+    }
+
+    private static List<SyntheticCustomer> generate(long seed, int count) {
+        List<SyntheticCustomer> customers = new ArrayList<>();
+        new SyntheticCustomerGenerator(seed).generate(count, customers::addAll);
+        return customers;
+    }
+}
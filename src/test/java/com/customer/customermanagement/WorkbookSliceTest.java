@@ -0,0 +1,58 @@
+package com.customer.customermanagement;
+
+import com.customer.customermanagement.util.ExcelCellDecoder;
+import com.customer.customermanagement.util.WorkbookSlice;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WorkbookSliceTest {
+
+    @Test
+    public void testSliceKeepsTheHeaderAndTheRangeOfTheNamedSheets() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (Workbook source = new XSSFWorkbook()) {
+            CellStyle dateStyle = source.createCellStyle();
+            dateStyle.setDataFormat(source.createDataFormat().getFormat("dd/mm/yyyy"));
+            Sheet customers = source.createSheet("Customers");
+            customers.createRow(0).createCell(0).setCellValue("Name");
+            for (int rowNumber = 1; rowNumber <= 9; rowNumber++) {
+                Row row = customers.createRow(rowNumber);
+                row.createCell(0).setCellValue("Customer " + rowNumber);
+                row.createCell(1).setCellValue(LocalDate.of(1990, 5, rowNumber));
+                row.getCell(1).setCellStyle(dateStyle);
+                row.createCell(2).setCellValue(199013500000L + rowNumber);
+                row.createCell(3).setCellFormula("A1");
+            }
+            source.createSheet("Addresses").createRow(0).createCell(0).setCellValue("NIC Number");
+
+            WorkbookSlice.write(source, List.of("Customers"), 4, 6, out);
+        }
+
+        try (Workbook slice = new XSSFWorkbook(new ByteArrayInputStream(out.toByteArray()))) {
+            assertEquals(1, slice.getNumberOfSheets());
+            Sheet customers = slice.getSheet("Customers");
+            assertEquals(4, customers.getPhysicalNumberOfRows());
+            assertEquals("Name", customers.getRow(0).getCell(0).getStringCellValue());
+            assertNull(customers.getRow(3));
+            assertNull(customers.getRow(7));
+
+            ExcelCellDecoder decoder = new ExcelCellDecoder(slice);
+            Row row = customers.getRow(5);
+            assertEquals("Customer 5", decoder.readText(row.getCell(0)));
+            assertEquals(LocalDate.of(1990, 5, 5), decoder.readDate(row.getCell(1)));
+            assertEquals("199013500005", decoder.readNic(row.getCell(2)));
+            assertNull(row.getCell(3));
+        }
+    }
+}
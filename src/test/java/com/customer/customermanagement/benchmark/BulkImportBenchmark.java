@@ -0,0 +1,87 @@
+package com.customer.customermanagement.benchmark;
+
+import com.customer.customermanagement.CustomerManagementApplication;
+import com.customer.customermanagement.dto.BulkProcessingResultDTO;
+import com.customer.customermanagement.service.CustomerService;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rows per second of the bulk upload with the JPA engine against the staging engine, on the same
+ * generated workbook and the in-memory test database. On H2 the staging engine stages with batch
+ * inserts; against MariaDB it uses LOAD DATA LOCAL INFILE.
+ * Run with: mvn -Pbenchmark test-compile exec:exec -Dbenchmark=BulkImportBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+@OperationsPerInvocation(BulkImportBenchmark.ROWS)
+public class BulkImportBenchmark {
+
+    static final int ROWS = 20_000;
+
+    @Param({"jpa", "staging"})
+    public String engine;
+
+    private ConfigurableApplicationContext context;
+    private CustomerService customerService;
+    private long nextNic = 200_000_000_000L;
+    private byte[] workbook;
+
+    @Setup(Level.Trial)
+    public void startApplication() {
+        SpringApplication application = new SpringApplication(CustomerManagementApplication.class);
+        application.setWebApplicationType(WebApplicationType.NONE);
+        context = application.run(
+                "--customer.bulk-import.engine=" + engine,
+                "--spring.jpa.properties.hibernate.jdbc.batch_size=1000",
+                "--spring.jpa.properties.hibernate.order_inserts=true",
+                "--spring.jpa.show-sql=false",
+                "--logging.level.root=WARN");
+        customerService = context.getBean(CustomerService.class);
+    }
+
+    // Every invocation imports new NICs so no row is rejected as a duplicate
+    @Setup(Level.Invocation)
+    public void generateWorkbook() throws IOException {
+        try (Workbook generated = new XSSFWorkbook(); ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+            Sheet sheet = generated.createSheet("Customers");
+            sheet.createRow(0).createCell(0).setCellValue("Name");
+            for (int i = 1; i <= ROWS; i++) {
+                Row row = sheet.createRow(i);
+                row.createCell(0).setCellValue("Customer " + i);
+                row.createCell(1).setCellValue(LocalDate.of(1960, 1, 1).plusDays(i % 15_000).toString());
+                row.createCell(2).setCellValue(Long.toString(nextNic++));
+                row.createCell(3).setCellValue("07" + (70_000_000 + i));
+            }
+            generated.write(out);
+            workbook = out.toByteArray();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        context.close();
+    }
+
+    @Benchmark
+    public BulkProcessingResultDTO bulkUpload() throws Exception {
+        MockMultipartFile file = new MockMultipartFile("file", "customers.xlsx", null, workbook);
+        return customerService.processBulkCustomerCreation(file).get();
+    }
+}
@@ -0,0 +1,110 @@
+package com.customer.customermanagement.benchmark;
+
+import com.customer.customermanagement.util.ExcelCellDecoder;
+import org.apache.poi.ss.usermodel.*;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per row cost of decoding a bulk upload row, the legacy string round trip against {@link ExcelCellDecoder}.
+ * Run with: mvn -Pbenchmark test-compile exec:exec -Dbenchmark=CellDecodingBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@OperationsPerInvocation(CellDecodingBenchmark.ROWS)
+public class CellDecodingBenchmark {
+
+    static final int ROWS = 1000;
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+
+    private Workbook workbook;
+    private Sheet sheet;
+    private ExcelCellDecoder decoder;
+
+    @Setup
+    public void setup() {
+        workbook = new XSSFWorkbook();
+        sheet = workbook.createSheet("Customers");
+        CellStyle dateStyle = workbook.createCellStyle();
+        dateStyle.setDataFormat(workbook.getCreationHelper().createDataFormat().getFormat("yyyy-mm-dd"));
+
+        for (int i = 0; i < ROWS; i++) {
+            Row row = sheet.createRow(i);
+            row.createCell(0).setCellValue("Customer " + i);
+            Cell dob = row.createCell(1);
+            if (i % 2 == 0) {
+                dob.setCellValue(LocalDate.of(1960, 1, 1).plusDays(i * 7L));
+                dob.setCellStyle(dateStyle);
+            } else {
+                dob.setCellValue(LocalDate.of(1960, 1, 1).plusDays(i * 7L).format(DATE_FORMATTER));
+            }
+            // Every tenth row carries an unparseable date to exercise the invalid path
+            if (i % 10 == 9) {
+                dob.setCellValue("1990/13/45");
+            }
+            row.createCell(2).setCellValue(199012345000L + i);
+        }
+        decoder = new ExcelCellDecoder(workbook);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        workbook.close();
+    }
+
+    @Benchmark
+    public void legacyStringRoundTrip(Blackhole bh) {
+        for (int i = 0; i < ROWS; i++) {
+            Row row = sheet.getRow(i);
+            String name = legacyCellString(row.getCell(0));
+            String dob = legacyCellString(row.getCell(1));
+            String nic = legacyCellString(row.getCell(2));
+            bh.consume(name == null || name.trim().isEmpty());
+            bh.consume(nic == null || nic.trim().isEmpty());
+            try {
+                bh.consume(LocalDate.parse(dob, DATE_FORMATTER));
+            } catch (DateTimeParseException e) {
+                bh.consume(e);
+            }
+        }
+    }
+
+    @Benchmark
+    public void typedDecoder(Blackhole bh) {
+        for (int i = 0; i < ROWS; i++) {
+            Row row = sheet.getRow(i);
+            bh.consume(decoder.readText(row.getCell(0)));
+            bh.consume(decoder.readDate(row.getCell(1)));
+            bh.consume(decoder.readNic(row.getCell(2)));
+        }
+    }
+
+    // Copy of the decoding CustomerServiceImpl used before ExcelCellDecoder
+    private static String legacyCellString(Cell cell) {
+        if (cell == null) {
+            return null;
+        }
+        switch (cell.getCellType()) {
+            case STRING:
+                return cell.getStringCellValue();
+            case NUMERIC:
+                if (DateUtil.isCellDateFormatted(cell)) {
+                    return DATE_FORMATTER.format(cell.getLocalDateTimeCellValue().toLocalDate());
+                }
+                return String.valueOf((int) cell.getNumericCellValue());
+            default:
+                return null;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.customer.customermanagement.loadtest;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * --name=value arguments of the load test tools
+ */
+final class CommandLineOptions {
+
+    private final Map<String, String> values = new HashMap<>();
+
+    CommandLineOptions(String[] args) {
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value but got " + arg);
+            }
+            int separator = arg.indexOf('=');
+            values.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+    }
+
+    String get(String name, String defaultValue) {
+        return values.getOrDefault(name, defaultValue);
+    }
+
+    String get(String name) {
+        return values.get(name);
+    }
+
+    long getLong(String name, long defaultValue) {
+        String value = values.get(name);
+        return value != null ? Long.parseLong(value.replace("_", "")) : defaultValue;
+    }
+
+    int getInt(String name, int defaultValue) {
+        return (int) getLong(name, defaultValue);
+    }
+}
@@ -0,0 +1,381 @@
+package com.customer.customermanagement.loadtest;
+
+import com.customer.customermanagement.CustomerManagementApplication;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Repeatable load test of the customer REST API. Virtual users run a weighted mix of get, list, create,
+ * update and bulk-upload requests for a fixed time and the report gives throughput and latency
+ * percentiles per operation, measured after a warmup.
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.customer.customermanagement.loadtest.CustomerLoadTest \
+ *     -Dexec.args="--users=16 --duration-seconds=60"
+ * </pre>
+ * Without --base-url the application is started in process on a random port, against embedded H2 or,
+ * with --datasource-url/--datasource-user/--datasource-password, against a local MariaDB. Against a
+ * running server give --base-url (including the context path) and --jdbc-url to preload it, otherwise the
+ * customers it already has are used. Other options: --seed-customers (default 10000), --warmup-seconds
+ * (default 10), --bulk-rows (default 200), --seed (default 7). Created NICs are unique within a run only,
+ * so point repeated runs at a fresh schema.
+ */
+public final class CustomerLoadTest {
+
+    private static final String CUSTOMERS_PATH = "/api/customers";
+    private static final String XLSX_CONTENT_TYPE = "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet";
+    private static final int LIST_PAGE_SIZE = 20;
+    private static final int LIST_PAGES = 50;
+    private static final int MAX_KNOWN_CUSTOMERS = 100_000;
+    private static final double[] PERCENTILES = {0.5, 0.9, 0.99};
+
+    enum Operation {
+        GET(50), LIST(20), CREATE(15), UPDATE(14), BULK_UPLOAD(1);
+
+        private final int weight;
+
+        Operation(int weight) {
+            this.weight = weight;
+        }
+    }
+
+    private final String baseUrl;
+    private final SyntheticCustomerGenerator generator;
+    private final int bulkRows;
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    private final List<KnownCustomer> customers = new ArrayList<>();
+
+    CustomerLoadTest(String baseUrl, SyntheticCustomerGenerator generator, int bulkRows) {
+        this.baseUrl = baseUrl;
+        this.generator = generator;
+        this.bulkRows = bulkRows;
+    }
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions options = new CommandLineOptions(args);
+        SyntheticCustomerGenerator generator = new SyntheticCustomerGenerator(options.getLong("seed", 7));
+        long seedCustomers = options.getLong("seed-customers", 10_000);
+        int bulkRows = options.getInt("bulk-rows", 200);
+
+        ConfigurableApplicationContext context = null;
+        CustomerLoadTest loadTest;
+        try {
+            String baseUrl = options.get("base-url");
+            if (baseUrl == null) {
+                context = startApplication(options);
+                baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port")
+                        + context.getEnvironment().getProperty("server.servlet.context-path", "");
+                loadTest = new CustomerLoadTest(baseUrl, generator, bulkRows);
+                try (Connection connection = context.getBean(DataSource.class).getConnection()) {
+                    loadTest.preload(connection, seedCustomers);
+                }
+            } else {
+                loadTest = new CustomerLoadTest(baseUrl, generator, bulkRows);
+                String jdbcUrl = options.get("jdbc-url");
+                if (jdbcUrl != null) {
+                    try (Connection connection = DriverManager.getConnection(jdbcUrl,
+                            options.get("jdbc-user", "root"), options.get("jdbc-password", ""))) {
+                        loadTest.preload(connection, seedCustomers);
+                    }
+                } else {
+                    loadTest.discoverCustomers();
+                }
+            }
+            Report report = loadTest.run(options.getInt("users", 16),
+                    Duration.ofSeconds(options.getLong("warmup-seconds", 10)),
+                    Duration.ofSeconds(options.getLong("duration-seconds", 60)));
+            report.print();
+        } finally {
+            if (context != null) {
+                context.close();
+            }
+        }
+    }
+
+    private static ConfigurableApplicationContext startApplication(CommandLineOptions options) {
+        List<String> args = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--logging.level.root=WARN",
+                "--logging.level.com.customer=WARN",
+                // Bulk uploads and preloaded families go well past the per-request budget the tests use
+                "--customer.sql-profiler.request-budget=0"));
+        String datasourceUrl = options.get("datasource-url");
+        if (datasourceUrl != null) {
+            args.add("--spring.datasource.url=" + datasourceUrl);
+            args.add("--spring.datasource.username=" + options.get("datasource-user", "root"));
+            args.add("--spring.datasource.password=" + options.get("datasource-password", ""));
+            args.add("--spring.datasource.driver-class-name=org.mariadb.jdbc.Driver");
+            args.add("--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.MariaDBDialect");
+            args.add("--spring.jpa.hibernate.ddl-auto=update");
+        }
+        return new SpringApplication(CustomerManagementApplication.class).run(args.toArray(String[]::new));
+    }
+
+    void preload(Connection connection, long count) throws Exception {
+        long start = System.nanoTime();
+        long firstIndex = generator.getNextIndex();
+        long firstId = SyntheticDataWriter.loadIntoDatabase(generator, count, connection, 5000);
+        try (PreparedStatement statement = connection.prepareStatement(
+                "SELECT id, name, date_of_birth, nic_number FROM customers WHERE id >= ? ORDER BY id")) {
+            statement.setLong(1, firstId);
+            statement.setMaxRows(MAX_KNOWN_CUSTOMERS);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    customers.add(new KnownCustomer(resultSet.getLong(1), resultSet.getString(2),
+                            resultSet.getObject(3, LocalDate.class), resultSet.getString(4)));
+                }
+            }
+        }
+        System.out.printf("Preloaded %d customers from id %d in %.1f s%n", generator.getNextIndex() - firstIndex,
+                firstId, (System.nanoTime() - start) / 1e9);
+    }
+
+    void discoverCustomers() throws IOException, InterruptedException {
+        for (int page = 0; page < LIST_PAGES && customers.size() < MAX_KNOWN_CUSTOMERS; page++) {
+            HttpResponse<String> response = send(HttpRequest.newBuilder(uri(CUSTOMERS_PATH + "?size=1000&page=" + page)).GET());
+            JsonNode content = objectMapper.readTree(response.body()).path("content");
+            if (response.statusCode() != 200 || content.isEmpty()) {
+                break;
+            }
+            content.forEach(node -> customers.add(new KnownCustomer(node.path("id").asLong(), node.path("name").asText(),
+                    LocalDate.parse(node.path("dateOfBirth").asText()), node.path("nicNumber").asText())));
+        }
+        if (customers.isEmpty()) {
+            throw new IllegalStateException("No customers at " + baseUrl + ", give --jdbc-url to preload some");
+        }
+        System.out.println("Using " + customers.size() + " existing customers");
+    }
+
+    Report run(int users, Duration warmup, Duration duration) throws Exception {
+        long measureFrom = System.nanoTime() + warmup.toNanos();
+        long end = measureFrom + duration.toNanos();
+        ExecutorService executor = Executors.newFixedThreadPool(users);
+        try {
+            List<Future<Recorder>> futures = new ArrayList<>(users);
+            for (int i = 0; i < users; i++) {
+                futures.add(executor.submit(() -> runUser(measureFrom, end)));
+            }
+            Report report = new Report(duration);
+            for (Future<Recorder> future : futures) {
+                report.add(future.get());
+            }
+            return report;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Recorder runUser(long measureFrom, long end) {
+        Recorder recorder = new Recorder();
+        int totalWeight = Arrays.stream(Operation.values()).mapToInt(operation -> operation.weight).sum();
+        long now;
+        while ((now = System.nanoTime()) < end) {
+            Operation operation = pick(ThreadLocalRandom.current().nextInt(totalWeight));
+            boolean ok;
+            try {
+                ok = execute(operation);
+            } catch (IOException e) {
+                ok = false;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            long finished = System.nanoTime();
+            if (now >= measureFrom) {
+                recorder.record(operation, finished - now, ok);
+            }
+        }
+        return recorder;
+    }
+
+    private static Operation pick(int roll) {
+        for (Operation operation : Operation.values()) {
+            roll -= operation.weight;
+            if (roll < 0) {
+                return operation;
+            }
+        }
+        throw new IllegalStateException();
+    }
+
+    private boolean execute(Operation operation) throws IOException, InterruptedException {
+        return switch (operation) {
+            case GET -> send(HttpRequest.newBuilder(uri(CUSTOMERS_PATH + "/" + randomCustomer().id())).GET())
+                    .statusCode() == 200;
+            case LIST -> send(HttpRequest.newBuilder(uri(CUSTOMERS_PATH + "?size=" + LIST_PAGE_SIZE + "&page="
+                    + ThreadLocalRandom.current().nextInt(LIST_PAGES))).GET()).statusCode() == 200;
+            case CREATE -> create();
+            case UPDATE -> update();
+            case BULK_UPLOAD -> bulkUpload();
+        };
+    }
+
+    private boolean create() throws IOException, InterruptedException {
+        SyntheticCustomerGenerator.SyntheticCustomer customer = generator.nextCluster().get(0);
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("name", customer.name());
+        body.put("dateOfBirth", customer.dateOfBirth());
+        body.put("nicNumber", customer.nicNumber());
+        body.put("mobileNumbers", customer.mobileNumbers());
+        HttpResponse<String> response = send(jsonRequest(CUSTOMERS_PATH).POST(
+                HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body))));
+        if (response.statusCode() != 201) {
+            return false;
+        }
+        addCustomer(new KnownCustomer(objectMapper.readTree(response.body()).path("id").asLong(),
+                customer.name(), customer.dateOfBirth(), customer.nicNumber()));
+        return true;
+    }
+
+    private boolean update() throws IOException, InterruptedException {
+        KnownCustomer customer = randomCustomer();
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("name", customer.name() + (ThreadLocalRandom.current().nextBoolean() ? "" : " Jr"));
+        body.put("dateOfBirth", customer.dateOfBirth());
+        body.put("nicNumber", customer.nicNumber());
+        return send(jsonRequest(CUSTOMERS_PATH + "/" + customer.id())
+                .header("If-Match", "*")
+                .PUT(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body))))
+                .statusCode() == 200;
+    }
+
+    // Processing goes on after the 202, this measures the upload and the hand-off only
+    private boolean bulkUpload() throws IOException, InterruptedException {
+        ByteArrayOutputStream workbook = new ByteArrayOutputStream();
+        SyntheticDataWriter.writeWorkbook(generator, bulkRows, workbook);
+        String boundary = "----load-test-" + UUID.randomUUID();
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        body.write(("--" + boundary + "\r\n"
+                + "Content-Disposition: form-data; name=\"file\"; filename=\"load-test.xlsx\"\r\n"
+                + "Content-Type: " + XLSX_CONTENT_TYPE + "\r\n\r\n").getBytes(StandardCharsets.UTF_8));
+        workbook.writeTo(body);
+        body.write(("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.UTF_8));
+        return send(HttpRequest.newBuilder(uri(CUSTOMERS_PATH + "/bulk-upload"))
+                .header("Content-Type", "multipart/form-data; boundary=" + boundary)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body.toByteArray())))
+                .statusCode() == 202;
+    }
+
+    private HttpRequest.Builder jsonRequest(String path) {
+        return HttpRequest.newBuilder(uri(path)).header("Content-Type", "application/json");
+    }
+
+    private HttpResponse<String> send(HttpRequest.Builder request) throws IOException, InterruptedException {
+        return client.send(request.timeout(Duration.ofSeconds(30)).build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private URI uri(String path) {
+        return URI.create(baseUrl + path);
+    }
+
+    private KnownCustomer randomCustomer() {
+        synchronized (customers) {
+            return customers.get(ThreadLocalRandom.current().nextInt(customers.size()));
+        }
+    }
+
+    private void addCustomer(KnownCustomer customer) {
+        synchronized (customers) {
+            if (customers.size() < MAX_KNOWN_CUSTOMERS) {
+                customers.add(customer);
+            }
+        }
+    }
+
+    record KnownCustomer(long id, String name, LocalDate dateOfBirth, String nicNumber) {
+    }
+
+    /**
+     * Latencies of one virtual user, so recording needs no locking
+     */
+    static final class Recorder {
+
+        private final Map<Operation, long[]> latencies = new EnumMap<>(Operation.class);
+        private final Map<Operation, Integer> counts = new EnumMap<>(Operation.class);
+        private final Map<Operation, Integer> errors = new EnumMap<>(Operation.class);
+
+        void record(Operation operation, long nanos, boolean ok) {
+            int count = counts.getOrDefault(operation, 0);
+            long[] values = latencies.computeIfAbsent(operation, key -> new long[1024]);
+            if (count == values.length) {
+                values = Arrays.copyOf(values, count * 2);
+                latencies.put(operation, values);
+            }
+            values[count] = nanos;
+            counts.put(operation, count + 1);
+            if (!ok) {
+                errors.merge(operation, 1, Integer::sum);
+            }
+        }
+    }
+
+    static final class Report {
+
+        private final Duration duration;
+        private final Map<Operation, long[]> latencies = new EnumMap<>(Operation.class);
+        private final Map<Operation, Integer> errors = new EnumMap<>(Operation.class);
+
+        Report(Duration duration) {
+            this.duration = duration;
+        }
+
+        void add(Recorder recorder) {
+            recorder.counts.forEach((operation, count) -> {
+                long[] merged = latencies.getOrDefault(operation, new long[0]);
+                long[] values = Arrays.copyOf(merged, merged.length + count);
+                System.arraycopy(recorder.latencies.get(operation), 0, values, merged.length, count);
+                latencies.put(operation, values);
+            });
+            recorder.errors.forEach((operation, count) -> errors.merge(operation, count, Integer::sum));
+        }
+
+        void print() {
+            double seconds = duration.toNanos() / 1e9;
+            System.out.printf("%-12s %9s %7s %9s %9s %9s %9s %9s%n",
+                    "operation", "requests", "errors", "req/s", "p50 ms", "p90 ms", "p99 ms", "max ms");
+            long total = 0;
+            for (Map.Entry<Operation, long[]> entry : latencies.entrySet()) {
+                long[] values = entry.getValue();
+                Arrays.sort(values);
+                total += values.length;
+                System.out.printf("%-12s %9d %7d %9.1f %9.2f %9.2f %9.2f %9.2f%n", entry.getKey(), values.length,
+                        errors.getOrDefault(entry.getKey(), 0), values.length / seconds,
+                        percentile(values, PERCENTILES[0]), percentile(values, PERCENTILES[1]),
+                        percentile(values, PERCENTILES[2]), values[values.length - 1] / 1e6);
+            }
+            System.out.printf("%-12s %9d %7s %9.1f%n", "total", total, "", total / seconds);
+        }
+
+        private static double percentile(long[] sorted, double percentile) {
+            int rank = (int) Math.ceil(percentile * sorted.length);
+            return sorted[Math.max(0, rank - 1)] / 1e6;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.customer.customermanagement.loadtest;
+
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+
+/**
+ * Generates synthetic customers as an upload workbook, as CSV files or straight into a database:
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.customer.customermanagement.loadtest.GenerateSyntheticData \
+ *     -Dexec.args="--format=xlsx --customers=100000 --out=target/synthetic/customers.xlsx"
+ * </pre>
+ * Options: --format=xlsx|csv|db, --customers, --seed (default 42), --out (file for xlsx, directory for csv),
+ * --jdbc-url, --jdbc-user, --jdbc-password and --batch-size (default 5000) for db. Loading 10 million
+ * customers into MariaDB is practical with rewriteBatchedStatements=true on the URL and an empty schema.
+ */
+public final class GenerateSyntheticData {
+
+    private GenerateSyntheticData() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions options = new CommandLineOptions(args);
+        String format = options.get("format", "xlsx");
+        long count = options.getLong("customers", 10_000);
+        SyntheticCustomerGenerator generator = new SyntheticCustomerGenerator(options.getLong("seed", 42));
+
+        long start = System.nanoTime();
+        switch (format) {
+            case "xlsx" -> {
+                Path file = Path.of(options.get("out", "target/synthetic/customers.xlsx"));
+                Files.createDirectories(file.toAbsolutePath().getParent());
+                try (OutputStream out = Files.newOutputStream(file)) {
+                    SyntheticDataWriter.writeWorkbook(generator, Math.toIntExact(count), out);
+                }
+                System.out.println("Wrote " + file);
+            }
+            case "csv" -> {
+                Path directory = Path.of(options.get("out", "target/synthetic"));
+                SyntheticDataWriter.writeCsv(generator, count, directory);
+                System.out.println("Wrote CSV files to " + directory);
+            }
+            case "db" -> {
+                String url = options.get("jdbc-url");
+                if (url == null) {
+                    throw new IllegalArgumentException("--format=db needs --jdbc-url");
+                }
+                try (Connection connection = DriverManager.getConnection(url,
+                        options.get("jdbc-user", "root"), options.get("jdbc-password", ""))) {
+                    long firstId = SyntheticDataWriter.loadIntoDatabase(generator, count, connection,
+                            options.getInt("batch-size", 5000));
+                    System.out.println("Loaded customers from id " + firstId);
+                }
+            }
+            default -> throw new IllegalArgumentException("Unknown format " + format + ", use xlsx, csv or db");
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%d customers in %.1f s (%.0f per second)%n", generator.getNextIndex(), seconds,
+                generator.getNextIndex() / seconds);
+    }
+}
@@ -0,0 +1,268 @@
+package com.customer.customermanagement.loadtest;
+
+import com.customer.customermanagement.CustomerManagementApplication;
+import com.customer.customermanagement.config.ReactiveServer;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import javax.sql.DataSource;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadMXBean;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Concurrent in-flight reads by id that the servlet API and the reactive API sustain in one JVM of fixed size.
+ * For every level, first against Tomcat and then against the reactive server, that many requests are kept in
+ * flight for a fixed time, each answered request immediately replaced by the next. The report gives throughput,
+ * latency percentiles, errors and the peak live threads and heap of the JVM per level, and which levels each
+ * stack sustained: at most 1% errors and a p99 within --slo-millis.
+ * <pre>
+ * MAVEN_OPTS="-Xmx512m -Xss1m" mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.customer.customermanagement.loadtest.InFlightReadBenchmark \
+ *     -Dexec.args="--levels=64,256,1024,4096 --seconds-per-level=20"
+ * </pre>
+ * The heap is fixed by -Xmx; Tomcat keeps at most --tomcat-threads (default 200) requests in progress and
+ * queues the others, raising it buys in-flight reads with a stack per thread. Both stacks get --pool-size
+ * (default 10) connections and neither caches nor coalesces reads, so every request reaches the database.
+ * Other options: --seed-customers (default 10000), --warmup-seconds (default 5), --slo-millis (default 1000),
+ * --seed (default 7) and --datasource-url/--datasource-user/--datasource-password for a local MariaDB.
+ */
+public final class InFlightReadBenchmark {
+
+    private static final String CUSTOMERS_PATH = "/api/customers";
+    private static final double MAX_ERROR_RATE = 0.01;
+    private static final long SAMPLE_MILLIS = 50;
+
+    enum Stack {
+        BLOCKING, REACTIVE
+    }
+
+    private final HttpClient client;
+    private final long[] customerIds;
+    private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+    private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+
+    InFlightReadBenchmark(HttpClient client, long[] customerIds) {
+        this.client = client;
+        this.customerIds = customerIds;
+    }
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions options = new CommandLineOptions(args);
+        int[] levels = Arrays.stream(options.get("levels", "64,256,1024,4096").split(","))
+                .map(String::trim)
+                .mapToInt(Integer::parseInt)
+                .toArray();
+        Duration warmup = Duration.ofSeconds(options.getLong("warmup-seconds", 5));
+        Duration duration = Duration.ofSeconds(options.getLong("seconds-per-level", 20));
+        long sloNanos = TimeUnit.MILLISECONDS.toNanos(options.getLong("slo-millis", 1000));
+
+        // A few client threads only, so that the thread peaks are the servers'
+        ExecutorService clientExecutor = Executors.newFixedThreadPool(2, runnable -> {
+            Thread thread = new Thread(runnable, "benchmark-client");
+            thread.setDaemon(true);
+            return thread;
+        });
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .executor(clientExecutor)
+                .build();
+
+        ConfigurableApplicationContext context = startApplication(options);
+        try {
+            String contextPath = context.getEnvironment().getProperty("server.servlet.context-path", "");
+            String blockingUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + contextPath;
+            String reactiveUrl = "http://localhost:" + context.getBean(ReactiveServer.class).getPort() + contextPath;
+            long[] customerIds;
+            try (Connection connection = context.getBean(DataSource.class).getConnection()) {
+                customerIds = preload(connection, new SyntheticCustomerGenerator(options.getLong("seed", 7)),
+                        options.getLong("seed-customers", 10_000));
+            }
+
+            InFlightReadBenchmark benchmark = new InFlightReadBenchmark(client, customerIds);
+            int[] sustained = new int[Stack.values().length];
+            System.out.printf("%9s %-9s %9s %7s %9s %9s %9s %9s %8s %8s%n", "in-flight", "stack", "requests",
+                    "errors", "req/s", "p50 ms", "p99 ms", "max ms", "threads", "heap MB");
+            for (int level : levels) {
+                for (Stack stack : Stack.values()) {
+                    Result result = benchmark.run(stack == Stack.BLOCKING ? blockingUrl : reactiveUrl,
+                            level, warmup, duration);
+                    result.print(level, stack);
+                    if (result.isSustained(sloNanos)) {
+                        sustained[stack.ordinal()] = Math.max(sustained[stack.ordinal()], level);
+                    }
+                }
+            }
+            System.out.printf("Highest level with p99 within %d ms and at most %.0f%% errors: blocking %d, reactive %d%n",
+                    TimeUnit.NANOSECONDS.toMillis(sloNanos), MAX_ERROR_RATE * 100,
+                    sustained[Stack.BLOCKING.ordinal()], sustained[Stack.REACTIVE.ordinal()]);
+        } finally {
+            context.close();
+            clientExecutor.shutdownNow();
+        }
+    }
+
+    private static ConfigurableApplicationContext startApplication(CommandLineOptions options) {
+        int poolSize = options.getInt("pool-size", 10);
+        List<String> args = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--logging.level.root=WARN",
+                "--logging.level.com.customer=WARN",
+                "--customer.sql-profiler.request-budget=0",
+                "--customer.reactive.enabled=true",
+                // Every read goes to the database on both stacks
+                "--customer.cache.enabled=false",
+                "--customer.read-coalescing.enabled=false",
+                "--server.tomcat.threads.max=" + options.getInt("tomcat-threads", 200),
+                "--spring.datasource.hikari.maximum-pool-size=" + poolSize,
+                "--spring.datasource.hikari.connection-timeout=30000",
+                "--customer.reactive.pool-size=" + poolSize,
+                "--customer.reactive.acquire-timeout-millis=30000"));
+        String datasourceUrl = options.get("datasource-url");
+        if (datasourceUrl != null) {
+            args.add("--spring.datasource.url=" + datasourceUrl);
+            args.add("--spring.datasource.username=" + options.get("datasource-user", "root"));
+            args.add("--spring.datasource.password=" + options.get("datasource-password", ""));
+            args.add("--spring.datasource.driver-class-name=org.mariadb.jdbc.Driver");
+            args.add("--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.MariaDBDialect");
+            args.add("--spring.jpa.hibernate.ddl-auto=update");
+        }
+        return new SpringApplication(CustomerManagementApplication.class).run(args.toArray(String[]::new));
+    }
+
+    private static long[] preload(Connection connection, SyntheticCustomerGenerator generator, long count) throws Exception {
+        long start = System.nanoTime();
+        long firstId = SyntheticDataWriter.loadIntoDatabase(generator, count, connection, 5000);
+        List<Long> ids = new ArrayList<>();
+        try (PreparedStatement statement = connection.prepareStatement("SELECT id FROM customers WHERE id >= ? ORDER BY id")) {
+            statement.setLong(1, firstId);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    ids.add(resultSet.getLong(1));
+                }
+            }
+        }
+        System.out.printf("Preloaded %d customers in %.1f s%n", ids.size(), (System.nanoTime() - start) / 1e9);
+        return ids.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    Result run(String baseUrl, int inFlight, Duration warmup, Duration duration) throws InterruptedException {
+        System.gc();
+        long measureFrom = System.nanoTime() + warmup.toNanos();
+        long end = measureFrom + duration.toNanos();
+        Result result = new Result(duration);
+
+        ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "benchmark-sampler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        sampler.scheduleAtFixedRate(() -> {
+            if (System.nanoTime() >= measureFrom) {
+                result.sample(threads.getThreadCount(), memory.getHeapMemoryUsage().getUsed());
+            }
+        }, 0, SAMPLE_MILLIS, TimeUnit.MILLISECONDS);
+        try {
+            CountDownLatch finished = new CountDownLatch(inFlight);
+            for (int i = 0; i < inFlight; i++) {
+                sendNext(baseUrl, measureFrom, end, result, finished);
+            }
+            finished.await();
+        } finally {
+            sampler.shutdownNow();
+        }
+        return result;
+    }
+
+    // Every answer sends the next request of its slot until the level's time is up
+    private void sendNext(String baseUrl, long measureFrom, long end, Result result, CountDownLatch finished) {
+        long start = System.nanoTime();
+        if (start >= end) {
+            finished.countDown();
+            return;
+        }
+        long id = customerIds[ThreadLocalRandom.current().nextInt(customerIds.length)];
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + CUSTOMERS_PATH + "/" + id))
+                .timeout(Duration.ofSeconds(30))
+                .GET()
+                .build();
+        client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, error) -> {
+            if (start >= measureFrom) {
+                result.record(System.nanoTime() - start, error == null && response.statusCode() == 200);
+            }
+            sendNext(baseUrl, measureFrom, end, result, finished);
+        });
+    }
+
+    /**
+     * Latencies of one level, recorded by the client threads as answers arrive
+     */
+    static final class Result {
+
+        private final Duration duration;
+        private long[] latencies = new long[1 << 16];
+        private int count;
+        private int errors;
+        private final AtomicInteger peakThreads = new AtomicInteger();
+        private final AtomicLong peakHeapBytes = new AtomicLong();
+
+        Result(Duration duration) {
+            this.duration = duration;
+        }
+
+        synchronized void record(long nanos, boolean ok) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = nanos;
+            if (!ok) {
+                errors++;
+            }
+        }
+
+        void sample(int liveThreads, long heapBytes) {
+            peakThreads.accumulateAndGet(liveThreads, Math::max);
+            peakHeapBytes.accumulateAndGet(heapBytes, Math::max);
+        }
+
+        synchronized boolean isSustained(long sloNanos) {
+            return count > 0 && errors <= count * MAX_ERROR_RATE && percentileNanos(0.99) <= sloNanos;
+        }
+
+        synchronized void print(int inFlight, Stack stack) {
+            Arrays.sort(latencies, 0, count);
+            System.out.printf("%9d %-9s %9d %7d %9.1f %9.2f %9.2f %9.2f %8d %8d%n", inFlight, stack, count, errors,
+                    count / (duration.toNanos() / 1e9), percentileNanos(0.5) / 1e6, percentileNanos(0.99) / 1e6,
+                    (count > 0 ? latencies[count - 1] : 0) / 1e6, peakThreads.get(), peakHeapBytes.get() >> 20);
+        }
+
+        private long percentileNanos(double percentile) {
+            if (count == 0) {
+                return 0;
+            }
+            Arrays.sort(latencies, 0, count);
+            int rank = (int) Math.ceil(percentile * count);
+            return latencies[Math.max(0, rank - 1)];
+        }
+    }
+}
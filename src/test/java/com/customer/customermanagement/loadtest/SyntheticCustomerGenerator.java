@@ -0,0 +1,190 @@
+package com.customer.customermanagement.loadtest;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Reproducible synthetic customers: the same seed gives the same data. NICs look like Sri Lankan ones
+ * (old 9 digit + V format for people born before 2000, 12 digit format after) and encode the date of
+ * birth; they are unique within one generator, not against data from earlier runs. Mobile numbers are
+ * unique as well and written in the spellings people type, so uploads exercise the normalizer.
+ * Customers come in family clusters of one to five that share a surname; each member links to the
+ * members generated before it.
+ */
+public class SyntheticCustomerGenerator {
+
+    // Cities and countries of script.sql
+    static final List<City> CITIES = List.of(
+            new City("New York", "United States"), new City("Los Angeles", "United States"),
+            new City("Chicago", "United States"), new City("Toronto", "Canada"), new City("Vancouver", "Canada"),
+            new City("London", "United Kingdom"), new City("Manchester", "United Kingdom"),
+            new City("Sydney", "Australia"), new City("Melbourne", "Australia"), new City("Mumbai", "India"),
+            new City("Delhi", "India"), new City("Tokyo", "Japan"), new City("Osaka", "Japan"));
+
+    private static final String[] FIRST_NAMES = {
+            "Kasun", "Nuwan", "Chamara", "Saman", "Ruwan", "Tharindu", "Dinesh", "Mahesh", "Pradeep", "Asanka",
+            "Nimali", "Dilani", "Sanduni", "Kaveesha", "Ishara", "Hiruni", "Tharushi", "Malsha", "Anusha", "Shanika",
+            "Arjun", "Priya", "Rahul", "Meera", "Kumar", "Lakshmi", "Ravi", "Anjali", "Fathima", "Mohamed"};
+    private static final String[] SURNAMES = {
+            "Perera", "Fernando", "Silva", "Jayasinghe", "Bandara", "Wickramasinghe", "Gunawardena", "Rajapaksa",
+            "Dissanayake", "Herath", "Senanayake", "Kumarasinghe", "Ratnayake", "Weerasinghe", "Amarasinghe",
+            "Navaratnam", "Sivakumar", "Rahman", "Hussain", "de Alwis"};
+    private static final String[] STREETS = {
+            "Galle Road", "Kandy Road", "Main Street", "Temple Road", "Station Road", "Lake Drive", "Park Avenue",
+            "Church Street", "Hill Street", "Flower Road"};
+
+    private static final int MAX_CLUSTER_SIZE = 5;
+    private static final double SINGLE_SHARE = 0.7;
+    private static final int OLDEST_BIRTH_YEAR = 1940;
+    private static final int YOUNGEST_BIRTH_YEAR = 2006;
+    private static final int FEMALE_DAY_OFFSET = 500;
+    private static final int OLD_FORMAT_SERIALS = 1_000;
+    private static final int NEW_FORMAT_SERIALS = 10_000;
+
+    // Mobile numbers 070 000 0000 to 078 999 9999, walked with a stride coprime to the range so none repeats
+    private static final long MOBILE_RANGE = 90_000_000L;
+    private static final long MOBILE_STRIDE = 7_919L;
+
+    private final Random random;
+    private final Map<Integer, Integer> serialsByBirthDay = new HashMap<>();
+    private long nextIndex;
+    private long nextMobile;
+
+    public SyntheticCustomerGenerator(long seed) {
+        this.random = new Random(seed);
+        this.nextMobile = Math.floorMod(seed, MOBILE_RANGE);
+    }
+
+    /**
+     * Generates at least count customers and hands them over cluster by cluster, so every family
+     * member of a customer is known when it arrives. The last cluster may overshoot count.
+     */
+    public void generate(long count, Consumer<List<SyntheticCustomer>> clusterSink) {
+        long end = nextIndex + count;
+        while (nextIndex < end) {
+            clusterSink.accept(nextCluster());
+        }
+    }
+
+    public synchronized long getNextIndex() {
+        return nextIndex;
+    }
+
+    public synchronized List<SyntheticCustomer> nextCluster() {
+        int size = random.nextDouble() < SINGLE_SHARE ? 1 : 2 + random.nextInt(MAX_CLUSTER_SIZE - 1);
+        String surname = SURNAMES[random.nextInt(SURNAMES.length)];
+        City familyCity = CITIES.get(random.nextInt(CITIES.size()));
+        String familyStreet = random.nextInt(200) + 1 + " " + STREETS[random.nextInt(STREETS.length)];
+
+        List<Long> indexes = new ArrayList<>(size);
+        List<String> names = new ArrayList<>(size);
+        List<LocalDate> birthDates = new ArrayList<>(size);
+        List<String> nicNumbers = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            boolean female = random.nextBoolean();
+            LocalDate dateOfBirth;
+            String nicNumber;
+            do {
+                dateOfBirth = LocalDate.of(OLDEST_BIRTH_YEAR + random.nextInt(YOUNGEST_BIRTH_YEAR - OLDEST_BIRTH_YEAR + 1), 1, 1)
+                        .plusDays(random.nextInt(365));
+                nicNumber = nicNumber(dateOfBirth, female);
+            } while (nicNumber == null);
+            indexes.add(nextIndex++);
+            names.add(FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " " + surname);
+            birthDates.add(dateOfBirth);
+            nicNumbers.add(nicNumber);
+        }
+
+        List<SyntheticCustomer> cluster = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            // Like the API a relationship is stored once, from the later member to the earlier one. Links
+            // both ways would form cycles that Customer.hashCode, which includes the family, cannot load.
+            List<Long> familyIndexes = new ArrayList<>(indexes.subList(0, i));
+            List<String> familyNics = new ArrayList<>(nicNumbers.subList(0, i));
+
+            List<SyntheticAddress> addresses = new ArrayList<>(2);
+            // Families mostly live together
+            if (size > 1 && random.nextDouble() < 0.8) {
+                addresses.add(new SyntheticAddress(familyStreet, null, familyCity));
+            } else {
+                addresses.add(randomAddress());
+            }
+            if (random.nextDouble() < 0.1) {
+                addresses.add(randomAddress());
+            }
+
+            int mobileCount = random.nextDouble() < 0.15 ? 0 : random.nextDouble() < 0.7 ? 1 : 2;
+            List<String> mobileNumbers = new ArrayList<>(mobileCount);
+            for (int m = 0; m < mobileCount; m++) {
+                mobileNumbers.add(nextMobileNumber());
+            }
+
+            cluster.add(new SyntheticCustomer(indexes.get(i), names.get(i), birthDates.get(i), nicNumbers.get(i),
+                    mobileNumbers, addresses, familyIndexes, familyNics));
+        }
+        return cluster;
+    }
+
+    private SyntheticAddress randomAddress() {
+        City city = CITIES.get(random.nextInt(CITIES.size()));
+        String line1 = random.nextInt(500) + 1 + " " + STREETS[random.nextInt(STREETS.length)];
+        String line2 = random.nextDouble() < 0.3 ? "Apartment " + (random.nextInt(40) + 1) : null;
+        return new SyntheticAddress(line1, line2, city);
+    }
+
+    // Null when the serials of that birth day are used up, the caller then picks another day
+    private String nicNumber(LocalDate dateOfBirth, boolean female) {
+        int day = dateOfBirth.getDayOfYear() + (female ? FEMALE_DAY_OFFSET : 0);
+        int key = dateOfBirth.getYear() * 1000 + day;
+        int serial = serialsByBirthDay.merge(key, 1, Integer::sum) - 1;
+        if (dateOfBirth.getYear() < 2000 && serial < OLD_FORMAT_SERIALS) {
+            String digits = String.format("%02d%03d%03d", dateOfBirth.getYear() % 100, day, serial);
+            return digits + checkDigit(digits) + "V";
+        }
+        // Old format serials of a day are exhausted, continue with new format ones after them
+        int newSerial = dateOfBirth.getYear() < 2000 ? serial - OLD_FORMAT_SERIALS : serial;
+        if (newSerial >= NEW_FORMAT_SERIALS) {
+            return null;
+        }
+        String digits = String.format("%04d%03d%04d", dateOfBirth.getYear(), day, newSerial);
+        return digits + checkDigit(digits);
+    }
+
+    private static int checkDigit(String digits) {
+        int sum = 0;
+        for (int i = 0; i < digits.length(); i++) {
+            sum += (digits.charAt(i) - '0') * (i % 2 == 0 ? 3 : 1);
+        }
+        return (10 - sum % 10) % 10;
+    }
+
+    private String nextMobileNumber() {
+        long value = nextMobile;
+        nextMobile = (nextMobile + MOBILE_STRIDE) % MOBILE_RANGE;
+        String operator = "7" + value / 10_000_000L;
+        String subscriber = String.format("%07d", value % 10_000_000L);
+        return switch (random.nextInt(4)) {
+            case 0 -> "0" + operator + subscriber;
+            case 1 -> "0" + operator + " " + subscriber.substring(0, 3) + " " + subscriber.substring(3);
+            case 2 -> "+94 " + operator + "-" + subscriber.substring(0, 3) + "-" + subscriber.substring(3);
+            default -> "+94" + operator + subscriber;
+        };
+    }
+
+    public record City(String name, String country) {
+    }
+
+    public record SyntheticAddress(String line1, String line2, City city) {
+    }
+
+    /**
+     * @param index         position in generation order, starting at 0
+     * @param familyIndexes the family members generated before this customer
+     * @param mobileNumbers as a person would type them, not normalized
+     */
+    public record SyntheticCustomer(long index, String name, LocalDate dateOfBirth, String nicNumber,
+                                    List<String> mobileNumbers, List<SyntheticAddress> addresses,
+                                    List<Long> familyIndexes, List<String> familyNicNumbers) {
+    }
+}
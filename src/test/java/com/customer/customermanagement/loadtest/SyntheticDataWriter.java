@@ -0,0 +1,301 @@
+package com.customer.customermanagement.loadtest;
+
+import com.customer.customermanagement.loadtest.SyntheticCustomerGenerator.City;
+import com.customer.customermanagement.loadtest.SyntheticCustomerGenerator.SyntheticAddress;
+import com.customer.customermanagement.loadtest.SyntheticCustomerGenerator.SyntheticCustomer;
+import com.customer.customermanagement.util.ExcelProcessor;
+import com.customer.customermanagement.util.MobileNumberNormalizer;
+import com.opencsv.CSVWriter;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.*;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Writes generated customers in the bulk upload layout or straight into the database.
+ * The workbook has the Customers, Addresses, Mobiles and Relationships sheets the upload reads;
+ * the CSV variant writes one file per sheet with the same columns.
+ */
+public final class SyntheticDataWriter {
+
+    // An XLSX sheet holds 1,048,575 rows besides the header; addresses and relationships outnumber customers
+    public static final int MAX_XLSX_CUSTOMERS = 500_000;
+
+    private static final int SXSSF_WINDOW_SIZE = 100;
+    private static final List<String> ADDRESS_HEADERS = List.of("NIC Number", "Address Line 1", "Address Line 2", "City", "Country");
+    private static final List<String> MOBILE_HEADERS = List.of("NIC Number", "Mobile Number");
+    private static final List<String> RELATIONSHIP_HEADERS = List.of("NIC Number", "Family Member NIC Number");
+
+    private static final String INSERT_CUSTOMER =
+            "INSERT INTO customers (id, version, name, date_of_birth, nic_number, created_at, updated_at) VALUES (?, 0, ?, ?, ?, ?, ?)";
+    private static final String INSERT_MOBILE_NUMBER =
+            "INSERT INTO customer_mobile_numbers (customer_id, mobile_number) VALUES (?, ?)";
+    private static final String INSERT_ADDRESS =
+            "INSERT INTO addresses (address_line1, address_line2, city_id, customer_id) VALUES (?, ?, ?, ?)";
+    private static final String INSERT_RELATIONSHIP =
+            "INSERT INTO family_relationships (customer_id, family_member_id) VALUES (?, ?)";
+    private static final String INSERT_SUMMARY =
+            "INSERT INTO customer_summary (customer_id, name, date_of_birth, nic_number, mobile_numbers, address_line1, "
+                    + "address_line2, city_name, country_name, family_member_count) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private SyntheticDataWriter() {
+    }
+
+    public static void writeWorkbook(SyntheticCustomerGenerator generator, int count, OutputStream out) throws IOException {
+        if (count > MAX_XLSX_CUSTOMERS) {
+            throw new IllegalArgumentException("A workbook holds at most " + MAX_XLSX_CUSTOMERS
+                    + " customers, use CSV or load into the database");
+        }
+        SXSSFWorkbook workbook = new SXSSFWorkbook(SXSSF_WINDOW_SIZE);
+        try {
+            Sheet customers = withHeader(workbook.createSheet("Customers"), ExcelProcessor.CUSTOMER_HEADERS);
+            Sheet addresses = withHeader(workbook.createSheet("Addresses"), ADDRESS_HEADERS);
+            Sheet mobiles = withHeader(workbook.createSheet("Mobiles"), MOBILE_HEADERS);
+            Sheet relationships = withHeader(workbook.createSheet("Relationships"), RELATIONSHIP_HEADERS);
+            int[] rowNumbers = {1, 1, 1, 1};
+
+            generator.generate(count, cluster -> {
+                for (SyntheticCustomer customer : cluster) {
+                    // First mobile number in the customer row, the others in the Mobiles sheet
+                    List<String> mobileNumbers = customer.mobileNumbers();
+                    addRow(customers, rowNumbers, 0, customer.name(), customer.dateOfBirth().toString(),
+                            customer.nicNumber(), mobileNumbers.isEmpty() ? null : mobileNumbers.get(0));
+                    for (String mobileNumber : mobileNumbers.subList(Math.min(1, mobileNumbers.size()), mobileNumbers.size())) {
+                        addRow(mobiles, rowNumbers, 2, customer.nicNumber(), mobileNumber);
+                    }
+                    for (SyntheticAddress address : customer.addresses()) {
+                        addRow(addresses, rowNumbers, 1, customer.nicNumber(), address.line1(), address.line2(),
+                                address.city().name(), address.city().country());
+                    }
+                    for (String familyNicNumber : customer.familyNicNumbers()) {
+                        addRow(relationships, rowNumbers, 3, customer.nicNumber(), familyNicNumber);
+                    }
+                }
+            });
+            workbook.write(out);
+        } finally {
+            workbook.dispose();
+            workbook.close();
+        }
+    }
+
+    public static void writeCsv(SyntheticCustomerGenerator generator, long count, Path directory) throws IOException {
+        Files.createDirectories(directory);
+        try (CSVWriter customers = csv(directory.resolve("customers.csv"), ExcelProcessor.CUSTOMER_HEADERS);
+             CSVWriter addresses = csv(directory.resolve("addresses.csv"), ADDRESS_HEADERS);
+             CSVWriter mobiles = csv(directory.resolve("mobiles.csv"), MOBILE_HEADERS);
+             CSVWriter relationships = csv(directory.resolve("relationships.csv"), RELATIONSHIP_HEADERS)) {
+            generator.generate(count, cluster -> {
+                for (SyntheticCustomer customer : cluster) {
+                    // Same split of mobile numbers as the workbook
+                    List<String> mobileNumbers = customer.mobileNumbers();
+                    customers.writeNext(new String[]{customer.name(), customer.dateOfBirth().toString(),
+                            customer.nicNumber(), mobileNumbers.isEmpty() ? null : mobileNumbers.get(0)}, false);
+                    for (SyntheticAddress address : customer.addresses()) {
+                        addresses.writeNext(new String[]{customer.nicNumber(), address.line1(), address.line2(),
+                                address.city().name(), address.city().country()}, false);
+                    }
+                    mobileNumbers.stream().skip(1).forEach(mobileNumber ->
+                            mobiles.writeNext(new String[]{customer.nicNumber(), mobileNumber}, false));
+                    customer.familyNicNumbers().forEach(familyNicNumber ->
+                            relationships.writeNext(new String[]{customer.nicNumber(), familyNicNumber}, false));
+                }
+            });
+        }
+    }
+
+    /**
+     * Inserts customers with all their rows, summaries included, with JDBC batches committed every
+     * batchSize customers. Ids continue after the highest existing one; missing cities and countries
+     * are created. Meant for an empty schema of a single database, not for a sharded setup.
+     *
+     * @return the id of the first inserted customer, the others follow in generation order
+     */
+    public static long loadIntoDatabase(SyntheticCustomerGenerator generator, long count, Connection connection,
+                                        int batchSize) throws SQLException {
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try (PreparedStatement customers = connection.prepareStatement(INSERT_CUSTOMER);
+             PreparedStatement mobiles = connection.prepareStatement(INSERT_MOBILE_NUMBER);
+             PreparedStatement addresses = connection.prepareStatement(INSERT_ADDRESS);
+             PreparedStatement relationships = connection.prepareStatement(INSERT_RELATIONSHIP);
+             PreparedStatement summaries = connection.prepareStatement(INSERT_SUMMARY)) {
+            long firstId = nextCustomerId(connection);
+            long firstIndex = generator.getNextIndex();
+            Map<String, Long> cityIds = cityIds(connection);
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            long[] pending = {0};
+
+            generator.generate(count, cluster -> {
+                try {
+                    for (SyntheticCustomer customer : cluster) {
+                        long id = firstId + customer.index() - firstIndex;
+                        customers.setLong(1, id);
+                        customers.setString(2, customer.name());
+                        customers.setObject(3, customer.dateOfBirth());
+                        customers.setString(4, customer.nicNumber());
+                        customers.setTimestamp(5, now);
+                        customers.setTimestamp(6, now);
+                        customers.addBatch();
+
+                        Set<String> normalized = customer.mobileNumbers().stream()
+                                .map(MobileNumberNormalizer::normalize)
+                                .collect(Collectors.toCollection(TreeSet::new));
+                        for (String mobileNumber : normalized) {
+                            mobiles.setLong(1, id);
+                            mobiles.setString(2, mobileNumber);
+                            mobiles.addBatch();
+                        }
+                        for (SyntheticAddress address : customer.addresses()) {
+                            addresses.setString(1, address.line1());
+                            addresses.setString(2, address.line2());
+                            addresses.setLong(3, cityIds.get(address.city().name()));
+                            addresses.setLong(4, id);
+                            addresses.addBatch();
+                        }
+                        for (long familyIndex : customer.familyIndexes()) {
+                            relationships.setLong(1, id);
+                            relationships.setLong(2, firstId + familyIndex - firstIndex);
+                            relationships.addBatch();
+                        }
+
+                        SyntheticAddress primary = customer.addresses().get(0);
+                        summaries.setLong(1, id);
+                        summaries.setString(2, customer.name());
+                        summaries.setObject(3, customer.dateOfBirth());
+                        summaries.setString(4, customer.nicNumber());
+                        summaries.setString(5, normalized.isEmpty() ? null : String.join(",", normalized));
+                        summaries.setString(6, primary.line1());
+                        summaries.setString(7, primary.line2());
+                        summaries.setString(8, primary.city().name());
+                        summaries.setString(9, primary.city().country());
+                        summaries.setInt(10, customer.familyIndexes().size());
+                        summaries.addBatch();
+                    }
+                    // Flushed at cluster boundaries only, relationships reference customers of the same cluster
+                    pending[0] += cluster.size();
+                    if (pending[0] >= batchSize) {
+                        flush(connection, customers, mobiles, addresses, relationships, summaries);
+                        pending[0] = 0;
+                    }
+                } catch (SQLException e) {
+                    throw new IllegalStateException("Loading synthetic customers failed", e);
+                }
+            });
+            flush(connection, customers, mobiles, addresses, relationships, summaries);
+            restartCustomerIds(connection, firstId + generator.getNextIndex() - firstIndex);
+            return firstId;
+        } catch (SQLException | RuntimeException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+
+    private static void flush(Connection connection, PreparedStatement customers, PreparedStatement... children)
+            throws SQLException {
+        customers.executeBatch();
+        for (PreparedStatement child : children) {
+            child.executeBatch();
+        }
+        connection.commit();
+    }
+
+    // MariaDB moves AUTO_INCREMENT past explicit ids by itself, H2 identities have to be told
+    private static void restartCustomerIds(Connection connection, long nextId) throws SQLException {
+        String product = connection.getMetaData().getDatabaseProductName();
+        if (product != null && (product.contains("MariaDB") || product.contains("MySQL"))) {
+            return;
+        }
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("ALTER TABLE customers ALTER COLUMN id RESTART WITH " + nextId);
+        }
+        connection.commit();
+    }
+
+    private static long nextCustomerId(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT COALESCE(MAX(id), 0) + 1 FROM customers")) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    private static Map<String, Long> cityIds(Connection connection) throws SQLException {
+        Map<String, Long> countryIds = new HashMap<>();
+        Map<String, Long> cityIds = new HashMap<>();
+        try (Statement statement = connection.createStatement()) {
+            try (ResultSet rs = statement.executeQuery("SELECT id, name FROM countries")) {
+                while (rs.next()) {
+                    countryIds.put(rs.getString(2), rs.getLong(1));
+                }
+            }
+            try (ResultSet rs = statement.executeQuery("SELECT id, name FROM cities")) {
+                while (rs.next()) {
+                    cityIds.put(rs.getString(2), rs.getLong(1));
+                }
+            }
+        }
+        for (City city : SyntheticCustomerGenerator.CITIES) {
+            if (!cityIds.containsKey(city.name())) {
+                Long countryId = countryIds.get(city.country());
+                if (countryId == null) {
+                    countryId = insert(connection, "INSERT INTO countries (name) VALUES (?)", city.country());
+                    countryIds.put(city.country(), countryId);
+                }
+                cityIds.put(city.name(), insert(connection, "INSERT INTO cities (name, country_id) VALUES (?, ?)",
+                        city.name(), countryId));
+            }
+        }
+        connection.commit();
+        return cityIds;
+    }
+
+    private static long insert(Connection connection, String sql, Object... values) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+            for (int i = 0; i < values.length; i++) {
+                statement.setObject(i + 1, values[i]);
+            }
+            statement.executeUpdate();
+            try (ResultSet keys = statement.getGeneratedKeys()) {
+                keys.next();
+                return keys.getLong(1);
+            }
+        }
+    }
+
+    private static Sheet withHeader(Sheet sheet, List<String> headers) {
+        Row header = sheet.createRow(0);
+        for (int i = 0; i < headers.size(); i++) {
+            header.createCell(i).setCellValue(headers.get(i));
+        }
+        return sheet;
+    }
+
+    private static void addRow(Sheet sheet, int[] rowNumbers, int sheetIndex, String... values) {
+        Row row = sheet.createRow(rowNumbers[sheetIndex]++);
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] != null) {
+                row.createCell(i).setCellValue(values[i]);
+            }
+        }
+    }
+
+    private static CSVWriter csv(Path file, List<String> headers) throws IOException {
+        Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+        CSVWriter csvWriter = new CSVWriter(writer);
+        csvWriter.writeNext(headers.toArray(String[]::new), false);
+        return csvWriter;
+    }
+}